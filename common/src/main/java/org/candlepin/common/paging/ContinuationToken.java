@@ -0,0 +1,265 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.common.paging;
+
+import org.apache.commons.codec.binary.Base64;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.util.Date;
+
+
+
+/**
+ * A ContinuationToken identifies the last row of a page of results so that the next page can be
+ * fetched with a seek (keyset) predicate rather than an OFFSET. The token records the sort field
+ * and order the page was generated with, along with the sort value and identifier of the last row.
+ * <p></p>
+ * Tokens are exchanged with clients in an opaque, URL-safe encoded form. Clients must not attempt
+ * to construct or interpret them.
+ */
+public class ContinuationToken {
+    private static final byte VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_INTEGER = 3;
+    private static final byte TYPE_DATE = 4;
+    private static final byte TYPE_TIMESTAMP = 5;
+    private static final byte TYPE_BOOLEAN = 6;
+
+    private final String sortBy;
+    private final PageRequest.Order order;
+    private final Object sortValue;
+    private final Serializable id;
+
+    /**
+     * Creates a new continuation token.
+     *
+     * @param sortBy
+     *  the field the page was sorted by
+     *
+     * @param order
+     *  the order in which the page was sorted
+     *
+     * @param sortValue
+     *  the value of the sort field for the last row on the page
+     *
+     * @param id
+     *  the identifier of the last row on the page
+     *
+     * @throws IllegalArgumentException
+     *  if sortBy, order or id are null, or if the sort value or id is of an unsupported type
+     */
+    public ContinuationToken(String sortBy, PageRequest.Order order, Object sortValue, Serializable id) {
+        if (sortBy == null) {
+            throw new IllegalArgumentException("sortBy is null");
+        }
+
+        if (order == null) {
+            throw new IllegalArgumentException("order is null");
+        }
+
+        if (id == null) {
+            throw new IllegalArgumentException("id is null");
+        }
+
+        if (!isSupportedType(sortValue) || !isSupportedType(id)) {
+            throw new IllegalArgumentException("Unsupported keyset value type");
+        }
+
+        this.sortBy = sortBy;
+        this.order = order;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * Checks whether values of the given object's type can be carried in a continuation token.
+     *
+     * @param value
+     *  the value to check
+     *
+     * @return
+     *  true if the value can be encoded; false otherwise
+     */
+    public static boolean isSupportedType(Object value) {
+        return value == null ||
+            value instanceof String ||
+            value instanceof Long ||
+            value instanceof Integer ||
+            value instanceof Date ||
+            value instanceof Boolean;
+    }
+
+    public String getSortBy() {
+        return this.sortBy;
+    }
+
+    public PageRequest.Order getOrder() {
+        return this.order;
+    }
+
+    public Object getSortValue() {
+        return this.sortValue;
+    }
+
+    public Serializable getId() {
+        return this.id;
+    }
+
+    /**
+     * Encodes this token into its opaque, URL-safe form.
+     *
+     * @return
+     *  the encoded token
+     */
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeByte(VERSION);
+            out.writeUTF(this.sortBy);
+            out.writeByte(this.order.ordinal());
+            writeValue(out, this.sortValue);
+            writeValue(out, this.id);
+            out.flush();
+
+            return Base64.encodeBase64URLSafeString(bytes.toByteArray());
+        }
+        catch (IOException e) {
+            // Cannot happen with an in-memory stream
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param encoded
+     *  the encoded token
+     *
+     * @throws IllegalArgumentException
+     *  if the token is malformed
+     *
+     * @return
+     *  the decoded token
+     */
+    public static ContinuationToken decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            throw new IllegalArgumentException("encoded token is null or empty");
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.decodeBase64(encoded)));
+
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Unsupported continuation token version");
+            }
+
+            String sortBy = in.readUTF();
+            int ordinal = in.readByte();
+
+            if (ordinal < 0 || ordinal >= PageRequest.Order.values().length) {
+                throw new IllegalArgumentException("Invalid order in continuation token");
+            }
+
+            Object sortValue = readValue(in);
+            Object id = readValue(in);
+
+            if (!(id instanceof Serializable) || in.read() != -1) {
+                throw new IllegalArgumentException("Malformed continuation token");
+            }
+
+            return new ContinuationToken(sortBy, PageRequest.Order.values()[ordinal], sortValue,
+                (Serializable) id);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Malformed continuation token", e);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        }
+        else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        }
+        else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        }
+        else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        }
+        else if (value instanceof Timestamp) {
+            // Timestamps may carry sub-millisecond precision which must survive the round trip,
+            // or the seek predicate would re-include the boundary row.
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        }
+        else if (value instanceof Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((Date) value).getTime());
+        }
+        else {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+
+            case TYPE_STRING:
+                return in.readUTF();
+
+            case TYPE_LONG:
+                return in.readLong();
+
+            case TYPE_INTEGER:
+                return in.readInt();
+
+            case TYPE_DATE:
+                return new Date(in.readLong());
+
+            case TYPE_TIMESTAMP:
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+
+            default:
+                throw new IllegalArgumentException("Unknown value type in continuation token: " + type);
+        }
+    }
+}
@@ -25,6 +25,8 @@ public class Page<T> {
     private T pageData;
     private Integer maxRecords;
     private PageRequest pageRequest;
+    private ContinuationToken continuation;
+    private boolean estimatedCount;
 
     public T getPageData() {
         return pageData;
@@ -50,4 +52,33 @@ public class Page<T> {
         this.pageRequest = pageRequest;
     }
 
+    /**
+     * Fetches the token identifying the last row on this page. The token is only present when
+     * more rows may follow this page.
+     *
+     * @return
+     *  the continuation token for the next page, or null if this is the last page
+     */
+    public ContinuationToken getContinuation() {
+        return continuation;
+    }
+
+    public void setContinuation(ContinuationToken continuation) {
+        this.continuation = continuation;
+    }
+
+    /**
+     * Checks whether maxRecords is a lower bound rather than an exact count.
+     *
+     * @return
+     *  true if the record count is an estimate; false otherwise
+     */
+    public boolean isEstimatedCount() {
+        return estimatedCount;
+    }
+
+    public void setEstimatedCount(boolean estimatedCount) {
+        this.estimatedCount = estimatedCount;
+    }
+
 }
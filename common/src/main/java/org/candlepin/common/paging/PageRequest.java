@@ -26,10 +26,26 @@ public class PageRequest {
         DESCENDING
     }
 
+    /**
+     * Represents how the total number of records matching a paged request should be determined.
+     */
+    public enum CountMode {
+        /** Count every matching record */
+        EXACT,
+
+        /** Count matching records up to a threshold, and report the threshold beyond that */
+        ESTIMATE,
+
+        /** Do not count matching records */
+        NONE
+    }
+
     public static final String ORDER_PARAM = "order";
     public static final String SORT_BY_PARAM = "sort_by";
     public static final String PAGE_PARAM = "page";
     public static final String PER_PAGE_PARAM = "per_page";
+    public static final String CONTINUATION_PARAM = "continuation";
+    public static final String COUNT_PARAM = "count";
 
     public static final Integer DEFAULT_PAGE = Integer.valueOf(1);
     public static final Integer DEFAULT_PER_PAGE = Integer.valueOf(10);
@@ -39,6 +55,9 @@ public class PageRequest {
     private Integer perPage;
     private String sortBy;
     private Order order;
+    private boolean keyset;
+    private ContinuationToken continuation;
+    private CountMode countMode;
 
     public Integer getPage() {
         return page;
@@ -75,4 +94,47 @@ public class PageRequest {
     public boolean isPaging() {
         return perPage != null && page != null;
     }
+
+    /**
+     * Checks whether this request uses keyset paging, in which case pages are located by seeking
+     * past the row identified by the continuation token rather than by skipping over an offset.
+     * A keyset request without a continuation token fetches the first page.
+     *
+     * @return
+     *  true if this request uses keyset paging; false otherwise
+     */
+    public boolean isKeyset() {
+        return keyset;
+    }
+
+    public void setKeyset(boolean keyset) {
+        this.keyset = keyset;
+    }
+
+    public ContinuationToken getContinuation() {
+        return continuation;
+    }
+
+    public void setContinuation(ContinuationToken continuation) {
+        this.continuation = continuation;
+    }
+
+    /**
+     * Fetches the count mode for this request. If no count mode has been set explicitly, keyset
+     * requests default to no count, and offset requests default to an exact count.
+     *
+     * @return
+     *  the count mode for this request
+     */
+    public CountMode getCountMode() {
+        if (countMode == null) {
+            return keyset ? CountMode.NONE : CountMode.EXACT;
+        }
+
+        return countMode;
+    }
+
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
 }
@@ -15,6 +15,7 @@
 package org.candlepin.common.resteasy.filter;
 
 import org.candlepin.common.config.Configuration;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 
@@ -43,6 +44,10 @@ import javax.ws.rs.ext.Provider;
  * LinkHeaderResponseFilter inserts a Link header into the HTTP response to a request that asked for paging.
  * The Link header is defined in RFC 5988 and is used to communicated to the client the URLs for the next
  * page, previous page, first page, and last page.
+ * <p></p>
+ * For keyset paged requests, only the next and first links are provided, and the token for the next
+ * page is also returned in the X-continuation-token header. The last and previous links and the
+ * X-total-count header are omitted whenever the request opted out of counting.
  */
 @Provider
 @Priority(Priorities.HEADER_DECORATOR)
@@ -56,6 +61,8 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
 
     public static final String LINK_HEADER = "Link";
     public static final String TOTAL_RECORDS_COUNT = "X-total-count";
+    public static final String TOTAL_RECORDS_COUNT_ESTIMATED = "X-total-count-estimated";
+    public static final String CONTINUATION_TOKEN = "X-continuation-token";
 
     private String apiUrlPrefixKey;
     private Configuration config;
@@ -91,24 +98,42 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         MultivaluedMap<String, String> params = null;
         params = reqContext.getUriInfo().getQueryParameters();
 
-        builder = addUnchangingQueryParams(builder, params);
+        // The base URL may still carry the original query string; drop it so the paging
+        // parameters we add below aren't repeated alongside their stale values.
+        builder = addUnchangingQueryParams(builder.replaceQuery(null), params);
         //TODO add missing parameters like the default limit if no limit is given.
 
+        ContinuationToken continuation = page.getContinuation();
+
         try {
             LinkHeader header = new LinkHeader();
 
-            Integer next = getNextPage(page);
-            if (next != null) {
-                header.addLink(null, "next", buildPageLink(builder, next), null);
-            }
+            if (page.getPageRequest().isKeyset()) {
+                // Keyset pages can only be walked forward, starting from the first page
+                if (continuation != null) {
+                    header.addLink(null, "next", buildAfterLink(builder, continuation.encode()), null);
+                }
 
-            Integer prev = getPrevPage(page);
-            if (prev != null) {
-                header.addLink(null, "prev", buildPageLink(builder, prev), null);
+                header.addLink(null, "first", buildAfterLink(builder, ""), null);
             }
+            else {
+                Integer next = getNextPage(page);
+                if (next != null) {
+                    header.addLink(null, "next", buildPageLink(builder, next), null);
+                }
 
-            header.addLink(null, "first", buildPageLink(builder, 1), null);
-            header.addLink(null, "last", buildPageLink(builder, getLastPage(page)), null);
+                Integer prev = getPrevPage(page);
+                if (prev != null) {
+                    header.addLink(null, "prev", buildPageLink(builder, prev), null);
+                }
+
+                header.addLink(null, "first", buildPageLink(builder, 1), null);
+
+                Integer last = getLastPage(page);
+                if (last != null) {
+                    header.addLink(null, "last", buildPageLink(builder, last), null);
+                }
+            }
 
             respContext.getHeaders().add(LINK_HEADER, header.toString());
         }
@@ -118,7 +143,17 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
                 MAX_LINK_LENGTH, e);
         }
 
-        respContext.getHeaders().add(TOTAL_RECORDS_COUNT, page.getMaxRecords());
+        if (continuation != null) {
+            respContext.getHeaders().add(CONTINUATION_TOKEN, continuation.encode());
+        }
+
+        if (page.getMaxRecords() != null) {
+            respContext.getHeaders().add(TOTAL_RECORDS_COUNT, page.getMaxRecords());
+
+            if (page.isEstimatedCount()) {
+                respContext.getHeaders().add(TOTAL_RECORDS_COUNT_ESTIMATED, Boolean.TRUE.toString());
+            }
+        }
     }
 
     protected String buildPageLink(UriBuilder b, int value) {
@@ -135,7 +170,31 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         return link;
     }
 
+    protected String buildAfterLink(UriBuilder b, String continuation) {
+        UriBuilder builder = b.clone();
+        builder.queryParam(PageRequest.CONTINUATION_PARAM, continuation);
+
+        String link = builder.build().toString();
+
+        if (link.length() > MAX_LINK_LENGTH) {
+            throw new LinkTooLongException(link);
+        }
+
+        return link;
+    }
+
+    /**
+     * Checks whether the total number of records is known exactly for the given page.
+     */
+    private boolean isCounted(Page<?> page) {
+        return page.getMaxRecords() != null && !page.isEstimatedCount();
+    }
+
     protected Integer getLastPage(Page<?> page) {
+        if (!isCounted(page)) {
+            return null;
+        }
+
         PageRequest pageRequest = page.getPageRequest();
 
         // The last page is ceiling(maxRecords/recordsPerPage)
@@ -150,12 +209,23 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
 
     protected Integer getPrevPage(Page<?> page) {
         Integer prev = page.getPageRequest().getPage() - 1;
+
+        if (!isCounted(page)) {
+            return prev < 1 ? null : prev;
+        }
+
         // if the calculated page is out of bounds, return null
         return (prev < 1 || prev >= getLastPage(page)) ? null : prev;
     }
 
     protected Integer getNextPage(Page<?> page) {
         Integer next = page.getPageRequest().getPage() + 1;
+
+        if (!isCounted(page)) {
+            // Without a count, we only know there may be more rows if this page was filled
+            return page.getContinuation() != null ? next : null;
+        }
+
         return (next > getLastPage(page)) ? null : next;
     }
 
@@ -202,7 +272,8 @@ public class LinkHeaderResponseFilter implements ContainerResponseFilter {
         // parameters provided too.
         if (params != null) {
             for (Entry<String, List<String>> e : params.entrySet()) {
-                if (!e.getKey().equals(PageRequest.PAGE_PARAM)) {
+                if (!e.getKey().equals(PageRequest.PAGE_PARAM) &&
+                    !e.getKey().equals(PageRequest.CONTINUATION_PARAM)) {
                     for (String v : e.getValue()) {
                         builder = builder.queryParam(e.getKey(), v);
                     }
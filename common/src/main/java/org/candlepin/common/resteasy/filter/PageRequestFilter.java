@@ -15,7 +15,9 @@
 package org.candlepin.common.resteasy.filter;
 
 import org.candlepin.common.exceptions.BadRequestException;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.PageRequest;
+import org.candlepin.common.paging.PageRequest.CountMode;
 import org.candlepin.common.paging.PageRequest.Order;
 
 import com.google.inject.Inject;
@@ -55,12 +57,30 @@ public class PageRequestFilter implements ContainerRequestFilter {
         String perPage = params.getFirst(PageRequest.PER_PAGE_PARAM);
         String order = params.getFirst(PageRequest.ORDER_PARAM);
         String sortBy = params.getFirst(PageRequest.SORT_BY_PARAM);
+        String continuation = params.getFirst(PageRequest.CONTINUATION_PARAM);
+        String count = params.getFirst(PageRequest.COUNT_PARAM);
+
+        if (page != null || perPage != null || order != null || sortBy != null ||
+            continuation != null || count != null) {
 
-        if (page != null || perPage != null || order != null || sortBy != null) {
             p = new PageRequest();
 
+            if (continuation != null) {
+                if (page != null) {
+                    I18n i18n = this.i18nProvider.get();
+                    throw new BadRequestException(i18n.tr("the page and continuation parameters cannot " +
+                        "be used together"));
+                }
+
+                // An empty "continuation" parameter requests the first page in keyset mode
+                p.setKeyset(true);
+                p.setContinuation(continuation.isEmpty() ? null : readContinuation(continuation));
+            }
+
+            ContinuationToken token = p.getContinuation();
+
             if (order == null) {
-                p.setOrder(PageRequest.DEFAULT_ORDER);
+                p.setOrder(token != null ? token.getOrder() : PageRequest.DEFAULT_ORDER);
             }
             else {
                 p.setOrder(readOrder(order));
@@ -68,10 +88,28 @@ public class PageRequestFilter implements ContainerRequestFilter {
 
             /* We'll leave it to the curator layer to figure out what to sort by if
              * sortBy is null. */
-            p.setSortBy(sortBy);
+            p.setSortBy(sortBy == null && token != null ? token.getSortBy() : sortBy);
+
+            // A token is only valid for the ordering it was generated with
+            if (token != null &&
+                (!token.getSortBy().equals(p.getSortBy()) || token.getOrder() != p.getOrder())) {
+
+                I18n i18n = this.i18nProvider.get();
+                throw new BadRequestException(i18n.tr("the sort_by and order parameters must match " +
+                    "those used to generate the continuation parameter"));
+            }
+
+            if (count != null) {
+                p.setCountMode(readCountMode(count));
+            }
 
             try {
-                if (page == null && perPage != null) {
+                if (p.isKeyset()) {
+                    // Keyset pages always start at the first row past the continuation token
+                    p.setPage(PageRequest.DEFAULT_PAGE);
+                    p.setPerPage(perPage != null ? readInteger(perPage) : PageRequest.DEFAULT_PER_PAGE);
+                }
+                else if (page == null && perPage != null) {
                     p.setPage(PageRequest.DEFAULT_PAGE);
                     p.setPerPage(readInteger(perPage));
                 }
@@ -107,6 +145,29 @@ public class PageRequestFilter implements ContainerRequestFilter {
                 " \"ascending\" or \"descending\""));
     }
 
+    private ContinuationToken readContinuation(String continuation) {
+        try {
+            return ContinuationToken.decode(continuation);
+        }
+        catch (IllegalArgumentException e) {
+            I18n i18n = this.i18nProvider.get();
+            throw new BadRequestException(
+                i18n.tr("the continuation parameter is not a valid continuation token"), e);
+        }
+    }
+
+    private CountMode readCountMode(String count) {
+        for (CountMode mode : CountMode.values()) {
+            if (mode.name().equalsIgnoreCase(count)) {
+                return mode;
+            }
+        }
+
+        I18n i18n = this.i18nProvider.get();
+        throw new BadRequestException(i18n.tr("the count parameter must be one of \"exact\", " +
+            "\"estimate\" or \"none\""));
+    }
+
     private Integer readInteger(String value) {
         if (value != null) {
             int i = Integer.parseInt(value);
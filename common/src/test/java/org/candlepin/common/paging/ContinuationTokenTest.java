@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.common.paging;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * ContinuationTokenTest
+ */
+public class ContinuationTokenTest {
+
+    private ContinuationToken roundTrip(Object sortValue) {
+        ContinuationToken token = new ContinuationToken("field", PageRequest.Order.DESCENDING, sortValue,
+            "some-id");
+
+        String encoded = token.encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+
+        ContinuationToken decoded = ContinuationToken.decode(encoded);
+        assertEquals("field", decoded.getSortBy());
+        assertEquals(PageRequest.Order.DESCENDING, decoded.getOrder());
+        assertEquals("some-id", decoded.getId());
+
+        return decoded;
+    }
+
+    @Test
+    public void testRoundTripValues() {
+        assertEquals("value", roundTrip("value").getSortValue());
+        assertEquals(42L, roundTrip(42L).getSortValue());
+        assertEquals(7, roundTrip(7).getSortValue());
+        assertEquals(Boolean.TRUE, roundTrip(Boolean.TRUE).getSortValue());
+        assertEquals(new Date(123456789L), roundTrip(new Date(123456789L)).getSortValue());
+        assertNull(roundTrip(null).getSortValue());
+    }
+
+    @Test
+    public void testRoundTripPreservesTimestampPrecision() {
+        Timestamp timestamp = new Timestamp(1500000000123L);
+        timestamp.setNanos(123456789);
+
+        assertEquals(timestamp, roundTrip(timestamp).getSortValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedValueType() {
+        new ContinuationToken("field", PageRequest.Order.ASCENDING, new Object(), "id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeGarbage() {
+        ContinuationToken.decode("bm90IGEgdG9rZW4");
+    }
+}
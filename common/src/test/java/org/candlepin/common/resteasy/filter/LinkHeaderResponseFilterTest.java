@@ -20,6 +20,7 @@ import static org.mockito.Mockito.*;
 
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.config.MapConfiguration;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 
@@ -355,4 +356,55 @@ public class LinkHeaderResponseFilterTest {
         assertTrue(header.contains("rel=\"next\""));
         assertTrue(header.contains("rel=\"prev\""));
     }
+
+    @Test
+    public void testGetNextPageWithoutCount() {
+        Page<Object> p = new Page<>();
+
+        PageRequest pr = new PageRequest();
+        p.setPageRequest(pr);
+
+        pr.setPerPage(10);
+        pr.setPage(3);
+
+        assertNull(interceptor.getNextPage(p));
+        assertNull(interceptor.getLastPage(p));
+        assertEquals(Integer.valueOf(2), interceptor.getPrevPage(p));
+
+        p.setContinuation(new ContinuationToken("id", PageRequest.Order.ASCENDING, "a", "a"));
+        assertEquals(Integer.valueOf(4), interceptor.getNextPage(p));
+    }
+
+    @Test
+    public void testPostProcessWithKeysetPaging() throws Exception {
+        ContinuationToken token = new ContinuationToken("key", PageRequest.Order.ASCENDING, "k", "id");
+
+        when(page.getPageRequest()).thenReturn(pageRequest);
+        when(page.getMaxRecords()).thenReturn(null);
+        when(page.getContinuation()).thenReturn(token);
+        when(pageRequest.isPaging()).thenReturn(true);
+        when(pageRequest.isKeyset()).thenReturn(true);
+
+        when(config.containsKey(eq(this.apiUrlPrefixKey))).thenReturn(false);
+
+        MultivaluedMap<String, Object> map = new MultivaluedMapImpl<>();
+        ResteasyProviderFactory.pushContext(Page.class, page);
+
+        mockReq = MockHttpRequest.create("GET",
+                new URI("/candlepin/resource?order=asc&sort_by=key&continuation=old"),
+                new URI("https://example.com"));
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+        when(mockResponseContext.getHeaders()).thenReturn(map);
+
+        interceptor.filter(mockRequestContext, mockResponseContext);
+        String header = (String) map.getFirst(LinkHeaderResponseFilter.LINK_HEADER);
+
+        assertTrue(header.contains("continuation=" + token.encode() + ">; rel=\"next\""));
+        assertTrue(header.contains("rel=\"first\""));
+        assertFalse(header.contains("continuation=old"));
+        assertFalse(header.contains("rel=\"last\""));
+        assertFalse(header.contains("rel=\"prev\""));
+        assertEquals(token.encode(), map.getFirst(LinkHeaderResponseFilter.CONTINUATION_TOKEN));
+        assertNull(map.getFirst(LinkHeaderResponseFilter.TOTAL_RECORDS_COUNT));
+    }
 }
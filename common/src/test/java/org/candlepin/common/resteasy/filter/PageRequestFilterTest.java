@@ -19,6 +19,7 @@ import static org.mockito.Mockito.when;
 
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.guice.CommonI18nProvider;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.PageRequest;
 
 import org.jboss.resteasy.mock.MockHttpRequest;
@@ -174,4 +175,81 @@ public class PageRequestFilterTest {
         assertEquals(PageRequest.Order.DESCENDING, p.getOrder());
         assertEquals("id", p.getSortBy());
     }
+
+    @Test
+    public void testKeysetFirstPage() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?continuation=&per_page=20");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyProviderFactory.getContextData(PageRequest.class);
+        assertTrue(p.isPaging());
+        assertTrue(p.isKeyset());
+        assertNull(p.getContinuation());
+        assertEquals(PageRequest.DEFAULT_PAGE, p.getPage());
+        assertEquals(Integer.valueOf(20), p.getPerPage());
+        assertEquals(PageRequest.CountMode.NONE, p.getCountMode());
+    }
+
+    @Test
+    public void testKeysetUsesTokenOrdering() throws Exception {
+        String token = new ContinuationToken("key", PageRequest.Order.ASCENDING, "owner-3", "id-3")
+            .encode();
+
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?continuation=" + token + "&count=estimate");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+
+        PageRequest p = ResteasyProviderFactory.getContextData(PageRequest.class);
+        assertTrue(p.isKeyset());
+        assertEquals(PageRequest.DEFAULT_PER_PAGE, p.getPerPage());
+        assertEquals("key", p.getSortBy());
+        assertEquals(PageRequest.Order.ASCENDING, p.getOrder());
+        assertEquals("owner-3", p.getContinuation().getSortValue());
+        assertEquals("id-3", p.getContinuation().getId());
+        assertEquals(PageRequest.CountMode.ESTIMATE, p.getCountMode());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testKeysetTokenMustMatchOrdering() throws Exception {
+        String token = new ContinuationToken("key", PageRequest.Order.ASCENDING, "owner-3", "id-3")
+            .encode();
+
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?continuation=" + token + "&sort_by=name");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testMalformedKeysetToken() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?continuation=bogus");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testKeysetDoesNotAllowPage() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?continuation=&page=2");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testBadCountMode() throws Exception {
+        mockReq = MockHttpRequest.create("GET",
+            "http://localhost/candlepin/status?page=1&count=lots");
+        when(mockRequestContext.getUriInfo()).thenReturn(mockReq.getUri());
+
+        interceptor.filter(mockRequestContext);
+    }
 }
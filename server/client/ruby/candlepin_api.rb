@@ -287,8 +287,10 @@ class Candlepin
   end
 
   # expects an owner key
-  def get_owner_info(owner)
-    get("/owners/#{owner}/info")
+  def get_owner_info(owner, fresh=false)
+    path = "/owners/#{owner}/info"
+    path << "?fresh=true" if fresh
+    get(path)
   end
 
   def get_owner_syspurpose(owner)
@@ -384,6 +386,10 @@ class Candlepin
     post "owners/#{owner_key}/entitlements"
   end
 
+  def recalculate_owner_compliance(owner_key)
+    post "owners/#{owner_key}/compliance"
+  end
+
   def create_user(login, password, superadmin=false)
     user = {
       'username' => login,
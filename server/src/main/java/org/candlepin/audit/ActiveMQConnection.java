@@ -23,6 +23,9 @@ import org.candlepin.config.ConfigProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * An abstract base class representing a connection to the message bus.
  */
@@ -32,7 +35,13 @@ public abstract class ActiveMQConnection {
 
     protected ServerLocator locator;
     protected String serverUrl;
-    protected ClientSessionFactory factory;
+    protected volatile ClientSessionFactory factory;
+
+    /**
+     * Guards the creation of the connection. A lock is used rather than a monitor, as connecting
+     * blocks on network I/O.
+     */
+    private final Lock factoryLock = new ReentrantLock();
 
 
     public ActiveMQConnection(Configuration config) {
@@ -69,10 +78,17 @@ public abstract class ActiveMQConnection {
     /**
      * Gets the single ClientSessionFactory instance that represents the connection to the broker.
      * The initial connection to the broker will be made on the first invocation of this method.
+     * Once connected, the factory is returned without acquiring any lock.
      *
      * @return the single connection factory instance.
      */
-    synchronized ClientSessionFactory getFactory() {
+    ClientSessionFactory getFactory() {
+        ClientSessionFactory current = this.factory;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+
+        this.factoryLock.lock();
         try {
             if (this.locator == null) {
                 this.locator = initLocator();
@@ -80,12 +96,16 @@ public abstract class ActiveMQConnection {
             if (this.factory == null || this.factory.isClosed()) {
                 this.factory = initClientSessionFactory(this.locator);
             }
+
+            return this.factory;
         }
         catch (Exception e) {
             log.error("Unable to create connection to message bus.", e);
             throw new RuntimeException(e);
         }
-        return this.factory;
+        finally {
+            this.factoryLock.unlock();
+        }
     }
 
     public boolean isClosed() {
@@ -19,6 +19,7 @@ import org.candlepin.config.ConfigProperties;
 import com.google.common.collect.Lists;
 import com.google.inject.Injector;
 
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
 
 import org.candlepin.controller.ActiveMQStatusMonitor;
@@ -41,9 +42,14 @@ public class ActiveMQContextListener {
 
     private EmbeddedActiveMQ activeMQServer;
     private EventSource eventSource;
+    private CacheInvalidationReceiver cacheInvalidationReceiver;
 
     public void contextDestroyed() {
         if (activeMQServer != null) {
+            if (cacheInvalidationReceiver != null) {
+                cacheInvalidationReceiver.close();
+            }
+
             eventSource.shutDown();
             try {
                 activeMQServer.stop();
@@ -84,6 +90,8 @@ public class ActiveMQContextListener {
                 log.error("Failed to start ActiveMQ message server:", e);
                 throw new RuntimeException(e);
             }
+
+            warnIfNotClustered(activeMQServer);
         }
         else {
             log.info("Candlepin will connect to a remote Artemis server.");
@@ -100,6 +108,11 @@ public class ActiveMQContextListener {
         // EventSource must listen for ActiveMQ status changes so that connections can be rebuilt.
         activeMQStatusMonitor.registerListener(eventSource);
 
+        // Listen for second-level cache invalidations from other nodes. This must be registered
+        // after the EventSource, as the EventSource rebuilds the shared connection on reconnect.
+        cacheInvalidationReceiver = injector.getInstance(CacheInvalidationReceiver.class);
+        activeMQStatusMonitor.registerListener(cacheInvalidationReceiver);
+
         setupAmqp(injector, candlepinConfig, eventSource);
 
         // Register all listeners now that a connection to the server is established.
@@ -128,6 +141,23 @@ public class ActiveMQContextListener {
         activeMQStatusMonitor.initialize();
     }
 
+    /**
+     * Second-level cache invalidation notices are broadcast through the broker. An embedded broker
+     * only delivers them to the nodes connected to it, which is this node alone unless the embedded
+     * brokers are clustered together.
+     */
+    private void warnIfNotClustered(EmbeddedActiveMQ server) {
+        ActiveMQServer broker = server.getActiveMQServer();
+
+        if (broker != null && broker.getConfiguration() != null &&
+            broker.getConfiguration().getClusterConfigurations().isEmpty()) {
+
+            log.warn("The embedded Artemis server is not clustered; product and content cache " +
+                "invalidations will not reach other Candlepin nodes. Multi-node deployments should " +
+                "connect every node to a shared broker, or cluster the embedded brokers.");
+        }
+    }
+
     private void setupAmqp(Injector injector, org.candlepin.common.config.Configuration candlepinConfig,
         EventSource eventSource) {
         if (candlepinConfig.getBoolean(ConfigProperties.AMQP_INTEGRATION_ENABLED)) {
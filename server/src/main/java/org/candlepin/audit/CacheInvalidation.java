@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import java.util.List;
+
+
+
+/**
+ * Simple DTO describing a set of entities which are to be evicted from the second-level cache of
+ * every Candlepin node. Serialized as the body of messages sent to the cache invalidation address.
+ */
+public class CacheInvalidation {
+
+    private String type;
+    private List<String> ids;
+
+    public CacheInvalidation() {
+    }
+
+    public CacheInvalidation(String type, List<String> ids) {
+        this.type = type;
+        this.ids = ids;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheInvalidation [type: %s, ids: %s]", this.type, this.ids);
+    }
+}
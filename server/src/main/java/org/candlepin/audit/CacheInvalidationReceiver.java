@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import org.candlepin.controller.ActiveMQStatusListener;
+import org.candlepin.model.Content;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.MessageHandler;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+
+
+/**
+ * Receives cache invalidation notices broadcast by other Candlepin nodes (including this one) and
+ * evicts the affected products and content from the local second-level cache.
+ * <p></p>
+ * Each node binds a temporary, non-durable queue to the multicast cache invalidation address, so
+ * every node receives every notice, and notices sent while a node is down are simply dropped; such
+ * a node starts with a cold cache anyway.
+ * <p></p>
+ * Notices only reach the nodes sharing a broker. With the default embedded broker
+ * (candlepin.audit.hornetq.embedded), each node has a broker of its own, so in a multi-node
+ * deployment the nodes must either connect to a shared broker or have their embedded brokers
+ * clustered; otherwise other nodes only see deletions once the cached entries expire.
+ */
+@Singleton
+public class CacheInvalidationReceiver implements MessageHandler, ActiveMQStatusListener {
+    private static Logger log = LoggerFactory.getLogger(CacheInvalidationReceiver.class);
+
+    private static final String[] PRODUCT_COLLECTION_ROLES = {
+        Product.class.getName() + ".attributes",
+        Product.class.getName() + ".productContent",
+        Product.class.getName() + ".dependentProductIds"
+    };
+
+    private static final String[] CONTENT_COLLECTION_ROLES = {
+        Content.class.getName() + ".modifiedProductIds"
+    };
+
+    private ActiveMQConnection connection;
+    private ObjectMapper mapper;
+    private Provider<EntityManagerFactory> emfProvider;
+    private String queueName;
+
+    private ClientSession session;
+    private ClientConsumer consumer;
+
+    @Inject
+    public CacheInvalidationReceiver(EventSourceConnection connection, ObjectMapper mapper,
+        Provider<EntityManagerFactory> emfProvider) {
+
+        this.connection = connection;
+        this.mapper = mapper;
+        this.emfProvider = emfProvider;
+        this.queueName = MessageAddress.CACHE_INVALIDATION_ADDRESS + "." + UUID.randomUUID().toString();
+    }
+
+    /**
+     * Connects to the broker and starts consuming cache invalidation notices. The temporary queue
+     * backing this receiver is created on connect, and is removed by the broker once the session
+     * is closed.
+     *
+     * @throws ActiveMQException
+     *  if the queue or consumer cannot be created
+     */
+    public void connect() throws ActiveMQException {
+        if (this.session == null || this.session.isClosed()) {
+            this.session = this.connection.createClientSession();
+            this.session.createTemporaryQueue(MessageAddress.CACHE_INVALIDATION_ADDRESS,
+                RoutingType.MULTICAST, this.queueName);
+
+            this.consumer = this.session.createConsumer(this.queueName);
+            this.consumer.setMessageHandler(this);
+            this.session.start();
+
+            log.debug("Listening for cache invalidations on queue: {}", this.queueName);
+        }
+    }
+
+    /**
+     * Closes the current session, if any.
+     */
+    public void close() {
+        if (this.session != null && !this.session.isClosed()) {
+            log.debug("Shutting down cache invalidation receiver.");
+
+            try {
+                this.session.stop();
+            }
+            catch (ActiveMQException e) {
+                log.warn("CacheInvalidationReceiver could not stop client session.", e);
+            }
+
+            try {
+                this.session.close();
+            }
+            catch (ActiveMQException e) {
+                log.warn("Error closing client session.", e);
+            }
+        }
+    }
+
+    @Override
+    public void onStatusUpdate(ActiveMQStatus oldStatus, ActiveMQStatus newStatus) {
+        if (ActiveMQStatus.DOWN.equals(newStatus) && !ActiveMQStatus.DOWN.equals(oldStatus)) {
+            this.close();
+        }
+        else if (ActiveMQStatus.CONNECTED.equals(newStatus) && !ActiveMQStatus.CONNECTED.equals(oldStatus)) {
+            // Attempt a shutdown to be sure that all resources are cleared.
+            this.close();
+
+            try {
+                this.connect();
+            }
+            catch (Exception e) {
+                log.warn("Unable to listen for cache invalidations; cached entities may become stale", e);
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(ClientMessage msg) {
+        try {
+            msg.acknowledge();
+
+            String body = msg.getBodyBuffer().readString();
+            log.debug("Got cache invalidation: {}", body);
+
+            this.evict(this.mapper.readValue(body, CacheInvalidation.class));
+        }
+        catch (Exception e) {
+            // Invalidations are best-effort; there is nothing to be gained by redelivering one.
+            log.warn("Unable to process cache invalidation {}", msg.getMessageID(), e);
+        }
+        finally {
+            try {
+                this.session.commit();
+            }
+            catch (ActiveMQException e) {
+                log.error("Unable to commit client session.", e);
+            }
+        }
+    }
+
+    /**
+     * Evicts the entities described by the given invalidation notice from the second-level cache.
+     *
+     * @param invalidation
+     *  the invalidation notice to process
+     */
+    protected void evict(CacheInvalidation invalidation) {
+        if (invalidation == null || invalidation.getIds() == null) {
+            return;
+        }
+
+        Cache cache = this.emfProvider.get().unwrap(SessionFactory.class).getCache();
+
+        if (Product.class.getName().equals(invalidation.getType())) {
+            for (String id : invalidation.getIds()) {
+                cache.evictEntityData(Product.class, id);
+
+                for (String role : PRODUCT_COLLECTION_ROLES) {
+                    cache.evictCollectionData(role, id);
+                }
+            }
+
+            // Product-content links have surrogate IDs we can't derive from the product UUIDs
+            cache.evictEntityData(ProductContent.class);
+        }
+        else if (Content.class.getName().equals(invalidation.getType())) {
+            for (String id : invalidation.getIds()) {
+                cache.evictEntityData(Content.class, id);
+
+                for (String role : CONTENT_COLLECTION_ROLES) {
+                    cache.evictCollectionData(role, id);
+                }
+            }
+        }
+        else {
+            log.warn("Ignoring cache invalidation for unsupported type: {}", invalidation.getType());
+        }
+    }
+
+}
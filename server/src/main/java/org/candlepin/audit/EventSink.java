@@ -23,6 +23,7 @@ import org.candlepin.dto.manifest.v1.SubscriptionDTO;
 import org.candlepin.policy.SystemPurposeComplianceStatus;
 import org.candlepin.policy.js.compliance.ComplianceStatus;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -60,5 +61,19 @@ public interface EventSink {
 
     void emitCompliance(Consumer consumer, SystemPurposeComplianceStatus compliance);
 
+    /**
+     * Queues a notification instructing other Candlepin nodes to evict the given entities from
+     * their second-level caches. Like events, the notification is only dispatched once the
+     * current request or job completes successfully. The notification only reaches the nodes
+     * sharing this node's broker; see {@link CacheInvalidationReceiver}.
+     *
+     * @param entityClass
+     *  the class of the entities to evict
+     *
+     * @param ids
+     *  the IDs of the entities to evict
+     */
+    void queueCacheInvalidation(Class<?> entityClass, Collection<String> ids);
+
     List<QueueStatus> getQueueInfo();
 }
@@ -36,6 +36,8 @@ import org.apache.activemq.artemis.api.core.client.ClientSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -126,6 +128,36 @@ public class EventSinkImpl implements EventSink {
         }
     }
 
+    /**
+     * Queues a cache invalidation notice to be broadcast to all Candlepin nodes on successful
+     * completion of the request or job. Unlike events, invalidations are neither filtered nor
+     * blocked by suspend mode, as the cached data has already been changed by the time we get
+     * here.
+     */
+    @Override
+    public void queueCacheInvalidation(Class<?> entityClass, Collection<String> ids) {
+        if (entityClass == null || ids == null || ids.isEmpty()) {
+            return;
+        }
+
+        log.debug("Queuing cache invalidation for {} {} instance(s)", ids.size(), entityClass.getName());
+
+        try {
+            if (messageSender == null) {
+                messageSender = new EventMessageSender(this.connection);
+            }
+
+            CacheInvalidation invalidation = new CacheInvalidation(entityClass.getName(),
+                new ArrayList<>(ids));
+
+            messageSender.queueMessage(MessageAddress.CACHE_INVALIDATION_ADDRESS,
+                mapper.writeValueAsString(invalidation));
+        }
+        catch (Exception e) {
+            log.error("Error while trying to send cache invalidation", e);
+        }
+    }
+
     /**
      * Dispatch queued events. (if there are any)
      *
@@ -248,6 +280,15 @@ public class EventSinkImpl implements EventSink {
             producer.send(message);
         }
 
+        public void queueMessage(String address, String body) throws ActiveMQException {
+            // Cache invalidations are only meaningful to running nodes; don't persist them.
+            ClientMessage message = session.createMessage(false);
+            message.getBodyBuffer().writeString(body);
+
+            // NOTE: not actually sent until we commit the session.
+            producer.send(address, message);
+        }
+
         public void sendMessages() {
             log.debug("Committing ActiveMQ transaction.");
             try (ClientSession toClose = session) {
@@ -26,6 +26,7 @@ import org.candlepin.policy.js.compliance.ComplianceStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -118,6 +119,11 @@ public class NoopEventSinkImpl implements EventSink {
         log.debug("emitCompliance: SystemPurposeComplianceStatus: {}", compliance);
     }
 
+    @Override
+    public void queueCacheInvalidation(Class<?> entityClass, Collection<String> ids) {
+        log.debug("queueCacheInvalidation: {}: {}", entityClass, ids);
+    }
+
     @Override
     public List<QueueStatus> getQueueInfo() {
         return null;
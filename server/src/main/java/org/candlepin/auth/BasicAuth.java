@@ -40,9 +40,9 @@ public class BasicAuth extends UserAuth {
 
     @Inject
     BasicAuth(UserServiceAdapter userServiceAdapter, Provider<I18n> i18nProvider,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, PrincipalCache principalCache) {
 
-        super(userServiceAdapter, i18nProvider, permissionFactory);
+        super(userServiceAdapter, i18nProvider, permissionFactory, principalCache);
     }
 
     @Override
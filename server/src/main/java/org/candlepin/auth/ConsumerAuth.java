@@ -39,22 +39,29 @@ public abstract class ConsumerAuth implements AuthProvider {
     protected ConsumerCurator consumerCurator;
     protected OwnerCurator ownerCurator;
     protected DeletedConsumerCurator deletedConsumerCurator;
+    protected PrincipalCache principalCache;
     private Provider<I18n> i18nProvider;
 
     @Inject
     ConsumerAuth(ConsumerCurator consumerCurator, OwnerCurator ownerCurator,
         DeletedConsumerCurator deletedConsumerCurator,
-        Provider<I18n> i18nProvider) {
+        Provider<I18n> i18nProvider, PrincipalCache principalCache) {
         this.consumerCurator = consumerCurator;
         this.ownerCurator = ownerCurator;
         this.deletedConsumerCurator = deletedConsumerCurator;
         this.i18nProvider = i18nProvider;
+        this.principalCache = principalCache;
     }
 
     public ConsumerPrincipal createPrincipal(String consumerUuid) {
         ConsumerPrincipal principal = null;
 
         if (consumerUuid != null) {
+            principal = this.createCachedPrincipal(consumerUuid);
+            if (principal != null) {
+                return principal;
+            }
+
             // If this UUID has been deleted, return a 410.
             if (deletedConsumerCurator.countByConsumerUuid(consumerUuid) > 0) {
                 log.debug("Key {} is deleted, throwing GoneException", consumerUuid);
@@ -68,6 +75,9 @@ public abstract class ConsumerAuth implements AuthProvider {
                 Owner owner = this.ownerCurator.findOwnerById(consumer.getOwnerId());
                 principal = new ConsumerPrincipal(consumer, owner);
 
+                this.principalCache.putConsumer(consumerUuid,
+                    new PrincipalCache.ConsumerIdentity(consumer.getId(), consumer.getOwnerId()));
+
                 if (log.isDebugEnabled() && principal != null) {
                     log.debug("principal created for consumer {}", principal.getConsumer().getUuid());
                 }
@@ -77,4 +87,30 @@ public abstract class ConsumerAuth implements AuthProvider {
         return principal;
     }
 
+    /**
+     * Creates a principal for a consumer previously verified and cached by the principal cache.
+     * The consumer and its owner are reloaded by primary key, which skips the deleted consumer
+     * check and the lookup by UUID. If the consumer has since disappeared, the cache entry is
+     * dropped and the full lookup is performed by the caller.
+     */
+    private ConsumerPrincipal createCachedPrincipal(String consumerUuid) {
+        PrincipalCache.ConsumerIdentity identity = this.principalCache.getConsumer(consumerUuid);
+        if (identity == null) {
+            return null;
+        }
+
+        Consumer consumer = this.consumerCurator.get(identity.getConsumerId());
+        if (consumer == null || !consumerUuid.equals(consumer.getUuid()) ||
+            !identity.getOwnerId().equals(consumer.getOwnerId())) {
+
+            this.principalCache.invalidateConsumer(consumerUuid);
+            return null;
+        }
+
+        Owner owner = this.ownerCurator.findOwnerById(consumer.getOwnerId());
+        log.debug("principal created for cached consumer {}", consumerUuid);
+
+        return new ConsumerPrincipal(consumer, owner);
+    }
+
 }
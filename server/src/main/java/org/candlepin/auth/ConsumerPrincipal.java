@@ -31,9 +31,11 @@ import java.util.Arrays;
  */
 public class ConsumerPrincipal extends Principal {
     private Consumer consumer;
+    private Owner owner;
 
     public ConsumerPrincipal(Consumer consumer, Owner owner) {
         this.consumer = consumer;
+        this.owner = owner;
 
         addPermission(new ConsumerPermission(consumer, owner));
 
@@ -60,6 +62,10 @@ public class ConsumerPrincipal extends Principal {
         return consumer;
     }
 
+    public Owner getOwner() {
+        return owner;
+    }
+
     // Note: automatically generated by Netbeans
     @Override
     public boolean equals(Object obj) {
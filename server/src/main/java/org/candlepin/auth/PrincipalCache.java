@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.auth;
+
+import org.candlepin.cache.CacheRegionStatus;
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * The PrincipalCache holds the identity information resolved while authenticating a request, so
+ * that subsequent requests from the same client need not resolve it from the database again.
+ * <p></p>
+ * Consumers are cached by UUID, and only once they have been verified to exist and to not have
+ * been deleted. Users are cached by username, along with the owner key, type and access level of
+ * each permission granted by their roles. Only identifiers are retained; the entities, and the
+ * permissions referring to them, are always rebuilt in the session of the request using them.
+ * <p></p>
+ * Entries expire after a short, configurable period, which bounds how long a change made on
+ * another node can go unnoticed. Changes made on this node explicitly invalidate the affected
+ * entries once the transaction making them completes, so a concurrent request cannot cache the
+ * state being replaced again.
+ */
+@Singleton
+public class PrincipalCache {
+    private static Logger log = LoggerFactory.getLogger(PrincipalCache.class);
+
+    /**
+     * The identifiers of a consumer which has been verified to exist and not be deleted
+     */
+    public static class ConsumerIdentity {
+        private final String consumerId;
+        private final String ownerId;
+
+        public ConsumerIdentity(String consumerId, String ownerId) {
+            this.consumerId = consumerId;
+            this.ownerId = ownerId;
+        }
+
+        public String getConsumerId() {
+            return this.consumerId;
+        }
+
+        public String getOwnerId() {
+            return this.ownerId;
+        }
+    }
+
+    /**
+     * The identifiers of a permission granted to a user
+     */
+    public static class PermissionIdentity {
+        private final String ownerKey;
+        private final String typeName;
+        private final String accessLevel;
+
+        public PermissionIdentity(String ownerKey, String typeName, String accessLevel) {
+            this.ownerKey = ownerKey;
+            this.typeName = typeName;
+            this.accessLevel = accessLevel;
+        }
+
+        public String getOwnerKey() {
+            return this.ownerKey;
+        }
+
+        public String getTypeName() {
+            return this.typeName;
+        }
+
+        public String getAccessLevel() {
+            return this.accessLevel;
+        }
+    }
+
+    /**
+     * The resolved permissions of a user
+     */
+    public static class UserIdentity {
+        private final boolean superAdmin;
+        private final Collection<PermissionIdentity> permissions;
+
+        public UserIdentity(boolean superAdmin, Collection<PermissionIdentity> permissions) {
+            this.superAdmin = superAdmin;
+            this.permissions = permissions != null ?
+                Collections.unmodifiableList(new ArrayList<>(permissions)) :
+                Collections.<PermissionIdentity>emptyList();
+        }
+
+        public boolean isSuperAdmin() {
+            return this.superAdmin;
+        }
+
+        public Collection<PermissionIdentity> getPermissions() {
+            return this.permissions;
+        }
+    }
+
+    private final Provider<EntityManager> entityManager;
+    private final boolean enabled;
+    private final Cache<String, ConsumerIdentity> consumers;
+    private final Cache<String, UserIdentity> users;
+
+    @Inject
+    public PrincipalCache(Configuration config, Provider<EntityManager> entityManager) {
+        this.entityManager = entityManager;
+        this.enabled = config.getBoolean(ConfigProperties.PRINCIPAL_CACHE_ENABLED);
+
+        long ttl = config.getLong(ConfigProperties.PRINCIPAL_CACHE_TTL);
+        long maxSize = config.getLong(ConfigProperties.PRINCIPAL_CACHE_MAX_SIZE);
+
+        this.consumers = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.SECONDS)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+
+        this.users = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.SECONDS)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+
+        log.debug("Principal cache enabled: {}, ttl: {}s, max size: {}", this.enabled, ttl, maxSize);
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Fetches the cached identity of the consumer with the given UUID.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer
+     *
+     * @return
+     *  the cached identity of the consumer, or null if the consumer is not cached
+     */
+    public ConsumerIdentity getConsumer(String consumerUuid) {
+        return this.enabled && consumerUuid != null ? this.consumers.getIfPresent(consumerUuid) : null;
+    }
+
+    /**
+     * Caches the identity of a consumer. The caller is responsible for verifying that the
+     * consumer exists and has not been deleted.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer
+     *
+     * @param identity
+     *  the identity of the consumer
+     */
+    public void putConsumer(String consumerUuid, ConsumerIdentity identity) {
+        if (this.enabled && consumerUuid != null && identity != null) {
+            this.consumers.put(consumerUuid, identity);
+        }
+    }
+
+    /**
+     * Fetches the cached identity of the user with the given username.
+     *
+     * @param username
+     *  the username of the user
+     *
+     * @return
+     *  the cached identity of the user, or null if the user is not cached
+     */
+    public UserIdentity getUser(String username) {
+        return this.enabled && username != null ? this.users.getIfPresent(username) : null;
+    }
+
+    /**
+     * Caches the identity of a user.
+     *
+     * @param username
+     *  the username of the user
+     *
+     * @param identity
+     *  the identity of the user
+     */
+    public void putUser(String username, UserIdentity identity) {
+        if (this.enabled && username != null && identity != null) {
+            this.users.put(username, identity);
+        }
+    }
+
+    /**
+     * Removes the consumer with the given UUID from the cache. Should be called whenever a
+     * consumer is deleted.
+     *
+     * @param consumerUuid
+     *  the UUID of the consumer to remove
+     */
+    public void invalidateConsumer(final String consumerUuid) {
+        if (consumerUuid != null) {
+            this.afterCompletion(() -> this.consumers.invalidate(consumerUuid));
+        }
+    }
+
+    /**
+     * Removes every consumer belonging to the given owner from the cache, along with all cached
+     * users, as their permissions may refer to the owner. Should be called whenever an owner is
+     * deleted or the consumers of an owner change.
+     *
+     * @param ownerId
+     *  the ID of the owner
+     */
+    public void invalidateOwner(final String ownerId) {
+        this.afterCompletion(() -> {
+            for (Map.Entry<String, ConsumerIdentity> entry : this.consumers.asMap().entrySet()) {
+                if (ownerId == null || ownerId.equals(entry.getValue().getOwnerId())) {
+                    this.consumers.invalidate(entry.getKey());
+                }
+            }
+
+            this.users.invalidateAll();
+        });
+    }
+
+    /**
+     * Removes the user with the given username from the cache. Should be called whenever a user
+     * is updated or deleted.
+     *
+     * @param username
+     *  the username of the user to remove
+     */
+    public void invalidateUser(final String username) {
+        if (username != null) {
+            this.afterCompletion(() -> this.users.invalidate(username));
+        }
+    }
+
+    /**
+     * Removes all users from the cache. Should be called whenever a role or its permissions
+     * change, as any number of users may be affected.
+     */
+    public void invalidateUsers() {
+        this.afterCompletion(() -> this.users.invalidateAll());
+    }
+
+    /**
+     * Runs the given invalidation once the current transaction completes, or immediately if there
+     * is no active transaction. Invalidating before the transaction commits would let a concurrent
+     * request cache the state being replaced again. The invalidation is run regardless of the
+     * outcome of the transaction, as dropping an entry is always safe.
+     */
+    private void afterCompletion(final Runnable invalidation) {
+        EntityManager manager = this.entityManager.get();
+        Transaction transaction = manager != null ?
+            manager.unwrap(Session.class).getTransaction() :
+            null;
+
+        if (transaction != null && transaction.isActive()) {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // Intentionally left empty
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    invalidation.run();
+                }
+            });
+        }
+        else {
+            invalidation.run();
+        }
+    }
+
+    /**
+     * Fetches the size, hit, miss and eviction counts of the consumer and user caches. Guava does
+     * not distinguish expired entries from evicted ones, so expirations are included in the
+     * eviction counts.
+     *
+     * @return
+     *  the statistics of the consumer and user caches
+     */
+    public List<CacheRegionStatus> getRegionStatistics() {
+        return Arrays.asList(
+            this.toRegionStatus("principal.consumers", this.consumers),
+            this.toRegionStatus("principal.users", this.users));
+    }
+
+    private CacheRegionStatus toRegionStatus(String name, Cache<String, ?> cache) {
+        CacheStats stats = cache.stats();
+
+        return new CacheRegionStatus(name, cache.size(), stats.hitCount(), stats.missCount(),
+            stats.evictionCount(), 0);
+    }
+}
@@ -45,8 +45,8 @@ public class SSLAuth extends ConsumerAuth {
     @Inject
     SSLAuth(ConsumerCurator consumerCurator, OwnerCurator ownerCurator,
         DeletedConsumerCurator deletedConsumerCurator,
-        Provider<I18n> i18nProvider) {
-        super(consumerCurator, ownerCurator, deletedConsumerCurator, i18nProvider);
+        Provider<I18n> i18nProvider, PrincipalCache principalCache) {
+        super(consumerCurator, ownerCurator, deletedConsumerCurator, i18nProvider, principalCache);
     }
 
     public Principal getPrincipal(HttpRequest httpRequest) {
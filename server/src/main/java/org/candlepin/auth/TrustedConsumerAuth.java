@@ -38,8 +38,8 @@ public class TrustedConsumerAuth extends ConsumerAuth {
     @Inject
     TrustedConsumerAuth(ConsumerCurator consumerCurator, OwnerCurator ownerCurator,
         DeletedConsumerCurator deletedConsumerCurator,
-        Provider<I18n> i18nProvider) {
-        super(consumerCurator, ownerCurator, deletedConsumerCurator, i18nProvider);
+        Provider<I18n> i18nProvider, PrincipalCache principalCache) {
+        super(consumerCurator, ownerCurator, deletedConsumerCurator, i18nProvider, principalCache);
     }
 
     public Principal getPrincipal(HttpRequest httpRequest) {
@@ -39,9 +39,9 @@ public class TrustedUserAuth extends UserAuth {
 
     @Inject
     TrustedUserAuth(UserServiceAdapter userServiceAdaper, Provider<I18n> i18n,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, PrincipalCache principalCache) {
 
-        super(userServiceAdaper, i18n, permissionFactory);
+        super(userServiceAdaper, i18n, permissionFactory, principalCache);
     }
 
     public Principal getPrincipal(HttpRequest httpRequest) {
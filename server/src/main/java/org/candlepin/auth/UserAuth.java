@@ -14,14 +14,24 @@
  */
 package org.candlepin.auth;
 
+import org.candlepin.auth.permissions.Permission;
 import org.candlepin.auth.permissions.PermissionFactory;
 
 import org.candlepin.common.exceptions.BadRequestException;
+import org.candlepin.dto.api.v1.OwnerDTO;
+import org.candlepin.dto.api.v1.PermissionBlueprintDTO;
+import org.candlepin.dto.api.v1.UserDTO;
 import org.candlepin.service.UserServiceAdapter;
+import org.candlepin.service.model.PermissionBlueprintInfo;
+import org.candlepin.service.model.RoleInfo;
 import org.candlepin.service.model.UserInfo;
 
 import org.xnap.commons.i18n.I18n;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import javax.inject.Inject;
 import javax.inject.Provider;
 
@@ -35,32 +45,102 @@ public abstract class UserAuth implements AuthProvider {
     protected UserServiceAdapter userServiceAdapter;
     protected Provider<I18n> i18nProvider;
     protected PermissionFactory permissionFactory;
+    protected PrincipalCache principalCache;
 
     @Inject
     public UserAuth(UserServiceAdapter userServiceAdapter, Provider<I18n> i18nProvider,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, PrincipalCache principalCache) {
 
         this.userServiceAdapter = userServiceAdapter;
         this.i18nProvider = i18nProvider;
         this.permissionFactory = permissionFactory;
+        this.principalCache = principalCache;
     }
 
     /**
      * Creates a user principal for a given username
      */
     protected Principal createPrincipal(String username) {
+        PrincipalCache.UserIdentity identity = this.principalCache.getUser(username);
+        if (identity != null) {
+            if (identity.isSuperAdmin()) {
+                return new UserPrincipal(username, null, true);
+            }
+
+            try {
+                return new UserPrincipal(username, this.buildPermissions(username, identity), false);
+            }
+            catch (IllegalStateException e) {
+                // An owner referred to by the cached permissions no longer exists; fall through to a
+                // fresh lookup, which replaces the stale entry
+            }
+        }
+
         UserInfo user = this.userServiceAdapter.findByLogin(username);
 
         if (user == null) {
             throw new BadRequestException(this.i18nProvider.get().tr("User not found: {0}", username));
         }
 
+        if (user.isSuperAdmin() != null && user.isSuperAdmin()) {
+            this.principalCache.putUser(username, new PrincipalCache.UserIdentity(true, null));
+            return new UserPrincipal(username, null, true);
+        }
+
+        this.principalCache.putUser(username,
+            new PrincipalCache.UserIdentity(false, this.getPermissionIdentities(user)));
+
         // TODO: This creates a lot of object churn. We should probably update this later in a way
         // that can do permission checking without creating piles of objects that we just throw away
         // without ever using them in the general case.
-        return user.isSuperAdmin() != null && user.isSuperAdmin() ?
-            new UserPrincipal(username, null, true) :
-            new UserPrincipal(username, this.permissionFactory.createUserPermissions(user), false);
+        return new UserPrincipal(username, this.permissionFactory.createUserPermissions(user), false);
+    }
+
+    /**
+     * Collects the identifiers of the permissions granted to the given user by their roles
+     */
+    private List<PrincipalCache.PermissionIdentity> getPermissionIdentities(UserInfo user) {
+        List<PrincipalCache.PermissionIdentity> identities = new ArrayList<>();
+
+        if (user.getRoles() != null) {
+            for (RoleInfo role : user.getRoles()) {
+                if (role == null || role.getPermissions() == null) {
+                    continue;
+                }
+
+                for (PermissionBlueprintInfo blueprint : role.getPermissions()) {
+                    if (blueprint != null) {
+                        identities.add(new PrincipalCache.PermissionIdentity(
+                            blueprint.getOwner() != null ? blueprint.getOwner().getKey() : null,
+                            blueprint.getTypeName(), blueprint.getAccessLevel()));
+                    }
+                }
+            }
+        }
+
+        return identities;
+    }
+
+    /**
+     * Rebuilds the permissions of a cached user, resolving the owners they refer to in the current
+     * session.
+     */
+    private Collection<Permission> buildPermissions(String username, PrincipalCache.UserIdentity identity) {
+        UserDTO user = new UserDTO().setUsername(username);
+        List<PermissionBlueprintDTO> blueprints = new ArrayList<>();
+
+        for (PrincipalCache.PermissionIdentity permission : identity.getPermissions()) {
+            OwnerDTO owner = permission.getOwnerKey() != null ?
+                new OwnerDTO().setKey(permission.getOwnerKey()) :
+                null;
+
+            blueprints.add(new PermissionBlueprintDTO()
+                .setOwner(owner)
+                .setType(permission.getTypeName())
+                .setAccess(permission.getAccessLevel()));
+        }
+
+        return this.permissionFactory.createPermissions(user, blueprints);
     }
 
 }
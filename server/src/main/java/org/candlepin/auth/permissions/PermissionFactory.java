@@ -93,8 +93,9 @@ public class PermissionFactory {
                     }
 
                     ownerCache.put(owner.getKey(), owner);
-                    return owner;
                 }
+
+                return owner;
             }
 
             return null;
@@ -18,6 +18,7 @@ import org.candlepin.common.exceptions.ServiceUnavailableException;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Entitlement;
 import org.candlepin.policy.EntitlementRefusedException;
+import org.candlepin.policy.js.JsRunner;
 import org.candlepin.policy.js.entitlement.Enforcer;
 
 import com.google.inject.Inject;
@@ -39,6 +40,7 @@ import java.util.Map;
 public class BindChain {
     private BindContext context;
     private List<BindOperation> operations = new ArrayList<>();
+    private BindChainMetrics metrics;
     private static Logger log = LoggerFactory.getLogger(BindChain.class);
 
     @Inject
@@ -50,12 +52,17 @@ public class BindChain {
         CheckBonusPoolQuantitiesOp checkBonusPoolQuantitiesOp,
         HandleCertificatesOp handleCertificatesOp,
         ComplianceOp complianceOp,
+        ReservePoolQuantitiesOp reservePoolQuantitiesOp,
+        BindChainMetrics metrics,
         @Assisted Consumer consumer,
         @Assisted Map<String, Integer> poolQuantityMap,
         @Assisted Enforcer.CallerType caller) {
 
+        this.metrics = metrics;
         context = bindContextFactory.create(consumer, poolQuantityMap);
         operations.add(rulesCheckOpFactory.create(caller));
+        // Reservations must precede any other write, as a refused reservation does not roll back
+        operations.add(reservePoolQuantitiesOp);
         operations.add(handleEntitlementsOp);
         operations.add(postBindBonusPoolsOp);
         operations.add(checkBonusPoolQuantitiesOp);
@@ -64,53 +71,90 @@ public class BindChain {
     }
 
     private boolean preProcess(BindContext context) {
-        for (BindOperation operation : operations) {
-            log.debug("Starting preprocess of {}", operation.getClass().getSimpleName());
-            if (operation.preProcess(context)) {
-                log.debug("Finished preprocess of {}", operation.getClass().getSimpleName());
-            }
-            else {
-                log.error("Skipped chain in preprocess of operation {}",
-                    operation.getClass().getSimpleName());
-                return false;
+        long phaseStart = System.nanoTime();
+
+        try {
+            for (BindOperation operation : operations) {
+                String name = operation.getClass().getSimpleName();
+                long start = System.nanoTime();
+
+                log.debug("Starting preprocess of {}", name);
+                try {
+                    if (operation.preProcess(context)) {
+                        log.debug("Finished preprocess of {}", name);
+                    }
+                    else {
+                        log.error("Skipped chain in preprocess of operation {}", name);
+                        return false;
+                    }
+                }
+                finally {
+                    metrics.recordPreProcess(name, System.nanoTime() - start);
+                }
             }
+            return true;
+        }
+        finally {
+            metrics.recordPhase(BindChainMetrics.PHASE_PREPROCESS, System.nanoTime() - phaseStart);
         }
-        return true;
     }
 
     private void lock(BindContext context) {
         log.debug("Requesting locks");
-        context.lockPools();
+        long start = System.nanoTime();
+        int rows = context.lockPools();
+        metrics.recordLock(System.nanoTime() - start, rows);
         log.debug("Successfully achieved locks");
     }
 
     private boolean execute(BindContext context) {
-        for (BindOperation operation : operations) {
-            log.debug("Starting execute of {}", operation.getClass().getSimpleName());
-            try {
-                if (operation.execute(context)) {
-                    log.debug("Finished execute of {}", operation.getClass().getSimpleName());
+        long phaseStart = System.nanoTime();
+
+        try {
+            for (BindOperation operation : operations) {
+                String name = operation.getClass().getSimpleName();
+                long start = System.nanoTime();
+
+                log.debug("Starting execute of {}", name);
+                try {
+                    if (operation.execute(context)) {
+                        log.debug("Finished execute of {}", name);
+                    }
+                    else {
+                        log.error("Skipped chain execute in operation {}", name);
+                        return false;
+                    }
                 }
-                else {
-                    log.error("Skipped chain execute in operation {}", operation.getClass().getSimpleName());
-                    return false;
+                catch (ConstraintViolationException e) {
+                    throw new ServiceUnavailableException("Error during entitlement creation, potentially " +
+                        "due to concurrent requests", e);
+                }
+                finally {
+                    metrics.recordExecute(name, System.nanoTime() - start);
                 }
             }
-            catch (ConstraintViolationException e) {
-                throw new ServiceUnavailableException("Error during entitlement creation, potentially due " +
-                    "to concurrent requests", e);
-            }
+            return true;
+        }
+        finally {
+            metrics.recordPhase(BindChainMetrics.PHASE_EXECUTE, System.nanoTime() - phaseStart);
         }
-        return true;
     }
 
     public Collection<Entitlement> run() throws EntitlementRefusedException {
-        if (preProcess(context)) {
-            lock(context);
-            if (execute(context)) {
-                return context.getEntitlementMap().values();
+        long start = System.nanoTime();
+        long jsStart = JsRunner.getThreadExecutionTime();
+
+        try {
+            if (preProcess(context)) {
+                lock(context);
+                if (execute(context)) {
+                    return context.getEntitlementMap().values();
+                }
             }
+            throw context.getException();
+        }
+        finally {
+            metrics.recordBind(System.nanoTime() - start, JsRunner.getThreadExecutionTime() - jsStart);
         }
-        throw context.getException();
     }
 }
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2009 - 2017 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.bind;
+
+import org.candlepin.util.Histogram;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * Records the time spent in each phase and operation of bind chains, along with the time spent
+ * waiting for pool locks, the number of pool rows locked and the time spent executing javascript
+ * rules. The metrics are exposed as Prometheus histograms through the admin resource, and
+ * optionally summarized over JMX.
+ */
+@Singleton
+public class BindChainMetrics implements BindChainMetricsMXBean {
+
+    /** The name under which the metrics are registered with the platform MBean server */
+    public static final String OBJECT_NAME = "org.candlepin:type=BindChainMetrics";
+
+    /** Phase names, as exported in the "phase" label of the phase and operation histograms */
+    public static final String PHASE_PREPROCESS = "preprocess";
+    public static final String PHASE_EXECUTE = "execute";
+
+    private static final double[] TIME_BUCKETS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25,
+        0.5, 1, 2.5, 5, 10 };
+
+    private static final double[] ROW_BUCKETS = { 0, 1, 2, 5, 10, 25, 50, 100, 250 };
+
+    private final Histogram bindTime = new Histogram(TIME_BUCKETS);
+    private final Histogram lockWaitTime = new Histogram(TIME_BUCKETS);
+    private final Histogram rowsLocked = new Histogram(ROW_BUCKETS);
+    private final Histogram jsTime = new Histogram(TIME_BUCKETS);
+    private final ConcurrentMap<String, Histogram> phaseTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> preProcessTimes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> executeTimes = new ConcurrentHashMap<>();
+
+    /**
+     * Records a completed, or failed, run of a bind chain.
+     *
+     * @param nanos
+     *  the time taken to run the chain, in nanoseconds
+     *
+     * @param jsNanos
+     *  the time spent executing javascript rules during the run, in nanoseconds
+     */
+    public void recordBind(long nanos, long jsNanos) {
+        this.bindTime.record(toSeconds(nanos));
+        this.jsTime.record(toSeconds(jsNanos));
+    }
+
+    /**
+     * Records the locking of the pools of a bind.
+     *
+     * @param nanos
+     *  the time spent waiting for the locks, in nanoseconds
+     *
+     * @param rows
+     *  the number of pool rows locked
+     */
+    public void recordLock(long nanos, int rows) {
+        this.lockWaitTime.record(toSeconds(nanos));
+        this.rowsLocked.record(rows);
+    }
+
+    /**
+     * Records the time spent in a phase of a bind chain, over all of its operations.
+     *
+     * @param phase
+     *  the name of the phase
+     *
+     * @param nanos
+     *  the time spent in the phase, in nanoseconds
+     */
+    public void recordPhase(String phase, long nanos) {
+        histogram(this.phaseTimes, phase).record(toSeconds(nanos));
+    }
+
+    /**
+     * Records the time spent by a bind operation in the preprocess phase.
+     *
+     * @param operation
+     *  the name of the operation
+     *
+     * @param nanos
+     *  the time spent by the operation, in nanoseconds
+     */
+    public void recordPreProcess(String operation, long nanos) {
+        histogram(this.preProcessTimes, operation).record(toSeconds(nanos));
+    }
+
+    /**
+     * Records the time spent by a bind operation in the execute phase.
+     *
+     * @param operation
+     *  the name of the operation
+     *
+     * @param nanos
+     *  the time spent by the operation, in nanoseconds
+     */
+    public void recordExecute(String operation, long nanos) {
+        histogram(this.executeTimes, operation).record(toSeconds(nanos));
+    }
+
+    @Override
+    public long getBindCount() {
+        return this.bindTime.getCount();
+    }
+
+    @Override
+    public double getMeanBindMillis() {
+        return this.bindTime.getMean() * 1000;
+    }
+
+    @Override
+    public double getMeanLockWaitMillis() {
+        return this.lockWaitTime.getMean() * 1000;
+    }
+
+    @Override
+    public double getMeanRowsLocked() {
+        return this.rowsLocked.getMean();
+    }
+
+    @Override
+    public double getMeanJsMillis() {
+        return this.jsTime.getMean() * 1000;
+    }
+
+    @Override
+    public Map<String, Double> getMeanPreProcessMillis() {
+        return meanMillis(this.preProcessTimes);
+    }
+
+    @Override
+    public Map<String, Double> getMeanExecuteMillis() {
+        return meanMillis(this.executeTimes);
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format.
+     *
+     * @return
+     *  the metrics, formatted as Prometheus histograms
+     */
+    public String toPrometheusText() {
+        StringBuilder builder = new StringBuilder();
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_seconds", "Time taken to run bind chains");
+        this.bindTime.appendPrometheusText(builder, "candlepin_bind_seconds", "");
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_phase_seconds",
+            "Time spent in each phase of bind chains");
+        for (Map.Entry<String, Histogram> entry : sorted(this.phaseTimes).entrySet()) {
+            entry.getValue().appendPrometheusText(builder, "candlepin_bind_phase_seconds",
+                "phase=\"" + entry.getKey() + "\",");
+        }
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_operation_seconds",
+            "Time spent in each phase of each bind operation");
+        writeOperations(builder, PHASE_PREPROCESS, this.preProcessTimes);
+        writeOperations(builder, PHASE_EXECUTE, this.executeTimes);
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_lock_wait_seconds",
+            "Time spent waiting for pool locks");
+        this.lockWaitTime.appendPrometheusText(builder, "candlepin_bind_lock_wait_seconds", "");
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_rows_locked",
+            "Number of pool rows locked per bind");
+        this.rowsLocked.appendPrometheusText(builder, "candlepin_bind_rows_locked", "");
+
+        Histogram.appendPrometheusHeader(builder, "candlepin_bind_js_seconds",
+            "Time spent executing javascript rules per bind");
+        this.jsTime.appendPrometheusText(builder, "candlepin_bind_js_seconds", "");
+
+        return builder.toString();
+    }
+
+    private static void writeOperations(StringBuilder builder, String phase, Map<String, Histogram> times) {
+        for (Map.Entry<String, Histogram> entry : sorted(times).entrySet()) {
+            String labels = "operation=\"" + entry.getKey() + "\",phase=\"" + phase + "\",";
+            entry.getValue().appendPrometheusText(builder, "candlepin_bind_operation_seconds", labels);
+        }
+    }
+
+    private static Histogram histogram(ConcurrentMap<String, Histogram> histograms, String key) {
+        // Avoid the locking of computeIfAbsent once the histogram exists, which is nearly always
+        Histogram histogram = histograms.get(key);
+        return histogram != null ? histogram :
+            histograms.computeIfAbsent(key, k -> new Histogram(TIME_BUCKETS));
+    }
+
+    private static SortedMap<String, Histogram> sorted(Map<String, Histogram> histograms) {
+        return new TreeMap<>(histograms);
+    }
+
+    private static Map<String, Double> meanMillis(Map<String, Histogram> histograms) {
+        SortedMap<String, Double> means = new TreeMap<>();
+
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            means.put(entry.getKey(), entry.getValue().getMean() * 1000);
+        }
+
+        return means;
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+}
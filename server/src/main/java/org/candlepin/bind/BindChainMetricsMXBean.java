@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) 2009 - 2017 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.bind;
+
+import java.util.Map;
+
+
+
+/**
+ * Management interface exposing a summary of the bind chain metrics over JMX.
+ */
+public interface BindChainMetricsMXBean {
+
+    /**
+     * @return the number of bind chains run
+     */
+    long getBindCount();
+
+    /**
+     * @return the mean time taken to run a bind chain, in milliseconds
+     */
+    double getMeanBindMillis();
+
+    /**
+     * @return the mean time spent waiting for pool locks per bind, in milliseconds
+     */
+    double getMeanLockWaitMillis();
+
+    /**
+     * @return the mean number of pool rows locked per bind
+     */
+    double getMeanRowsLocked();
+
+    /**
+     * @return the mean time spent executing javascript rules per bind, in milliseconds
+     */
+    double getMeanJsMillis();
+
+    /**
+     * @return the mean time spent in the preprocess phase of each bind operation, in milliseconds
+     */
+    Map<String, Double> getMeanPreProcessMillis();
+
+    /**
+     * @return the mean time spent in the execute phase of each bind operation, in milliseconds
+     */
+    Map<String, Double> getMeanExecuteMillis();
+}
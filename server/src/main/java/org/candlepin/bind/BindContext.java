@@ -14,6 +14,8 @@
  */
 package org.candlepin.bind;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerType;
@@ -22,8 +24,10 @@ import org.candlepin.model.Entitlement;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.model.Pool;
+import org.candlepin.model.Pool.PoolType;
 import org.candlepin.model.PoolCurator;
 import org.candlepin.model.PoolQuantity;
+import org.candlepin.model.Product;
 import org.candlepin.policy.EntitlementRefusedException;
 import org.candlepin.util.Util;
 
@@ -35,7 +39,9 @@ import org.xnap.commons.i18n.I18n;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * - Container class for holding bind information.
@@ -53,6 +59,7 @@ public class BindContext {
     private Map<String, PoolQuantity> poolQuantities;
     private Map<String, Entitlement> entitlementMap;
     private Map<String, Integer> quantities;
+    private Set<String> escrowedPoolIds = new HashSet<>();
     private boolean quantityRequested = false;
     //change to generic type in future if needed
     private EntitlementRefusedException exception;
@@ -61,6 +68,7 @@ public class BindContext {
     private ConsumerTypeCurator consumerTypeCurator;
     private OwnerCurator ownerCurator;
     private I18n i18n;
+    private Configuration config;
 
     @Inject
     public BindContext(PoolCurator poolCurator,
@@ -68,6 +76,7 @@ public class BindContext {
         ConsumerTypeCurator consumerTypeCurator,
         OwnerCurator ownerCurator,
         I18n i18n,
+        Configuration config,
         @Assisted Consumer consumer,
         @Assisted Map<String, Integer> quantities) {
 
@@ -76,6 +85,7 @@ public class BindContext {
         this.consumerTypeCurator = consumerTypeCurator;
         this.ownerCurator = ownerCurator;
         this.i18n = i18n;
+        this.config = config;
         this.consumer = consumer;
         this.quantities = quantities;
     }
@@ -123,12 +133,73 @@ public class BindContext {
 
     /**
      * locks the pools and replaces the existing entities in poolQuantities.
+     * <p></p>
+     * Pools eligible for escrow are not locked. Their quantities are instead reserved through an
+     * atomic update once the rules have been checked, leaving the pool's row locked only from then
+     * until the bind's transaction completes.
+     *
+     * @return
+     *  the number of pools locked
      */
-    public void lockPools() {
-        Collection<Pool> pools = poolCurator.lockAndLoadByIds(poolQuantities.keySet());
+    public int lockPools() {
+        long minEscrowQuantity = this.config.getLong(ConfigProperties.BIND_ESCROW_MIN_POOL_QUANTITY, 0L);
+        Set<String> lockPoolIds = new HashSet<>();
+
+        for (PoolQuantity poolQuantity : poolQuantities.values()) {
+            Pool pool = poolQuantity.getPool();
+
+            if (this.isEscrowEligible(pool, minEscrowQuantity)) {
+                escrowedPoolIds.add(pool.getId());
+            }
+            else {
+                lockPoolIds.add(pool.getId());
+            }
+        }
+
+        if (lockPoolIds.isEmpty()) {
+            return 0;
+        }
+
+        Collection<Pool> pools = poolCurator.lockAndLoadByIds(lockPoolIds);
         for (Pool pool: pools) {
             poolQuantities.get(pool.getId()).setPool(pool);
         }
+
+        return pools.size();
+    }
+
+    /**
+     * Checks whether or not a pool's quantity may be reserved through escrow rather than by locking
+     * the pool. Only large or unlimited normal pools are eligible, and only when binding them has no
+     * side effects on other pools: manifest consumers, stacking, bonus pool and derived pool updates
+     * all require the pool to be locked.
+     */
+    private boolean isEscrowEligible(Pool pool, long minEscrowQuantity) {
+        if (minEscrowQuantity < 1 || this.getConsumerType().isManifest()) {
+            return false;
+        }
+
+        if (pool.getType() != PoolType.NORMAL || pool.isStacked() || pool.getDerivedProduct() != null ||
+            pool.hasProductAttribute(Product.Attributes.VIRT_LIMIT)) {
+            return false;
+        }
+
+        return pool.isUnlimited() || pool.getQuantity() >= minEscrowQuantity;
+    }
+
+    /**
+     * Checks whether or not the quantity of the given pool is reserved through escrow rather than
+     * by locking the pool. Escrowed pools are not locked, and their consumed counts must not be
+     * updated through the pool entity.
+     *
+     * @param poolId
+     *  the ID of the pool to check
+     *
+     * @return
+     *  true if the pool's quantity is reserved through escrow; false otherwise
+     */
+    public boolean isEscrowed(String poolId) {
+        return escrowedPoolIds.contains(poolId);
     }
 
     public Consumer getLockedConsumer() {
@@ -82,14 +82,20 @@ public class HandleEntitlementsOp implements BindOperation {
             ent.setConsumer(consumer);
             ent.setOwner(pool.getOwner());
 
+            consumer.addEntitlement(ent);
+            consumer.setEntitlementCount(consumer.getEntitlementCount() + quantity);
+
+            // Escrowed pools have their consumed count updated when their quantity is reserved
+            if (context.isEscrowed(pool.getId())) {
+                continue;
+            }
+
             pool.setConsumed(pool.getConsumed() + quantity);
 
             if (ctype.isManifest()) {
                 pool.setExported(pool.getExported() + quantity);
             }
 
-            consumer.addEntitlement(ent);
-            consumer.setEntitlementCount(consumer.getEntitlementCount() + quantity);
             poolsToSave.add(pool);
         }
 
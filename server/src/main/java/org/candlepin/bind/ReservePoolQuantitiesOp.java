@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2009 - 2017 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.bind;
+
+import org.candlepin.model.PoolCurator;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.policy.EntitlementRefusedException;
+import org.candlepin.policy.ValidationResult;
+import org.candlepin.policy.js.entitlement.EntitlementRulesTranslator;
+
+import com.google.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+
+/**
+ * This bind operation reserves the quantities of escrowed pools. Escrowed pools are not locked
+ * during the bind; instead, their consumed counts are updated through a single conditional update
+ * performed right after the rules have been checked, before the chain writes anything else. If a
+ * pool no longer has enough quantity available, the reservations already made are released and the
+ * bind is refused in the same way the rules refuse an exhausted pool.
+ */
+public class ReservePoolQuantitiesOp implements BindOperation {
+    private static Logger log = LoggerFactory.getLogger(ReservePoolQuantitiesOp.class);
+
+    private PoolCurator poolCurator;
+
+    @Inject
+    public ReservePoolQuantitiesOp(PoolCurator poolCurator) {
+        this.poolCurator = poolCurator;
+    }
+
+    @Override
+    public boolean preProcess(BindContext context) {
+        return true;
+    }
+
+    /**
+     * Reserves the quantities of the escrowed pools in pool ID order, so concurrent binds touching
+     * the same pools acquire their row locks in a consistent order.
+     */
+    @Override
+    public boolean execute(BindContext context) {
+        Map<String, Integer> escrowed = new TreeMap<>();
+        for (Map.Entry<String, PoolQuantity> entry : context.getPoolQuantities().entrySet()) {
+            if (context.isEscrowed(entry.getKey())) {
+                escrowed.put(entry.getKey(), entry.getValue().getQuantity());
+            }
+        }
+
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Integer> entry : escrowed.entrySet()) {
+            String poolId = entry.getKey();
+            int quantity = entry.getValue();
+            if (!this.poolCurator.reserveQuantity(poolId, quantity)) {
+                log.warn("Unable to reserve quantity {} of escrowed pool {}", quantity, poolId);
+
+                // The refusal is a checked exception, which does not roll back the transaction, so
+                // the reservations made so far have to be released explicitly
+                for (Map.Entry<String, Integer> reservation : reserved.entrySet()) {
+                    this.poolCurator.releaseQuantity(reservation.getKey(), reservation.getValue());
+                }
+
+                ValidationResult result = new ValidationResult();
+                result.addError(EntitlementRulesTranslator.PoolErrorKeys.NO_ENTITLEMENTS_AVAILABLE);
+
+                Map<String, ValidationResult> results = new HashMap<>();
+                results.put(poolId, result);
+
+                context.setException(new EntitlementRefusedException(results),
+                    Thread.currentThread().getStackTrace());
+
+                return false;
+            }
+
+            reserved.put(poolId, quantity);
+        }
+
+        return true;
+    }
+
+}
@@ -16,6 +16,12 @@ package org.candlepin.cache;
 
 import com.google.inject.Inject;
 
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.statistics.StatisticsGateway;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.cache.CacheManager;
 import javax.inject.Singleton;
 
@@ -40,9 +46,8 @@ public class CandlepinCache {
     @Inject
     public CandlepinCache(CacheManager cacheManager) {
         this.cacheManager = cacheManager;
-        // Safe to create this as many times as you'd like
-        // since the same static Status instance will be
-        // reused across all instances.
+        // The cached status itself is shared by all instances, but this instance owns the
+        // refresher thread, which is stopped when the context is destroyed.
         this.statusCache = new StatusCache();
     }
 
@@ -56,4 +61,43 @@ public class CandlepinCache {
         return this.statusCache;
     }
 
+    /**
+     * Retrieves the statistics of the product and content second-level cache regions. Regions
+     * which have not yet been created by Hibernate are omitted.
+     *
+     * @return a list of statistics, one per active region
+     */
+    public List<CacheRegionStatus> getRegionStatistics() {
+        List<CacheRegionStatus> results = new ArrayList<>();
+
+        for (String region : CandlepinCacheRegions.PRODUCT_AND_CONTENT_CACHES) {
+            Ehcache cache = this.findEhcache(region);
+
+            if (cache != null) {
+                StatisticsGateway stats = cache.getStatistics();
+
+                results.add(new CacheRegionStatus(region, stats.getSize(), stats.cacheHitCount(),
+                    stats.cacheMissCount(), stats.cacheEvictedCount(), stats.cacheExpiredCount()));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Looks up the given region in the Ehcache managers. Hibernate's region factory manages its
+     * own CacheManager instance, separate from the JCache one, so we need to check all of them.
+     */
+    private Ehcache findEhcache(String region) {
+        for (net.sf.ehcache.CacheManager manager : net.sf.ehcache.CacheManager.ALL_CACHE_MANAGERS) {
+            Ehcache cache = manager.getEhcache(region);
+
+            if (cache != null) {
+                return cache;
+            }
+        }
+
+        return null;
+    }
+
 }
@@ -21,6 +21,22 @@ package org.candlepin.cache;
 public class CandlepinCacheRegions {
     public static final String FIVE_SECONDS_QUERY_CACHE = "query-5-seconds";
 
+    // Second-level cache regions for versioned product and content entities and their collections
+    public static final String PRODUCT_CACHE = "product";
+    public static final String PRODUCT_ATTRIBUTES_CACHE = "product.attributes";
+    public static final String PRODUCT_PRODUCT_CONTENT_CACHE = "product.productContent";
+    public static final String PRODUCT_DEPENDENT_PRODUCTS_CACHE = "product.dependentProductIds";
+    public static final String PRODUCT_CONTENT_CACHE = "productContent";
+    public static final String CONTENT_CACHE = "content";
+    public static final String CONTENT_MODIFIED_PRODUCTS_CACHE = "content.modifiedProductIds";
+
+    /** All of the product and content regions */
+    public static final String[] PRODUCT_AND_CONTENT_CACHES = {
+        PRODUCT_CACHE, PRODUCT_ATTRIBUTES_CACHE, PRODUCT_PRODUCT_CONTENT_CACHE,
+        PRODUCT_DEPENDENT_PRODUCTS_CACHE, PRODUCT_CONTENT_CACHE, CONTENT_CACHE,
+        CONTENT_MODIFIED_PRODUCTS_CACHE
+    };
+
     private CandlepinCacheRegions() {
 
     }
@@ -15,47 +15,123 @@
 package org.candlepin.cache;
 
 import org.candlepin.dto.api.v1.StatusDTO;
+
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 
 
 /**
  * Caches a {@link org.candlepin.dto.api.v1.StatusDTO} for 5 seconds.
+ * <p></p>
+ * The cache holds an immutable {@link Snapshot} of the status along with its serialized response
+ * body, and is lock-free, as the status is fetched by every client check-in. Once a snapshot
+ * expires it is still served while a single background refresh, started with
+ * {@link #refresh(Runnable)}, rebuilds it. The refresher thread is owned by the instance held by
+ * the {@link CandlepinCache} singleton, and is stopped with {@link #shutdown()}.
  */
 public class StatusCache {
     private static Logger log = LoggerFactory.getLogger(StatusCache.class);
-    private static final Object LOCK = new Object();
 
     /** The Time-To-Live setting for our cached status object, in milliseconds */
     private static final int STATUS_CACHE_TTL = 5000;
 
-    /** Cached status object; Will be discarded after STATUS_CACHE_TTL milliseconds */
-    private static volatile StatusDTO cachedStatus;
+    /** Cached status snapshot; Considered stale after STATUS_CACHE_TTL milliseconds */
+    private static final AtomicReference<Snapshot> CACHED_SNAPSHOT = new AtomicReference<>();
+
+    /** Incremented whenever the cache is cleared, so a refresh started before then is discarded */
+    private static final AtomicLong GENERATION = new AtomicLong(0);
 
+    /** Set while a refresh of the cached snapshot is queued or running */
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    /** Created on the first refresh, so instances which are never refreshed own no thread */
+    private ExecutorService refresher;
+    private boolean shutdown;
+
+    /**
+     * An immutable status snapshot, consisting of the status, its serialized representation and
+     * an entity tag derived from the serialized representation.
+     */
+    public static class Snapshot {
+        private final StatusDTO status;
+        private final byte[] body;
+        private final String etag;
+        private final long created;
+
+        public Snapshot(StatusDTO status, byte[] body) {
+            this.status = status;
+            this.body = body;
+            this.etag = body != null ? DigestUtils.sha1Hex(body) : null;
+            this.created = status.getTimeUTC() != null ?
+                status.getTimeUTC().getTime() :
+                System.currentTimeMillis();
+        }
+
+        public StatusDTO getStatus() {
+            return this.status;
+        }
+
+        /**
+         * @return the serialized status, or null if the status was cached without one
+         */
+        public byte[] getBody() {
+            return this.body;
+        }
+
+        public String getEtag() {
+            return this.etag;
+        }
+
+        public long getAge() {
+            return System.currentTimeMillis() - this.created;
+        }
+
+        public boolean isExpired() {
+            return this.getAge() > STATUS_CACHE_TTL;
+        }
+    }
 
     /**
      * Gets the current Status in the cache.
-     * @return the current {@link Status}, null if it has not yet been set.
+     * @return the current {@link Status}, null if it has not yet been set or has expired.
      */
     public StatusDTO getStatus() {
-        synchronized (LOCK) {
-            // Check if we can return our cached status
-            if (cachedStatus != null && cachedStatus.getTimeUTC() != null) {
-                long lastUpdateTimeSkew = System.currentTimeMillis() - cachedStatus.getTimeUTC().getTime();
-                if (lastUpdateTimeSkew <= STATUS_CACHE_TTL) {
-                    log.debug("Returning cached status. Last Update Date: {}, Age: {}ms",
-                        cachedStatus.getTimeUTC(), lastUpdateTimeSkew);
-                    return cachedStatus;
-                }
-                log.debug("Cache existed but had expired. Date: {}, Age: {}ms", cachedStatus.getTimeUTC(),
-                    lastUpdateTimeSkew);
-            }
-            // If the cached value was invalidated, reset it.
-            reset();
+        Snapshot snapshot = CACHED_SNAPSHOT.get();
+
+        if (snapshot == null) {
+            return null;
+        }
+
+        if (snapshot.isExpired()) {
+            log.debug("Cache existed but had expired. Date: {}, Age: {}ms",
+                snapshot.getStatus().getTimeUTC(), snapshot.getAge());
+
+            return null;
         }
-        // Return null if the cached value was invalidated.
-        return null;
+
+        log.debug("Returning cached status. Last Update Date: {}, Age: {}ms",
+            snapshot.getStatus().getTimeUTC(), snapshot.getAge());
+
+        return snapshot.getStatus();
+    }
+
+    /**
+     * Gets the current status snapshot in the cache, regardless of whether or not it has expired.
+     *
+     * @return the current {@link Snapshot}, null if it has not yet been set.
+     */
+    public Snapshot getSnapshot() {
+        return CACHED_SNAPSHOT.get();
     }
 
     /**
@@ -64,21 +140,135 @@ public class StatusCache {
      * @param status the Status to set.
      */
     public void setStatus(StatusDTO status) {
-        synchronized (LOCK) {
-            cachedStatus = status;
+        this.setStatus(status, null);
+    }
+
+    /**
+     * Sets the value of the cached status value, along with its serialized representation.
+     *
+     * @param status the Status to set.
+     * @param body the serialized status
+     * @return the snapshot now held by the cache
+     */
+    public Snapshot setStatus(StatusDTO status, byte[] body) {
+        Snapshot snapshot = status != null ? new Snapshot(status, body) : null;
+        CACHED_SNAPSHOT.set(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Sets the value of the cached status value, along with its serialized representation, unless
+     * the cache has been cleared since the given generation was fetched, in which case the status
+     * was built from state which is no longer current and is not cached.
+     *
+     * @param status the Status to set.
+     * @param body the serialized status
+     * @param generation the generation fetched before the status was built
+     * @return the snapshot built from the status, whether or not it was cached
+     */
+    public Snapshot setStatus(StatusDTO status, byte[] body, long generation) {
+        Snapshot snapshot = status != null ? new Snapshot(status, body) : null;
+
+        synchronized (CACHED_SNAPSHOT) {
+            if (GENERATION.get() == generation) {
+                CACHED_SNAPSHOT.set(snapshot);
+            }
+            else {
+                log.debug("Discarding status built before the status cache was cleared");
+            }
         }
+
+        return snapshot;
+    }
+
+    /**
+     * Fetches the current generation of the cache, which is to be passed to
+     * {@link #setStatus(StatusDTO, byte[], long)} once a new status has been built.
+     *
+     * @return the current generation of the cache
+     */
+    public long getGeneration() {
+        return GENERATION.get();
     }
 
     /**
-     * Clear the cached status to allow forced regeneration.
+     * Runs the given task on the background refresher thread, unless a refresh is already queued
+     * or running, in which case the task is dropped.
+     *
+     * @param task the task rebuilding the cached status
+     * @return true if the task was queued; false otherwise
      */
-    public void clear() {
-        synchronized (LOCK) {
-            reset();
+    public boolean refresh(final Runnable task) {
+        if (!this.refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            this.getRefresher().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    }
+                    catch (Exception e) {
+                        log.warn("Unable to refresh the cached status", e);
+                    }
+                    finally {
+                        refreshing.set(false);
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            this.refreshing.set(false);
+            log.warn("Unable to schedule a refresh of the cached status", e);
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private synchronized ExecutorService getRefresher() {
+        if (this.shutdown) {
+            throw new RejectedExecutionException("The status refresher has been shut down");
+        }
+
+        if (this.refresher == null) {
+            this.refresher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Status Refresher");
+                    thread.setDaemon(true);
+
+                    return thread;
+                }
+            });
+        }
+
+        return this.refresher;
+    }
+
+    /**
+     * Stops the background refresher thread. Any refresh requested afterward is dropped.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+
+        if (this.refresher != null) {
+            this.refresher.shutdownNow();
         }
     }
 
-    private void reset() {
-        cachedStatus = null;
+    /**
+     * Clear the cached status to allow forced regeneration. A refresh which is running while the
+     * cache is cleared does not store its result.
+     */
+    public void clear() {
+        synchronized (CACHED_SNAPSHOT) {
+            GENERATION.incrementAndGet();
+            CACHED_SNAPSHOT.set(null);
+        }
     }
 }
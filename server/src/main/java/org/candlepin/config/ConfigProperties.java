@@ -20,6 +20,9 @@ import static org.candlepin.common.config.ConfigurationPrefixes.JPA_CONFIG_PREFI
 import org.candlepin.pinsetter.tasks.ActiveEntitlementJob;
 import org.candlepin.pinsetter.tasks.CancelJobJob;
 import org.candlepin.pinsetter.tasks.CertificateRevocationListTask;
+import org.candlepin.pinsetter.tasks.ContentAccessPayloadJob;
+import org.candlepin.pinsetter.tasks.DirtyEntitlementCertJob;
+import org.candlepin.pinsetter.tasks.EntitleByProductsJob;
 import org.candlepin.pinsetter.tasks.EntitlerJob;
 import org.candlepin.pinsetter.tasks.ExpiredPoolsJob;
 import org.candlepin.pinsetter.tasks.ImportRecordJob;
@@ -128,6 +131,11 @@ public class ConfigProperties {
     public static final String OAUTH_AUTHENTICATION = "candlepin.auth.oauth.enable";
     public static final String BASIC_AUTHENTICATION = "candlepin.auth.basic.enable";
 
+    // Principal cache, used to avoid reloading identities and permissions on every request
+    public static final String PRINCIPAL_CACHE_ENABLED = "candlepin.auth.principal_cache.enable";
+    public static final String PRINCIPAL_CACHE_TTL = "candlepin.auth.principal_cache.ttl";
+    public static final String PRINCIPAL_CACHE_MAX_SIZE = "candlepin.auth.principal_cache.max_size";
+
     // AMQP stuff
     public static final String AMQP_INTEGRATION_ENABLED = "candlepin.amqp.enable";
     public static final String AMQP_CONNECT_STRING = "candlepin.amqp.connect";
@@ -175,6 +183,8 @@ public class ConfigProperties {
         ActiveEntitlementJob.class.getName(),
         CancelJobJob.class.getName(),
         CertificateRevocationListTask.class.getName(),
+        ContentAccessPayloadJob.class.getName(),
+        DirtyEntitlementCertJob.class.getName(),
         ExpiredPoolsJob.class.getName(),
         ImportRecordJob.class.getName(),
         JobCleaner.class.getName(),
@@ -185,6 +195,72 @@ public class ConfigProperties {
         UnpauseJob.class.getName(),
     };
 
+    /**
+     * Short-lived one-time jobs listed here are executed by the in-process job queue rather than
+     * being stored in Quartz, when enabled. Only the JobStatus is persisted for these jobs. If a
+     * journal file is configured, pending jobs are replayed from it after a restart. Jobs run by
+     * this queue are only ordered per node, so HypervisorUpdateJob, whose jobs must be ordered
+     * across the cluster, is always run through Quartz.
+     */
+    public static final String INPROCESS_JOBS_ENABLED = "pinsetter.inprocess.enabled";
+    public static final String INPROCESS_JOBS = "pinsetter.inprocess.jobs";
+    public static final String INPROCESS_JOB_THREADS = "pinsetter.inprocess.threads";
+    public static final String INPROCESS_JOB_QUEUE_SIZE = "pinsetter.inprocess.queue_size";
+    public static final String INPROCESS_JOB_JOURNAL = "pinsetter.inprocess.journal";
+
+    public static final String[] DEFAULT_INPROCESS_JOB_LIST = new String[] {
+        EntitlerJob.class.getName(),
+        EntitleByProductsJob.class.getName(),
+    };
+
+    // Bulk compliance recalculation
+    public static final String BULK_COMPLIANCE_BLOCK_SIZE = "candlepin.compliance.bulk.block_size";
+    public static final String BULK_COMPLIANCE_THREADS = "candlepin.compliance.bulk.threads";
+
+    // Partitioned heal of an entire org; a single thread heals the org's consumers sequentially
+    public static final String HEAL_ORG_THREADS = "candlepin.heal_org.threads";
+    public static final String HEAL_ORG_PARTITION_SIZE = "candlepin.heal_org.partition_size";
+
+    // Owner info snapshots; a max age of zero computes the owner info on every request
+    public static final String OWNER_INFO_MAX_AGE = "candlepin.owner_info.max_age";
+    public static final String OWNER_INFO_MAX_SIZE = "candlepin.owner_info.max_size";
+
+    // Discards pools the rules would reject before listing pools through the rules
+    public static final String POOL_LIST_PREFILTER = "candlepin.pool.list_prefilter.enable";
+
+    // Calculates suggested quantities in Java rather than through the quantity rules
+    public static final String QUANTITY_RULES_JAVA = "candlepin.quantity_rules.java.enable";
+
+    // Refreshes the pools of all of an owner's subscriptions as a set rather than one at a time
+    public static final String REFRESH_POOLS_BULK = "candlepin.refresh_pools.bulk.enable";
+
+    // The number of subscriptions refresh pools jobs commit per transaction; zero disables blocks
+    public static final String REFRESH_POOLS_BLOCK_SIZE = "candlepin.refresh_pools.block_size";
+
+    // Pools of at least this quantity, or unlimited, reserve bind quantities without locking the
+    // pool for the duration of the bind; zero disables reservations
+    public static final String BIND_ESCROW_MIN_POOL_QUANTITY = "candlepin.bind.escrow.min_pool_quantity";
+
+    // Whether or not to register the bind chain metrics with the platform MBean server
+    public static final String BIND_METRICS_JMX = "candlepin.bind.metrics.jmx";
+
+    // Whether or not the pools of an activation key are bound to a registering consumer together
+    public static final String ACTIVATION_KEY_COALESCE_BINDS = "candlepin.activation_key.coalesce_binds";
+
+    // Cache of the pool quantities bound to consumers registering with activation keys
+    public static final String ACTIVATION_KEY_BIND_PLAN_CACHE_ENABLED =
+        "candlepin.activation_key.bind_plan_cache.enable";
+    public static final String ACTIVATION_KEY_BIND_PLAN_CACHE_TTL =
+        "candlepin.activation_key.bind_plan_cache.ttl";
+    public static final String ACTIVATION_KEY_BIND_PLAN_CACHE_MAX_SIZE =
+        "candlepin.activation_key.bind_plan_cache.max_size";
+
+    // Regenerates dirty entitlement certificates in the background, most recently checked in
+    // consumers first, ahead of the regeneration performed when consumers fetch their certificates
+    public static final String DIRTY_CERT_WORKER_ENABLED = "candlepin.dirty_certs.worker.enable";
+    public static final String DIRTY_CERT_WORKER_BATCH_SIZE = "candlepin.dirty_certs.worker.batch_size";
+    public static final String DIRTY_CERT_WORKER_THREADS = "candlepin.dirty_certs.worker.threads";
+
     public static final String MANIFEST_CLEANER_JOB_MAX_AGE_IN_MINUTES =
         "pinsetter.org.candlepin.pinsetter.tasks.ManifestCleanerJob.max_age_in_minutes";
 
@@ -218,6 +294,10 @@ public class ConfigProperties {
 
     public static final String PRODUCT_CACHE_MAX = "candlepin.cache.product_cache_max";
 
+    // Per-owner product ID to UUID mappings cached by the OwnerProductCurator
+    public static final String OWNER_PRODUCT_ID_CACHE_TTL = "candlepin.cache.owner_product_ids.ttl";
+    public static final String OWNER_PRODUCT_ID_CACHE_MAX = "candlepin.cache.owner_product_ids.max_owners";
+
     public static final String INTEGER_FACTS = "candlepin.integer_facts";
     private static final String INTEGER_FACT_LIST = "";
 
@@ -323,6 +403,9 @@ public class ConfigProperties {
             this.put(SSL_AUTHENTICATION, "true");
             this.put(OAUTH_AUTHENTICATION, "false");
             this.put(BASIC_AUTHENTICATION, "true");
+            this.put(PRINCIPAL_CACHE_ENABLED, "true");
+            this.put(PRINCIPAL_CACHE_TTL, "30");
+            this.put(PRINCIPAL_CACHE_MAX_SIZE, "10000");
             this.put(AUTH_OVER_HTTP, "false");
             // By default, environments should be hidden so clients do not need to
             // submit one when registering.
@@ -342,6 +425,30 @@ public class ConfigProperties {
             this.put(DEFAULT_TASKS, StringUtils.join(DEFAULT_TASK_LIST, ","));
             this.put(ENTITLER_JOB_THROTTLE, "7");
             this.put(BATCH_BIND_NUMBER_OF_POOLS_LIMIT, "100");
+            this.put(INPROCESS_JOBS_ENABLED, "false");
+            this.put(INPROCESS_JOBS, StringUtils.join(DEFAULT_INPROCESS_JOB_LIST, ","));
+            this.put(INPROCESS_JOB_THREADS, "5");
+            this.put(INPROCESS_JOB_QUEUE_SIZE, "1000");
+            this.put(INPROCESS_JOB_JOURNAL, "");
+            this.put(BULK_COMPLIANCE_BLOCK_SIZE, "500");
+            this.put(BULK_COMPLIANCE_THREADS, "4");
+            this.put(HEAL_ORG_THREADS, "1");
+            this.put(HEAL_ORG_PARTITION_SIZE, "100");
+            this.put(OWNER_INFO_MAX_AGE, "60");
+            this.put(OWNER_INFO_MAX_SIZE, "1000");
+            this.put(POOL_LIST_PREFILTER, "true");
+            this.put(QUANTITY_RULES_JAVA, "true");
+            this.put(REFRESH_POOLS_BULK, "true");
+            this.put(REFRESH_POOLS_BLOCK_SIZE, "0");
+            this.put(BIND_ESCROW_MIN_POOL_QUANTITY, "0");
+            this.put(BIND_METRICS_JMX, "false");
+            this.put(ACTIVATION_KEY_COALESCE_BINDS, "true");
+            this.put(ACTIVATION_KEY_BIND_PLAN_CACHE_ENABLED, "true");
+            this.put(ACTIVATION_KEY_BIND_PLAN_CACHE_TTL, "300");
+            this.put(ACTIVATION_KEY_BIND_PLAN_CACHE_MAX_SIZE, "1000");
+            this.put(DIRTY_CERT_WORKER_ENABLED, "true");
+            this.put(DIRTY_CERT_WORKER_BATCH_SIZE, "1000");
+            this.put(DIRTY_CERT_WORKER_THREADS, "4");
 
             // AMQP (Qpid) configuration used by events
             this.put(AMQP_INTEGRATION_ENABLED, String.valueOf(false));
@@ -385,6 +492,15 @@ public class ConfigProperties {
              */
             this.put(PRODUCT_CACHE_MAX, "100");
 
+            /**
+             *  Defines how long, in seconds, an owner's product ID to UUID mappings may be served
+             *  from memory, and for how many owners such mappings are kept. Local changes are
+             *  applied immediately; the TTL bounds how long changes made by other nodes can go
+             *  unnoticed. A TTL of zero disables the cache.
+             */
+            this.put(OWNER_PRODUCT_ID_CACHE_TTL, "60");
+            this.put(OWNER_PRODUCT_ID_CACHE_MAX, "500");
+
             /**
              * As we do math on some facts and attributes, we need to constrain
              * some values
@@ -23,6 +23,7 @@ import org.candlepin.audit.EventSink;
 import org.candlepin.bind.BindChainFactory;
 import org.candlepin.bind.PoolOperationCallback;
 import org.candlepin.common.config.Configuration;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.config.ConfigProperties;
@@ -41,6 +42,7 @@ import org.candlepin.model.Entitlement;
 import org.candlepin.model.EntitlementCertificateCurator;
 import org.candlepin.model.EntitlementCurator;
 import org.candlepin.model.Environment;
+import org.candlepin.model.KeysetPaging;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerContentCurator;
 import org.candlepin.model.OwnerCurator;
@@ -98,6 +100,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -120,6 +123,11 @@ public class CandlepinPoolManager implements PoolManager {
 
     private static final int MAX_ENTITLE_RETRIES = 3;
 
+    /**
+     * The minimum number of pools read at a time when filling a keyset page of post-filtered pools
+     */
+    private static final int KEYSET_FILTER_CHUNK_SIZE = 100;
+
     private EventSink sink;
     private EventFactory eventFactory;
     private Configuration config;
@@ -247,6 +255,9 @@ public class CandlepinPoolManager implements PoolManager {
         Map<String, Product> updatedProducts = importResult.getUpdatedEntities();
 
         log.debug("Refreshing {} pool(s)...", subscriptionMap.size());
+        boolean bulk = this.config.getBoolean(ConfigProperties.REFRESH_POOLS_BULK, false);
+        List<Pool> masterPools = new ArrayList<>();
+
         for (Iterator<? extends SubscriptionInfo> si = subscriptionMap.values().iterator(); si.hasNext();) {
             SubscriptionInfo sub = si.next();
 
@@ -259,14 +270,243 @@ public class CandlepinPoolManager implements PoolManager {
 
             log.debug("Processing subscription: {}", sub);
             Pool pool = this.convertToMasterPoolImpl(sub, owner, importedProducts);
-            this.refreshPoolsForMasterPool(pool, false, lazy, updatedProducts);
+
+            if (bulk) {
+                masterPools.add(pool);
+            }
+            else {
+                this.refreshPoolsForMasterPool(pool, false, lazy, updatedProducts);
+            }
+        }
+
+        if (bulk) {
+            this.refreshPoolsForMasterPools(masterPools, lazy, updatedProducts);
+        }
+
+        this.refreshAbsentAndFloatingPools(owner, subscriptionMap.keySet(), lazy, updatedProducts);
+
+        log.info("Refresh pools for owner: {} completed in: {}ms", owner.getKey(),
+            System.currentTimeMillis() - now.getTime());
+    }
+
+    /**
+     * Refreshes the pools for the given owner in blocks of subscriptions, rather than in a single
+     * transaction. The content and products are imported in one transaction, each block of
+     * subscriptions is refreshed and committed in its own transaction, and the pools of absent
+     * subscriptions and floating pools are refreshed in a final transaction.
+     * <p></p>
+     * Subscriptions are refreshed in order of their IDs. If a checkpoint is provided, the ID of the
+     * last subscription in each block is recorded to it in the same transaction as the block, and
+     * subscriptions up to and including the recorded ID are skipped, allowing a refresh which failed
+     * part of the way through to resume from its last committed block. The checkpoint is cleared
+     * once the refresh completes. Likewise, the events of each block are sent as soon as the block
+     * has been committed, rather than once the entire refresh has succeeded.
+     * <p></p>
+     * Since a resumed refresh will not see the product changes imported by the attempt it resumes,
+     * the entitlements of the owner's pools using any updated product are marked dirty in the same
+     * transaction as the product import, ensuring their certificates are regenerated regardless of
+     * which blocks are committed. For the same reason, each block treats as changed any product its
+     * pools still reference in a version other than the owner's current version of the product, so
+     * pools left on a previous version by a failed attempt are updated by the attempt resuming it.
+     *
+     * @param subAdapter
+     *  the subscription service adapter from which to fetch the owner's subscriptions
+     *
+     * @param owner
+     *  the owner for which to refresh pools
+     *
+     * @param lazy
+     *  whether or not entitlement certificates of updated pools should be regenerated lazily
+     *
+     * @param blockSize
+     *  the number of subscriptions to refresh in each transaction
+     *
+     * @param checkpoint
+     *  the checkpoint with which to record the progress of the refresh; may be null
+     */
+    @Traceable
+    void refreshPoolsInBlocks(SubscriptionServiceAdapter subAdapter, @TraceableParam("owner") Owner owner,
+        boolean lazy, int blockSize, Refresher.Checkpoint checkpoint) {
+
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize is less than one: " + blockSize);
+        }
+
+        Date now = new Date();
+        owner = this.resolveOwner(owner);
+        log.info("Refreshing pools for owner in blocks of {} subscriptions: {}", blockSize, owner);
+
+        ImportedEntityCompiler compiler = new ImportedEntityCompiler();
+
+        log.debug("Fetching subscriptions from adapter...");
+        compiler.addSubscriptions(subAdapter.getSubscriptions(owner.getKey()));
+
+        ImportResult<Product> importResult = this.importRefreshProducts(owner, compiler.getProducts(),
+            compiler.getContent());
+
+        Map<String, Product> importedProducts = importResult.getImportedEntities();
+        Map<String, Product> updatedProducts = importResult.getUpdatedEntities();
+
+        List<SubscriptionInfo> subscriptions = new ArrayList<>();
+        Set<String> subscriptionIds = new HashSet<>();
+
+        for (SubscriptionInfo sub : compiler.getSubscriptions().values()) {
+            if (now.after(sub.getEndDate())) {
+                log.info("Skipping expired subscription: {}", sub);
+                continue;
+            }
+
+            subscriptions.add(sub);
+            subscriptionIds.add(sub.getId());
+        }
+
+        subscriptions.sort(Comparator.comparing(SubscriptionInfo::getId));
+
+        String lastSubscriptionId = checkpoint != null ? checkpoint.getLastSubscriptionId() : null;
+        if (lastSubscriptionId != null) {
+            log.info("Resuming refresh after subscription: {}", lastSubscriptionId);
+            subscriptions.removeIf(sub -> sub.getId().compareTo(lastSubscriptionId) <= 0);
+        }
+
+        log.debug("Refreshing {} pool(s)...", subscriptions.size());
+        for (List<SubscriptionInfo> block : Iterables.partition(subscriptions, blockSize)) {
+            this.refreshPoolsForSubscriptionBlock(owner, block, lazy, importedProducts, updatedProducts,
+                checkpoint);
+
+            // The block has been committed, so its events must go out even if a later block fails
+            // and the job's events are rolled back
+            this.sink.sendEvents();
+        }
+
+        this.finishRefreshInBlocks(owner, subscriptionIds, lazy, importedProducts, updatedProducts,
+            checkpoint);
+
+        log.info("Refresh pools for owner: {} completed in: {}ms", owner.getKey(),
+            System.currentTimeMillis() - now.getTime());
+    }
+
+    /**
+     * Imports the content and products of a refresh performed in blocks, marking the entitlements
+     * of any pools using updated products dirty.
+     */
+    @Transactional
+    ImportResult<Product> importRefreshProducts(Owner owner, Map<String, ? extends ProductInfo> productMap,
+        Map<String, ? extends ContentInfo> contentMap) {
+
+        log.debug("Importing {} content...", contentMap.size());
+        Map<String, Content> importedContent = this.contentManager
+            .importContent(owner, contentMap, productMap.keySet())
+            .getImportedEntities();
+
+        log.debug("Importing {} product(s)...", productMap.size());
+        ImportResult<Product> importResult = this.productManager
+            .importProducts(owner, productMap, importedContent);
+
+        Map<String, Product> updatedProducts = importResult.getUpdatedEntities();
+        if (!updatedProducts.isEmpty()) {
+            this.ecGenerator.regenerateCertificatesOf(Collections.singleton(owner), updatedProducts.values(),
+                true);
+        }
+
+        return importResult;
+    }
+
+    /**
+     * Refreshes the pools for a single block of subscriptions of a refresh performed in blocks,
+     * recording the last subscription of the block to the checkpoint, if present.
+     */
+    @Transactional
+    void refreshPoolsForSubscriptionBlock(Owner owner, List<SubscriptionInfo> subscriptions, boolean lazy,
+        Map<String, Product> importedProducts, Map<String, Product> changedProducts,
+        Refresher.Checkpoint checkpoint) {
+
+        List<Pool> masterPools = new ArrayList<>(subscriptions.size());
+        Set<String> subscriptionIds = new HashSet<>();
+
+        for (SubscriptionInfo sub : subscriptions) {
+            log.debug("Processing subscription: {}", sub);
+            masterPools.add(this.convertToMasterPoolImpl(sub, owner, importedProducts));
+            subscriptionIds.add(sub.getId());
+        }
+
+        List<Pool> existingPools = this.poolCurator.getPoolsBySubscriptionIds(subscriptionIds).list();
+        changedProducts = this.addOutdatedProducts(owner, existingPools, importedProducts, changedProducts);
+
+        this.refreshPoolsForMasterPools(masterPools, lazy, changedProducts);
+
+        if (checkpoint != null) {
+            checkpoint.setLastSubscriptionId(subscriptions.get(subscriptions.size() - 1).getId());
+        }
+    }
+
+    /**
+     * Completes a refresh performed in blocks by refreshing the pools of absent subscriptions and
+     * floating pools, clearing the checkpoint, if present.
+     */
+    @Transactional
+    void finishRefreshInBlocks(Owner owner, Set<String> subscriptionIds, boolean lazy,
+        Map<String, Product> importedProducts, Map<String, Product> changedProducts,
+        Refresher.Checkpoint checkpoint) {
+
+        List<Pool> floatingPools = this.poolCurator.getOwnersFloatingPools(owner);
+        changedProducts = this.addOutdatedProducts(owner, floatingPools, importedProducts, changedProducts);
+
+        this.refreshAbsentAndFloatingPools(owner, subscriptionIds, lazy, changedProducts);
+
+        if (checkpoint != null) {
+            checkpoint.setLastSubscriptionId(null);
         }
+    }
+
+    /**
+     * Adds to the given changed products any product referenced by the owner's given pools in a
+     * version other than the owner's current version of that product, as imported by the refresh.
+     * Such pools were left on a previous version of the product by an earlier refresh attempt which
+     * imported the product change but failed before updating the pools.
+     *
+     * @return
+     *  a map containing the changed products and the products outdated on the given pools
+     */
+    private Map<String, Product> addOutdatedProducts(Owner owner, Collection<Pool> pools,
+        Map<String, Product> importedProducts, Map<String, Product> changedProducts) {
+
+        Map<String, Product> result = new HashMap<>(changedProducts);
+
+        for (Pool pool : pools) {
+            if (pool.getOwner() == null || !owner.getId().equals(pool.getOwner().getId())) {
+                continue;
+            }
+
+            List<Product> products = new ArrayList<>();
+            products.add(pool.getProduct());
+            products.add(pool.getDerivedProduct());
+            products.addAll(this.productCurator.getPoolProvidedProductsCached(pool));
+            products.addAll(this.productCurator.getPoolDerivedProvidedProductsCached(pool));
+
+            for (Product product : products) {
+                if (product == null || result.containsKey(product.getId())) {
+                    continue;
+                }
+
+                Product current = importedProducts.get(product.getId());
+                if (current != null && !current.getUuid().equals(product.getUuid())) {
+                    log.debug("Pool {} references outdated product version: {}", pool.getId(), product);
+                    result.put(product.getId(), current);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void refreshAbsentAndFloatingPools(Owner owner, Set<String> subscriptionIds, boolean lazy,
+        Map<String, Product> changedProducts) {
 
         // delete pools whose subscription disappeared:
         log.debug("Deleting pools for absent subscriptions...");
         List<Pool> poolsToDelete = new ArrayList<>();
 
-        for (Pool pool : poolCurator.getPoolsFromBadSubs(owner, subscriptionMap.keySet())) {
+        for (Pool pool : poolCurator.getPoolsFromBadSubs(owner, subscriptionIds)) {
             if (this.isManaged(pool)) {
                 poolsToDelete.add(pool);
             }
@@ -277,10 +517,7 @@ public class CandlepinPoolManager implements PoolManager {
         // TODO: break this call into smaller pieces. There may be lots of floating pools
         log.debug("Updating floating pools...");
         List<Pool> floatingPools = poolCurator.getOwnersFloatingPools(owner);
-        updateFloatingPools(floatingPools, lazy, updatedProducts);
-
-        log.info("Refresh pools for owner: {} completed in: {}ms", owner.getKey(),
-            System.currentTimeMillis() - now.getTime());
+        updateFloatingPools(floatingPools, lazy, changedProducts);
     }
 
     private Owner resolveOwner(Owner owner) {
@@ -335,9 +572,133 @@ public class CandlepinPoolManager implements PoolManager {
             }
         }
 
-        // Update product references on the pools, I guess
+        this.updatePoolProductReferences(subscriptionPools, changedProducts);
+
+        // Cleans up pools on other owners who have migrated subs away
+        removeAndDeletePoolsOnOtherOwners(subscriptionPools, pool);
+
+        // capture the original quantity to check for updates later
+        Long originalQuantity = pool.getQuantity();
+
+        // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
+        // pair still exists.
+        createAndEnrichPools(pool, subscriptionPools);
+
+        // don't update floating here, we'll do that later so we don't update anything twice
+        Set<String> updatedMasterPools = updatePoolsForMasterPool(
+            subscriptionPools, pool, originalQuantity, updateStackDerived, changedProducts);
+
+        regenerateCertificatesByEntIds(updatedMasterPools, lazy);
+    }
+
+    /**
+     * Refreshes the pools for a collection of master pools as a set. The result is the same as
+     * calling refreshPoolsForMasterPool for each master pool, but the existing pools of every
+     * subscription are fetched with a handful of bulk queries, and the resulting pool creations,
+     * updates, deletions and entitlement regeneration are each applied in a single batch.
+     * <p></p>
+     * Master pools lacking a subscription ID cannot be matched against the bulk-fetched pools, and
+     * are refreshed individually.
+     *
+     * @param masterPools
+     *  the master pools to refresh
+     *
+     * @param lazy
+     *  whether or not entitlement certificates of updated pools should be regenerated lazily
+     *
+     * @param changedProducts
+     *  a mapping of product IDs to products which were updated by the refresh
+     */
+    @Transactional
+    void refreshPoolsForMasterPools(List<Pool> masterPools, boolean lazy,
+        Map<String, Product> changedProducts) {
+
+        if (masterPools == null || masterPools.isEmpty()) {
+            return;
+        }
+
+        Set<String> subscriptionIds = new HashSet<>();
+        for (Pool pool : masterPools) {
+            if (pool.getSubscriptionId() != null) {
+                subscriptionIds.add(pool.getSubscriptionId());
+            }
+        }
+
+        // These don't all necessarily belong to this owner
+        List<Pool> existingPoolList = this.poolCurator.getPoolsBySubscriptionIds(subscriptionIds).list();
+        Map<String, List<Pool>> subscriptionPools = new HashMap<>();
+
+        for (Pool existing : existingPoolList) {
+            subscriptionPools.computeIfAbsent(existing.getSubscriptionId(), key -> new ArrayList<>())
+                .add(existing);
+        }
+
+        log.debug("Found {} existing pools for {} subscriptions", existingPoolList.size(),
+            subscriptionIds.size());
+
+        List<Pool> poolsToCreate = new ArrayList<>();
+        List<Pool> poolsToDelete = new ArrayList<>();
+        List<PoolUpdate> updatedPools = new ArrayList<>();
+        Map<String, EventBuilder> poolEvents = new HashMap<>();
+
+        for (Pool pool : masterPools) {
+            if (pool.getSubscriptionId() == null) {
+                this.refreshPoolsForMasterPool(pool, false, lazy, changedProducts);
+                continue;
+            }
+
+            List<Pool> existingPools = subscriptionPools.get(pool.getSubscriptionId());
+            if (existingPools == null) {
+                existingPools = new ArrayList<>();
+            }
+
+            this.updatePoolProductReferences(existingPools, changedProducts);
+
+            // Cleans up pools on other owners who have migrated subs away
+            poolsToDelete.addAll(this.removePoolsOnOtherOwners(existingPools, pool));
+
+            // capture the original quantity to check for updates later
+            Long originalQuantity = pool.getQuantity();
+
+            // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
+            // pair still exists.
+            poolsToCreate.addAll(this.poolRules.createAndEnrichPools(pool, existingPools));
+
+            if (!existingPools.isEmpty()) {
+                for (Pool existing : existingPools) {
+                    EventBuilder eventBuilder = eventFactory
+                        .getEventBuilder(Target.POOL, Type.MODIFIED)
+                        .setEventData(existing);
+
+                    poolEvents.put(existing.getId(), eventBuilder);
+                }
+
+                updatedPools.addAll(this.poolRules.updatePools(pool, existingPools, originalQuantity,
+                    changedProducts));
+            }
+        }
+
+        if (!poolsToDelete.isEmpty()) {
+            this.deletePools(poolsToDelete);
+        }
+
+        log.debug("Creating {} pools for {} master pools", poolsToCreate.size(), masterPools.size());
+        this.createPools(poolsToCreate);
+
+        // 1567922: Persist any product changes made to the pools by the rules before entitlements
+        // are revoked, as the revocation will attempt to lock the same pools.
+        this.poolCurator.flush();
+
+        regenerateCertificatesByEntIds(this.processPoolUpdates(poolEvents, updatedPools), lazy);
+    }
+
+    /**
+     * Updates the product references of the given pools to point to the changed products, where
+     * applicable.
+     */
+    private void updatePoolProductReferences(List<Pool> pools, Map<String, Product> changedProducts) {
         // TODO: Should this be performed by poolRules? Seems like that should be a thing.
-        for (Pool subPool : subscriptionPools) {
+        for (Pool subPool : pools) {
             Product product = subPool.getProduct();
             if (product != null) {
                 Product update = changedProducts.get(product.getId());
@@ -356,38 +717,37 @@ public class CandlepinPoolManager implements PoolManager {
                 }
             }
         }
-
-        // Cleans up pools on other owners who have migrated subs away
-        removeAndDeletePoolsOnOtherOwners(subscriptionPools, pool);
-
-        // capture the original quantity to check for updates later
-        Long originalQuantity = pool.getQuantity();
-
-        // BZ 1012386: This will regenerate master/derived for bonus scenarios if only one of the
-        // pair still exists.
-        createAndEnrichPools(pool, subscriptionPools);
-
-        // don't update floating here, we'll do that later so we don't update anything twice
-        Set<String> updatedMasterPools = updatePoolsForMasterPool(
-            subscriptionPools, pool, originalQuantity, updateStackDerived, changedProducts);
-
-        regenerateCertificatesByEntIds(updatedMasterPools, lazy);
     }
 
     private void removeAndDeletePoolsOnOtherOwners(List<Pool> existingPools, Pool pool) {
+        for (Pool existing : this.removePoolsOnOtherOwners(existingPools, pool)) {
+            deletePool(existing);
+        }
+    }
+
+    /**
+     * Removes the pools which exist in an org other than that of the master pool from the given
+     * list of existing pools.
+     *
+     * @return
+     *  the removed pools which should be deleted
+     */
+    private List<Pool> removePoolsOnOtherOwners(List<Pool> existingPools, Pool pool) {
         List<Pool> toRemove = new LinkedList<>();
+        List<Pool> toDelete = new LinkedList<>();
 
         for (Pool existing : existingPools) {
             if (!existing.getOwner().equals(pool.getOwner())) {
                 toRemove.add(existing);
                 log.warn("Removing {} because it exists in the wrong org", existing);
                 if (existing.getType() == PoolType.NORMAL || existing.getType() == PoolType.BONUS) {
-                    deletePool(existing);
+                    toDelete.add(existing);
                 }
             }
         }
 
         existingPools.removeAll(toRemove);
+        return toDelete;
     }
 
     /**
@@ -2407,8 +2767,13 @@ public class CandlepinPoolManager implements PoolManager {
     }
 
     @Override
+    @Transactional
     public void regenerateDirtyEntitlements(Consumer consumer) {
-        if (consumer != null) {
+        if (consumer != null && !this.entitlementCurator.listDirty(consumer).isEmpty()) {
+            // Lock the consumer so concurrent regenerations, such as a certificate download racing the
+            // dirty certificate worker, can't each replace the same certificates. The dirty entitlements
+            // are read again once locked, as another regeneration may have cleaned them meanwhile.
+            this.consumerCurator.lock(consumer);
             this.ecGenerator.regenerateCertificatesOf(this.entitlementCurator.listDirty(consumer), false);
         }
     }
@@ -2457,6 +2822,20 @@ public class CandlepinPoolManager implements PoolManager {
             filters.addAttributeFilter(Pool.Attributes.DEVELOPMENT_POOL, "!true");
         }
 
+        if (postFilter && pageRequest != null && pageRequest.isPaging()) {
+            if (pageRequest.isKeyset()) {
+                return this.listAvailableEntitlementPoolsByKeyset(consumer, key, ownerId, productId,
+                    subscriptionId, activeOn, includeWarnings, filters, pageRequest, addFuture, onlyFuture,
+                    after);
+            }
+
+            if (pageRequest.getCountMode() == PageRequest.CountMode.NONE) {
+                return this.listAvailableEntitlementPoolsUncounted(consumer, key, ownerId, productId,
+                    subscriptionId, activeOn, includeWarnings, filters, pageRequest, addFuture, onlyFuture,
+                    after);
+            }
+        }
+
         Page<List<Pool>> page = this.poolCurator.listAvailableEntitlementPools(consumer,
             ownerId, productId, subscriptionId, activeOn, filters, pageRequest, postFilter,
             addFuture, onlyFuture, after);
@@ -2472,24 +2851,152 @@ public class CandlepinPoolManager implements PoolManager {
         // Note that something could change between the time we list a pool as
         // available, and the consumer requests the actual entitlement, and the
         // request still could fail.
-        List<Pool> resultingPools = page.getPageData();
+        List<Pool> resultingPools = this.filterAvailablePools(consumer, key, page.getPageData(),
+            includeWarnings);
+
+        // Set maxRecords once we are done filtering
+        page.setMaxRecords(resultingPools.size());
+
+        if (pageRequest != null && pageRequest.isPaging()) {
+            resultingPools = poolCurator.takeSubList(pageRequest, resultingPools);
+        }
+
+        page.setPageData(resultingPools);
+        return page;
+    }
+
+    /**
+     * Filters the given pools down to those available to the specified consumer and/or activation
+     * key.
+     */
+    private List<Pool> filterAvailablePools(Consumer consumer, ActivationKey key, List<Pool> pools,
+        boolean includeWarnings) {
 
         if (consumer != null) {
-            resultingPools = enforcer.filterPools(consumer, resultingPools, includeWarnings);
+            pools = enforcer.filterPools(consumer, pools, includeWarnings);
         }
 
         if (key != null) {
-            resultingPools = this.filterPoolsForActKey(key, resultingPools, includeWarnings);
+            pools = this.filterPoolsForActKey(key, pools, includeWarnings);
         }
 
-        // Set maxRecords once we are done filtering
-        page.setMaxRecords(resultingPools.size());
+        return pools;
+    }
 
-        if (pageRequest != null && pageRequest.isPaging()) {
-            resultingPools = poolCurator.takeSubList(pageRequest, resultingPools);
+    /**
+     * Builds an offset page of pools which must be filtered by the rules, without counting the
+     * matching pools. Pools are read and filtered in chunks until the requested page, plus one
+     * pool past its end, has been filled or no pools remain. The extra pool tells whether a next
+     * page exists, which is signaled by setting a continuation token on the page.
+     */
+    private Page<List<Pool>> listAvailableEntitlementPoolsUncounted(Consumer consumer,
+        ActivationKey key, String ownerId, String productId, String subscriptionId, Date activeOn,
+        boolean includeWarnings, PoolFilterBuilder filters, PageRequest pageRequest, boolean addFuture,
+        boolean onlyFuture, Date after) {
+
+        int perPage = pageRequest.getPerPage();
+        int offset = (pageRequest.getPage() - 1) * perPage;
+        int chunkSize = Math.max(perPage, KEYSET_FILTER_CHUNK_SIZE);
+
+        PageRequest chunkRequest = new PageRequest();
+        chunkRequest.setSortBy(pageRequest.getSortBy());
+        chunkRequest.setOrder(pageRequest.getOrder());
+        chunkRequest.setCountMode(PageRequest.CountMode.NONE);
+        chunkRequest.setPerPage(chunkSize);
+
+        List<Pool> resultingPools = new ArrayList<>();
+
+        for (int chunkPage = PageRequest.DEFAULT_PAGE; resultingPools.size() <= offset + perPage;
+            ++chunkPage) {
+
+            chunkRequest.setPage(chunkPage);
+
+            List<Pool> chunk = this.poolCurator.listAvailableEntitlementPools(consumer, ownerId, productId,
+                subscriptionId, activeOn, filters, chunkRequest, false, addFuture, onlyFuture, after)
+                .getPageData();
+
+            resultingPools.addAll(this.filterAvailablePools(consumer, key, chunk, includeWarnings));
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+
+        List<Pool> pageData = new ArrayList<>(resultingPools.subList(
+            Math.min(offset, resultingPools.size()), Math.min(offset + perPage, resultingPools.size())));
+
+        Page<List<Pool>> page = new Page<>();
+        page.setPageRequest(pageRequest);
+        page.setPageData(pageData);
+
+        if (resultingPools.size() > offset + perPage) {
+            Pool last = pageData.get(pageData.size() - 1);
+            ContinuationToken continuation = this.poolCurator.buildContinuation(pageRequest, last);
+
+            // The token only marks that a next page exists, so fall back to one without a sort value
+            page.setContinuation(continuation != null ? continuation :
+                KeysetPaging.buildToken(pageRequest, null, last.getId()));
         }
 
+        return page;
+    }
+
+    /**
+     * Builds a keyset page of pools which must be filtered by the rules. Rather than loading and
+     * filtering every available pool, the pools following the request's continuation token are
+     * read and filtered in chunks until the page has been filled or no pools remain. The number of
+     * matching pools is never counted in this mode, as doing so would require filtering every
+     * pool.
+     */
+    private Page<List<Pool>> listAvailableEntitlementPoolsByKeyset(Consumer consumer,
+        ActivationKey key, String ownerId, String productId, String subscriptionId, Date activeOn,
+        boolean includeWarnings, PoolFilterBuilder filters, PageRequest pageRequest, boolean addFuture,
+        boolean onlyFuture, Date after) {
+
+        int perPage = pageRequest.getPerPage();
+
+        PageRequest chunkRequest = new PageRequest();
+        chunkRequest.setKeyset(true);
+        chunkRequest.setSortBy(pageRequest.getSortBy());
+        chunkRequest.setOrder(pageRequest.getOrder());
+        chunkRequest.setContinuation(pageRequest.getContinuation());
+        chunkRequest.setCountMode(PageRequest.CountMode.NONE);
+        chunkRequest.setPage(PageRequest.DEFAULT_PAGE);
+        chunkRequest.setPerPage(Math.max(perPage, KEYSET_FILTER_CHUNK_SIZE));
+
+        List<Pool> resultingPools = new ArrayList<>(perPage);
+        ContinuationToken continuation = null;
+
+        while (resultingPools.size() < perPage) {
+            Page<List<Pool>> chunk = this.poolCurator.listAvailableEntitlementPools(consumer, ownerId,
+                productId, subscriptionId, activeOn, filters, chunkRequest, false, addFuture, onlyFuture,
+                after);
+
+            List<Pool> pools = this.filterAvailablePools(consumer, key, chunk.getPageData(),
+                includeWarnings);
+
+            for (Pool pool : pools) {
+                resultingPools.add(pool);
+
+                if (resultingPools.size() == perPage) {
+                    continuation = this.poolCurator.buildContinuation(pageRequest, pool);
+                    break;
+                }
+            }
+
+            // The curator only provides a token for full chunks; anything else was the last chunk
+            if (chunk.getContinuation() == null) {
+                break;
+            }
+
+            chunkRequest.setContinuation(chunk.getContinuation());
+        }
+
+        Page<List<Pool>> page = new Page<>();
+        page.setPageRequest(pageRequest);
         page.setPageData(resultingPools);
+        page.setContinuation(continuation);
+
         return page;
     }
 
@@ -41,12 +41,38 @@ import java.util.Set;
  */
 public class Refresher {
 
+    /**
+     * A Checkpoint records the progress of a refresh performed in blocks, allowing a refresh which
+     * was interrupted to resume from its last committed block.
+     */
+    public interface Checkpoint {
+        /**
+         * Fetches the ID of the last subscription refreshed by a previous attempt of the refresh.
+         *
+         * @return
+         *  the ID of the last subscription refreshed, or null if the refresh has not yet refreshed
+         *  any subscriptions
+         */
+        String getLastSubscriptionId();
+
+        /**
+         * Records the ID of the last subscription refreshed. This is called within the transaction
+         * refreshing the subscription, and must record the ID in that same transaction.
+         *
+         * @param subscriptionId
+         *  the ID of the last subscription refreshed, or null to clear the checkpoint
+         */
+        void setLastSubscriptionId(String subscriptionId);
+    }
+
     private CandlepinPoolManager poolManager;
     private SubscriptionServiceAdapter subAdapter;
     private OwnerServiceAdapter ownerAdapter;
     private OwnerManager ownerManager;
     private boolean lazy;
     private UnitOfWork uow;
+    private int blockSize;
+    private Checkpoint checkpoint;
     private static Logger log = LoggerFactory.getLogger(Refresher.class);
 
     private Map<String, Owner> owners = new HashMap<>();
@@ -67,6 +93,36 @@ public class Refresher {
         return this;
     }
 
+    /**
+     * Sets the number of subscriptions to refresh in each transaction when refreshing owners. If
+     * the block size is less than one, each owner is refreshed in a single transaction.
+     *
+     * @param blockSize
+     *  the number of subscriptions to refresh in each transaction
+     *
+     * @return
+     *  this Refresher instance
+     */
+    public Refresher setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Sets the checkpoint used to record and resume the progress of an owner refreshed in blocks.
+     * As the checkpoint tracks a single refresh, it is ignored when refreshing multiple owners.
+     *
+     * @param checkpoint
+     *  the checkpoint to use when refreshing an owner in blocks
+     *
+     * @return
+     *  this Refresher instance
+     */
+    public Refresher setCheckpoint(Checkpoint checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
     public Refresher add(Owner owner) {
         if (owner == null || owner.getKey() == null) {
             throw new IllegalArgumentException("Owner is null or lacks identifying information");
@@ -160,7 +216,15 @@ public class Refresher {
         }
 
         for (Owner owner : this.owners.values()) {
-            poolManager.refreshPoolsWithRegeneration(this.subAdapter, owner, this.lazy);
+            if (this.blockSize > 0) {
+                Checkpoint ownerCheckpoint = this.owners.size() == 1 ? this.checkpoint : null;
+                poolManager.refreshPoolsInBlocks(this.subAdapter, owner, this.lazy, this.blockSize,
+                    ownerCheckpoint);
+            }
+            else {
+                poolManager.refreshPoolsWithRegeneration(this.subAdapter, owner, this.lazy);
+            }
+
             poolManager.recalculatePoolQuantitiesForOwner(owner);
 
             ownerManager.refreshContentAccessMode(this.ownerAdapter, owner);
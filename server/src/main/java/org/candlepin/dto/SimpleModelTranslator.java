@@ -25,6 +25,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 
@@ -39,12 +40,16 @@ public class SimpleModelTranslator implements ModelTranslator {
     // output => input => translator
     protected Map<Class, Map<Class, ObjectTranslator>> translators;
 
+    // output => input => translator, for classes already resolved to their nearest mapped class
+    protected Map<Class, Map<Class, ObjectTranslator>> resolved;
+
 
     /**
      * Initializes a new ModelTranslator instance.
      */
     public SimpleModelTranslator() {
         this.translators = new HashMap<>();
+        this.resolved = new ConcurrentHashMap<>();
     }
 
     /**
@@ -74,6 +79,7 @@ public class SimpleModelTranslator implements ModelTranslator {
 
         ObjectTranslator<I, O> existing = (ObjectTranslator<I, O>) inputMappings.get(inputClass);
         inputMappings.put(inputClass, translator);
+        this.resolved.clear();
 
         return existing;
     }
@@ -92,7 +98,14 @@ public class SimpleModelTranslator implements ModelTranslator {
         }
 
         Map<Class, ObjectTranslator> inputMappings = this.translators.get(outputClass);
-        return inputMappings != null ? (ObjectTranslator<I, O>) inputMappings.remove(inputClass) : null;
+        ObjectTranslator<I, O> existing = inputMappings != null ?
+            (ObjectTranslator<I, O>) inputMappings.remove(inputClass) :
+            null;
+
+        // Clear only after removing the mapping, so a concurrent lookup can't cache it again
+        this.resolved.clear();
+
+        return existing;
     }
 
     /**
@@ -118,6 +131,7 @@ public class SimpleModelTranslator implements ModelTranslator {
             }
         }
 
+        this.resolved.clear();
         return mappings;
     }
 
@@ -240,6 +254,18 @@ public class SimpleModelTranslator implements ModelTranslator {
             throw new IllegalArgumentException("outputClass is null");
         }
 
+        // Translators are typically looked up for the same handful of concrete classes (often
+        // proxies of the mapped classes) over and over, so we retain the outcome of the class
+        // hierarchy walk below until the registered translators change.
+        Map<Class, ObjectTranslator> resolvedMappings = this.resolved.get(outputClass);
+        if (resolvedMappings != null) {
+            ObjectTranslator<I, O> translator = (ObjectTranslator<I, O>) resolvedMappings.get(inputClass);
+
+            if (translator != null) {
+                return translator;
+            }
+        }
+
         ObjectTranslator<I, O> translator = null;
 
         // TODO: This is broken for finding nearest output. Output cannot be less specific than
@@ -261,6 +287,9 @@ public class SimpleModelTranslator implements ModelTranslator {
             throw new TranslationException(msg);
         }
 
+        this.resolved.computeIfAbsent(outputClass, key -> new ConcurrentHashMap<>())
+            .put(inputClass, translator);
+
         return translator;
     }
 
@@ -23,6 +23,8 @@ import org.candlepin.audit.ActiveMQContextListener;
 import org.candlepin.audit.QpidConnection;
 import org.candlepin.audit.QpidQmf;
 import org.candlepin.audit.QpidStatus;
+import org.candlepin.bind.BindChainMetrics;
+import org.candlepin.cache.CandlepinCache;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.config.ConfigurationException;
 import org.candlepin.common.config.EncryptedConfiguration;
@@ -70,7 +72,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
+import javax.management.JMException;
 import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.persistence.EntityManagerFactory;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletContextEvent;
@@ -185,6 +189,10 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
                 true, true, true, true);
         }
 
+        if (config.getBoolean(ConfigProperties.BIND_METRICS_JMX)) {
+            registerBindChainMetrics(injector.getInstance(BindChainMetrics.class));
+        }
+
         pinsetterListener = injector.getInstance(PinsetterContextListener.class);
         pinsetterListener.contextInitialized();
 
@@ -207,6 +215,11 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         }
         pinsetterListener.contextDestroyed();
         loggerListener.contextDestroyed();
+        injector.getInstance(CandlepinCache.class).getStatusCache().shutdown();
+
+        if (config.getBoolean(ConfigProperties.BIND_METRICS_JMX)) {
+            unregisterBindChainMetrics();
+        }
 
         // if amqp is enabled, close all connections.
         if (config.getBoolean(ConfigProperties.AMQP_INTEGRATION_ENABLED)) {
@@ -214,6 +227,30 @@ public class CandlepinContextListener extends GuiceResteasyBootstrapServletConte
         }
     }
 
+    private void registerBindChainMetrics(BindChainMetrics metrics) {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            mBeanServer.registerMBean(metrics, new ObjectName(BindChainMetrics.OBJECT_NAME));
+        }
+        catch (JMException e) {
+            log.warn("Unable to register bind chain metrics with the MBean server", e);
+        }
+    }
+
+    private void unregisterBindChainMetrics() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(BindChainMetrics.OBJECT_NAME);
+
+            if (mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        }
+        catch (JMException e) {
+            log.warn("Unable to unregister bind chain metrics from the MBean server", e);
+        }
+    }
+
     protected void setCapabilities(Configuration config) {
         CandlepinCapabilities capabilities = new CandlepinCapabilities();
 
@@ -81,6 +81,7 @@ import org.candlepin.jackson.PoolEventFilter;
 import org.candlepin.model.CPRestrictions;
 import org.candlepin.model.UeberCertificateGenerator;
 import org.candlepin.pinsetter.core.GuiceJobFactory;
+import org.candlepin.pinsetter.core.InProcessJobQueue;
 import org.candlepin.pinsetter.core.PinsetterJobListener;
 import org.candlepin.pinsetter.core.PinsetterKernel;
 import org.candlepin.pinsetter.core.PinsetterTriggerListener;
@@ -390,6 +391,7 @@ public class CandlepinModule extends AbstractModule {
         bind(JobListener.class).to(PinsetterJobListener.class);
         bind(TriggerListener.class).to(PinsetterTriggerListener.class);
         bind(PinsetterKernel.class);
+        bind(InProcessJobQueue.class);
         bind(CertificateRevocationListTask.class);
         bind(JobCleaner.class);
         bind(UnpauseJob.class);
@@ -28,6 +28,8 @@ import org.xnap.commons.i18n.I18nFactory;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
@@ -39,6 +41,7 @@ import javax.servlet.http.HttpServletRequest;
 public class I18nProvider extends CommonI18nProvider implements Provider<I18n> {
     private static Logger log = LoggerFactory.getLogger(I18nProvider.class);
     private static Map<Locale, I18n> cache = new ConcurrentHashMap<>();
+    private static Lock cacheLock = new ReentrantLock();
     private final Provider<HttpServletRequest> request;
 
     @Inject
@@ -67,7 +70,9 @@ public class I18nProvider extends CommonI18nProvider implements Provider<I18n> {
         // see https://en.wikipedia.org/wiki/Double-checked_locking
         I18n i18n = cache.get(locale);
         if (i18n == null) {
-            synchronized (cache) {
+            // A lock rather than a monitor, as loading the bundles blocks on I/O
+            cacheLock.lock();
+            try {
                 i18n = cache.get(locale);
                 if (i18n == null) {
                     log.debug("Getting i18n engine for locale {}", locale);
@@ -76,6 +81,9 @@ public class I18nProvider extends CommonI18nProvider implements Provider<I18n> {
                     cache.put(locale, i18n);
                 }
             }
+            finally {
+                cacheLock.unlock();
+            }
         }
         return i18n;
     }
@@ -18,6 +18,7 @@ import org.candlepin.auth.Principal;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.ConcurrentModificationException;
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.config.DatabaseConfigFactory;
@@ -29,6 +30,7 @@ import com.google.inject.Provider;
 import com.google.inject.persist.Transactional;
 
 import org.hibernate.Criteria;
+import org.hibernate.HibernateException;
 import org.hibernate.NaturalIdLoadAccess;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
@@ -228,17 +230,10 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
     public Page<List<E>> listAll(PageRequest pageRequest, boolean postFilter) {
         Page<List<E>> resultsPage;
         if (postFilter) {
-            // Create a copy of the page request with just the order and sort by values.
+            // Create a copy of the page request with just the ordering and continuation values.
             // Since we are filtering after the results are returned, we don't want
             // to send the page or page size values in.
-            PageRequest orderAndSortByPageRequest = null;
-            if (pageRequest != null) {
-                orderAndSortByPageRequest = new PageRequest();
-                orderAndSortByPageRequest.setOrder(pageRequest.getOrder());
-                orderAndSortByPageRequest.setSortBy(pageRequest.getSortBy());
-            }
-
-            resultsPage = listAll(orderAndSortByPageRequest);
+            resultsPage = listAll(this.buildPostFilterPageRequest(pageRequest));
 
             // Set the pageRequest to the correct object here.
             resultsPage.setPageRequest(pageRequest);
@@ -255,12 +250,15 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         Page<List<E>> page = new Page<>();
 
         if (pageRequest != null) {
-            Criteria count = createSecureCriteria();
-            page.setMaxRecords(findRowCount(count));
+            if (pageRequest.getCountMode() != PageRequest.CountMode.NONE) {
+                Criteria count = createSecureCriteria();
+                findRowCount(count, pageRequest, page);
+            }
 
             Criteria c = createSecureCriteria();
             page.setPageData(loadPageData(c, pageRequest));
             page.setPageRequest(pageRequest);
+            page.setContinuation(this.buildContinuation(pageRequest, page.getPageData()));
         }
         else {
             List<E> pageData = this.listAll().list();
@@ -273,33 +271,139 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
 
     @SuppressWarnings("unchecked")
     private List<E> loadPageData(Criteria c, PageRequest pageRequest) {
-        c.addOrder(createPagingOrder(pageRequest));
+        String idProperty = this.getIdentifierPropertyName();
+
+        for (Order order : KeysetPaging.buildOrders(pageRequest, idProperty)) {
+            c.addOrder(order);
+        }
+
+        Criterion seek = KeysetPaging.buildSeekRestriction(pageRequest, idProperty);
+        if (seek != null) {
+            c.add(seek);
+        }
 
         if (pageRequest.isPaging()) {
-            c.setFirstResult((pageRequest.getPage() - 1) * pageRequest.getPerPage());
+            // Keyset pages always start immediately after the continuation token
+            c.setFirstResult(pageRequest.isKeyset() ? 0 :
+                (pageRequest.getPage() - 1) * pageRequest.getPerPage());
             c.setMaxResults(pageRequest.getPerPage());
         }
 
         return c.list();
     }
 
-    private Order createPagingOrder(PageRequest p) {
-        String sortBy = (p.getSortBy() == null) ? AbstractHibernateObject.DEFAULT_SORT_FIELD : p.getSortBy();
-        PageRequest.Order order = (p.getOrder() == null) ? PageRequest.DEFAULT_ORDER : p.getOrder();
+    private Integer findRowCount(Criteria c) {
+        c.setProjection(Projections.rowCount());
+        return ((Long) c.uniqueResult()).intValue();
+    }
+
+    /**
+     * Counts the rows matched by the given criteria according to the count mode of the page
+     * request, and stores the result on the page. Estimated counts stop at the estimate threshold,
+     * which avoids counting every row of very large result sets.
+     */
+    private void findRowCount(Criteria c, PageRequest pageRequest, Page<?> page) {
+        if (pageRequest.getCountMode() == PageRequest.CountMode.ESTIMATE && pageRequest.isPaging()) {
+            c.setProjection(Projections.id())
+                .setFirstResult(KeysetPaging.ESTIMATED_COUNT_THRESHOLD)
+                .setMaxResults(1);
+
+            boolean exceeded = c.uniqueResult() != null;
 
-        switch (order) {
-            case ASCENDING:
-                return Order.asc(sortBy);
+            // Paging will overwrite these when the page data is loaded
+            c.setFirstResult(0);
 
-            //DESCENDING
-            default:
-                return Order.desc(sortBy);
+            if (exceeded) {
+                page.setMaxRecords(KeysetPaging.ESTIMATED_COUNT_THRESHOLD);
+                page.setEstimatedCount(true);
+                return;
+            }
         }
+
+        page.setMaxRecords(findRowCount(c));
     }
 
-    private Integer findRowCount(Criteria c) {
-        c.setProjection(Projections.rowCount());
-        return ((Long) c.uniqueResult()).intValue();
+    /**
+     * Fetches the name of the identifier property of the entity managed by this curator.
+     *
+     * @return
+     *  the name of the identifier property, or null if the entity is not mapped
+     */
+    protected String getIdentifierPropertyName() {
+        ClassMetadata metadata = this.currentSession().getSessionFactory()
+            .getClassMetadata(this.entityType);
+
+        return metadata != null ? metadata.getIdentifierPropertyName() : null;
+    }
+
+    /**
+     * Builds the continuation token identifying the given entity within the results of the given
+     * page request.
+     *
+     * @param pageRequest
+     *  the page request which fetched the entity
+     *
+     * @param entity
+     *  the entity to identify
+     *
+     * @return
+     *  a continuation token for the entity, or null if the entity's sort value or identifier
+     *  cannot be carried by a token
+     */
+    public ContinuationToken buildContinuation(PageRequest pageRequest, E entity) {
+        SessionImpl session = (SessionImpl) this.currentSession();
+        ClassMetadata metadata = session.getSessionFactory().getClassMetadata(this.entityType);
+
+        if (metadata == null || entity == null) {
+            return null;
+        }
+
+        try {
+            String sortField = KeysetPaging.getSortField(pageRequest);
+            Serializable id = metadata.getIdentifier(entity, session);
+            Object value = sortField.equals(metadata.getIdentifierPropertyName()) ?
+                id :
+                metadata.getPropertyValue(entity, sortField);
+
+            return KeysetPaging.buildToken(pageRequest, value, id);
+        }
+        catch (HibernateException e) {
+            // Sorting on a nested or non-mapped property; the page can't be continued by keyset
+            log.debug("Unable to build a continuation token for entity: {}", entity, e);
+            return null;
+        }
+    }
+
+    /**
+     * Builds the continuation token for the page following the given page data. A token is only
+     * built when the page was filled, as otherwise no further rows can follow it.
+     */
+    private ContinuationToken buildContinuation(PageRequest pageRequest, List<E> pageData) {
+        if (!pageRequest.isPaging() || pageData == null || pageData.isEmpty() ||
+            pageData.size() < pageRequest.getPerPage()) {
+
+            return null;
+        }
+
+        return this.buildContinuation(pageRequest, pageData.get(pageData.size() - 1));
+    }
+
+    /**
+     * Creates a copy of the given page request without the page or page size values.
+     */
+    private PageRequest buildPostFilterPageRequest(PageRequest pageRequest) {
+        PageRequest orderAndSortByPageRequest = null;
+
+        if (pageRequest != null) {
+            orderAndSortByPageRequest = new PageRequest();
+            orderAndSortByPageRequest.setOrder(pageRequest.getOrder());
+            orderAndSortByPageRequest.setSortBy(pageRequest.getSortBy());
+            orderAndSortByPageRequest.setKeyset(pageRequest.isKeyset());
+            orderAndSortByPageRequest.setContinuation(pageRequest.getContinuation());
+            orderAndSortByPageRequest.setCountMode(pageRequest.getCountMode());
+        }
+
+        return orderAndSortByPageRequest;
     }
 
     @SuppressWarnings("unchecked")
@@ -307,15 +411,11 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
         Page<ResultIterator<E>> page = new Page<>();
 
         if (pageRequest != null) {
-            page.setMaxRecords(query.getRowCount());
+            KeysetPaging.applyPageRequest(query, pageRequest, page);
 
-            query.addOrder(this.createPagingOrder(pageRequest));
-            if (pageRequest.isPaging()) {
-                query.setFirstResult((pageRequest.getPage() - 1) * pageRequest.getPerPage());
-                query.setMaxResults(pageRequest.getPerPage());
+            if (!pageRequest.isPaging()) {
+                page.setMaxRecords(query.getRowCount());
             }
-
-            page.setPageRequest(pageRequest);
         }
 
         page.setPageData(query.iterate());
@@ -333,17 +433,10 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
     public Page<List<E>> listByCriteria(Criteria query, PageRequest pageRequest, boolean postFilter) {
         Page<List<E>> resultsPage;
         if (postFilter) {
-            // Create a copy of the page request with just the order and sort by values.
+            // Create a copy of the page request with just the ordering and continuation values.
             // Since we are filtering after the results are returned, we don't want
             // to send the page or page size values in.
-            PageRequest orderAndSortByPageRequest = null;
-            if (pageRequest != null) {
-                orderAndSortByPageRequest = new PageRequest();
-                orderAndSortByPageRequest.setOrder(pageRequest.getOrder());
-                orderAndSortByPageRequest.setSortBy(pageRequest.getSortBy());
-            }
-
-            resultsPage = listByCriteria(query, orderAndSortByPageRequest);
+            resultsPage = listByCriteria(query, this.buildPostFilterPageRequest(pageRequest));
 
             // Set the pageRequest to the correct object here.
             resultsPage.setPageRequest(pageRequest);
@@ -510,14 +603,17 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
             ResultTransformer origRt = cImpl.getResultTransformer();
 
             // Get total number of records by setting a rowCount projection
-            page.setMaxRecords(findRowCount(c));
+            if (pageRequest.getCountMode() != PageRequest.CountMode.NONE) {
+                findRowCount(c, pageRequest, page);
 
-            // Restore original Projection and ResultTransformer
-            c.setProjection(origProjection);
-            c.setResultTransformer(origRt);
+                // Restore original Projection and ResultTransformer
+                c.setProjection(origProjection);
+                c.setResultTransformer(origRt);
+            }
 
             page.setPageData(loadPageData(c, pageRequest));
             page.setPageRequest(pageRequest);
+            page.setContinuation(this.buildContinuation(pageRequest, page.getPageData()));
         }
         else {
             List<E> pageData = listByCriteria(c);
@@ -1195,7 +1291,10 @@ public abstract class AbstractHibernateCurator<E extends Persisted> {
                 Path<Serializable> target = root.<Serializable>get(idName);
                 ParameterExpression<List> param = builder.parameter(List.class);
 
-                query.select(root).where(target.in(param));
+                // Impl note: the rows are locked in ID order, as are the entities refreshed above,
+                // so concurrent operations locking overlapping sets of entities acquire the shared
+                // locks in a consistent order rather than whatever order the database scans them.
+                query.select(root).where(target.in(param)).orderBy(builder.asc(target));
 
                 // Note that it's critical here to set both modes, as Hibernate is wildly inconsistent
                 // (and non-standard) in which properties it actually accepts when processing its own
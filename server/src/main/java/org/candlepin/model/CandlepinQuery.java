@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.List;
@@ -88,6 +89,17 @@ public interface CandlepinQuery<T> extends Iterable<T> {
      */
     CandlepinQuery<T> addOrder(Order order);
 
+    /**
+     * Adds the specified restriction when executing this query.
+     *
+     * @param restriction
+     *  The restriction to apply when executing this query
+     *
+     * @return
+     *  this query instance
+     */
+    CandlepinQuery<T> addRestriction(Criterion restriction);
+
     /**
      * Sets the locking mode for the query. The lock mode will be applied to the database rows
      * representing the entities returned by this query.
@@ -282,4 +294,29 @@ public interface CandlepinQuery<T> extends Iterable<T> {
      */
     int getRowCount();
 
+    /**
+     * Fetches the name of the identifier property of the entity queried by this query.
+     *
+     * @return
+     *  the name of the identifier property, or null if this query does not query a mapped entity
+     */
+    String getIdentifierPropertyName();
+
+    /**
+     * Executes this query and fetches the values of the specified properties from the row at the
+     * given position in the results, relative to the first result of this query. The entity
+     * itself is not loaded.
+     *
+     * @param position
+     *  The zero-based position of the row to read
+     *
+     * @param properties
+     *  The properties to read from the row
+     *
+     * @return
+     *  an array containing the value of each property, in order, or null if the results do not
+     *  contain a row at the given position
+     */
+    Object[] getPropertyValuesAt(int position, String... properties);
+
 }
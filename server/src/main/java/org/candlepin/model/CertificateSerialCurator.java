@@ -16,6 +16,7 @@ package org.candlepin.model;
 
 import com.google.inject.persist.Transactional;
 
+import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
@@ -33,6 +34,10 @@ import javax.persistence.Query;
 
 /**
  * CertificateSerialCurator - Interface to request a unique certificate serial number.
+ * <p></p>
+ * Certificate serials are assigned their serial numbers on construction, so new serials can be
+ * inserted without first fetching an identifier from the database. Serials created in bulk should
+ * be persisted through {@link #createAll(Collection)}, which sends the inserts in JDBC batches.
  */
 @Singleton
 public class CertificateSerialCurator extends AbstractHibernateCurator<CertificateSerial> {
@@ -41,6 +46,39 @@ public class CertificateSerialCurator extends AbstractHibernateCurator<Certifica
         super(CertificateSerial.class);
     }
 
+    /**
+     * Persists the given new certificate serials, flushing them to the database in JDBC batches of
+     * the configured batch block size.
+     * <p></p>
+     * Unlike saveOrUpdateAll, this method does not check whether each serial already exists
+     * before inserting it, which would otherwise cost a select per serial as serials carry
+     * assigned identifiers. As such, it must only be used for serials which have not yet been
+     * persisted.
+     *
+     * @param serials
+     *  A collection of new certificate serials to persist
+     *
+     * @return
+     *  the persisted certificate serials
+     */
+    @Transactional
+    public Collection<CertificateSerial> createAll(Collection<CertificateSerial> serials) {
+        if (serials == null || serials.isEmpty()) {
+            return serials;
+        }
+
+        Session session = this.currentSession();
+        Integer batchSize = session.getJdbcBatchSize();
+
+        try {
+            session.setJdbcBatchSize(this.getBatchBlockSize());
+            return this.saveAll(serials, true, false);
+        }
+        finally {
+            session.setJdbcBatchSize(batchSize);
+        }
+    }
+
     /**
      * Fetches a collection of serials from uncollected, revoked certficiate serials. If there are
      * no such certificate serials, this method returns an empty collection.
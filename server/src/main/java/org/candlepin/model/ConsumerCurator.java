@@ -14,6 +14,7 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.auth.PrincipalCache;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.NotFoundException;
@@ -42,6 +43,7 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Property;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.criterion.Subqueries;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -77,6 +79,7 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
     @Inject private FactValidator factValidator;
     @Inject private OwnerCurator ownerCurator;
     @Inject private Provider<HostCache> cachedHostsProvider;
+    @Inject private PrincipalCache principalCache;
 
     public ConsumerCurator() {
         super(Consumer.class);
@@ -101,6 +104,7 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
             owner.getKey(), owner.getDisplayName());
 
         super.delete(entity);
+        this.principalCache.invalidateConsumer(dc.getConsumerUuid());
 
         DeletedConsumer existing = deletedConsumerCurator.findByConsumerUuid(dc.getConsumerUuid());
         if (existing != null) {
@@ -328,6 +332,110 @@ public class ConsumerCurator extends AbstractHibernateCurator<Consumer> {
         return this.cpQueryFactory.<Consumer>buildQuery();
     }
 
+    /**
+     * Fetches the consumers with the specified IDs, along with their entitlements, the pools of
+     * those entitlements and their guest IDs, all of which are needed to calculate the compliance
+     * status of the consumers. The associations are fetched with one query each, rather than being
+     * lazily loaded one consumer at a time.
+     *
+     * @param consumerIds
+     *  A collection of consumer IDs specifying the consumers to fetch
+     *
+     * @return
+     *  a list of the consumers with the specified IDs
+     */
+    public List<Consumer> getConsumersForComplianceCheck(Collection<String> consumerIds) {
+        if (consumerIds == null || consumerIds.isEmpty()) {
+            return Collections.<Consumer>emptyList();
+        }
+
+        String entJpql = "SELECT DISTINCT c FROM Consumer c " +
+            "LEFT JOIN FETCH c.entitlements e LEFT JOIN FETCH e.pool " +
+            "WHERE c.id IN (:consumer_ids)";
+
+        // Impl note: Guest IDs are fetched separately to avoid a cartesian product with the
+        // entitlements. The second query populates the consumers already loaded by the first.
+        String guestJpql = "SELECT DISTINCT c FROM Consumer c " +
+            "LEFT JOIN FETCH c.guestIds " +
+            "WHERE c.id IN (:consumer_ids)";
+
+        List<Consumer> consumers = new ArrayList<>(consumerIds.size());
+
+        for (List<String> block : this.partition(consumerIds)) {
+            consumers.addAll(this.getEntityManager()
+                .createQuery(entJpql, Consumer.class)
+                .setParameter("consumer_ids", block)
+                .getResultList());
+
+            this.getEntityManager()
+                .createQuery(guestJpql, Consumer.class)
+                .setParameter("consumer_ids", block)
+                .getResultList();
+        }
+
+        return consumers;
+    }
+
+    /**
+     * Updates the compliance status hash and entitlement status of many consumers at once, using
+     * one statement for each block of consumers. The consumers are updated directly in the
+     * database; any consumer entities already loaded are not modified, and should be detached
+     * or refreshed by the caller.
+     *
+     * @param statuses
+     *  A mapping of consumer IDs to a pair of the compliance status hash and the entitlement
+     *  status to set for the consumer
+     *
+     * @return
+     *  the number of consumers updated
+     */
+    @Transactional
+    public int bulkUpdateComplianceStatus(Map<String, Pair<String, String>> statuses) {
+        if (statuses == null || statuses.isEmpty()) {
+            return 0;
+        }
+
+        Date updated = new Date();
+        int count = 0;
+
+        for (List<Map.Entry<String, Pair<String, String>>> block :
+            Iterables.partition(statuses.entrySet(), getCaseBlockSize())) {
+
+            StringBuilder hashCase = new StringBuilder("CASE id");
+            StringBuilder statusCase = new StringBuilder("CASE id");
+
+            for (int i = 0; i < block.size(); ++i) {
+                hashCase.append(" WHEN :id").append(i).append(" THEN :hash").append(i);
+                statusCase.append(" WHEN :id").append(i).append(" THEN :status").append(i);
+            }
+
+            String sql = "UPDATE " + Consumer.DB_TABLE + " SET " +
+                "compliancestatushash = " + hashCase.append(" ELSE compliancestatushash END") + ", " +
+                "entitlementstatus = " + statusCase.append(" ELSE entitlementstatus END") + ", " +
+                "updated = :updated " +
+                "WHERE id IN (:consumer_ids)";
+
+            NativeQuery query = this.currentSession().createNativeQuery(sql);
+            List<String> ids = new ArrayList<>(block.size());
+
+            for (int i = 0; i < block.size(); ++i) {
+                Map.Entry<String, Pair<String, String>> entry = block.get(i);
+
+                query.setParameter("id" + i, entry.getKey())
+                    .setParameter("hash" + i, entry.getValue().getLeft())
+                    .setParameter("status" + i, entry.getValue().getRight());
+
+                ids.add(entry.getKey());
+            }
+
+            count += query.setParameter("updated", updated)
+                .setParameterList("consumer_ids", ids)
+                .executeUpdate();
+        }
+
+        return count;
+    }
+
     @SuppressWarnings("unchecked")
     @Transactional
     public CandlepinQuery<Consumer> listByOwner(Owner owner) {
@@ -17,6 +17,7 @@ package org.candlepin.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.model.dto.ContentData;
 import org.candlepin.service.model.ContentInfo;
 import org.candlepin.util.SetView;
@@ -57,7 +58,7 @@ import java.util.Set;
 @XmlAccessorType(XmlAccessType.PROPERTY)
 @Entity
 @Immutable
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.CONTENT_CACHE)
 @Table(name = Content.DB_TABLE)
 public class Content extends AbstractHibernateObject implements SharedEntity, Cloneable, ContentInfo {
 
@@ -124,7 +125,8 @@ public class Content extends AbstractHibernateObject implements SharedEntity, Cl
     @Column(name = "element")
     @Size(max = 255)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY,
+        region = CandlepinCacheRegions.CONTENT_MODIFIED_PRODUCTS_CACHE)
     private Set<String> modifiedProductIds;
 
     @Column(nullable = true)
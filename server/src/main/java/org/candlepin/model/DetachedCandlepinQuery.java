@@ -24,14 +24,17 @@ import org.hibernate.LockMode;
 import org.hibernate.ScrollMode;
 import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.internal.CriteriaImpl;
 import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.engine.spi.SessionImplementor;
 import org.hibernate.loader.criteria.CriteriaQueryTranslator;
+import org.hibernate.metadata.ClassMetadata;
 import org.hibernate.type.Type;
 
 import java.lang.reflect.Field;
@@ -64,6 +67,7 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
     protected int offset;
     protected int limit;
     protected LockMode lockMode;
+    protected List<Criterion> restrictions;
 
     /**
      * Creates a new DetachedCandlepinQuery instance using the specified criteria and session.
@@ -97,6 +101,7 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         this.offset = -1;
         this.limit = -1;
         this.lockMode = null;
+        this.restrictions = new ArrayList<>();
     }
 
     /**
@@ -174,6 +179,12 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
             executable.setLockMode(this.lockMode);
         }
 
+        // Restrictions are kept separate from the initial state (and re-added here) so they
+        // survive the restoration above, even when added after the query has been executed.
+        for (Criterion restriction : this.restrictions) {
+            executable.add(restriction);
+        }
+
         // TODO: Add read-only when we have a requirement to do so.
 
         return executable;
@@ -223,6 +234,19 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<T> addRestriction(Criterion restriction) {
+        if (restriction == null) {
+            throw new IllegalArgumentException("restriction is null");
+        }
+
+        this.restrictions.add(restriction);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -472,4 +496,49 @@ public class DetachedCandlepinQuery<T> implements CandlepinQuery<T> {
         Long count = (Long) executable.uniqueResult();
         return count != null ? count.intValue() : 0;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getIdentifierPropertyName() {
+        ClassMetadata metadata = this.session.getSessionFactory()
+            .getClassMetadata(this.initialState.getEntityOrClassName());
+
+        return metadata != null ? metadata.getIdentifierPropertyName() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object[] getPropertyValuesAt(int position, String... properties) {
+        if (position < 0) {
+            throw new IllegalArgumentException("position is negative");
+        }
+
+        if (properties == null || properties.length == 0) {
+            throw new IllegalArgumentException("properties is null or empty");
+        }
+
+        Criteria executable = this.getExecutableCriteria();
+
+        ProjectionList projection = Projections.projectionList();
+        for (String property : properties) {
+            projection.add(Projections.property(property));
+        }
+
+        executable.setProjection(projection)
+            .setFirstResult(Math.max(this.offset, 0) + position)
+            .setMaxResults(1);
+
+        Object result = executable.uniqueResult();
+        if (result == null) {
+            return null;
+        }
+
+        // Single-column projections come back as the bare value
+        return result instanceof Object[] ? (Object[]) result : new Object[] { result };
+    }
+
 }
@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.Collections;
@@ -121,6 +122,19 @@ public class EmptyCandlepinQuery<T> implements CandlepinQuery<T> {
         return this;
     }
 
+    /**
+     * Returns a reference to this CandlepinQuery instance.
+     *
+     * @param restriction
+     *
+     * @return
+     *  this query instance
+     */
+    @Override
+    public CandlepinQuery<T> addRestriction(Criterion restriction) {
+        return this;
+    }
+
     /**
      * Returns a reference to this CandlepinQuery instance.
      *
@@ -287,4 +301,30 @@ public class EmptyCandlepinQuery<T> implements CandlepinQuery<T> {
     public int getRowCount() {
         return 0;
     }
+
+    /**
+     * Returns null, as an empty query does not query any entity.
+     *
+     * @return
+     *  null
+     */
+    @Override
+    public String getIdentifierPropertyName() {
+        return null;
+    }
+
+    /**
+     * Returns null, as an empty query never has a row at any position.
+     *
+     * @param position
+     *
+     * @param properties
+     *
+     * @return
+     *  null
+     */
+    @Override
+    public Object[] getPropertyValuesAt(int position, String... properties) {
+        return null;
+    }
 }
@@ -540,6 +540,28 @@ public class EntitlementCurator extends AbstractHibernateCurator<Entitlement> {
         return Collections.<Entitlement>emptyList();
     }
 
+    /**
+     * Fetches the IDs of consumers with dirty entitlements, ordered such that the consumers which
+     * most recently checked in come first. Consumers which never checked in are ordered by their
+     * creation date.
+     *
+     * @param limit
+     *  the maximum number of consumer IDs to fetch
+     *
+     * @return
+     *  a list of IDs of consumers with dirty entitlements
+     */
+    public List<String> getConsumerIdsWithDirtyEntitlements(int limit) {
+        String jpql = "SELECT c.id FROM Consumer c " +
+            "WHERE EXISTS (SELECT e.id FROM Entitlement e WHERE e.consumer.id = c.id AND e.dirty = true) " +
+            "ORDER BY COALESCE(c.lastCheckin, c.created) DESC";
+
+        return this.getEntityManager()
+            .createQuery(jpql, String.class)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
     /**
      * List all entitled product IDs from entitlements which overlap the given date range.
      *
@@ -83,6 +83,49 @@ public class JobCurator extends AbstractHibernateCurator<JobStatus> {
         }
     }
 
+    /**
+     * Fetches the checkpoint last recorded for the specified job. The checkpoint is read directly
+     * from the database, bypassing any job status instance already loaded into the session.
+     *
+     * @param jobId
+     *  the ID of the job for which to fetch the checkpoint
+     *
+     * @return
+     *  the checkpoint recorded for the job, or null if the job does not exist or has not recorded a
+     *  checkpoint
+     */
+    public String getCheckpoint(String jobId) {
+        return (String) this.currentSession().createQuery(
+            "select j.checkpoint from JobStatus j where j.id = :jobid")
+            .setParameter("jobid", jobId)
+            .uniqueResult();
+    }
+
+    /**
+     * Records a checkpoint for the specified job. The checkpoint is committed along with the
+     * transaction in which this method is called, allowing a job to record its progress atomically
+     * with the work it has completed.
+     *
+     * @param jobId
+     *  the ID of the job for which to record the checkpoint
+     *
+     * @param checkpoint
+     *  the checkpoint to record, or null to clear the job's checkpoint
+     *
+     * @return
+     *  the number of jobs updated
+     */
+    @Transactional
+    public int setCheckpoint(String jobId, String checkpoint) {
+        return this.currentSession().createQuery(
+            "update JobStatus j set j.checkpoint = :checkpoint, j.updated = :updated " +
+            "where j.id = :jobid")
+            .setString("checkpoint", checkpoint)
+            .setTimestamp("updated", new Date())
+            .setParameter("jobid", jobId)
+            .executeUpdate();
+    }
+
     @Transactional
     public int deleteJobNoStatusReturn(String jobId) {
         return this.currentSession().createQuery(
@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import org.candlepin.common.paging.ContinuationToken;
+import org.candlepin.common.paging.Page;
+import org.candlepin.common.paging.PageRequest;
+
+import org.hibernate.NullPrecedence;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+
+
+/**
+ * The KeysetPaging class contains the utility methods for translating a page request into the
+ * orderings and seek restrictions used to fetch a page of results.
+ * <p></p>
+ * Every paged query is ordered by the requested sort field followed by the entity identifier, so
+ * that rows sharing a sort value have a stable order. Keyset requests then locate their page by
+ * restricting the query to the rows which follow the (sort value, identifier) pair carried in the
+ * request's continuation token, rather than by skipping over an offset. Null sort values are
+ * always sorted last in keyset mode so the seek restriction behaves the same on every database.
+ */
+public final class KeysetPaging {
+
+    /**
+     * The number of rows beyond which an estimated count stops counting and reports the
+     * threshold instead.
+     */
+    public static final int ESTIMATED_COUNT_THRESHOLD = 10000;
+
+    private KeysetPaging() {
+        // Intentionally left empty
+    }
+
+    /**
+     * Fetches the field to sort by for the given page request, falling back to the default sort
+     * field if the request does not specify one.
+     *
+     * @param pageRequest
+     *  the page request
+     *
+     * @return
+     *  the field to sort by
+     */
+    public static String getSortField(PageRequest pageRequest) {
+        return pageRequest.getSortBy() != null ?
+            pageRequest.getSortBy() :
+            AbstractHibernateObject.DEFAULT_SORT_FIELD;
+    }
+
+    /**
+     * Fetches the order to sort with for the given page request, falling back to the default
+     * order if the request does not specify one.
+     *
+     * @param pageRequest
+     *  the page request
+     *
+     * @return
+     *  the order to sort with
+     */
+    public static PageRequest.Order getSortOrder(PageRequest pageRequest) {
+        return pageRequest.getOrder() != null ? pageRequest.getOrder() : PageRequest.DEFAULT_ORDER;
+    }
+
+    /**
+     * Builds the orderings to apply for the given page request.
+     *
+     * @param pageRequest
+     *  the page request
+     *
+     * @param idProperty
+     *  the name of the identifier property of the entity being paged, or null if the identifier is
+     *  unknown
+     *
+     * @return
+     *  a list of orderings to apply, in order
+     */
+    public static List<Order> buildOrders(PageRequest pageRequest, String idProperty) {
+        String sortField = getSortField(pageRequest);
+        boolean ascending = getSortOrder(pageRequest) == PageRequest.Order.ASCENDING;
+        List<Order> orders = new ArrayList<>();
+
+        Order order = ascending ? Order.asc(sortField) : Order.desc(sortField);
+        if (pageRequest.isKeyset()) {
+            order.nulls(NullPrecedence.LAST);
+        }
+
+        orders.add(order);
+
+        if (idProperty != null && !idProperty.equals(sortField)) {
+            orders.add(ascending ? Order.asc(idProperty) : Order.desc(idProperty));
+        }
+
+        return orders;
+    }
+
+    /**
+     * Builds the restriction limiting a query to the rows following the continuation token in the
+     * given page request.
+     *
+     * @param pageRequest
+     *  the page request
+     *
+     * @param idProperty
+     *  the name of the identifier property of the entity being paged
+     *
+     * @return
+     *  the seek restriction to apply, or null if the page request does not carry a continuation
+     *  token
+     */
+    public static Criterion buildSeekRestriction(PageRequest pageRequest, String idProperty) {
+        ContinuationToken token = pageRequest.getContinuation();
+        if (token == null || idProperty == null) {
+            return null;
+        }
+
+        String sortField = getSortField(pageRequest);
+        boolean ascending = getSortOrder(pageRequest) == PageRequest.Order.ASCENDING;
+        Object value = token.getSortValue();
+
+        Criterion idFollows = ascending ?
+            Restrictions.gt(idProperty, token.getId()) :
+            Restrictions.lt(idProperty, token.getId());
+
+        if (idProperty.equals(sortField)) {
+            return idFollows;
+        }
+
+        if (value == null) {
+            // Nulls are sorted last, so only the remaining null rows can follow
+            return Restrictions.and(Restrictions.isNull(sortField), idFollows);
+        }
+
+        Criterion valueFollows = ascending ?
+            Restrictions.gt(sortField, value) :
+            Restrictions.lt(sortField, value);
+
+        return Restrictions.or(
+            valueFollows,
+            Restrictions.and(Restrictions.eq(sortField, value), idFollows),
+            Restrictions.isNull(sortField));
+    }
+
+    /**
+     * Builds a continuation token for the row with the given sort value and identifier.
+     *
+     * @param pageRequest
+     *  the page request which fetched the row
+     *
+     * @param sortValue
+     *  the value of the sort field for the row
+     *
+     * @param id
+     *  the identifier of the row
+     *
+     * @return
+     *  a continuation token for the row, or null if the sort value or identifier cannot be carried
+     *  by a continuation token
+     */
+    public static ContinuationToken buildToken(PageRequest pageRequest, Object sortValue, Object id) {
+        if (!(id instanceof Serializable) || !ContinuationToken.isSupportedType(id) ||
+            !ContinuationToken.isSupportedType(sortValue)) {
+
+            return null;
+        }
+
+        return new ContinuationToken(getSortField(pageRequest), getSortOrder(pageRequest), sortValue,
+            (Serializable) id);
+    }
+
+    /**
+     * Applies the ordering and paging configuration of the given page request to a query, and
+     * populates the record count and continuation token of the given page. The query is only
+     * executed to determine the count and continuation token; the rows of the page itself are not
+     * fetched.
+     * <p></p>
+     * The continuation token is read directly from the last row of the page rather than from the
+     * loaded entities, which allows the page to be streamed to the client afterward.
+     *
+     * @param query
+     *  the query to page
+     *
+     * @param pageRequest
+     *  the page request to apply
+     *
+     * @param page
+     *  the page to receive the record count and continuation token
+     */
+    public static void applyPageRequest(CandlepinQuery<?> query, PageRequest pageRequest, Page<?> page) {
+        String idProperty = query.getIdentifierPropertyName();
+
+        // Impl note: The orderings must be added before the query is executed for the first time
+        for (Order order : buildOrders(pageRequest, idProperty)) {
+            query.addOrder(order);
+        }
+
+        page.setPageRequest(pageRequest);
+
+        if (!pageRequest.isPaging()) {
+            return;
+        }
+
+        // Count before seeking, so the count covers the entire result set
+        switch (pageRequest.getCountMode()) {
+            case ESTIMATE:
+                if (idProperty != null &&
+                    query.getPropertyValuesAt(ESTIMATED_COUNT_THRESHOLD, idProperty) != null) {
+
+                    page.setMaxRecords(ESTIMATED_COUNT_THRESHOLD);
+                    page.setEstimatedCount(true);
+                    break;
+                }
+
+                page.setMaxRecords(query.getRowCount());
+                break;
+
+            case EXACT:
+                page.setMaxRecords(query.getRowCount());
+                break;
+
+            default:
+                // Not counting
+        }
+
+        Criterion seek = buildSeekRestriction(pageRequest, idProperty);
+        if (seek != null) {
+            query.addRestriction(seek);
+        }
+
+        query.setFirstResult(pageRequest.isKeyset() ? 0 :
+            (pageRequest.getPage() - 1) * pageRequest.getPerPage());
+        query.setMaxResults(pageRequest.getPerPage());
+
+        // A token is only needed if the page is full, in which case more rows may follow it. Counted
+        // offset pages derive their next link from the count, so only keyset pages and uncounted
+        // pages (where the token marks that a next page may exist) pay for the probe.
+        boolean counted = page.getMaxRecords() != null;
+        if (idProperty != null && (pageRequest.isKeyset() || !counted)) {
+            Object[] last = query.getPropertyValuesAt(pageRequest.getPerPage() - 1,
+                getSortField(pageRequest), idProperty);
+
+            if (last != null) {
+                page.setContinuation(buildToken(pageRequest, last[0], last[1]));
+            }
+        }
+    }
+}
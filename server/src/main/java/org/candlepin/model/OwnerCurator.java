@@ -14,6 +14,8 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.auth.PrincipalCache;
+
 import com.google.inject.Inject;
 import com.google.inject.persist.Transactional;
 
@@ -45,12 +47,22 @@ import javax.inject.Singleton;
 public class OwnerCurator extends AbstractHibernateCurator<Owner> {
 
     @Inject private CandlepinQueryFactory cpQueryFactory;
+    @Inject private PrincipalCache principalCache;
     private static Logger log = LoggerFactory.getLogger(OwnerCurator.class);
 
     public OwnerCurator() {
         super(Owner.class);
     }
 
+    @Override
+    @Transactional
+    public void delete(Owner entity) {
+        super.delete(entity);
+
+        // Cached consumers and user permissions may still refer to the deleted owner
+        this.principalCache.invalidateOwner(entity.getId());
+    }
+
     /**
      * Fetches the Owner for the specified ownerId. If the ownerId is null or owner was not found, this
      * method throws an exception.
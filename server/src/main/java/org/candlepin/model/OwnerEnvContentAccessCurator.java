@@ -14,26 +14,47 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.common.exceptions.IseException;
+
 import com.google.inject.persist.Transactional;
 
+import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javax.inject.Singleton;
 import javax.persistence.Query;
+import javax.transaction.Synchronization;
 
 
 
 /**
  * The OwnerContentCurator provides functionality for managing the mapping between owners and
  * content.
+ * <p></p>
+ * Generation of a missing content access payload is coalesced per owner and environment on this
+ * node: while one caller generates and stores the payload, concurrent callers wait for and share
+ * its result instead of generating their own.
  */
 @Singleton
 public class OwnerEnvContentAccessCurator extends AbstractHibernateCurator<OwnerEnvContentAccess> {
     private static Logger log = LoggerFactory.getLogger(OwnerEnvContentAccessCurator.class);
 
+    /**
+     * The payload generations in flight, keyed by owner and environment ID. A completed generation
+     * is kept until the transaction storing its payload completes, as the stored payload is not
+     * visible to other transactions before then.
+     */
+    private final ConcurrentMap<String, FutureTask<String>> generations = new ConcurrentHashMap<>();
+
     /**
      * Default constructor
      */
@@ -80,12 +101,153 @@ public class OwnerEnvContentAccessCurator extends AbstractHibernateCurator<Owner
         return (resultList == null || resultList.isEmpty()) ? null : resultList.get(0);
     }
 
+    /**
+     * Fetches the content access payload of the given owner and environment, generating and
+     * storing it with the given generator if no payload is stored yet. If the payload is already
+     * being generated on this node, this method waits for and returns the result of that
+     * generation instead.
+     *
+     * @param owner
+     *  the owner for which to fetch the payload
+     *
+     * @param environment
+     *  the environment for which to fetch the payload, or null for the owner's payload
+     *
+     * @param generator
+     *  the generator to use to build the payload if it is missing
+     *
+     * @throws IOException
+     *  if the payload cannot be generated
+     *
+     * @return
+     *  the content access payload of the owner and environment
+     */
+    @Transactional
+    public String getOrCreateContentJson(Owner owner, Environment environment,
+        Callable<String> generator) throws IOException {
+
+        String environmentId = environment != null ? environment.getId() : null;
+        OwnerEnvContentAccess oeca = this.getContentAccess(owner.getId(), environmentId);
+        if (oeca != null) {
+            return oeca.getContentJson();
+        }
+
+        String key = this.getGenerationKey(owner.getId(), environmentId);
+        FutureTask<String> generation = new FutureTask<>(generator);
+        FutureTask<String> existing = this.generations.putIfAbsent(key, generation);
+
+        if (existing != null) {
+            log.debug("Waiting for content access payload generation in progress: {}", key);
+            return this.getResult(existing);
+        }
+
+        boolean stored = false;
+
+        try {
+            generation.run();
+            String contentJson = this.getResult(generation);
+
+            this.saveOrUpdate(new OwnerEnvContentAccess(owner, environment, contentJson));
+            stored = true;
+
+            return contentJson;
+        }
+        finally {
+            this.endGeneration(key, generation, stored);
+        }
+    }
+
+    private String getGenerationKey(String ownerId, String environmentId) {
+        return ownerId + "/" + (environmentId != null ? environmentId : "");
+    }
+
+    private String getResult(FutureTask<String> generation) throws IOException {
+        try {
+            return generation.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating content access payload", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IseException("Unable to generate content access payload", cause);
+        }
+    }
+
+    /**
+     * Ends a payload generation started by this node. A failed generation is discarded right
+     * away, while a stored one is discarded once the current transaction completes.
+     */
+    private void endGeneration(final String key, final FutureTask<String> generation, boolean stored) {
+        Transaction transaction = this.currentSession().getTransaction();
+
+        if (stored && transaction != null && transaction.isActive()) {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // Intentionally left empty
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    generations.remove(key, generation);
+                }
+            });
+        }
+        else {
+            this.generations.remove(key, generation);
+        }
+    }
+
+    /**
+     * Fetches the IDs of the owners using the given content access mode which are missing a
+     * stored content access payload, either for the owner itself or for any of its environments.
+     *
+     * @param contentAccessMode
+     *  the content access mode of the owners to check
+     *
+     * @return
+     *  a list of IDs of owners with missing content access payloads
+     */
+    @SuppressWarnings("unchecked")
+    @Transactional
+    public List<String> getOwnerIdsMissingContentAccess(String contentAccessMode) {
+        String hql = "SELECT o.id" +
+            "    FROM Owner o" +
+            "    WHERE" +
+            "       o.contentAccessMode = :mode" +
+            "    AND (" +
+            "       NOT EXISTS (SELECT oeca.id FROM OwnerEnvContentAccess oeca" +
+            "           WHERE oeca.owner = o AND oeca.environment IS NULL)" +
+            "       OR EXISTS (SELECT e.id FROM Environment e WHERE e.owner = o AND NOT EXISTS (" +
+            "           SELECT oeca2.id FROM OwnerEnvContentAccess oeca2 WHERE oeca2.environment = e))" +
+            "    )";
+
+        return (List<String>) this.getEntityManager().createQuery(hql)
+            .setParameter("mode", contentAccessMode)
+            .getResultList();
+    }
+
     @Transactional
     public void removeAllForOwner(String ownerId) {
         this.currentSession().createQuery(
                 "delete from OwnerEnvContentAccess where owner_id = :ownerId")
                 .setParameter("ownerId", ownerId)
                 .executeUpdate();
+
+        // Payloads generated before the removal must not be handed out anymore
+        String prefix = this.getGenerationKey(ownerId, "");
+        this.generations.keySet().removeIf(key -> key.startsWith(prefix));
     }
 
     @Transactional
@@ -94,6 +256,10 @@ public class OwnerEnvContentAccessCurator extends AbstractHibernateCurator<Owner
                 "delete from OwnerEnvContentAccess where environment_id = :environmentId")
                 .setParameter("environmentId", environmentId)
                 .executeUpdate();
+
+        // Payloads generated before the removal must not be handed out anymore
+        String suffix = "/" + environmentId;
+        this.generations.keySet().removeIf(key -> key.endsWith(suffix));
     }
 
     public void saveOrUpdate(OwnerEnvContentAccess ownerEnvContentAccess) {
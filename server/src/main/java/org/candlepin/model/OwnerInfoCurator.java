@@ -14,6 +14,12 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.google.inject.Inject;
 import com.google.inject.Provider;
 
@@ -40,12 +46,18 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Singleton;
 import javax.persistence.EntityManager;
 
 /**
  * OwnerInfoCurator
+ * <p></p>
+ * Computing the info of an owner requires a number of aggregate queries, which can take a
+ * significant amount of time for large owners. To allow the info to be polled cheaply, snapshots
+ * of the info are kept per owner and served until they exceed the configured maximum age.
  */
 @Singleton
 public class OwnerInfoCurator {
@@ -55,15 +67,77 @@ public class OwnerInfoCurator {
     private ConsumerTypeCurator consumerTypeCurator;
     private ConsumerCurator consumerCurator;
     private PoolCurator poolCurator;
+    private Cache<String, OwnerInfo> snapshots;
 
     @Inject
     public OwnerInfoCurator(Provider<EntityManager> entityManager,
         ConsumerCurator consumerCurator, ConsumerTypeCurator consumerTypeCurator,
-        PoolCurator poolCurator) {
+        PoolCurator poolCurator, Configuration config) {
         this.entityManager = entityManager;
         this.consumerCurator = consumerCurator;
         this.consumerTypeCurator = consumerTypeCurator;
         this.poolCurator = poolCurator;
+
+        long maxAge = config.getLong(ConfigProperties.OWNER_INFO_MAX_AGE);
+        if (maxAge > 0) {
+            this.snapshots = CacheBuilder.newBuilder()
+                .expireAfterWrite(maxAge, TimeUnit.SECONDS)
+                .maximumSize(config.getLong(ConfigProperties.OWNER_INFO_MAX_SIZE))
+                .build();
+        }
+    }
+
+    /**
+     * Fetches the info of the given owner from its most recent snapshot, computing a new snapshot
+     * if the owner has none or its snapshot has exceeded the configured maximum age. Concurrent
+     * requests for an owner without a snapshot wait for a single computation of the info.
+     * <p></p>
+     * As the info only counts the consumers and pools visible to the current principal,
+     * snapshots are only used for principals whose access to those is unrestricted.
+     *
+     * @param owner
+     *  the owner for which to fetch the info
+     *
+     * @param fresh
+     *  whether or not to ignore any existing snapshot, computing and storing a new one
+     *
+     * @return
+     *  the info of the given owner
+     */
+    public OwnerInfo getSnapshotByOwner(final Owner owner, boolean fresh) {
+        if (this.snapshots == null || !this.isUnrestricted()) {
+            return this.getByOwner(owner);
+        }
+
+        if (fresh) {
+            OwnerInfo info = this.getByOwner(owner);
+            this.snapshots.put(owner.getId(), info);
+
+            return info;
+        }
+
+        try {
+            return this.snapshots.get(owner.getId(), () -> this.getByOwner(owner));
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Discards the info snapshot of the given owner, if any.
+     *
+     * @param owner
+     *  the owner for which to discard the snapshot
+     */
+    public void invalidateSnapshot(Owner owner) {
+        if (this.snapshots != null && owner != null && owner.getId() != null) {
+            this.snapshots.invalidate(owner.getId());
+        }
     }
 
     public OwnerInfo getByOwner(Owner owner) {
@@ -117,6 +191,11 @@ public class OwnerInfoCurator {
         return info;
     }
 
+    private boolean isUnrestricted() {
+        return this.consumerCurator.getSecureCriteriaRestrictions(Consumer.class) == null &&
+            this.poolCurator.getSecureCriteriaRestrictions(Pool.class) == null;
+    }
+
     @SuppressWarnings("unchecked")
     private void setConsumerGuestCounts(Owner owner, OwnerInfo info) {
         Criteria cr = consumerCurator.createSecureCriteria()
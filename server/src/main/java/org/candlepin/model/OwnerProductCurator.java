@@ -14,12 +14,14 @@
  */
 package org.candlepin.model;
 
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.model.activationkeys.ActivationKey;
 
 import com.google.inject.persist.Transactional;
 
 import org.hibernate.Criteria;
 import org.hibernate.Session;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Disjunction;
 import org.hibernate.criterion.Order;
@@ -30,6 +32,7 @@ import org.hibernate.sql.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -39,17 +42,25 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.inject.Singleton;
+import javax.transaction.Synchronization;
 
 
 
 /**
  * The OwnerProductCurator provides functionality for managing the mapping between owners and
  * products.
+ * <p></p>
+ * Lookups of an owner's products by product ID are resolved through a per-owner cache of product ID
+ * to UUID mappings, followed by primary key loads of the products. Any change to an owner's
+ * mappings made through this curator invalidates that owner's cached mappings.
  */
 @Singleton
 public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct> {
     private static Logger log = LoggerFactory.getLogger(OwnerProductCurator.class);
 
+    private volatile OwnerProductIdCache productIdCache;
+    private volatile boolean productIdCacheInitialized;
+
     /**
      * Default constructor
      */
@@ -57,6 +68,169 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         super(OwnerProduct.class);
     }
 
+    /**
+     * Fetches the product ID cache, creating it on first use as the configuration is not yet
+     * available at construction time.
+     *
+     * @return
+     *  the product ID cache, or null if the cache is disabled
+     */
+    private OwnerProductIdCache getProductIdCache() {
+        if (!this.productIdCacheInitialized) {
+            synchronized (this) {
+                if (!this.productIdCacheInitialized) {
+                    long ttl = this.config.getLong(ConfigProperties.OWNER_PRODUCT_ID_CACHE_TTL);
+
+                    if (ttl > 0) {
+                        this.productIdCache = new OwnerProductIdCache(ttl,
+                            this.config.getLong(ConfigProperties.OWNER_PRODUCT_ID_CACHE_MAX));
+                    }
+
+                    this.productIdCacheInitialized = true;
+                }
+            }
+        }
+
+        return this.productIdCache;
+    }
+
+    /**
+     * Fetches the product ID to UUID mappings for the given owner from the product ID cache.
+     * Cached mappings are only used when the current principal's access to owner products is
+     * unrestricted, and when the owner has no in-flight changes to its mappings.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch product mappings
+     *
+     * @return
+     *  a map of product IDs to product UUIDs for the given owner, or null if the mappings must be
+     *  queried from the database
+     */
+    private Map<String, String> getCachedProductUuids(String ownerId) {
+        OwnerProductIdCache cache = this.getProductIdCache();
+
+        if (cache == null || ownerId == null ||
+            this.getSecureCriteriaRestrictions(OwnerProduct.class) != null) {
+
+            return null;
+        }
+
+        return cache.get(ownerId, this::getProductUuidMap);
+    }
+
+    /**
+     * Queries the product ID to UUID mappings for the given owner.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch product mappings
+     *
+     * @return
+     *  an unmodifiable map of product IDs to product UUIDs
+     */
+    private Map<String, String> getProductUuidMap(String ownerId) {
+        String jpql = "SELECT op.product.id, op.product.uuid FROM OwnerProduct op " +
+            "WHERE op.owner.id = :owner_id";
+
+        List<Object[]> rows = this.getEntityManager()
+            .createQuery(jpql, Object[].class)
+            .setParameter("owner_id", ownerId)
+            .getResultList();
+
+        Map<String, String> uuids = new HashMap<>();
+        for (Object[] row : rows) {
+            uuids.put((String) row[0], (String) row[1]);
+        }
+
+        return Collections.unmodifiableMap(uuids);
+    }
+
+    /**
+     * Invalidates the cached product mappings of the given owners, and keeps them from being
+     * cached again until the current transaction completes.
+     *
+     * @param ownerIds
+     *  the IDs of the owners whose product mappings are changing
+     */
+    private void invalidateProductUuids(Collection<String> ownerIds) {
+        final OwnerProductIdCache cache = this.getProductIdCache();
+
+        if (cache == null || ownerIds == null || ownerIds.isEmpty()) {
+            return;
+        }
+
+        final Set<String> ids = new HashSet<>(ownerIds);
+        ids.remove(null);
+
+        for (String ownerId : ids) {
+            cache.beginUpdate(ownerId);
+        }
+
+        Transaction transaction = this.currentSession().getTransaction();
+        if (transaction != null && transaction.isActive()) {
+            transaction.registerSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // Intentionally left empty
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    for (String ownerId : ids) {
+                        cache.endUpdate(ownerId);
+                    }
+                }
+            });
+        }
+        else {
+            for (String ownerId : ids) {
+                cache.endUpdate(ownerId);
+            }
+        }
+    }
+
+    private void invalidateProductUuids(String ownerId) {
+        this.invalidateProductUuids(Collections.singleton(ownerId));
+    }
+
+    @Override
+    @Transactional
+    public OwnerProduct create(OwnerProduct entity, boolean flush) {
+        if (entity != null && entity.getOwner() != null) {
+            this.invalidateProductUuids(entity.getOwner().getId());
+        }
+
+        return super.create(entity, flush);
+    }
+
+    @Override
+    public Collection<OwnerProduct> saveAll(Collection<OwnerProduct> entities, boolean flush,
+        boolean evict) {
+
+        if (entities != null) {
+            List<String> ownerIds = new ArrayList<>();
+
+            for (OwnerProduct entity : entities) {
+                if (entity != null && entity.getOwner() != null) {
+                    ownerIds.add(entity.getOwner().getId());
+                }
+            }
+
+            this.invalidateProductUuids(ownerIds);
+        }
+
+        return super.saveAll(entities, flush, evict);
+    }
+
+    @Override
+    @Transactional
+    public void delete(OwnerProduct entity) {
+        if (entity != null && entity.getOwner() != null) {
+            this.invalidateProductUuids(entity.getOwner().getId());
+        }
+
+        super.delete(entity);
+    }
+
     @Transactional
     public OwnerProduct getOwnerProductByProductId(Owner owner, String productId) {
         return (OwnerProduct) this.createSecureCriteria()
@@ -73,6 +247,13 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public Product getProductById(String ownerId, String productId) {
+        Map<String, String> uuids = this.getCachedProductUuids(ownerId);
+
+        if (uuids != null) {
+            String uuid = uuids.get(productId);
+            return uuid != null ? this.currentSession().get(Product.class, uuid) : null;
+        }
+
         return (Product) this.createSecureCriteria()
             .createAlias("owner", "owner")
             .createAlias("product", "product")
@@ -206,14 +387,28 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
         // Impl note: See getOwnersByProduct for details on why we're doing this in two queries.
         Session session = this.currentSession();
+        Map<String, String> uuidMap = this.getCachedProductUuids(ownerId);
+        List<String> uuids;
 
-        List<String> uuids = session.createCriteria(OwnerProduct.class)
-            .createAlias("owner", "owner")
-            .createAlias("product", "product")
-            .add(Restrictions.eq("owner.id", ownerId))
-            .add(CPRestrictions.in("product.id", productIds))
-            .setProjection(Projections.property("product.uuid"))
-            .list();
+        if (uuidMap != null) {
+            uuids = new ArrayList<>();
+
+            for (String productId : productIds) {
+                String uuid = uuidMap.get(productId);
+                if (uuid != null) {
+                    uuids.add(uuid);
+                }
+            }
+        }
+        else {
+            uuids = session.createCriteria(OwnerProduct.class)
+                .createAlias("owner", "owner")
+                .createAlias("product", "product")
+                .add(Restrictions.eq("owner.id", ownerId))
+                .add(CPRestrictions.in("product.id", productIds))
+                .setProjection(Projections.property("product.uuid"))
+                .list();
+        }
 
         if (uuids != null && !uuids.isEmpty()) {
             DetachedCriteria criteria = this.createSecureDetachedCriteria(Product.class, null)
@@ -282,6 +477,11 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
      */
     @Transactional
     public boolean productExists(Owner owner, String productId) {
+        Map<String, String> uuids = this.getCachedProductUuids(owner.getId());
+        if (uuids != null) {
+            return uuids.containsKey(productId);
+        }
+
         String jpql = "SELECT count(op) FROM OwnerProduct op " +
             "WHERE op.owner.id = :owner_id AND op.product.id = :product_id";
 
@@ -312,6 +512,18 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         Set<String> existingIds = new HashSet<>();
 
         if (productIds != null && !productIds.isEmpty()) {
+            Map<String, String> uuids = this.getCachedProductUuids(owner.getId());
+
+            if (uuids != null) {
+                for (String productId : productIds) {
+                    if (uuids.containsKey(productId)) {
+                        existingIds.add(productId);
+                    }
+                }
+
+                return existingIds;
+            }
+
             existingIds.addAll(this.createSecureCriteria()
                 .createAlias("owner", "owner")
                 .createAlias("product", "product")
@@ -377,6 +589,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public boolean removeOwnerFromProduct(Product product, Owner owner) {
+        this.invalidateProductUuids(owner.getId());
+
         String jpql = "DELETE FROM OwnerProduct op " +
             "WHERE op.product.uuid = :product_uuid AND op.owner.id = :owner_id";
 
@@ -391,6 +605,13 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public int clearOwnersForProduct(Product product) {
+        String ownerJpql = "SELECT op.owner.id FROM OwnerProduct op WHERE op.product.uuid = :product_uuid";
+
+        this.invalidateProductUuids(this.getEntityManager()
+            .createQuery(ownerJpql, String.class)
+            .setParameter("product_uuid", product.getUuid())
+            .getResultList());
+
         String jpql = "DELETE FROM OwnerProduct op " +
             "WHERE op.product.uuid = :product_uuid";
 
@@ -402,6 +623,8 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
 
     @Transactional
     public int clearProductsForOwner(Owner owner) {
+        this.invalidateProductUuids(owner.getId());
+
         String jpql = "DELETE FROM OwnerProduct op " +
             "WHERE op.owner.id = :owner_id";
 
@@ -534,6 +757,7 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
             return;
         }
 
+        this.invalidateProductUuids(owner.getId());
         Session session = this.currentSession();
 
         Map<String, Object> criteria = new HashMap<>();
@@ -639,6 +863,7 @@ public class OwnerProductCurator extends AbstractHibernateCurator<OwnerProduct>
         if (productUuids != null && !productUuids.isEmpty()) {
             log.info("Removing owner-product references for owner: {}, {}", owner, productUuids);
 
+            this.invalidateProductUuids(owner.getId());
             Session session = this.currentSession();
 
             // Ensure we aren't trying to remove product references for products still used by
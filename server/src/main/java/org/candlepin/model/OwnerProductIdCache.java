@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+
+
+/**
+ * The OwnerProductIdCache holds, per owner, the mapping of product IDs to the UUIDs of the product
+ * versions currently mapped to that owner.
+ * <p></p>
+ * Each owner has a version which is incremented whenever its mappings are invalidated. A freshly
+ * loaded map is only stored if the owner's version did not change while it was being loaded, so a
+ * load racing with a change can't reinstate the old mappings. Additionally, while a transaction
+ * changing an owner's mappings is in flight, the owner's mappings are neither served nor stored,
+ * as they may not match what other transactions see.
+ */
+class OwnerProductIdCache {
+
+    /**
+     * Version and in-flight update bookkeeping for a single owner. Kept apart from the cached
+     * maps, so the bookkeeping survives the eviction of the maps.
+     */
+    private static class OwnerState {
+        private long version;
+        private int updates;
+    }
+
+    private final Map<String, OwnerState> states;
+    private final Cache<String, Map<String, String>> mappings;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param ttl
+     *  the number of seconds for which loaded mappings may be served
+     *
+     * @param maxOwners
+     *  the maximum number of owners for which mappings are kept
+     */
+    OwnerProductIdCache(long ttl, long maxOwners) {
+        this.states = new ConcurrentHashMap<>();
+        this.mappings = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.SECONDS)
+            .maximumSize(maxOwners)
+            .build();
+    }
+
+    private OwnerState getState(String ownerId) {
+        return this.states.computeIfAbsent(ownerId, key -> new OwnerState());
+    }
+
+    /**
+     * Fetches the product ID to UUID mappings of the given owner, loading them with the given
+     * loader if they are not cached. If the owner has in-flight updates, this method returns null
+     * without invoking the loader.
+     *
+     * @param ownerId
+     *  the ID of the owner for which to fetch mappings
+     *
+     * @param loader
+     *  the function to use to load the mappings of the owner
+     *
+     * @return
+     *  an unmodifiable map of product IDs to product UUIDs, or null if the owner's mappings are
+     *  currently being updated
+     */
+    Map<String, String> get(String ownerId, Function<String, Map<String, String>> loader) {
+        OwnerState state = this.getState(ownerId);
+        long version;
+
+        synchronized (state) {
+            if (state.updates > 0) {
+                return null;
+            }
+
+            Map<String, String> cached = this.mappings.getIfPresent(ownerId);
+            if (cached != null) {
+                return cached;
+            }
+
+            version = state.version;
+        }
+
+        Map<String, String> loaded = loader.apply(ownerId);
+
+        synchronized (state) {
+            if (state.updates == 0 && state.version == version) {
+                this.mappings.put(ownerId, loaded);
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Invalidates the mappings of the given owner and marks it as having an in-flight update. Each
+     * call must be followed by a call to endUpdate once the updating transaction completes.
+     *
+     * @param ownerId
+     *  the ID of the owner whose mappings are being updated
+     */
+    void beginUpdate(String ownerId) {
+        OwnerState state = this.getState(ownerId);
+
+        synchronized (state) {
+            ++state.version;
+            ++state.updates;
+            this.mappings.invalidate(ownerId);
+        }
+    }
+
+    /**
+     * Invalidates the mappings of the given owner and clears an in-flight update previously
+     * started by beginUpdate.
+     *
+     * @param ownerId
+     *  the ID of the owner whose mappings were updated
+     */
+    void endUpdate(String ownerId) {
+        OwnerState state = this.getState(ownerId);
+
+        synchronized (state) {
+            ++state.version;
+            state.updates = Math.max(0, state.updates - 1);
+            this.mappings.invalidate(ownerId);
+        }
+    }
+
+}
@@ -361,8 +361,6 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             log.debug("    after: {}", after);
         }
 
-        boolean joinedProvided = false;
-
         Criteria criteria = this.createSecureCriteria("Pool")
             .createAlias("product", "Product")
             .setProjection(Projections.distinct(Projections.id()));
@@ -429,6 +427,30 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
 
                 criteria.add(Subqueries.notExists(hostPoolSubquery));
             }
+
+            if (!ctype.isManifest()) {
+                // Pools restricted to another user, and pools requiring a host when the consumer
+                // cannot have one, are always rejected by the rules; skip them here.
+                String username = consumer.getUsername();
+
+                criteria.add(username == null ?
+                    Restrictions.isNull("Pool.restrictedToUsername") :
+                    Restrictions.or(
+                        Restrictions.isNull("Pool.restrictedToUsername"),
+                        Restrictions.eq("Pool.restrictedToUsername", username)));
+
+                if (!consumer.hasFact("virt.uuid")) {
+                    // The rules treat empty and zero values as the attribute being unset
+                    DetachedCriteria hostPoolSubquery = DetachedCriteria.forClass(Pool.class, "PoolI")
+                        .createAlias("PoolI.attributes", "attrib")
+                        .setProjection(Projections.id())
+                        .add(Property.forName("Pool.id").eqProperty("PoolI.id"))
+                        .add(Restrictions.eq("attrib.indices", Pool.Attributes.REQUIRES_HOST))
+                        .add(Restrictions.not(Restrictions.in("attrib.elements", new Object[] { "", "0" })));
+
+                    criteria.add(Subqueries.notExists(hostPoolSubquery));
+                }
+            }
         }
 
         if (ownerId != null) {
@@ -474,11 +496,7 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             productIds;
 
         if (values != null && !values.isEmpty()) {
-            if (!joinedProvided) {
-                criteria.createAlias("Pool.providedProducts", "Provided", JoinType.LEFT_OUTER_JOIN);
-                joinedProvided = true;
-            }
-
+            criteria.createAlias("Pool.providedProducts", "Provided", JoinType.LEFT_OUTER_JOIN);
             criteria.add(Restrictions.or(
                 CPRestrictions.in("Product.id", values),
                 CPRestrictions.in("Provided.id", values)
@@ -496,32 +514,8 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
             // Matches stuff
             values = filters.getMatchesFilters();
             if (values != null && !values.isEmpty()) {
-                if (!joinedProvided) {
-                    // This was an inner join -- might end up being important later
-                    criteria.createAlias("Pool.providedProducts", "Provided", JoinType.LEFT_OUTER_JOIN);
-                    joinedProvided = true;
-                }
-
-                criteria.createAlias("Provided.productContent", "PPC", JoinType.LEFT_OUTER_JOIN);
-                criteria.createAlias("PPC.content", "Content", JoinType.LEFT_OUTER_JOIN);
-
                 for (String matches : values) {
-                    String sanitized = this.sanitizeMatchesFilter(matches);
-
-                    Disjunction matchesDisjunction = Restrictions.disjunction();
-
-                    matchesDisjunction.add(CPRestrictions.ilike("Pool.contractNumber", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Pool.orderNumber", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Product.id", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Product.name", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Provided.id", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Provided.name", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Content.name", sanitized, '!'))
-                        .add(CPRestrictions.ilike("Content.label", sanitized, '!'))
-                        .add(this.addProductAttributeFilterSubquery(Product.Attributes.SUPPORT_LEVEL,
-                            Arrays.asList(matches)));
-
-                    criteria.add(matchesDisjunction);
+                    criteria.add(this.buildMatchesCriterion(matches));
                 }
             }
 
@@ -591,6 +585,56 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         return output;
     }
 
+    /**
+     * Builds a criterion matching pools with a contract number, order number, product, provided
+     * product, provided content or support level matching the given filter.
+     * <p></p>
+     * Impl note: Rather than joining the provided products and their content onto the pool query
+     * and applying a single disjunction over the joined rows, each field is searched with its own
+     * subquery. This keeps the outer query free of row-multiplying joins, and allows each search
+     * to use the trigram indexes created for these columns on PostgreSQL. Other databases perform
+     * the same searches without the aid of an index.
+     *
+     * @param matches
+     *  the matches filter to apply
+     *
+     * @return
+     *  a criterion matching pools on the given filter
+     */
+    private Criterion buildMatchesCriterion(String matches) {
+        String sanitized = this.sanitizeMatchesFilter(matches);
+
+        DetachedCriteria providedSubquery = DetachedCriteria.forClass(Pool.class, "PoolP")
+            .createAlias("PoolP.providedProducts", "ProvidedP")
+            .setProjection(Projections.id())
+            .add(Property.forName("Pool.id").eqProperty("PoolP.id"))
+            .add(Restrictions.or(
+                CPRestrictions.ilike("ProvidedP.id", sanitized, '!'),
+                CPRestrictions.ilike("ProvidedP.name", sanitized, '!')
+            ));
+
+        DetachedCriteria contentSubquery = DetachedCriteria.forClass(Pool.class, "PoolC")
+            .createAlias("PoolC.providedProducts", "ProvidedC")
+            .createAlias("ProvidedC.productContent", "PPC")
+            .createAlias("PPC.content", "Content")
+            .setProjection(Projections.id())
+            .add(Property.forName("Pool.id").eqProperty("PoolC.id"))
+            .add(Restrictions.or(
+                CPRestrictions.ilike("Content.name", sanitized, '!'),
+                CPRestrictions.ilike("Content.label", sanitized, '!')
+            ));
+
+        return Restrictions.disjunction()
+            .add(CPRestrictions.ilike("Pool.contractNumber", sanitized, '!'))
+            .add(CPRestrictions.ilike("Pool.orderNumber", sanitized, '!'))
+            .add(CPRestrictions.ilike("Product.id", sanitized, '!'))
+            .add(CPRestrictions.ilike("Product.name", sanitized, '!'))
+            .add(Subqueries.exists(providedSubquery))
+            .add(Subqueries.exists(contentSubquery))
+            .add(this.addProductAttributeFilterSubquery(Product.Attributes.SUPPORT_LEVEL,
+                Arrays.asList(matches)));
+    }
+
     @SuppressWarnings("checkstyle:indentation")
     private Criterion addAttributeFilterSubquery(String key, Collection<String> values) {
         // key = this.sanitizeMatchesFilter(key);
@@ -1561,6 +1605,58 @@ public class PoolCurator extends AbstractHibernateCurator<Pool> {
         q.executeUpdate();
     }
 
+    /**
+     * Atomically adds the given quantity to the consumed count of the specified pool, provided the
+     * pool is unlimited or has enough of its quantity remaining. The pool does not need to be locked
+     * beforehand; the pool's row is locked only from the update until the transaction completes.
+     * <p></p>
+     * As this is performed as a bulk update, any instance of the pool already loaded in the session
+     * will not reflect the reserved quantity, and must not be updated by the caller, lest the
+     * reservation be overwritten.
+     *
+     * @param poolId
+     *  the ID of the pool from which to reserve quantity
+     *
+     * @param quantity
+     *  the quantity to reserve
+     *
+     * @return
+     *  true if the quantity was reserved; false if the pool does not exist or does not have enough
+     *  quantity remaining
+     */
+    public boolean reserveQuantity(String poolId, long quantity) {
+        String stmt = "update Pool p set p.consumed = p.consumed + :quantity, p.updated = :updated " +
+            "where p.id = :poolId and (p.quantity < 0 or p.consumed + :quantity <= p.quantity)";
+
+        Query q = currentSession().createQuery(stmt);
+        q.setParameter("quantity", quantity);
+        q.setParameter("updated", new Date());
+        q.setParameter("poolId", poolId);
+
+        return q.executeUpdate() > 0;
+    }
+
+    /**
+     * Atomically removes the given quantity from the consumed count of the specified pool,
+     * releasing a quantity previously reserved through {@link #reserveQuantity(String, long)}.
+     *
+     * @param poolId
+     *  the ID of the pool from which to release quantity
+     *
+     * @param quantity
+     *  the quantity to release
+     */
+    public void releaseQuantity(String poolId, long quantity) {
+        String stmt = "update Pool p set p.consumed = p.consumed - :quantity, p.updated = :updated " +
+            "where p.id = :poolId";
+
+        Query q = currentSession().createQuery(stmt);
+        q.setParameter("quantity", quantity);
+        q.setParameter("updated", new Date());
+        q.setParameter("poolId", poolId);
+        q.executeUpdate();
+    }
+
     public void calculateExportedForOwnersPools(Owner owner) {
         String stmt = "update Pool p set p.exported = coalesce(" +
             "(select sum(ent.quantity) FROM Entitlement ent, Consumer cons, ConsumerType ctype " +
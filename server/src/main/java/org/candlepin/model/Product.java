@@ -19,6 +19,7 @@ import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.jackson.CandlepinAttributeDeserializer;
 import org.candlepin.jackson.CandlepinLegacyAttributeSerializer;
 import org.candlepin.model.dto.ProductData;
@@ -81,7 +82,7 @@ import java.util.StringTokenizer;
 @Entity
 @Immutable
 @Table(name = Product.DB_TABLE)
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_CACHE)
 public class Product extends AbstractHibernateObject implements SharedEntity, Linkable, Cloneable, Eventful,
     ProductInfo {
 
@@ -210,7 +211,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @JsonSerialize(using = CandlepinLegacyAttributeSerializer.class)
     @JsonDeserialize(using = CandlepinAttributeDeserializer.class)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY,
+        region = CandlepinCacheRegions.PRODUCT_ATTRIBUTES_CACHE)
     private Map<String, String> attributes;
 
     @OneToMany(mappedBy = "product")
@@ -218,7 +220,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @Cascade({CascadeType.DELETE, CascadeType.PERSIST})
     @LazyCollection(LazyCollectionOption.EXTRA) // allows .size() without loading all data
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY,
+        region = CandlepinCacheRegions.PRODUCT_PRODUCT_CONTENT_CACHE)
     private List<ProductContent> productContent;
 
     /*
@@ -232,7 +235,8 @@ public class Product extends AbstractHibernateObject implements SharedEntity, Li
     @Column(name = "element")
     @BatchSize(size = 32)
     @Immutable
-    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_ONLY,
+        region = CandlepinCacheRegions.PRODUCT_DEPENDENT_PRODUCTS_CACHE)
     @LazyCollection(LazyCollectionOption.FALSE)
     private Set<String> dependentProductIds;
 
@@ -16,6 +16,7 @@ package org.candlepin.model;
 
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
+import org.candlepin.cache.CandlepinCacheRegions;
 import org.candlepin.model.dto.ProductContentData;
 import org.candlepin.service.model.ProductContentInfo;
 import org.hibernate.annotations.Cache;
@@ -39,7 +40,7 @@ import java.io.Serializable;
  */
 @Entity
 @Immutable
-@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CandlepinCacheRegions.PRODUCT_CONTENT_CACHE)
 @Table(name = ProductContent.DB_TABLE)
 public class ProductContent extends AbstractHibernateObject implements ProductContentInfo {
 
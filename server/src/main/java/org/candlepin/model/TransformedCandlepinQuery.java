@@ -17,6 +17,7 @@ package org.candlepin.model;
 import org.candlepin.util.ElementTransformer;
 
 import org.hibernate.Session;
+import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.Order;
 
 import java.util.Iterator;
@@ -155,6 +156,15 @@ public class TransformedCandlepinQuery<I, O> implements CandlepinQuery<O> {
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CandlepinQuery<O> addRestriction(Criterion restriction) {
+        this.query.addRestriction(restriction);
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -293,4 +303,20 @@ public class TransformedCandlepinQuery<I, O> implements CandlepinQuery<O> {
         return this.query.getRowCount();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getIdentifierPropertyName() {
+        return this.query.getIdentifierPropertyName();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object[] getPropertyValuesAt(int position, String... properties) {
+        return this.query.getPropertyValuesAt(position, properties);
+    }
+
 }
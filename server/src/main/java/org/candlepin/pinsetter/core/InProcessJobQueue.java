@@ -0,0 +1,501 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.core;
+
+import static org.quartz.TriggerBuilder.newTrigger;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.JobCurator;
+import org.candlepin.pinsetter.core.model.JobStatus;
+import org.candlepin.pinsetter.core.model.JobStatus.JobState;
+import org.candlepin.pinsetter.tasks.HypervisorUpdateJob;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import com.google.inject.persist.UnitOfWork;
+
+import org.apache.commons.lang.StringUtils;
+import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.impl.JobDetailImpl;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.spi.JobFactory;
+import org.quartz.spi.OperableTrigger;
+import org.quartz.spi.TriggerFiredBundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * The InProcessJobQueue is a fast path for short-lived, one-time jobs which do not need Quartz's
+ * JDBC job store. Jobs submitted to this queue are tracked only by their JobStatus record and are
+ * executed by a local worker pool, skipping the QRTZ_* table inserts and updates entirely.
+ * <p></p>
+ * Jobs for the same job class and target are executed serially, in submission order, which
+ * mirrors the per-target throttling the Quartz path enforces through WAITING jobs. This ordering
+ * only holds on the node the jobs were submitted to, so jobs which must be ordered across the
+ * cluster, such as hypervisor updates, are never run by this queue. Cron jobs and any job class
+ * not explicitly configured for the fast path continue to go through the {@link PinsetterKernel}.
+ * <p></p>
+ * If a journal file is configured, every submission and completion is appended to it and any
+ * jobs left pending when the node stopped are re-queued on startup.
+ */
+@Singleton
+public class InProcessJobQueue {
+    private static Logger log = LoggerFactory.getLogger(InProcessJobQueue.class);
+
+    public static final String FAST_JOB_GROUP = "fast async group";
+
+    private static final long SHUTDOWN_TIMEOUT = 30;
+
+    private final JobCurator jobCurator;
+    private final JobFactory jobFactory;
+    private final JobListener jobListener;
+    private final UnitOfWork unitOfWork;
+
+    private final boolean enabled;
+    private final Set<String> jobClasses;
+    private final int capacity;
+    private final int threads;
+    private final JobJournal journal;
+
+    private final Map<String, Lane> lanes;
+    private final AtomicInteger pending;
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    @Inject
+    public InProcessJobQueue(Configuration config, JobCurator jobCurator, JobFactory jobFactory,
+        JobListener jobListener, UnitOfWork unitOfWork) {
+
+        this.jobCurator = jobCurator;
+        this.jobFactory = jobFactory;
+        this.jobListener = jobListener;
+        this.unitOfWork = unitOfWork;
+
+        this.enabled = config.getBoolean(ConfigProperties.INPROCESS_JOBS_ENABLED, false);
+        this.jobClasses = new HashSet<>(config.getList(ConfigProperties.INPROCESS_JOBS,
+            Collections.<String>emptyList()));
+
+        // Hypervisor updates of an owner must be applied in order across every node, which only the
+        // WAITING jobs of the Quartz path guarantee
+        if (this.jobClasses.remove(HypervisorUpdateJob.class.getName())) {
+            log.warn("{} must be ordered across the cluster and will not run in-process",
+                HypervisorUpdateJob.class.getName());
+        }
+        this.capacity = config.getInt(ConfigProperties.INPROCESS_JOB_QUEUE_SIZE, 1000);
+        this.threads = config.getInt(ConfigProperties.INPROCESS_JOB_THREADS, 5);
+
+        String journalPath = config.getString(ConfigProperties.INPROCESS_JOB_JOURNAL, null);
+        this.journal = StringUtils.isNotBlank(journalPath) ? new JobJournal(new File(journalPath)) : null;
+
+        this.lanes = new HashMap<>();
+        this.pending = new AtomicInteger(0);
+    }
+
+    /**
+     * Starts the worker pool and, if journaling is enabled, re-queues any jobs which were still
+     * pending when this node last stopped.
+     */
+    public void start() {
+        if (!this.enabled) {
+            return;
+        }
+
+        log.info("Starting in-process job queue with {} worker(s) for jobs: {}", this.threads,
+            this.jobClasses);
+
+        this.executor = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "inprocess-job-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        this.running = true;
+
+        if (this.journal != null) {
+            try {
+                List<JobDetail> recovered = this.journal.open();
+                if (!recovered.isEmpty()) {
+                    log.info("Recovering {} pending job(s) from the job journal", recovered.size());
+                    this.resetStatuses(recovered);
+
+                    for (JobDetail detail : recovered) {
+                        this.enqueue(detail);
+                    }
+                }
+            }
+            catch (IOException e) {
+                log.error("Unable to open the job journal; in-process jobs will not be durable", e);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting jobs and waits briefly for running jobs to finish. Jobs which have not
+     * started are left in the journal, if one is configured, or are canceled otherwise.
+     */
+    public void shutdown() {
+        if (!this.running) {
+            return;
+        }
+
+        log.info("Shutting down in-process job queue");
+        this.running = false;
+        this.executor.shutdown();
+
+        try {
+            if (!this.executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS)) {
+                log.warn("In-process jobs still running after {} seconds", SHUTDOWN_TIMEOUT);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<String> abandoned = new ArrayList<>();
+        synchronized (this.lanes) {
+            for (Lane lane : this.lanes.values()) {
+                for (JobDetail detail : lane.jobs) {
+                    abandoned.add(detail.getKey().getName());
+                }
+            }
+
+            this.lanes.clear();
+        }
+
+        if (this.journal != null) {
+            log.info("{} in-process job(s) left in the journal for the next startup", abandoned.size());
+            this.journal.close();
+        }
+        else if (!abandoned.isEmpty()) {
+            log.info("Canceling {} in-process job(s) which did not start", abandoned.size());
+            this.cancelStatuses(abandoned);
+        }
+    }
+
+    /**
+     * Checks whether the given job should be run by this queue rather than Quartz. A job is
+     * accepted if the fast path is enabled, its class is configured for it and the queue has
+     * not reached its capacity.
+     *
+     * @param detail
+     *  the job to check
+     *
+     * @return
+     *  true if the job can be submitted to this queue; false otherwise
+     */
+    public boolean accepts(JobDetail detail) {
+        return this.running &&
+            detail != null &&
+            detail.getJobClass() != null &&
+            this.jobClasses.contains(detail.getJobClass().getName()) &&
+            this.pending.get() < this.capacity;
+    }
+
+    /**
+     * Submits a one-time job for execution. The JobStatus for the job is created before this
+     * method returns; no Quartz job or trigger is stored.
+     *
+     * @param detail
+     *  the job to execute
+     *
+     * @throws PinsetterException
+     *  if the job status could not be persisted
+     *
+     * @return
+     *  the initial status of the job
+     */
+    public JobStatus submit(JobDetail detail) throws PinsetterException {
+        if (!this.running) {
+            throw new PinsetterException("The in-process job queue is not running");
+        }
+
+        ((JobDetailImpl) detail).setGroup(FAST_JOB_GROUP);
+
+        JobStatus status;
+        try {
+            status = this.jobCurator.create(new JobStatus(detail));
+        }
+        catch (RuntimeException e) {
+            throw new PinsetterException("There was a problem scheduling " +
+                detail.getKey().getName(), e);
+        }
+
+        if (this.journal != null) {
+            try {
+                this.journal.submitted(detail);
+            }
+            catch (IOException e) {
+                log.warn("Unable to journal job {}; it will not survive a restart",
+                    detail.getKey().getName(), e);
+            }
+        }
+
+        this.enqueue(detail);
+        log.debug("Queued in-process job {}", detail.getKey().getName());
+
+        return status;
+    }
+
+    public int getPendingCount() {
+        return this.pending.get();
+    }
+
+    private void enqueue(JobDetail detail) {
+        String key = this.getLaneKey(detail);
+
+        this.pending.incrementAndGet();
+        synchronized (this.lanes) {
+            Lane lane = this.lanes.get(key);
+            if (lane == null) {
+                lane = new Lane(key);
+                this.lanes.put(key, lane);
+            }
+
+            lane.jobs.add(detail);
+            if (!lane.active) {
+                lane.active = true;
+                this.executor.execute(lane);
+            }
+        }
+    }
+
+    private String getLaneKey(JobDetail detail) {
+        String target = detail.getJobDataMap().getString(JobStatus.TARGET_ID);
+
+        // Jobs without a target have nothing to be serialized against
+        return target != null ?
+            detail.getJobClass().getName() + ":" + target :
+            detail.getKey().getName();
+    }
+
+    /**
+     * Executes a single job on the current thread, following the same listener protocol Quartz
+     * uses so that the JobStatus, principal and unit of work are handled identically.
+     */
+    protected void execute(JobDetail detail) {
+        String jobId = detail.getKey().getName();
+
+        try {
+            if (this.isCanceled(jobId)) {
+                log.info("Skipping canceled in-process job {}", jobId);
+                return;
+            }
+
+            OperableTrigger trigger = (OperableTrigger) newTrigger()
+                .withIdentity(jobId + " trigger", FAST_JOB_GROUP)
+                .forJob(detail)
+                .build();
+
+            TriggerFiredBundle bundle = new TriggerFiredBundle(detail, trigger, null, false, new Date(),
+                null, null, null);
+
+            Job job = this.jobFactory.newJob(bundle, null);
+            JobExecutionContextImpl context = new JobExecutionContextImpl(null, bundle, job);
+
+            this.jobListener.jobToBeExecuted(context);
+
+            JobExecutionException failure = null;
+            long start = System.currentTimeMillis();
+
+            while (true) {
+                try {
+                    job.execute(context);
+                    failure = null;
+                    break;
+                }
+                catch (JobExecutionException e) {
+                    failure = e;
+
+                    if (!e.refireImmediately()) {
+                        break;
+                    }
+
+                    context.incrementRefireCount();
+                }
+                catch (RuntimeException e) {
+                    failure = new JobExecutionException(e, false);
+                    break;
+                }
+            }
+
+            context.setJobRunTime(System.currentTimeMillis() - start);
+            this.jobListener.jobWasExecuted(context, failure);
+        }
+        catch (Exception e) {
+            log.error("Unable to execute in-process job {}", jobId, e);
+            this.failStatus(jobId, e);
+        }
+        finally {
+            if (this.journal != null) {
+                this.journal.completed(jobId);
+            }
+        }
+    }
+
+    /**
+     * Marks the status of a job which could not be executed as failed, unless the listener already
+     * brought it to a final state. Without this, a job whose construction or setup failed would be
+     * left in the CREATED state indefinitely.
+     */
+    private void failStatus(String jobId, Exception cause) {
+        boolean startedUow = this.startUnitOfWork();
+        try {
+            JobStatus status = this.jobCurator.get(jobId);
+
+            if (status != null && !status.isDone()) {
+                status.setState(JobState.FAILED);
+                status.setResult(cause.toString());
+                this.jobCurator.merge(status);
+            }
+        }
+        catch (RuntimeException e) {
+            log.error("Unable to mark in-process job {} as failed", jobId, e);
+        }
+        finally {
+            if (startedUow) {
+                this.unitOfWork.end();
+            }
+        }
+    }
+
+    private boolean isCanceled(String jobId) {
+        boolean startedUow = this.startUnitOfWork();
+        try {
+            JobStatus status = this.jobCurator.get(jobId);
+            return status == null || status.getState() == JobState.CANCELED;
+        }
+        finally {
+            if (startedUow) {
+                this.unitOfWork.end();
+            }
+        }
+    }
+
+    private void resetStatuses(List<JobDetail> details) {
+        boolean startedUow = this.startUnitOfWork();
+        try {
+            for (JobDetail detail : details) {
+                JobStatus status = this.jobCurator.get(detail.getKey().getName());
+
+                if (status != null && status.getState() != JobState.CREATED) {
+                    status.setState(JobState.CREATED);
+                    this.jobCurator.merge(status);
+                }
+            }
+        }
+        finally {
+            if (startedUow) {
+                this.unitOfWork.end();
+            }
+        }
+    }
+
+    private void cancelStatuses(List<String> jobIds) {
+        boolean startedUow = this.startUnitOfWork();
+        try {
+            for (String jobId : jobIds) {
+                this.jobCurator.cancelNoReturn(jobId);
+            }
+        }
+        catch (RuntimeException e) {
+            log.error("Unable to cancel abandoned in-process jobs", e);
+        }
+        finally {
+            if (startedUow) {
+                this.unitOfWork.end();
+            }
+        }
+    }
+
+    private boolean startUnitOfWork() {
+        try {
+            this.unitOfWork.begin();
+            return true;
+        }
+        catch (IllegalStateException e) {
+            log.debug("Already have an open unit of work");
+            return false;
+        }
+    }
+
+    /**
+     * A lane holds the queued jobs for a single job class and target. At most one worker drains
+     * a given lane at a time.
+     */
+    private class Lane implements Runnable {
+        private final String key;
+        private final LinkedList<JobDetail> jobs;
+        private boolean active;
+
+        public Lane(String key) {
+            this.key = key;
+            this.jobs = new LinkedList<>();
+            this.active = false;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                JobDetail next;
+
+                synchronized (lanes) {
+                    next = this.jobs.poll();
+
+                    if (next == null) {
+                        this.active = false;
+                        lanes.remove(this.key);
+                        return;
+                    }
+                }
+
+                try {
+                    execute(next);
+                }
+                finally {
+                    pending.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.core;
+
+import org.quartz.JobDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+
+/**
+ * Append-only local journal used by the {@link InProcessJobQueue} to survive restarts.
+ * <p></p>
+ * Every submitted job is written as a SUBMIT record carrying the serialized JobDetail, and a
+ * COMPLETE record is appended once the job has run. On startup, any job with a SUBMIT record but
+ * no matching COMPLETE record is handed back to the queue, and the journal is compacted so that
+ * only the still-pending jobs remain. The journal is also truncated whenever the last pending job
+ * completes, so it does not grow without bound on a node which is rarely restarted.
+ */
+public class JobJournal {
+    private static Logger log = LoggerFactory.getLogger(JobJournal.class);
+
+    private static final byte SUBMIT = 1;
+    private static final byte COMPLETE = 2;
+
+    private final File file;
+    private final Set<String> pending;
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+
+    public JobJournal(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("file is null");
+        }
+
+        this.file = file;
+        this.pending = new HashSet<>();
+    }
+
+    /**
+     * Reads the journal and returns the jobs which were submitted but never completed, in their
+     * original submission order. The journal is rewritten to contain only those jobs and is then
+     * opened for appending.
+     *
+     * @throws IOException
+     *  if the journal cannot be read or rewritten
+     *
+     * @return
+     *  a list of pending job details; never null
+     */
+    public synchronized List<JobDetail> open() throws IOException {
+        Map<String, JobDetail> recovered = new LinkedHashMap<>();
+
+        if (this.file.exists()) {
+            try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(this.file)))) {
+
+                while (true) {
+                    byte type;
+                    try {
+                        type = in.readByte();
+                    }
+                    catch (EOFException e) {
+                        break;
+                    }
+
+                    try {
+                        String id = in.readUTF();
+
+                        if (type == SUBMIT) {
+                            byte[] payload = new byte[in.readInt()];
+                            in.readFully(payload);
+                            recovered.put(id, deserialize(payload));
+                        }
+                        else {
+                            recovered.remove(id);
+                        }
+                    }
+                    catch (EOFException | ClassNotFoundException e) {
+                        // A torn write at the tail of the journal; nothing after it is usable.
+                        log.warn("Discarding truncated record at the end of job journal {}", this.file);
+                        break;
+                    }
+                }
+            }
+        }
+        else if (this.file.getParentFile() != null) {
+            this.file.getParentFile().mkdirs();
+        }
+
+        // Compact the journal down to the jobs that still need to run
+        this.truncate();
+        for (JobDetail detail : recovered.values()) {
+            this.writeSubmit(detail);
+        }
+        this.sync();
+
+        this.pending.clear();
+        this.pending.addAll(recovered.keySet());
+
+        return new ArrayList<>(recovered.values());
+    }
+
+    /**
+     * Records the submission of the given job. The record is flushed and synced to the underlying
+     * storage device before returning, so a submitted job survives a crash of the host as well as
+     * of the process.
+     *
+     * @param detail
+     *  the job being submitted
+     *
+     * @throws IOException
+     *  if the record could not be written
+     */
+    public synchronized void submitted(JobDetail detail) throws IOException {
+        this.checkOpen();
+        this.writeSubmit(detail);
+        this.sync();
+
+        this.pending.add(detail.getKey().getName());
+    }
+
+    /**
+     * Records the completion (successful or otherwise) of the job with the given ID. If no other
+     * journaled job is pending, the journal is truncated instead. Completion records are only
+     * flushed, not synced, since losing one merely causes the job to be replayed.
+     *
+     * @param jobId
+     *  the ID of the job which is no longer pending
+     */
+    public synchronized void completed(String jobId) {
+        try {
+            this.checkOpen();
+            this.pending.remove(jobId);
+
+            if (this.pending.isEmpty()) {
+                this.out.close();
+                this.truncate();
+                return;
+            }
+
+            this.out.writeByte(COMPLETE);
+            this.out.writeUTF(jobId);
+            this.out.flush();
+        }
+        catch (IOException e) {
+            // Worst case, the job is replayed on the next startup
+            log.warn("Unable to record completion of job {} in the job journal", jobId, e);
+        }
+    }
+
+    public synchronized void close() {
+        if (this.out != null) {
+            try {
+                this.out.close();
+            }
+            catch (IOException e) {
+                log.warn("Unable to close job journal {}", this.file, e);
+            }
+
+            this.out = null;
+            this.fileOut = null;
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (this.out == null) {
+            throw new IOException("Job journal has not been opened: " + this.file);
+        }
+    }
+
+    private void truncate() throws IOException {
+        this.fileOut = new FileOutputStream(this.file, false);
+        this.out = new DataOutputStream(this.fileOut);
+    }
+
+    private void sync() throws IOException {
+        this.out.flush();
+        this.fileOut.getFD().sync();
+    }
+
+    private void writeSubmit(JobDetail detail) throws IOException {
+        byte[] payload = serialize(detail);
+
+        this.out.writeByte(SUBMIT);
+        this.out.writeUTF(detail.getKey().getName());
+        this.out.writeInt(payload.length);
+        this.out.write(payload);
+    }
+
+    private static byte[] serialize(JobDetail detail) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            oos.writeObject(detail);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static JobDetail deserialize(byte[] payload) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(payload))) {
+            return (JobDetail) ois.readObject();
+        }
+    }
+}
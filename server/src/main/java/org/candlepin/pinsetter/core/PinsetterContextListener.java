@@ -22,10 +22,12 @@ import com.google.inject.Inject;
  */
 public class PinsetterContextListener {
     private PinsetterKernel kernel;
+    private InProcessJobQueue jobQueue;
 
     @Inject
-    public PinsetterContextListener(PinsetterKernel kernel) {
+    public PinsetterContextListener(PinsetterKernel kernel, InProcessJobQueue jobQueue) {
         this.kernel = kernel;
+        this.jobQueue = jobQueue;
     }
 
     public void contextInitialized() {
@@ -36,9 +38,13 @@ public class PinsetterContextListener {
         catch (PinsetterException e) {
             e.printStackTrace();
         }
+
+        jobQueue.start();
     }
 
     public void contextDestroyed() {
+        jobQueue.shutdown();
+
         try {
             kernel.shutdown();
         }
@@ -117,6 +117,10 @@ public class JobStatus extends AbstractHibernateObject {
     @Type(type = "org.candlepin.hibernate.ResultDataUserType")
     private Object resultData;
 
+    @Column(length = 255)
+    @Size(max = 255)
+    private String checkpoint;
+
     @Transient
     private boolean cloakData = false;
 
@@ -284,6 +288,22 @@ public class JobStatus extends AbstractHibernateObject {
         return (this.cloakData) ? "[cloaked]" : this.resultData;
     }
 
+    /**
+     * Fetches the checkpoint recorded by the job, used to resume a partially completed job
+     * after it is refired or recovered. The format of the checkpoint is defined by the job.
+     *
+     * @return
+     *  the checkpoint recorded by the job, or null if the job has not recorded one
+     */
+    @XmlTransient
+    public String getCheckpoint() {
+        return this.checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
     public JobStatus cloakResultData(boolean cloak) {
         this.cloakData = cloak;
         return this;
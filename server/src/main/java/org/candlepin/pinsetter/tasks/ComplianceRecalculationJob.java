@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import static org.quartz.JobBuilder.newJob;
+
+import org.candlepin.common.filter.LoggingFilter;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.pinsetter.core.model.JobStatus;
+import org.candlepin.policy.js.compliance.BulkComplianceCalculator;
+import org.candlepin.util.Util;
+
+import com.google.inject.Inject;
+
+import org.apache.log4j.MDC;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+
+
+/**
+ * Asynchronous job for recalculating the compliance status of every consumer of a specific
+ * {@link Owner} in bulk.
+ */
+public class ComplianceRecalculationJob extends UniqueByEntityJob {
+    private static Logger log = LoggerFactory.getLogger(ComplianceRecalculationJob.class);
+
+    public static final String JOB_NAME_PREFIX = "recalculate_compliance_";
+
+    protected OwnerCurator ownerCurator;
+    protected BulkComplianceCalculator calculator;
+
+    @Inject
+    public ComplianceRecalculationJob(OwnerCurator ownerCurator, BulkComplianceCalculator calculator) {
+        this.ownerCurator = ownerCurator;
+        this.calculator = calculator;
+    }
+
+    @Override
+    public void toExecute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            JobDataMap map = context.getMergedJobDataMap();
+            String ownerKey = map.getString(JobStatus.TARGET_ID);
+            Owner owner = this.ownerCurator.getByKey(ownerKey);
+
+            if (owner == null) {
+                context.setResult("Nothing to do. Owner no longer exists");
+                return;
+            }
+
+            List<String> consumerIds = this.ownerCurator.getConsumerIds(owner).list();
+            int changed = this.calculator.recalculate(consumerIds);
+
+            context.setResult(String.format(
+                "Compliance recalculated for %d consumers of owner %s; %d changed",
+                consumerIds.size(), owner.getDisplayName(), changed));
+        }
+        catch (Exception e) {
+            log.error("ComplianceRecalculationJob encountered a problem.", e);
+            context.setResult(e.toString());
+            throw new JobExecutionException(e.toString(), e, false);
+        }
+    }
+
+    /**
+     * Creates a {@link JobDetail} that runs this job for the given {@link Owner}.
+     *
+     * @param owner the owner whose consumers should be recalculated
+     * @return a {@link JobDetail} that describes the job run
+     */
+    public static JobDetail forOwner(Owner owner) {
+        JobDataMap map = new JobDataMap();
+        map.put(JobStatus.OWNER_ID, owner.getKey());
+        map.put(JobStatus.OWNER_LOG_LEVEL, owner.getLogLevel());
+        map.put(JobStatus.TARGET_TYPE, JobStatus.TargetType.OWNER);
+        map.put(JobStatus.TARGET_ID, owner.getKey());
+        map.put(JobStatus.CORRELATION_ID, MDC.get(LoggingFilter.CSID));
+
+        return newJob(ComplianceRecalculationJob.class)
+            .withIdentity(JOB_NAME_PREFIX + Util.generateUUID())
+            .usingJobData(map)
+            .storeDurably(true) // required if we have to postpone the job
+            .build();
+    }
+}
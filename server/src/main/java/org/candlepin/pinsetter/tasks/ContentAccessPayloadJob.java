@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerEnvContentAccessCurator;
+import org.candlepin.service.ContentAccessCertServiceAdapter;
+
+import com.google.inject.Inject;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+
+
+/**
+ * ContentAccessPayloadJob generates the content access payloads which have been cleared by content
+ * or environment changes for owners using Simple Content Access, so consumers find them already
+ * built on their next check-in rather than building them on the request path.
+ */
+public class ContentAccessPayloadJob extends KingpinJob {
+    private static Logger log = LoggerFactory.getLogger(ContentAccessPayloadJob.class);
+
+    // Every minute:
+    public static final String DEFAULT_SCHEDULE = "0 0/1 * * * ?";
+
+    private OwnerCurator ownerCurator;
+    private OwnerEnvContentAccessCurator ownerEnvContentAccessCurator;
+    private ContentAccessCertServiceAdapter contentAccessCertService;
+
+    @Inject
+    public ContentAccessPayloadJob(OwnerCurator ownerCurator,
+        OwnerEnvContentAccessCurator ownerEnvContentAccessCurator,
+        ContentAccessCertServiceAdapter contentAccessCertService) {
+
+        this.ownerCurator = ownerCurator;
+        this.ownerEnvContentAccessCurator = ownerEnvContentAccessCurator;
+        this.contentAccessCertService = contentAccessCertService;
+    }
+
+    @Override
+    public void toExecute(JobExecutionContext context) throws JobExecutionException {
+        List<String> ownerIds = this.ownerEnvContentAccessCurator.getOwnerIdsMissingContentAccess(
+            ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+
+        int generated = 0;
+        for (String ownerId : ownerIds) {
+            Owner owner = this.ownerCurator.get(ownerId);
+            if (owner == null) {
+                continue;
+            }
+
+            try {
+                generated += this.contentAccessCertService.regenerateContentAccessPayloads(owner);
+            }
+            catch (Exception e) {
+                // Consumers of the owner will generate the payloads on demand instead
+                log.warn("Unable to generate content access payloads for owner {}", owner.getKey(), e);
+            }
+        }
+
+        if (generated > 0) {
+            log.info("Generated {} content access payloads for {} owners", generated, ownerIds.size());
+        }
+
+        context.setResult(String.format("Generated %d content access payloads for %d owners",
+            generated, ownerIds.size()));
+    }
+}
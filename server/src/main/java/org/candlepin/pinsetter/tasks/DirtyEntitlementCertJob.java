@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.controller.PoolManager;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.EntitlementCurator;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * DirtyEntitlementCertJob regenerates the certificates of dirty entitlements in the background,
+ * so that changes affecting many entitlements mostly have their certificates regenerated before
+ * clients next fetch them, rather than within the client requests. Certificates still dirty when
+ * requested continue to be regenerated by those requests.
+ * <p></p>
+ * Each run regenerates the dirty entitlements of a bounded number of consumers, starting with the
+ * consumers which most recently checked in. The consumers are drained in that order by a bounded
+ * pool of workers, each of which runs in its own request scope and unit of work, and every
+ * consumer is regenerated in its own transaction.
+ */
+public class DirtyEntitlementCertJob extends KingpinJob {
+    private static Logger log = LoggerFactory.getLogger(DirtyEntitlementCertJob.class);
+
+    // Every minute:
+    public static final String DEFAULT_SCHEDULE = "0 0/1 * * * ?";
+
+    private EntitlementCurator entitlementCurator;
+    private ConsumerCurator consumerCurator;
+    private CandlepinRequestScope requestScope;
+    private Provider<PoolManager> poolManagerProvider;
+
+    @Inject
+    public DirtyEntitlementCertJob(EntitlementCurator entitlementCurator, ConsumerCurator consumerCurator,
+        CandlepinRequestScope requestScope, Provider<PoolManager> poolManagerProvider) {
+
+        this.entitlementCurator = entitlementCurator;
+        this.consumerCurator = consumerCurator;
+        this.requestScope = requestScope;
+        this.poolManagerProvider = poolManagerProvider;
+    }
+
+    @Override
+    public void toExecute(JobExecutionContext ctx) throws JobExecutionException {
+        if (!config.getBoolean(ConfigProperties.DIRTY_CERT_WORKER_ENABLED)) {
+            ctx.setResult("Dirty entitlement certificate worker is disabled");
+            return;
+        }
+
+        int batchSize = Math.max(1, config.getInt(ConfigProperties.DIRTY_CERT_WORKER_BATCH_SIZE));
+        int threads = Math.max(1, config.getInt(ConfigProperties.DIRTY_CERT_WORKER_THREADS));
+
+        List<String> consumerIds = this.entitlementCurator.getConsumerIdsWithDirtyEntitlements(batchSize);
+        Queue<String> queue = new ConcurrentLinkedQueue<>(consumerIds);
+        AtomicInteger failed = new AtomicInteger();
+
+        try {
+            int regenerated = threads > 1 && consumerIds.size() > 1 ?
+                this.drainConcurrently(queue, failed, Math.min(threads, consumerIds.size())) :
+                this.drain(this.poolManagerProvider.get(), queue, failed);
+
+            if (regenerated > 0 || failed.get() > 0) {
+                log.info("Regenerated dirty entitlement certificates of {} consumers; {} failed",
+                    regenerated, failed.get());
+            }
+
+            ctx.setResult(String.format(
+                "Regenerated dirty entitlement certificates of %d consumers; %d failed",
+                regenerated, failed.get()));
+        }
+        catch (Exception e) {
+            log.error("DirtyEntitlementCertJob encountered a problem.", e);
+            ctx.setResult(e.toString());
+            throw new JobExecutionException(e.toString(), e, false);
+        }
+    }
+
+    /**
+     * Regenerates the dirty entitlements of the queued consumers on a pool of worker threads, which
+     * take the consumers from the queue in order. Each worker uses its own pool manager, as the
+     * pool manager is request scoped.
+     *
+     * @return
+     *  the number of consumers whose dirty entitlements were regenerated
+     */
+    protected int drainConcurrently(Queue<String> queue, AtomicInteger failed, int threads)
+        throws ExecutionException, InterruptedException {
+
+        ExecutorService executor = createWorkerExecutor("dirty-certs", threads);
+
+        try {
+            List<Future<Integer>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(this.workerTask(this.requestScope,
+                    () -> this.drain(this.poolManagerProvider.get(), queue, failed))));
+            }
+
+            int regenerated = 0;
+            for (Future<Integer> future : futures) {
+                regenerated += future.get();
+            }
+
+            return regenerated;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Regenerates the dirty entitlements of queued consumers until the queue is empty.
+     *
+     * @return
+     *  the number of consumers whose dirty entitlements were regenerated
+     */
+    protected int drain(PoolManager poolManager, Queue<String> queue, AtomicInteger failed) {
+        int regenerated = 0;
+
+        for (String consumerId = queue.poll(); consumerId != null; consumerId = queue.poll()) {
+            try {
+                this.regenerateConsumer(poolManager, consumerId);
+                ++regenerated;
+            }
+            // We want to catch everything and continue; the consumer is picked up again next run
+            catch (Exception e) {
+                log.warn("Unable to regenerate dirty entitlements of consumer {}", consumerId, e);
+                failed.incrementAndGet();
+            }
+        }
+
+        return regenerated;
+    }
+
+    /*
+     * Each consumer is regenerated in a separate transaction
+     */
+    @Transactional
+    protected void regenerateConsumer(PoolManager poolManager, String consumerId) {
+        Consumer consumer = this.consumerCurator.get(consumerId);
+
+        if (consumer != null) {
+            poolManager.regenerateDirtyEntitlements(consumer);
+        }
+    }
+}
@@ -16,22 +16,27 @@ package org.candlepin.pinsetter.tasks;
 
 import static org.quartz.JobBuilder.*;
 
+import org.candlepin.audit.EventSink;
 import org.candlepin.common.filter.LoggingFilter;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.AutobindDisabledForOwnerException;
 import org.candlepin.controller.Entitler;
+import org.candlepin.guice.CandlepinRequestScope;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.Entitlement;
+import org.candlepin.model.JobCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.pinsetter.core.model.JobStatus;
 import org.candlepin.resource.dto.AutobindData;
 import org.candlepin.util.Util;
 
-import org.apache.log4j.MDC;
 import org.jboss.resteasy.spi.BadRequestException;
 
+import com.google.common.collect.Lists;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import com.google.inject.persist.Transactional;
 
 import org.quartz.JobDataMap;
@@ -40,13 +45,25 @@ import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.xnap.commons.i18n.I18n;
 
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 
 /**
  * HealEntireOrgJob
+ * <p></p>
+ * By default the consumers of the org are healed one after another on the job thread. When
+ * more than one heal thread is configured, the consumers are split into partitions which are
+ * healed concurrently by a bounded pool of workers. Each worker runs in its own request scope
+ * and unit of work, and every consumer is healed in its own transaction, so no lock is held
+ * for longer than a single heal. The progress of the partitions is reported in the result of
+ * the job's status as they complete.
  */
 public class HealEntireOrgJob extends UniqueByEntityJob {
     private static Logger log = LoggerFactory.getLogger(HealEntireOrgJob.class);
@@ -55,14 +72,46 @@ public class HealEntireOrgJob extends UniqueByEntityJob {
     protected OwnerCurator ownerCurator;
     protected Entitler entitler;
     protected ConsumerCurator consumerCurator;
+    protected JobCurator jobCurator;
     private I18n i18n;
+    private CandlepinRequestScope requestScope;
+    private Provider<Entitler> entitlerProvider;
+    private Provider<EventSink> eventSinkProvider;
 
     @Inject
-    public HealEntireOrgJob(Entitler e, ConsumerCurator c, OwnerCurator o, I18n i18n) {
+    public HealEntireOrgJob(Entitler e, ConsumerCurator c, OwnerCurator o, I18n i18n, JobCurator j,
+        CandlepinRequestScope requestScope, Provider<Entitler> entitlerProvider,
+        Provider<EventSink> eventSinkProvider) {
+
         this.entitler = e;
         this.consumerCurator = c;
         this.ownerCurator = o;
         this.i18n = i18n;
+        this.jobCurator = j;
+        this.requestScope = requestScope;
+        this.entitlerProvider = entitlerProvider;
+        this.eventSinkProvider = eventSinkProvider;
+    }
+
+    /**
+     * The number of consumers healed successfully and unsuccessfully
+     */
+    protected static class HealResult {
+        private int healed;
+        private int failed;
+
+        public int getHealed() {
+            return this.healed;
+        }
+
+        public int getFailed() {
+            return this.failed;
+        }
+
+        public void add(HealResult result) {
+            this.healed += result.healed;
+            this.failed += result.failed;
+        }
     }
 
     @Override
@@ -81,20 +130,16 @@ public class HealEntireOrgJob extends UniqueByEntityJob {
             }
 
             Date entitleDate = (Date) map.get("entitle_date");
+            List<String> uuids = ownerCurator.getConsumerUuids(owner).list();
 
-            for (String uuid : ownerCurator.getConsumerUuids(owner).list()) {
-                // Do not send in product IDs.  CandlepinPoolManager will take care
-                // of looking up the non or partially compliant products to bind.
-                try {
-                    Consumer consumer = consumerCurator.getConsumer(uuid);
-                    healSingleConsumer(consumer, owner, entitleDate);
-                }
-                // We want to catch everything and continue.
-                // Perhaps add something to surface errors later
-                catch (Exception e) {
-                    log.debug("Healing failed for UUID \"{}\" with message: {}", uuid, e.getMessage());
-                }
-            }
+            int threads = Math.max(1, config.getInt(ConfigProperties.HEAL_ORG_THREADS));
+            int partitionSize = Math.max(1, config.getInt(ConfigProperties.HEAL_ORG_PARTITION_SIZE));
+
+            HealResult result = threads > 1 && uuids.size() > partitionSize ?
+                healPartitioned(ctx, owner, uuids, entitleDate, threads, partitionSize) :
+                healConsumers(entitler, owner, uuids, entitleDate);
+
+            ctx.setResult(buildResultMessage(owner, result, uuids.size()));
         }
         catch (Exception e) {
             log.error("EntitlerJob encountered a problem.", e);
@@ -103,17 +148,105 @@ public class HealEntireOrgJob extends UniqueByEntityJob {
         }
     }
 
+    /**
+     * Heals the given consumers one after another on the current thread.
+     */
+    protected HealResult healConsumers(Entitler entitler, Owner owner, List<String> uuids, Date date) {
+        HealResult result = new HealResult();
+
+        for (String uuid : uuids) {
+            // Do not send in product IDs.  CandlepinPoolManager will take care
+            // of looking up the non or partially compliant products to bind.
+            try {
+                Consumer consumer = consumerCurator.getConsumer(uuid);
+                healSingleConsumer(entitler, consumer, owner, date);
+                ++result.healed;
+            }
+            // We want to catch everything and continue.
+            catch (Exception e) {
+                log.debug("Healing failed for UUID \"{}\" with message: {}", uuid, e.getMessage());
+                ++result.failed;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Splits the given consumers into partitions and heals them on a pool of worker threads,
+     * updating the progress of this job as each partition completes.
+     */
+    protected HealResult healPartitioned(JobExecutionContext ctx, Owner owner, List<String> uuids,
+        Date date, int threads, int partitionSize) throws ExecutionException, InterruptedException {
+
+        String jobId = ctx.getJobDetail().getKey().getName();
+        String ownerId = owner.getId();
+
+        List<List<String>> partitions = Lists.partition(uuids, partitionSize);
+        ExecutorService executor = createWorkerExecutor("heal-org", Math.min(threads, partitions.size()));
+        CompletionService<HealResult> completion = new ExecutorCompletionService<>(executor);
+
+        log.info("Healing {} consumers of owner {} in {} partitions on {} threads", uuids.size(),
+            owner.getKey(), partitions.size(), threads);
+
+        try {
+            for (List<String> partition : partitions) {
+                completion.submit(this.workerTask(requestScope,
+                    () -> healPartition(ownerId, partition, date)));
+            }
+
+            HealResult result = new HealResult();
+            for (int i = 1; i <= partitions.size(); ++i) {
+                result.add(completion.take().get());
+                updateProgress(jobId, buildResultMessage(owner, result, uuids.size()) +
+                    String.format(" (%d of %d partitions completed)", i, partitions.size()));
+            }
+
+            return result;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Heals a partition of consumers. Invoked on a worker thread, which uses its own entitler and
+     * sends its own events, as both are request scoped.
+     */
+    protected HealResult healPartition(String ownerId, List<String> uuids, Date date) {
+        Owner owner = ownerCurator.get(ownerId);
+        HealResult result = healConsumers(entitlerProvider.get(), owner, uuids, date);
+
+        eventSinkProvider.get().sendEvents();
+        return result;
+    }
+
     /*
      * Each consumer heal should be a separate transaction
      */
     @Transactional
-    private void healSingleConsumer(Consumer consumer, Owner owner, Date date)
+    protected void healSingleConsumer(Entitler entitler, Consumer consumer, Owner owner, Date date)
         throws AutobindDisabledForOwnerException {
 
         List<Entitlement> ents = entitler.bindByProducts(AutobindData.create(consumer, owner).on(date), true);
         entitler.sendEvents(ents);
     }
 
+    @Transactional
+    protected void updateProgress(String jobId, String progress) {
+        JobStatus status = jobCurator.get(jobId);
+
+        if (status != null) {
+            status.setResult(progress);
+            jobCurator.merge(status);
+        }
+    }
+
+    private String buildResultMessage(Owner owner, HealResult result, int total) {
+        return String.format("Healed %d of %d consumers of owner %s; %d failed",
+            result.getHealed(), total, owner.getKey(), result.getFailed());
+    }
+
     public static JobDetail healEntireOrg(Owner owner, Date entitleDate) {
         JobDataMap map = new JobDataMap();
         map.put(JobStatus.OWNER_ID, owner.getKey());
@@ -17,6 +17,7 @@ package org.candlepin.pinsetter.tasks;
 import static org.quartz.impl.matchers.NameMatcher.jobNameEquals;
 
 import org.candlepin.audit.EventSink;
+import org.candlepin.auth.Principal;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.guice.CandlepinRequestScope;
@@ -26,6 +27,8 @@ import org.candlepin.pinsetter.core.RetryJobException;
 import org.candlepin.pinsetter.core.model.JobStatus;
 import org.candlepin.util.Traceable;
 
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+
 import com.google.inject.Inject;
 import com.google.inject.persist.UnitOfWork;
 
@@ -41,6 +44,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.persistence.EntityExistsException;
 import javax.persistence.PersistenceException;
 
@@ -254,6 +264,77 @@ public abstract class KingpinJob implements Job {
         }
     }
 
+    /**
+     * Wraps a task of this job so that it may run on a worker thread. The logging context and
+     * principal of the calling thread are captured when the task is wrapped, and the worker is
+     * given them along with its own request scope and unit of work, as none of these can be shared
+     * between threads. Request scoped objects needed by the task must therefore be fetched from
+     * their providers within the task itself.
+     *
+     * @param requestScope
+     *  the request scope to enter on the worker thread
+     *
+     * @param task
+     *  the task to run on the worker thread
+     *
+     * @return
+     *  a task which runs the given task within the job's context
+     */
+    protected <T> Callable<T> workerTask(CandlepinRequestScope requestScope, Callable<T> task) {
+        Principal principal = ResteasyProviderFactory.getContextData(Principal.class);
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+
+        return () -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+
+            ResteasyProviderFactory.pushContext(Principal.class, principal);
+            requestScope.enter();
+            boolean startedUow = startUnitOfWork();
+
+            try {
+                return task.call();
+            }
+            finally {
+                if (startedUow) {
+                    endUnitOfWork();
+                }
+
+                requestScope.exit();
+                ResteasyProviderFactory.popContextData(Principal.class);
+                MDC.clear();
+            }
+        };
+    }
+
+    /**
+     * Creates a fixed pool of daemon worker threads on which to run the tasks of a job, so that
+     * an abandoned job can never prevent shutdown.
+     *
+     * @param name
+     *  the prefix of the names of the worker threads
+     *
+     * @param threads
+     *  the number of worker threads
+     *
+     * @return
+     *  an executor service backed by the worker threads
+     */
+    protected static ExecutorService createWorkerExecutor(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
     private int getMaxRetries() {
         int maxRetries = ConfigProperties.PINSETTER_MAX_RETRIES_DEFAULT;
         try {
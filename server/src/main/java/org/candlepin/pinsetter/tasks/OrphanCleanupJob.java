@@ -14,6 +14,7 @@
  */
 package org.candlepin.pinsetter.tasks;
 
+import org.candlepin.audit.EventSink;
 import org.candlepin.model.CandlepinQuery;
 import org.candlepin.model.Content;
 import org.candlepin.model.ContentCurator;
@@ -31,6 +32,9 @@ import org.quartz.JobExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.persistence.LockModeType;
 
 
@@ -49,47 +53,54 @@ public class OrphanCleanupJob extends KingpinJob {
     private OwnerContentCurator ownerContentCurator;
     private ProductCurator productCurator;
     private OwnerProductCurator ownerProductCurator;
+    private EventSink eventSink;
 
     @Inject
     public OrphanCleanupJob(ContentCurator contentCurator, OwnerContentCurator ownerContentCurator,
-        ProductCurator productCurator, OwnerProductCurator ownerProductCurator) {
+        ProductCurator productCurator, OwnerProductCurator ownerProductCurator, EventSink eventSink) {
 
         this.ownerContentCurator = ownerContentCurator;
         this.contentCurator = contentCurator;
         this.ownerProductCurator = ownerProductCurator;
         this.productCurator = productCurator;
+        this.eventSink = eventSink;
     }
 
     @Override
     @Transactional
     public void toExecute(JobExecutionContext ctx) throws JobExecutionException {
         log.debug("Deleting orphaned entities...");
-        int count;
+        List<String> uuids;
 
         // Content
-        count = 0;
+        uuids = new ArrayList<>();
         CandlepinQuery<Content> contentQuery = this.ownerContentCurator.getOrphanedContent()
             .setLockMode(LockModeType.PESSIMISTIC_WRITE);
 
         for (Content content : contentQuery) {
+            uuids.add(content.getUuid());
             this.contentCurator.delete(content);
-            ++count;
         }
 
         this.contentCurator.flush();
-        log.debug("{} orphaned content entities deleted", count);
+        log.debug("{} orphaned content entities deleted", uuids.size());
+
+        // Other nodes may still have the deleted content cached; tell them to drop it once we commit
+        this.eventSink.queueCacheInvalidation(Content.class, uuids);
 
         // Products
-        count = 0;
+        uuids = new ArrayList<>();
         CandlepinQuery<Product> productQuery = this.ownerProductCurator.getOrphanedProducts()
             .setLockMode(LockModeType.PESSIMISTIC_WRITE);
 
         for (Product product : productQuery) {
+            uuids.add(product.getUuid());
             this.productCurator.delete(product);
-            ++count;
         }
 
         this.productCurator.flush();
-        log.debug("{} orphaned product entities deleted", count);
+        log.debug("{} orphaned product entities deleted", uuids.size());
+
+        this.eventSink.queueCacheInvalidation(Product.class, uuids);
     }
 }
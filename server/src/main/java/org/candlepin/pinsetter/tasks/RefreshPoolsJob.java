@@ -17,7 +17,10 @@ package org.candlepin.pinsetter.tasks;
 import static org.quartz.JobBuilder.newJob;
 
 import org.candlepin.common.filter.LoggingFilter;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.PoolManager;
+import org.candlepin.controller.Refresher;
+import org.candlepin.model.JobCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.pinsetter.core.RetryJobException;
@@ -55,15 +58,17 @@ public class RefreshPoolsJob extends UniqueByEntityJob {
     protected PoolManager poolManager;
     protected SubscriptionServiceAdapter subAdapter;
     protected OwnerServiceAdapter ownerAdapter;
+    protected JobCurator jobCurator;
 
     @Inject
     public RefreshPoolsJob(OwnerCurator ownerCurator, PoolManager poolManager,
-        SubscriptionServiceAdapter subAdapter, OwnerServiceAdapter ownerAdapter) {
+        SubscriptionServiceAdapter subAdapter, OwnerServiceAdapter ownerAdapter, JobCurator jobCurator) {
 
         this.ownerCurator = ownerCurator;
         this.poolManager = poolManager;
         this.subAdapter = subAdapter;
         this.ownerAdapter = ownerAdapter;
+        this.jobCurator = jobCurator;
     }
 
     /**
@@ -87,10 +92,21 @@ public class RefreshPoolsJob extends UniqueByEntityJob {
             }
 
             // Assume that we verified the request in the resource layer:
-            poolManager.getRefresher(this.subAdapter, this.ownerAdapter, lazy)
+            Refresher refresher = poolManager.getRefresher(this.subAdapter, this.ownerAdapter, lazy)
                 .setUnitOfWork(unitOfWork)
-                .add(owner)
-                .run();
+                .add(owner);
+
+            // When refreshing in blocks, record our progress on the job status so a refired or
+            // recovered job can resume where the failed attempt left off
+            int blockSize = this.config.getInt(ConfigProperties.REFRESH_POOLS_BLOCK_SIZE, 0);
+            if (blockSize > 0) {
+                String jobId = context.getJobDetail().getKey().getName();
+
+                refresher.setBlockSize(blockSize)
+                    .setCheckpoint(new JobCheckpoint(this.jobCurator, jobId));
+            }
+
+            refresher.run();
 
             context.setResult("Pools refreshed for owner " + owner.getDisplayName());
         }
@@ -123,6 +139,29 @@ public class RefreshPoolsJob extends UniqueByEntityJob {
         }
     }
 
+    /**
+     * Refresher checkpoint which records the refresh progress on the job's status.
+     */
+    private static class JobCheckpoint implements Refresher.Checkpoint {
+        private final JobCurator jobCurator;
+        private final String jobId;
+
+        public JobCheckpoint(JobCurator jobCurator, String jobId) {
+            this.jobCurator = jobCurator;
+            this.jobId = jobId;
+        }
+
+        @Override
+        public String getLastSubscriptionId() {
+            return this.jobCurator.getCheckpoint(this.jobId);
+        }
+
+        @Override
+        public void setLastSubscriptionId(String subscriptionId) {
+            this.jobCurator.setCheckpoint(this.jobId, subscriptionId);
+        }
+    }
+
     /**
      * Creates a {@link JobDetail} that runs this job for the given {@link Owner}.
      *
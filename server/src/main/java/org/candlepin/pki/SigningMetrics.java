@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2009 - 2017 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import org.candlepin.util.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Singleton;
+
+
+
+/**
+ * Records the time spent signing certificates, CRLs and payloads with the CA key. The count of
+ * each histogram gives the signing throughput. The metrics are exposed as Prometheus histograms
+ * through the admin resource.
+ */
+@Singleton
+public class SigningMetrics {
+
+    /** Signed object types, as exported in the "type" label of the signing histogram */
+    public static final String TYPE_CERTIFICATE = "certificate";
+    public static final String TYPE_CRL = "crl";
+    public static final String TYPE_PAYLOAD = "payload";
+
+    private static final double[] TIME_BUCKETS = { 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1,
+        0.25, 0.5, 1 };
+
+    private final Histogram certificateTime = new Histogram(TIME_BUCKETS);
+    private final Histogram crlTime = new Histogram(TIME_BUCKETS);
+    private final Histogram payloadTime = new Histogram(TIME_BUCKETS);
+
+    /**
+     * Records the signing of a certificate.
+     *
+     * @param nanos
+     *  the time taken to sign the certificate, in nanoseconds
+     */
+    public void recordCertificate(long nanos) {
+        this.certificateTime.record(toSeconds(nanos));
+    }
+
+    /**
+     * Records the signing of a CRL.
+     *
+     * @param nanos
+     *  the time taken to sign the CRL, in nanoseconds
+     */
+    public void recordCrl(long nanos) {
+        this.crlTime.record(toSeconds(nanos));
+    }
+
+    /**
+     * Records the signing of a payload, such as an entitlement certificate payload or an export.
+     *
+     * @param nanos
+     *  the time taken to sign the payload, in nanoseconds
+     */
+    public void recordPayload(long nanos) {
+        this.payloadTime.record(toSeconds(nanos));
+    }
+
+    /**
+     * @return the number of certificates signed
+     */
+    public long getCertificateCount() {
+        return this.certificateTime.getCount();
+    }
+
+    /**
+     * @return the number of CRLs signed
+     */
+    public long getCrlCount() {
+        return this.crlTime.getCount();
+    }
+
+    /**
+     * @return the number of payloads signed
+     */
+    public long getPayloadCount() {
+        return this.payloadTime.getCount();
+    }
+
+    /**
+     * Writes the metrics in the Prometheus text exposition format.
+     *
+     * @return
+     *  the metrics, formatted as a Prometheus histogram
+     */
+    public String toPrometheusText() {
+        StringBuilder builder = new StringBuilder();
+        String name = "candlepin_signing_seconds";
+
+        Histogram.appendPrometheusHeader(builder, name, "Time spent signing with the CA key");
+        this.certificateTime.appendPrometheusText(builder, name, "type=\"" + TYPE_CERTIFICATE + "\",");
+        this.crlTime.appendPrometheusText(builder, name, "type=\"" + TYPE_CRL + "\",");
+        this.payloadTime.appendPrometheusText(builder, name, "type=\"" + TYPE_PAYLOAD + "\",");
+
+        return builder.toString();
+    }
+
+    private static double toSeconds(long nanos) {
+        return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+    }
+}
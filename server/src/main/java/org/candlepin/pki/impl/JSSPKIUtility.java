@@ -17,6 +17,7 @@ package org.candlepin.pki.impl;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.pki.CertificateReader;
+import org.candlepin.pki.SigningMetrics;
 import org.candlepin.pki.SubjectKeyIdentifierWriter;
 import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.pki.X509CRLEntryWrapper;
@@ -37,6 +38,7 @@ import org.mozilla.jss.netscape.security.extensions.ExtendedKeyUsageExtension;
 import org.mozilla.jss.netscape.security.extensions.NSCertTypeExtension;
 import org.mozilla.jss.netscape.security.util.BitArray;
 import org.mozilla.jss.netscape.security.util.DerInputStream;
+import org.mozilla.jss.netscape.security.util.DerOutputStream;
 import org.mozilla.jss.netscape.security.util.DerValue;
 import org.mozilla.jss.netscape.security.util.ObjectIdentifier;
 import org.mozilla.jss.netscape.security.x509.AlgorithmId;
@@ -66,7 +68,6 @@ import org.mozilla.jss.netscape.security.x509.SubjectAlternativeNameExtension;
 import org.mozilla.jss.netscape.security.x509.SubjectKeyIdentifierExtension;
 import org.mozilla.jss.netscape.security.x509.X500Name;
 import org.mozilla.jss.netscape.security.x509.X509CRLImpl;
-import org.mozilla.jss.netscape.security.x509.X509CertImpl;
 import org.mozilla.jss.netscape.security.x509.X509CertInfo;
 import org.mozilla.jss.netscape.security.x509.X509Key;
 
@@ -103,7 +104,7 @@ import javax.inject.Inject;
  */
 public class JSSPKIUtility extends ProviderBasedPKIUtility {
     public static final byte[] LINE_SEPARATOR = String.format("%n").getBytes();
-    public static final String SIGNING_ALG_ID = "SHA256withRSA";
+    public static final String SIGNING_ALG_ID = SIGNATURE_ALGORITHM;
 
     public static final String CRL_PEM_NAME = "X509 CRL";
     public static final String CERTIFICATE_PEM_NAME = "CERTIFICATE";
@@ -113,8 +114,9 @@ public class JSSPKIUtility extends ProviderBasedPKIUtility {
     public static final String PRIVATE_KEY_PEM_NAME = "RSA PRIVATE KEY";
 
     @Inject
-    public JSSPKIUtility(CertificateReader reader, SubjectKeyIdentifierWriter writer, Configuration config) {
-        super(reader, writer, config);
+    public JSSPKIUtility(CertificateReader reader, SubjectKeyIdentifierWriter writer, Configuration config,
+        SigningMetrics signingMetrics) {
+        super(reader, writer, config, signingMetrics);
     }
 
     @Override
@@ -160,16 +162,47 @@ public class JSSPKIUtility extends ProviderBasedPKIUtility {
                 }
             }
 
-            X509CertImpl certImpl = new X509CertImpl(certInfo);
-            certImpl.sign(reader.getCaKey(), SIGNING_ALG_ID);
+            byte[] signed = this.sign(certInfo);
             CertificateFactory cf = CertificateFactory.getInstance("X.509");
-            return (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(certImpl.getEncoded()));
+            return (X509Certificate) cf.generateCertificate(new ByteArrayInputStream(signed));
         }
         catch (GeneralSecurityException e) {
             throw new RuntimeException("Could not create X.509 certificate", e);
         }
     }
 
+    /**
+     * Signs the given certificate info with the CA key, using the signature engine of the current
+     * thread rather than setting up a new engine as X509CertImpl.sign would.
+     *
+     * @param certInfo the certificate info to sign
+     * @return the DER encoding of the signed certificate
+     * @throws GeneralSecurityException if the certificate cannot be signed
+     * @throws IOException if the certificate cannot be encoded
+     */
+    private byte[] sign(X509CertInfo certInfo) throws GeneralSecurityException, IOException {
+        long start = System.nanoTime();
+
+        try {
+            DerOutputStream tbsCertificate = new DerOutputStream();
+            certInfo.encode(tbsCertificate);
+            byte[] signature = this.signWithCaKey(tbsCertificate.toByteArray());
+
+            // Certificate ::= SEQUENCE { tbsCertificate, signatureAlgorithm, signatureValue }
+            DerOutputStream certificate = new DerOutputStream();
+            certificate.write(tbsCertificate.toByteArray());
+            AlgorithmId.get(SIGNING_ALG_ID).encode(certificate);
+            certificate.putBitString(signature);
+
+            DerOutputStream out = new DerOutputStream();
+            out.write(DerValue.tag_Sequence, certificate);
+            return out.toByteArray();
+        }
+        finally {
+            this.signingMetrics.recordCertificate(System.nanoTime() - start);
+        }
+    }
+
     /**
      * The Extension class expects to receive an octet string.  This method just takes care of
      * wrapping the ASN1Value we send within an octet string and then returns the extension object.
@@ -304,7 +337,13 @@ public class JSSPKIUtility extends ProviderBasedPKIUtility {
                 crlExtensions
             );
 
-            crlImpl.sign(reader.getCaKey(), SIGNING_ALG_ID);
+            long start = System.nanoTime();
+            try {
+                crlImpl.sign(reader.getCaKey(), SIGNING_ALG_ID);
+            }
+            finally {
+                this.signingMetrics.recordCrl(System.nanoTime() - start);
+            }
 
             CertificateFactory cf = CertificateFactory.getInstance("X.509");
             return (X509CRL) cf.generateCRL(new ByteArrayInputStream(crlImpl.getEncoded()));
@@ -17,6 +17,7 @@ package org.candlepin.pki.impl;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.PKIUtility;
+import org.candlepin.pki.SigningMetrics;
 import org.candlepin.pki.SubjectKeyIdentifierWriter;
 import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.pki.X509CRLEntryWrapper;
@@ -66,16 +67,26 @@ public abstract class ProviderBasedPKIUtility implements PKIUtility {
 
     // TODO : configurable?
     public static final int RSA_KEY_SIZE = 2048;
+    public static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
 
     protected CertificateReader reader;
     protected SubjectKeyIdentifierWriter subjectKeyWriter;
     protected Configuration config;
+    protected SigningMetrics signingMetrics;
+
+    /*
+     * Setting up a signature engine and initializing it with the CA key is costly, and engines are
+     * not thread safe, so each thread keeps one engine initialized with the CA key. Signing resets
+     * the engine, leaving it ready for the next signature.
+     */
+    private final ThreadLocal<Signature> caSignatures = new ThreadLocal<>();
 
     public ProviderBasedPKIUtility(CertificateReader reader, SubjectKeyIdentifierWriter writer,
-        Configuration config) {
+        Configuration config, SigningMetrics signingMetrics) {
         this.reader = reader;
         this.subjectKeyWriter = writer;
         this.config = config;
+        this.signingMetrics = signingMetrics;
     }
 
     @Override
@@ -207,16 +218,69 @@ public abstract class ProviderBasedPKIUtility implements PKIUtility {
      */
     @Override
     public byte[] getSHA256WithRSAHash(InputStream input) {
+        long start = System.nanoTime();
+
         try {
-            Signature signature = Signature.getInstance("SHA256withRSA");
-            signature.initSign(reader.getCaKey());
+            Signature signature = this.getCaSignature();
 
-            updateSignature(input, signature);
-            return signature.sign();
+            try {
+                updateSignature(input, signature);
+                return signature.sign();
+            }
+            catch (Exception e) {
+                // The engine may be left part way through a signature; discard it
+                this.caSignatures.remove();
+                throw e;
+            }
         }
         catch (Exception e) {
             throw new RuntimeException(e);
         }
+        finally {
+            this.signingMetrics.recordPayload(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Computes a SHA256withRSA signature of the given data with the CA key, using the signature
+     * engine of the current thread.
+     *
+     * @param data
+     *  the data to sign
+     *
+     * @throws GeneralSecurityException
+     *  if the data cannot be signed
+     *
+     * @throws IOException
+     *  if the CA key cannot be read
+     *
+     * @return
+     *  the signature of the data
+     */
+    protected byte[] signWithCaKey(byte[] data) throws GeneralSecurityException, IOException {
+        Signature signature = this.getCaSignature();
+
+        try {
+            signature.update(data);
+            return signature.sign();
+        }
+        catch (GeneralSecurityException | RuntimeException e) {
+            // The engine may be left part way through a signature; discard it
+            this.caSignatures.remove();
+            throw e;
+        }
+    }
+
+    private Signature getCaSignature() throws GeneralSecurityException, IOException {
+        Signature signature = this.caSignatures.get();
+
+        if (signature == null) {
+            signature = Signature.getInstance(SIGNATURE_ALGORITHM);
+            signature.initSign(this.reader.getCaKey());
+            this.caSignatures.set(signature);
+        }
+
+        return signature;
     }
 
     @Override
@@ -254,7 +318,7 @@ public abstract class ProviderBasedPKIUtility implements PKIUtility {
      */
     public boolean verifySHA256WithRSAHash(InputStream input, byte[] signedHash, Certificate certificate) {
         try {
-            Signature signature = Signature.getInstance("SHA256withRSA");
+            Signature signature = Signature.getInstance(SIGNATURE_ALGORITHM);
             signature.initVerify(certificate);
 
             updateSignature(input, signature);
@@ -33,6 +33,9 @@ public class JsRunner {
 
     private static Logger log = LoggerFactory.getLogger(JsRunner.class);
 
+    /** The total time, in nanoseconds, spent executing javascript methods on each thread */
+    private static final ThreadLocal<long[]> EXECUTION_TIME = ThreadLocal.withInitial(() -> new long[1]);
+
     private Object rulesNameSpace;
     private String namespace;
     private Scriptable scope;
@@ -95,6 +98,7 @@ public class JsRunner {
         if (!(func instanceof Function)) {
             throw new NoSuchMethodException("no such javascript method: " + method);
         }
+        long start = System.nanoTime();
         Context context = Context.enter();
         try {
             return (T) unwrapReturnValue(((Function) func).call(context, scope,
@@ -102,9 +106,22 @@ public class JsRunner {
         }
         finally {
             Context.exit();
+            EXECUTION_TIME.get()[0] += System.nanoTime() - start;
         }
     }
 
+    /**
+     * Fetches the total time spent executing javascript methods on the current thread. The time
+     * spent by a given operation may be determined by the difference between the values fetched
+     * before and after it.
+     *
+     * @return
+     *  the time spent executing javascript methods on the current thread, in nanoseconds
+     */
+    public static long getThreadExecutionTime() {
+        return EXECUTION_TIME.get()[0];
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T invokeMethod(String method, JsContext context)
         throws NoSuchMethodException, RhinoException {
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.policy.js.JsonJsContext;
+import org.candlepin.policy.js.RuleExecutionException;
+
+import com.google.common.collect.Iterables;
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.persist.Transactional;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * The BulkComplianceCalculator recalculates the current compliance status of many consumers at
+ * once. Consumers are processed in blocks: the consumers of a block are loaded along with their
+ * entitlements and guest IDs in a handful of queries, their statuses are evaluated in parallel,
+ * and the changed statuses are written back with one update per block.
+ * <p></p>
+ * Only the rules evaluation is performed in parallel. Each worker thread evaluates its share of
+ * the block with its own ComplianceRules instance, and therefore its own JsRunner, while all
+ * database access and entity handling remains on the calling thread.
+ */
+public class BulkComplianceCalculator {
+    private static Logger log = LoggerFactory.getLogger(BulkComplianceCalculator.class);
+
+    private ConsumerCurator consumerCurator;
+    private Provider<ComplianceRules> rulesProvider;
+    private int blockSize;
+    private int threads;
+
+    @Inject
+    public BulkComplianceCalculator(Configuration config, ConsumerCurator consumerCurator,
+        Provider<ComplianceRules> rulesProvider) {
+
+        this.consumerCurator = consumerCurator;
+        this.rulesProvider = rulesProvider;
+        this.blockSize = Math.max(1, config.getInt(ConfigProperties.BULK_COMPLIANCE_BLOCK_SIZE));
+        this.threads = Math.max(1, config.getInt(ConfigProperties.BULK_COMPLIANCE_THREADS));
+    }
+
+    /**
+     * Recalculates the current compliance status of the consumers with the given IDs, emitting a
+     * compliance event for each consumer whose status has changed.
+     *
+     * @param consumerIds
+     *  the IDs of the consumers to recalculate
+     *
+     * @return
+     *  the number of consumers whose compliance status has changed
+     */
+    public int recalculate(Collection<String> consumerIds) {
+        if (consumerIds == null || consumerIds.isEmpty()) {
+            return 0;
+        }
+
+        // Each worker needs its own rules instance, as a JsRunner may only be used by one thread
+        // at a time. They are created here, as the JsRunner provider depends on the current scope.
+        List<ComplianceRules> workers = new ArrayList<>(this.threads);
+        for (int i = 0; i < this.threads; ++i) {
+            workers.add(this.rulesProvider.get());
+        }
+
+        ExecutorService executor = this.threads > 1 ? this.createExecutor() : null;
+        int changed = 0;
+
+        try {
+            for (List<String> block : Iterables.partition(consumerIds, this.blockSize)) {
+                changed += this.recalculateBlock(block, workers, executor);
+            }
+        }
+        finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        log.info("Recalculated compliance status of {} consumers; {} changed", consumerIds.size(), changed);
+        return changed;
+    }
+
+    @Transactional
+    protected int recalculateBlock(List<String> consumerIds, List<ComplianceRules> workers,
+        ExecutorService executor) {
+
+        ComplianceRules rules = workers.get(0);
+        List<Consumer> consumers = this.consumerCurator.getConsumersForComplianceCheck(consumerIds);
+
+        List<Consumer> evaluated = new ArrayList<>(consumers.size());
+        List<JsonJsContext> contexts = new ArrayList<>(consumers.size());
+
+        for (Consumer consumer : consumers) {
+            JsonJsContext context = rules.buildStatusContext(consumer, null);
+
+            if (context != null) {
+                evaluated.add(consumer);
+                contexts.add(context);
+            }
+        }
+
+        // Write out any entitlements flagged while building the contexts before the consumers are
+        // modified, as the consumer changes are written separately below.
+        this.consumerCurator.flush();
+
+        List<String> results = this.evaluate(contexts, workers, executor);
+        Map<String, Pair<String, String>> changed = new HashMap<>();
+
+        for (int i = 0; i < evaluated.size(); ++i) {
+            Consumer consumer = evaluated.get(i);
+            String hash = consumer.getComplianceStatusHash();
+            String status = consumer.getEntitlementStatus();
+
+            rules.completeStatus(consumer, results.get(i), false);
+
+            if (!Objects.equals(hash, consumer.getComplianceStatusHash()) ||
+                !Objects.equals(status, consumer.getEntitlementStatus())) {
+
+                changed.put(consumer.getId(),
+                    new ImmutablePair<>(consumer.getComplianceStatusHash(), consumer.getEntitlementStatus()));
+            }
+        }
+
+        // Detach the consumers before writing the changes directly, so they are neither written
+        // individually on flush nor held in memory for the remainder of the operation.
+        this.consumerCurator.batchDetach(consumers);
+        this.consumerCurator.bulkUpdateComplianceStatus(changed);
+
+        return changed.size();
+    }
+
+    /**
+     * Evaluates the given contexts, splitting them evenly between the workers.
+     *
+     * @return
+     *  the evaluation results, in the order of the given contexts
+     */
+    private List<String> evaluate(List<JsonJsContext> contexts, List<ComplianceRules> workers,
+        ExecutorService executor) {
+
+        List<String> results = new ArrayList<>(contexts.size());
+
+        if (executor == null || contexts.size() < 2) {
+            for (JsonJsContext context : contexts) {
+                results.add(workers.get(0).evaluateStatus(context));
+            }
+
+            return results;
+        }
+
+        int sliceSize = (int) Math.ceil(contexts.size() / (double) workers.size());
+        List<Future<List<String>>> futures = new ArrayList<>(workers.size());
+
+        for (int i = 0; i * sliceSize < contexts.size(); ++i) {
+            ComplianceRules worker = workers.get(i);
+            List<JsonJsContext> slice = contexts.subList(i * sliceSize,
+                Math.min((i + 1) * sliceSize, contexts.size()));
+
+            futures.add(executor.submit(() -> {
+                List<String> output = new ArrayList<>(slice.size());
+
+                for (JsonJsContext context : slice) {
+                    output.add(worker.evaluateStatus(context));
+                }
+
+                return output;
+            }));
+        }
+
+        try {
+            for (Future<List<String>> future : futures) {
+                results.addAll(future.get());
+            }
+        }
+        catch (ExecutionException e) {
+            throw new RuleExecutionException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuleExecutionException(e);
+        }
+
+        return results;
+    }
+
+    private ExecutorService createExecutor() {
+        return Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "bulk-compliance-" + count.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+}
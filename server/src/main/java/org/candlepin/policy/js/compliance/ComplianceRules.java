@@ -183,25 +183,13 @@ public class ComplianceRules {
             return new ComplianceStatus(new Date());
         }
 
-        JsonJsContext args = new JsonJsContext(mapper);
-        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("entitlements", entStream);
-        args.put("ondate", date);
-        args.put("calculateCompliantUntil", calculateCompliantUntil);
-        args.put("calculateProductComplianceDateRanges", calculateProductComplianceDateRanges);
-        args.put("log", log, false);
-        args.put("guestIds", guestIdStream);
+        JsonJsContext args = this.buildContext(consumer, entStream, guestIdStream, date,
+            calculateCompliantUntil, calculateProductComplianceDateRanges);
 
         // Convert the JSON returned into a ComplianceStatus object:
         String json = jsRules.runJsFunction(String.class, "get_status", args);
         try {
-            ComplianceStatusDTO statusDTO = mapper.toObject(json, ComplianceStatusDTO.class);
-            ComplianceStatus status = new ComplianceStatus();
-            populateEntity(status, statusDTO);
-
-            for (ComplianceReason reason : status.getReasons()) {
-                generator.setMessage(consumer, reason, status.getDate());
-            }
+            ComplianceStatus status = this.parseStatus(consumer, json);
 
             if (currentCompliance) {
                 applyStatus(consumer, status, updateConsumer);
@@ -214,6 +202,116 @@ public class ComplianceRules {
         }
     }
 
+    /**
+     * Builds the rules context for a calculation of the current compliance status of the given
+     * consumer. Unlike getStatus, the consumer, its entitlements and guest IDs are translated
+     * immediately, so the context does not refer to any entities and may be evaluated by another
+     * ComplianceRules instance on another thread.
+     * <p></p>
+     * As with getStatus, entitlements which have started are flagged as updated on start.
+     *
+     * @param consumer
+     *  the consumer for which to build the context
+     *
+     * @param date
+     *  the date on which to check compliance, or null to check the current date
+     *
+     * @return
+     *  the rules context, or null if compliance is not calculated for the consumer
+     */
+    public JsonJsContext buildStatusContext(Consumer consumer, Date date) {
+        updateEntsOnStart(consumer);
+
+        ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        if (ctype != null && ctype.isManifest()) {
+            return null;
+        }
+
+        List<EntitlementDTO> entitlements = consumer.getEntitlements() == null ?
+            Collections.emptyList() :
+            consumer.getEntitlements().stream()
+                .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class))
+                .collect(Collectors.toList());
+
+        List<GuestIdDTO> guestIds = consumer.getGuestIds() == null ?
+            Collections.emptyList() :
+            consumer.getGuestIds().stream()
+                .map(this.translator.getStreamMapper(GuestId.class, GuestIdDTO.class))
+                .collect(Collectors.toList());
+
+        return this.buildContext(consumer, entitlements, guestIds, date != null ? date : new Date(),
+            false, false);
+    }
+
+    /**
+     * Evaluates a rules context built by buildStatusContext. This method does not access the
+     * database, and may be called concurrently on separate ComplianceRules instances.
+     *
+     * @param context
+     *  the rules context to evaluate
+     *
+     * @return
+     *  the compliance status, in the JSON form returned by the rules
+     */
+    public String evaluateStatus(JsonJsContext context) {
+        return jsRules.runJsFunction(String.class, "get_status", context);
+    }
+
+    /**
+     * Converts the result of evaluateStatus into a compliance status, and applies it to the
+     * consumer.
+     *
+     * @param consumer
+     *  the consumer for which the status was evaluated
+     *
+     * @param json
+     *  the compliance status returned by evaluateStatus
+     *
+     * @param updateConsumer
+     *  whether or not to use consumerCurator.update
+     *
+     * @return
+     *  the compliance status of the consumer
+     */
+    public ComplianceStatus completeStatus(Consumer consumer, String json, boolean updateConsumer) {
+        try {
+            ComplianceStatus status = this.parseStatus(consumer, json);
+            applyStatus(consumer, status, updateConsumer);
+
+            return status;
+        }
+        catch (Exception e) {
+            throw new RuleExecutionException(e);
+        }
+    }
+
+    private JsonJsContext buildContext(Consumer consumer, Object entitlements, Object guestIds, Date date,
+        boolean calculateCompliantUntil, boolean calculateProductComplianceDateRanges) {
+
+        JsonJsContext args = new JsonJsContext(mapper);
+        args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
+        args.put("entitlements", entitlements);
+        args.put("ondate", date);
+        args.put("calculateCompliantUntil", calculateCompliantUntil);
+        args.put("calculateProductComplianceDateRanges", calculateProductComplianceDateRanges);
+        args.put("log", log, false);
+        args.put("guestIds", guestIds);
+
+        return args;
+    }
+
+    private ComplianceStatus parseStatus(Consumer consumer, String json) {
+        ComplianceStatusDTO statusDTO = mapper.toObject(json, ComplianceStatusDTO.class);
+        ComplianceStatus status = new ComplianceStatus();
+        populateEntity(status, statusDTO);
+
+        for (ComplianceReason reason : status.getReasons()) {
+            generator.setMessage(consumer, reason, status.getDate());
+        }
+
+        return status;
+    }
+
     public void updateEntsOnStart(Consumer c) {
         for (Entitlement ent : c.getEntitlements()) {
             if (!ent.isUpdatedOnStart() && ent.isValid()) {
@@ -206,6 +206,19 @@ public class EntitlementRules implements Enforcer {
         Map<String, ValidationResult> resultMap = new HashMap<>();
 
         ConsumerType ctype = this.consumerTypeCurator.getConsumerType(consumer);
+        Consumer host = getHost(consumer);
+
+        // Discard the pools the rules would reject anyway before serializing the rest for the rules
+        if (pools != null && config.getBoolean(ConfigProperties.POOL_LIST_PREFILTER)) {
+            PoolListPredicate predicate = new PoolListPredicate(consumer, ctype, host, showAll);
+            int count = pools.size();
+
+            pools = pools.stream()
+                .filter(predicate)
+                .collect(Collectors.toList());
+
+            log.debug("Prefiltered {} of {} pools before applying rules", count - pools.size(), count);
+        }
 
         Stream<PoolDTO> poolStream = pools == null ? Stream.empty() :
             pools.stream().map(this.translator.getStreamMapper(Pool.class, PoolDTO.class));
@@ -215,7 +228,7 @@ public class EntitlementRules implements Enforcer {
                 .map(this.translator.getStreamMapper(Entitlement.class, EntitlementDTO.class));
 
         args.put("consumer", this.translator.translate(consumer, ConsumerDTO.class));
-        args.put("hostConsumer", this.translator.translate(getHost(consumer), ConsumerDTO.class));
+        args.put("hostConsumer", this.translator.translate(host, ConsumerDTO.class));
         args.put("consumerEntitlements", entStream.collect(Collectors.toSet()));
         args.put("standalone", config.getBoolean(ConfigProperties.STANDALONE));
         args.put("pools", poolStream.collect(Collectors.toSet()));
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.entitlement;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+
+
+/**
+ * The PoolListPredicate is a Java rendition of the cheap, deterministic checks performed by the
+ * validate_pools_list rules when listing the pools available to a consumer. It allows pools which
+ * would certainly be omitted by the rules to be discarded before the remaining pools are
+ * serialized and passed to the rules engine.
+ * <p></p>
+ * The predicate only rejects pools for which the rules would report an error, or a warning when
+ * warnings are not being included. It never accepts a pool on its own; any pool it accepts must
+ * still be validated by the rules.
+ */
+public class PoolListPredicate implements Predicate<Pool> {
+    private static final String UEBERCERT_TYPE = "uebercert";
+    private static final String ARCH_FACT = "uname.machine";
+    private static final String VIRT_UUID_FACT = "virt.uuid";
+    private static final long NEWBORN_PERIOD = 24L * 60 * 60 * 1000;
+    private static final List<String> X86_VARIANTS = Arrays.asList("I386", "I586", "I686");
+
+    private final Consumer consumer;
+    private final Consumer host;
+    private final boolean manifest;
+    private final boolean guest;
+    private final String typeLabel;
+    private final boolean includeWarnings;
+    private final Set<String> entitledPoolIds;
+    private final Date now;
+
+    /**
+     * Creates a new predicate for the pools available to the given consumer.
+     *
+     * @param consumer
+     *  the consumer for which pools are being listed
+     *
+     * @param type
+     *  the type of the consumer
+     *
+     * @param host
+     *  the host of the consumer, if the consumer is a guest with a known host; null otherwise
+     *
+     * @param includeWarnings
+     *  whether or not pools which would only produce warnings are being listed
+     */
+    public PoolListPredicate(Consumer consumer, ConsumerType type, Consumer host, boolean includeWarnings) {
+        this.consumer = consumer;
+        this.host = host;
+        this.manifest = type.isManifest();
+        this.guest = consumer.isGuest();
+        this.typeLabel = type.getLabel();
+        this.includeWarnings = includeWarnings;
+        this.now = new Date();
+
+        this.entitledPoolIds = new HashSet<>();
+        if (consumer.getEntitlements() != null) {
+            for (Entitlement entitlement : consumer.getEntitlements()) {
+                if (entitlement.getPool() != null) {
+                    this.entitledPoolIds.add(entitlement.getPool().getId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean test(Pool pool) {
+        return this.passesGlobalChecks(pool) &&
+            this.passesVirtChecks(pool) &&
+            this.passesHostChecks(pool) &&
+            this.passesConsumerChecks(pool) &&
+            (this.includeWarnings || this.passesArchitectureCheck(pool));
+    }
+
+    /**
+     * Mirrors the quantity check applied after the rules, and the global rules check
+     */
+    private boolean passesGlobalChecks(Pool pool) {
+        if (!pool.entitlementsAvailable(1)) {
+            return false;
+        }
+
+        if (this.manifest) {
+            return true;
+        }
+
+        String multiEnt = this.getProductFirstAttribute(pool, Pool.Attributes.MULTI_ENTITLEMENT);
+        if (this.entitledPoolIds.contains(pool.getId()) && !"yes".equalsIgnoreCase(multiEnt)) {
+            return false;
+        }
+
+        // Pools without a required consumer type are restricted to systems and alike
+        String requiredType = this.getProductFirstAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER_TYPE);
+        if (StringUtils.isEmpty(requiredType) &&
+            !ConsumerTypeEnum.SYSTEM.getLabel().equals(this.typeLabel) &&
+            !ConsumerTypeEnum.HYPERVISOR.getLabel().equals(this.typeLabel) &&
+            !UEBERCERT_TYPE.equals(this.typeLabel)) {
+
+            return false;
+        }
+
+        String username = pool.getRestrictedToUsername();
+        return username == null || username.equals(this.consumer.getUsername());
+    }
+
+    /**
+     * Mirrors the virt_only, physical_only and unmapped_guests_only rules
+     */
+    private boolean passesVirtChecks(Pool pool) {
+        if ("true".equalsIgnoreCase(this.getPoolFirstAttribute(pool, Pool.Attributes.VIRT_ONLY))) {
+            if (this.manifest) {
+                if ("true".equalsIgnoreCase(this.getPoolFirstAttribute(pool, Pool.Attributes.DERIVED_POOL))) {
+                    return false;
+                }
+            }
+            else if (!this.guest && !this.includeWarnings) {
+                return false;
+            }
+        }
+
+        if ("true".equalsIgnoreCase(this.getPoolFirstAttribute(pool, Pool.Attributes.PHYSICAL_ONLY)) &&
+            !this.manifest && this.guest && !this.includeWarnings) {
+
+            return false;
+        }
+
+        if ("true".equalsIgnoreCase(this.getPoolFirstAttribute(pool, Pool.Attributes.UNMAPPED_GUESTS_ONLY))) {
+            Date created = this.consumer.getCreated();
+
+            if (this.host != null || created == null ||
+                this.now.getTime() >= created.getTime() + NEWBORN_PERIOD) {
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Mirrors the requires_host rules
+     */
+    private boolean passesHostChecks(Pool pool) {
+        String requiredHost = this.getPoolFirstAttribute(pool, Pool.Attributes.REQUIRES_HOST);
+        if (requiredHost == null) {
+            return true;
+        }
+
+        return !this.manifest &&
+            StringUtils.isNotEmpty(this.consumer.getFact(VIRT_UUID_FACT)) &&
+            this.host != null &&
+            requiredHost.equals(this.host.getUuid());
+    }
+
+    /**
+     * Mirrors the requires_consumer and requires_consumer_type rules
+     */
+    private boolean passesConsumerChecks(Pool pool) {
+        String requiredConsumer = this.getPoolFirstAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER);
+        if (requiredConsumer != null && ((this.manifest && !requiredConsumer.isEmpty()) ||
+            !requiredConsumer.equals(this.consumer.getUuid()))) {
+
+            return false;
+        }
+
+        String requiredType = this.getPoolFirstAttribute(pool, Pool.Attributes.REQUIRES_CONSUMER_TYPE);
+        if (requiredType == null || this.manifest || UEBERCERT_TYPE.equals(this.typeLabel)) {
+            return true;
+        }
+
+        // Hypervisors may use pools requiring systems
+        return requiredType.equals(this.typeLabel) ||
+            (ConsumerTypeEnum.SYSTEM.getLabel().equals(requiredType) &&
+            ConsumerTypeEnum.HYPERVISOR.getLabel().equals(this.typeLabel));
+    }
+
+    /**
+     * Mirrors the architecture rules, which only ever produce a warning
+     */
+    private boolean passesArchitectureCheck(Pool pool) {
+        if (this.manifest || this.getPoolFirstAttribute(pool, Product.Attributes.ARCHITECTURE) == null) {
+            return true;
+        }
+
+        String arches = this.getProductFirstAttribute(pool, Product.Attributes.ARCHITECTURE);
+        String consumerArch = this.consumer.getFact(ARCH_FACT);
+
+        boolean system = ConsumerTypeEnum.SYSTEM.getLabel().equals(this.typeLabel);
+
+        if (arches == null || (StringUtils.isEmpty(consumerArch) && !system)) {
+            return true;
+        }
+
+        List<String> supported = Arrays.asList(arches.toUpperCase(Locale.ROOT).split(","));
+        if (supported.contains("ALL")) {
+            return true;
+        }
+
+        if (StringUtils.isEmpty(consumerArch)) {
+            return false;
+        }
+
+        String arch = consumerArch.toUpperCase(Locale.ROOT);
+        return supported.contains(arch) || (supported.contains("X86") && X86_VARIANTS.contains(arch));
+    }
+
+    /**
+     * Fetches an attribute from the pool, falling back to the pool's product, as done by the
+     * getAttribute function of the rules.
+     */
+    private String getPoolFirstAttribute(Pool pool, String key) {
+        String value = this.getAttribute(pool.getAttributes(), key);
+        return value != null ? value : this.getAttribute(pool.getProductAttributes(), key);
+    }
+
+    /**
+     * Fetches an attribute from the pool's product, falling back to the pool itself, as done by
+     * the getProductAttribute function of the rules.
+     */
+    private String getProductFirstAttribute(Pool pool, String key) {
+        String value = this.getAttribute(pool.getProductAttributes(), key);
+        return value != null ? value : this.getAttribute(pool.getAttributes(), key);
+    }
+
+    /**
+     * Fetches an attribute value, treating a value of "0" as unset as the rules do
+     */
+    private String getAttribute(Map<String, String> attributes, String key) {
+        String value = attributes != null ? attributes.get(key) : null;
+        return "0".equals(value) ? null : value;
+    }
+}
@@ -14,6 +14,8 @@
  */
 package org.candlepin.policy.js.quantity;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.rules.v1.ConsumerDTO;
 import org.candlepin.dto.rules.v1.EntitlementDTO;
@@ -21,6 +23,7 @@ import org.candlepin.dto.rules.v1.GuestIdDTO;
 import org.candlepin.dto.rules.v1.PoolDTO;
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
 import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerTypeCurator;
 import org.candlepin.model.Entitlement;
 import org.candlepin.model.GuestId;
 import org.candlepin.model.Pool;
@@ -35,7 +38,9 @@ import com.google.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -51,19 +56,37 @@ public class QuantityRules {
     private RulesObjectMapper mapper;
     private static Logger log = LoggerFactory.getLogger(QuantityRules.class);
     private ModelTranslator translator;
+    private ConsumerTypeCurator consumerTypeCurator;
+    private boolean useJava;
 
     @Inject
-    public QuantityRules(JsRunner jsRules, RulesObjectMapper mapper, ModelTranslator translator) {
+    public QuantityRules(JsRunner jsRules, RulesObjectMapper mapper, ModelTranslator translator,
+        ConsumerTypeCurator consumerTypeCurator, Configuration config) {
 
         this.jsRules = jsRules;
         this.mapper = mapper;
         this.translator = translator;
+        this.consumerTypeCurator = consumerTypeCurator;
+        this.useJava = config.getBoolean(ConfigProperties.QUANTITY_RULES_JAVA);
 
         jsRules.init("quantity_name_space");
     }
 
-    @SuppressWarnings("checkstyle:indentation")
     public SuggestedQuantityDTO getSuggestedQuantity(Pool p, Consumer c, Date date) {
+        if (this.useJava) {
+            SuggestedQuantityDTO result = new SuggestedQuantityCalculator(this.consumerTypeCurator, c, date)
+                .calculate(p);
+
+            if (result != null) {
+                return result;
+            }
+        }
+
+        return this.runSuggestedQuantity(p, c, date);
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private SuggestedQuantityDTO runSuggestedQuantity(Pool p, Consumer c, Date date) {
         JsonJsContext args = new JsonJsContext(mapper);
 
         Stream<EntitlementDTO> entStream = c.getEntitlements() == null ? Stream.empty() :
@@ -94,13 +117,48 @@ public class QuantityRules {
      * Map returned will map each pool ID to the suggested quantities for it. Every pool
      * provided should have it's ID present in the result.
      *
+     * When enabled, the quantities are calculated in Java, sharing the consumer's stacks
+     * between all of the pools. Only pools the Java calculation cannot handle are passed
+     * to the rules.
+     *
      * @param pools
      * @param c
      * @param date
      * @return suggested quantities for all pools requested
      */
-    @SuppressWarnings("checkstyle:indentation")
     public Map<String, SuggestedQuantityDTO> getSuggestedQuantities(List<Pool> pools, Consumer c, Date date) {
+        if (!this.useJava || pools == null) {
+            return this.runSuggestedQuantities(pools, c, date);
+        }
+
+        SuggestedQuantityCalculator calculator = new SuggestedQuantityCalculator(this.consumerTypeCurator, c,
+            date);
+
+        Map<String, SuggestedQuantityDTO> resultMap = new HashMap<>();
+        List<Pool> deferred = new ArrayList<>();
+
+        for (Pool pool : pools) {
+            SuggestedQuantityDTO result = calculator.calculate(pool);
+
+            if (result != null) {
+                resultMap.put(pool.getId(), result);
+            }
+            else {
+                deferred.add(pool);
+            }
+        }
+
+        if (!deferred.isEmpty()) {
+            resultMap.putAll(this.runSuggestedQuantities(deferred, c, date));
+        }
+
+        return resultMap;
+    }
+
+    @SuppressWarnings("checkstyle:indentation")
+    private Map<String, SuggestedQuantityDTO> runSuggestedQuantities(List<Pool> pools, Consumer c,
+        Date date) {
+
         JsonJsContext args = new JsonJsContext(mapper);
 
         Stream<PoolDTO> poolStream = pools == null ? Stream.empty() :
@@ -0,0 +1,463 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.quantity;
+
+import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+
+
+/**
+ * The SuggestedQuantityCalculator is a Java rendition of the get_suggested_quantity rules. It
+ * calculates the quantity of entitlements a consumer needs from a pool to cover its stack, and
+ * the increment in which entitlements may be consumed from the pool.
+ * <p></p>
+ * A calculator is built for a single consumer and date, and prepares the consumer's stacks and
+ * fact values once, allowing it to be reused for every pool in a pool listing. The rules'
+ * numeric semantics are preserved; pools which the rules would not be able to handle sensibly,
+ * such as those with a malformed instance multiplier, are left to the rules by returning null.
+ */
+public class SuggestedQuantityCalculator {
+    private static Logger log = LoggerFactory.getLogger(SuggestedQuantityCalculator.class);
+
+    private static final String STORAGE_BAND = "storage_band";
+
+    private static final String SOCKETS_FACT = "cpu.cpu_socket(s)";
+    private static final String CORES_FACT = "cpu.core(s)_per_socket";
+    private static final String RAM_FACT = "memory.memtotal";
+    private static final String STORAGE_BAND_FACT = "band.storage.usage";
+
+    // The compliance attributes which affect the quantity needed to cover a stack. Architecture
+    // and guest limit are also stacked by the rules, but never change the suggested quantity.
+    private static final List<String> PHYSICAL_ATTRIBUTES = Arrays.asList(Product.Attributes.SOCKETS,
+        Product.Attributes.CORES, Product.Attributes.RAM, STORAGE_BAND);
+    private static final List<String> VIRT_ATTRIBUTES = Arrays.asList(Product.Attributes.VCPU,
+        Product.Attributes.RAM, STORAGE_BAND);
+    private static final List<String> UNCHECKED_WHEN_HOST_RESTRICTED = Arrays.asList(
+        Product.Attributes.RAM, Product.Attributes.VCPU);
+
+    private static final Pattern DECIMAL_NUMBER =
+        Pattern.compile("[+-]?(Infinity|(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?)");
+    private static final Pattern HEX_NUMBER = Pattern.compile("0[xX][0-9a-fA-F]+");
+
+    private final ConsumerTypeCurator consumerTypeCurator;
+    private final Consumer consumer;
+    private final boolean guest;
+    private final List<String> attributes;
+    private final Map<String, List<Entitlement>> stacks;
+    private final Map<String, Double> consumerValues;
+    private Boolean manifest;
+
+    /**
+     * Creates a new calculator for the given consumer.
+     *
+     * @param consumerTypeCurator
+     *  the curator used to look up the consumer's type
+     *
+     * @param consumer
+     *  the consumer for which quantities will be suggested
+     *
+     * @param date
+     *  the date on which the consumer's entitlements must be valid to be considered part of a stack
+     */
+    public SuggestedQuantityCalculator(ConsumerTypeCurator consumerTypeCurator, Consumer consumer,
+        Date date) {
+
+        this.consumerTypeCurator = consumerTypeCurator;
+        this.consumer = consumer;
+        this.guest = consumer.isGuest();
+        this.attributes = this.guest ? VIRT_ATTRIBUTES : PHYSICAL_ATTRIBUTES;
+        this.consumerValues = new HashMap<>();
+
+        // Entitlement order is retained, as the rules' accumulation is order sensitive for
+        // malformed attribute values
+        this.stacks = new LinkedHashMap<>();
+        if (consumer.getEntitlements() != null) {
+            for (Entitlement entitlement : consumer.getEntitlements()) {
+                Pool pool = entitlement.getPool();
+
+                if (pool != null && entitlement.isValidOnDate(date)) {
+                    String stackingId = getProductAttribute(pool, Product.Attributes.STACKING_ID);
+
+                    if (stackingId != null) {
+                        this.stacks.computeIfAbsent(stackingId, key -> new ArrayList<>()).add(entitlement);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the suggested quantity and increment for the given pool.
+     *
+     * @param pool
+     *  the pool for which to suggest a quantity
+     *
+     * @return
+     *  the suggested quantity for the pool, or null if the quantity must be calculated by the rules
+     */
+    public SuggestedQuantityDTO calculate(Pool pool) {
+        SuggestedQuantityDTO result = new SuggestedQuantityDTO();
+        result.setSuggested(1L);
+        result.setIncrement(1L);
+
+        // Distributors increment is always 1, suggested is irrelevant
+        if (!"yes".equalsIgnoreCase(getProductAttribute(pool, Pool.Attributes.MULTI_ENTITLEMENT)) ||
+            this.isManifest()) {
+            return result;
+        }
+
+        long increment = 1;
+        String multiplier = getProductAttribute(pool, Product.Attributes.INSTANCE_MULTIPLIER);
+        if (multiplier != null && !this.guest) {
+            double parsed = parseInt(multiplier);
+
+            if (!(parsed >= 1 && parsed <= Integer.MAX_VALUE)) {
+                log.debug("Deferring to rules for pool {} with instance multiplier: {}", pool.getId(),
+                    multiplier);
+                return null;
+            }
+
+            increment = (long) parsed;
+        }
+
+        String stackingId = getProductAttribute(pool, Product.Attributes.STACKING_ID);
+        if (stackingId != null) {
+            StackTracker tracker = new StackTracker();
+            tracker.updateFromPool(pool, 0);
+
+            for (Entitlement entitlement : this.stacks.getOrDefault(stackingId,
+                Collections.<Entitlement>emptyList())) {
+                tracker.updateFromEntitlement(entitlement);
+            }
+
+            result.setSuggested(this.getQuantityToCoverStack(tracker, pool, increment));
+        }
+
+        result.setIncrement(increment);
+        return result;
+    }
+
+    /**
+     * Determines the quantity of entitlements needed from a pool in order for the stack to cover
+     * the consumer, mirroring CoverageCalculator.getQuantityToCoverStack.
+     */
+    private long getQuantityToCoverStack(StackTracker tracker, Pool pool, long increment) {
+        List<String> attributesToUse = new ArrayList<>();
+        for (String attribute : this.attributes) {
+            if (getProductAttribute(pool, attribute) != null) {
+                attributesToUse.add(attribute);
+            }
+        }
+
+        long poolQuantity = pool.getQuantity() != null ? pool.getQuantity() : 0;
+        long available = poolQuantity - (pool.getConsumed() != null ? pool.getConsumed() : 0);
+        boolean unlimited = poolQuantity < 0;
+
+        long quantity = 0;
+        boolean startedEmpty = tracker.empty;
+        boolean covered;
+
+        do {
+            boolean progressed = true;
+
+            // If the stack is empty, we can assume at least one is needed
+            if (startedEmpty || quantity != 0) {
+                Map<String, Double> previous = new HashMap<>(tracker.values);
+                tracker.updateFromPool(pool, increment);
+                quantity += increment;
+
+                progressed = this.hasProgressed(tracker, attributesToUse, previous);
+            }
+
+            startedEmpty = true;
+            covered = this.isCovered(tracker, attributesToUse);
+
+            // The rules would never finish for an unlimited pool whose values do not accumulate
+            if (!covered && unlimited && !progressed) {
+                log.debug("Stack for pool {} cannot be covered; suggesting {}", pool.getId(), quantity);
+                break;
+            }
+        }
+        while (!covered && (quantity + increment <= available || unlimited));
+
+        return quantity;
+    }
+
+    private boolean isCovered(StackTracker tracker, List<String> attributesToUse) {
+        for (String attribute : attributesToUse) {
+            if (tracker.enforces(attribute) &&
+                !(parseInt(tracker.values.get(attribute)) >= this.getConsumerValue(attribute))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean hasProgressed(StackTracker tracker, List<String> attributesToUse,
+        Map<String, Double> previous) {
+
+        for (String attribute : attributesToUse) {
+            Double value = tracker.values.get(attribute);
+            Double before = previous.get(attribute);
+
+            if (value != null && (before == null || value > before)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean isManifest() {
+        if (this.manifest == null) {
+            ConsumerType type = this.consumerTypeCurator.getConsumerType(this.consumer);
+            this.manifest = type.isManifest();
+        }
+
+        return this.manifest;
+    }
+
+    /**
+     * Fetches the consumer's value for the given attribute, mirroring the FactValueCalculator
+     */
+    private double getConsumerValue(String attribute) {
+        return this.consumerValues.computeIfAbsent(attribute, key -> {
+            switch (key) {
+                case Product.Attributes.SOCKETS:
+                    return this.getFactValue(SOCKETS_FACT);
+
+                case Product.Attributes.CORES:
+                case Product.Attributes.VCPU:
+                    return this.getFactValue(CORES_FACT) * this.getFactValue(SOCKETS_FACT);
+
+                case Product.Attributes.RAM:
+                    String ram = this.consumer.getFact(RAM_FACT);
+                    return round(parseInt(ram != null && !ram.isEmpty() ? ram : "1") / 1024 / 1024);
+
+                case STORAGE_BAND:
+                    return this.getFactValue(STORAGE_BAND_FACT);
+
+                default:
+                    throw new IllegalArgumentException("Unexpected attribute: " + key);
+            }
+        });
+    }
+
+    private double getFactValue(String fact) {
+        String value = this.consumer.getFact(fact);
+        return value != null && !value.isEmpty() ? toNumber(value) : 1;
+    }
+
+    /**
+     * Tracks the values accumulated by a stack, mirroring the rules' compliance tracker
+     */
+    private class StackTracker {
+        private final Map<String, Double> values = new HashMap<>();
+        private boolean hostRestricted = false;
+        private boolean empty = true;
+
+        public boolean enforces(String attribute) {
+            // Guests are not subjected to RAM/vCPU limitations if using a host-restricted sub-pool
+            if (this.hostRestricted && guest && UNCHECKED_WHEN_HOST_RESTRICTED.contains(attribute)) {
+                return false;
+            }
+
+            return this.values.containsKey(attribute);
+        }
+
+        public void updateFromEntitlement(Entitlement entitlement) {
+            this.empty = false;
+
+            // If quantity is > 1 but the entitlement is not stacked only calculate for quantity 1
+            long quantity = entitlement.getQuantity() != null ? entitlement.getQuantity() : 0;
+            if (!entitlement.getPool().getProductAttributes().containsKey(Product.Attributes.STACKING_ID) &&
+                quantity > 1) {
+                quantity = 1;
+            }
+
+            this.updateFromPool(entitlement.getPool(), quantity);
+        }
+
+        public void updateFromPool(Pool pool, long quantity) {
+            if (quantity > 0) {
+                this.empty = false;
+            }
+
+            String requiredHost = getPoolAttribute(pool, Pool.Attributes.REQUIRES_HOST);
+            if (requiredHost != null && !requiredHost.isEmpty()) {
+                this.hostRestricted = true;
+            }
+
+            for (String attribute : attributes) {
+                String poolValue = getProductAttribute(pool, attribute);
+
+                if (poolValue != null) {
+                    Double current = this.enforces(attribute) ? this.values.get(attribute) : null;
+                    this.values.put(attribute, accumulate(attribute, current, poolValue, pool, quantity));
+                }
+            }
+        }
+    }
+
+    private static double accumulate(String attribute, Double current, String poolValue, Pool pool,
+        long quantity) {
+
+        if (Product.Attributes.SOCKETS.equals(attribute)) {
+            // Use the lowest quantity evenly divisible by the instance multiplier
+            double multiplier = parseInt(getProductAttribute(pool, Product.Attributes.INSTANCE_MULTIPLIER));
+            if (Double.isNaN(multiplier) || multiplier == 0) {
+                multiplier = 1;
+            }
+
+            double adjusted = quantity - (quantity % multiplier);
+            return toInt32(current) + (parseInt(poolValue) * adjusted) / multiplier;
+        }
+
+        return toInt32(current) + parseInt(poolValue) * quantity;
+    }
+
+    /**
+     * Fetches an attribute from the pool, falling back to the pool's product. As in the rules,
+     * attributes with a value of "0" are considered unset.
+     */
+    private static String getPoolAttribute(Pool pool, String key) {
+        String value = getAttribute(pool.getAttributes(), key);
+        return value != null ? value : getAttribute(pool.getProductAttributes(), key);
+    }
+
+    /**
+     * Fetches an attribute from the pool's product, falling back to the pool itself. As in the
+     * rules, attributes with a value of "0" are considered unset.
+     */
+    private static String getProductAttribute(Pool pool, String key) {
+        String value = getAttribute(pool.getProductAttributes(), key);
+        return value != null ? value : getAttribute(pool.getAttributes(), key);
+    }
+
+    private static String getAttribute(Map<String, String> attributes, String key) {
+        String value = attributes != null ? attributes.get(key) : null;
+        return "0".equals(value) ? null : value;
+    }
+
+    /**
+     * Parses an integer from the start of the given string, as done by the JavaScript parseInt
+     * function. Returns NaN if the string does not begin with an integer.
+     */
+    static double parseInt(String value) {
+        if (value == null) {
+            return Double.NaN;
+        }
+
+        String trimmed = value.trim();
+        int index = 0;
+        double sign = 1;
+
+        if (trimmed.startsWith("-") || trimmed.startsWith("+")) {
+            sign = trimmed.charAt(0) == '-' ? -1 : 1;
+            ++index;
+        }
+
+        int radix = 10;
+        if (trimmed.startsWith("0x", index) || trimmed.startsWith("0X", index)) {
+            radix = 16;
+            index += 2;
+        }
+
+        double result = 0;
+        int start = index;
+        for (; index < trimmed.length(); ++index) {
+            char chr = trimmed.charAt(index);
+            int digit = chr < 128 ? Character.digit(chr, radix) : -1;
+
+            if (digit < 0) {
+                break;
+            }
+
+            result = result * radix + digit;
+        }
+
+        return index > start ? sign * result : Double.NaN;
+    }
+
+    /**
+     * Truncates the given number to an integer, as done by the JavaScript parseInt function.
+     */
+    static double parseInt(Double value) {
+        if (value == null || value.isNaN() || value.isInfinite()) {
+            return Double.NaN;
+        }
+
+        return value < 0 ? Math.ceil(value) : Math.floor(value);
+    }
+
+    /**
+     * Converts the given string to a number, as done by JavaScript's implicit conversions.
+     */
+    static double toNumber(String value) {
+        String trimmed = value.trim();
+
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+
+        if (HEX_NUMBER.matcher(trimmed).matches()) {
+            return parseInt(trimmed);
+        }
+
+        if (DECIMAL_NUMBER.matcher(trimmed).matches()) {
+            return Double.parseDouble(trimmed);
+        }
+
+        return Double.NaN;
+    }
+
+    /**
+     * Converts the given number to a 32-bit integer, as done by JavaScript's bitwise operators.
+     */
+    static int toInt32(Double value) {
+        if (value == null || value.isNaN() || value.isInfinite()) {
+            return 0;
+        }
+
+        return (int) value.longValue();
+    }
+
+    /**
+     * Rounds the given number, as done by the JavaScript Math.round function.
+     */
+    static double round(double value) {
+        return Double.isNaN(value) ? Double.NaN : Math.floor(value + 0.5);
+    }
+}
@@ -17,12 +17,16 @@ package org.candlepin.resource;
 import org.candlepin.audit.EventSink;
 import org.candlepin.audit.QueueStatus;
 import org.candlepin.auth.Principal;
+import org.candlepin.auth.PrincipalCache;
 import org.candlepin.auth.SystemPrincipal;
+import org.candlepin.bind.BindChainMetrics;
+import org.candlepin.cache.CacheRegionStatus;
 import org.candlepin.cache.CandlepinCache;
 import org.candlepin.common.auth.SecurityHole;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.model.User;
 import org.candlepin.model.UserCurator;
+import org.candlepin.pki.SigningMetrics;
 import org.candlepin.service.UserServiceAdapter;
 import org.candlepin.service.impl.DefaultUserServiceAdapter;
 
@@ -32,6 +36,7 @@ import org.jboss.resteasy.spi.ResteasyProviderFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.ws.rs.GET;
@@ -56,15 +61,22 @@ public class AdminResource {
     private EventSink sink;
     private Configuration config;
     private CandlepinCache candlepinCache;
+    private BindChainMetrics bindChainMetrics;
+    private SigningMetrics signingMetrics;
+    private PrincipalCache principalCache;
 
     @Inject
     public AdminResource(UserServiceAdapter userService, UserCurator userCurator,
-        EventSink dispatcher, Configuration config, CandlepinCache candlepinCache) {
+        EventSink dispatcher, Configuration config, CandlepinCache candlepinCache,
+        BindChainMetrics bindChainMetrics, SigningMetrics signingMetrics, PrincipalCache principalCache) {
         this.userService = userService;
         this.userCurator = userCurator;
         this.sink = dispatcher;
         this.config = config;
         this.candlepinCache = candlepinCache;
+        this.bindChainMetrics = bindChainMetrics;
+        this.signingMetrics = signingMetrics;
+        this.principalCache = principalCache;
     }
 
     @GET
@@ -110,4 +122,31 @@ public class AdminResource {
     public List<QueueStatus> getQueueStats() {
         return sink.getQueueInfo();
     }
+
+    @GET
+    @Produces({MediaType.APPLICATION_JSON})
+    @Path("cache")
+    @ApiOperation(
+        notes = "Size, hit, miss and eviction counts of the product and content cache regions, and of " +
+        "the authenticated principal caches.",
+        value = "Get Cache Stats")
+    public List<CacheRegionStatus> getCacheStats() {
+        List<CacheRegionStatus> stats = new ArrayList<>(candlepinCache.getRegionStatistics());
+        stats.addAll(principalCache.getRegionStatistics());
+
+        return stats;
+    }
+
+    @GET
+    @Produces({MediaType.TEXT_PLAIN})
+    @Path("metrics")
+    @ApiOperation(
+        notes = "Histograms of the time spent in each phase and operation of entitlement binds, the time " +
+        "spent waiting for pool locks, the number of pool rows locked and the time spent executing " +
+        "javascript rules, and of the time spent signing certificates, CRLs and payloads with the CA " +
+        "key, in the Prometheus text format.",
+        value = "Get Bind Metrics")
+    public String getMetrics() {
+        return bindChainMetrics.toPrometheusText() + signingMetrics.toPrometheusText();
+    }
 }
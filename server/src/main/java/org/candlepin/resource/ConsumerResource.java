@@ -121,6 +121,7 @@ import org.candlepin.service.model.UserInfo;
 import org.candlepin.sync.ExportCreationException;
 import org.candlepin.util.FactValidator;
 import org.candlepin.util.PropertyValidationException;
+import org.candlepin.util.TransformedList;
 import org.candlepin.util.Util;
 
 import com.google.inject.Inject;
@@ -2122,11 +2123,8 @@ public class ConsumerResource {
             }
         }
 
-        List<EntitlementDTO> entitlementDTOs = new ArrayList<>();
-        for (Entitlement entitlement : entitlementsPage.getPageData()) {
-            entitlementDTOs.add(this.translator.translate(entitlement, EntitlementDTO.class));
-        }
-        return entitlementDTOs;
+        return new TransformedList<>(entitlementsPage.getPageData(),
+            entitlement -> this.translator.translate(entitlement, EntitlementDTO.class));
     }
 
     @ApiOperation(notes = "Retrieves the Owner associated to a Consumer", value = "getOwner")
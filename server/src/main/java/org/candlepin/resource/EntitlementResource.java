@@ -43,6 +43,7 @@ import org.candlepin.policy.js.entitlement.Enforcer.CallerType;
 import org.candlepin.policy.js.entitlement.EntitlementRulesTranslator;
 import org.candlepin.resource.util.EntitlementFinderUtil;
 import org.candlepin.resteasy.parameter.KeyValueParameter;
+import org.candlepin.util.TransformedList;
 import org.candlepin.util.Util;
 
 import com.google.inject.Inject;
@@ -175,11 +176,8 @@ public class EntitlementResource {
         // Store the page for the LinkHeaderResponseFilter
         ResteasyProviderFactory.pushContext(Page.class, p);
 
-        List<EntitlementDTO> entitlementDTOs = new ArrayList<>();
-        for (Entitlement entitlement : p.getPageData()) {
-            entitlementDTOs.add(this.translator.translate(entitlement, EntitlementDTO.class));
-        }
-        return entitlementDTOs;
+        return new TransformedList<>(p.getPageData(),
+            entitlement -> this.translator.translate(entitlement, EntitlementDTO.class));
     }
 
     @ApiOperation(notes = "Retrieves a single Entitlement", value = "getEntitlement")
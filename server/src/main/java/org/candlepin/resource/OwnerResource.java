@@ -90,6 +90,7 @@ import org.candlepin.model.activationkeys.ActivationKey;
 import org.candlepin.model.activationkeys.ActivationKeyContentOverride;
 import org.candlepin.model.activationkeys.ActivationKeyCurator;
 import org.candlepin.model.dto.Subscription;
+import org.candlepin.pinsetter.tasks.ComplianceRecalculationJob;
 import org.candlepin.pinsetter.tasks.HealEntireOrgJob;
 import org.candlepin.pinsetter.tasks.ImportJob;
 import org.candlepin.pinsetter.tasks.RefreshPoolsJob;
@@ -108,6 +109,7 @@ import org.candlepin.sync.SyncDataFormatException;
 import org.candlepin.sync.file.ManifestFileServiceException;
 import org.candlepin.util.ContentOverrideValidator;
 import org.candlepin.util.ServiceLevelValidator;
+import org.candlepin.util.TransformedList;
 import org.candlepin.util.Util;
 
 import com.google.inject.Inject;
@@ -857,9 +859,11 @@ public class OwnerResource {
     }
 
     /**
-     * Retrieves the Owner Info for an Owner
+     * Retrieves the Owner Info for an Owner. Unless fresh info is requested, the info may be
+     * served from a snapshot up to candlepin.owner_info.max_age seconds old.
      *
      * @param ownerKey Owner ID.
+     * @param fresh whether to recompute the info rather than serve a snapshot
      * @return an OwnerInfo object
      * @httpcode 404
      * @httpcode 200
@@ -870,9 +874,11 @@ public class OwnerResource {
     @ApiOperation(notes = "Retrieves the Owner Info for an Owner", value = "Get Owner Info")
     @ApiResponses({ @ApiResponse(code = 404, message = "An owner not found") })
     public OwnerInfo getOwnerInfo(@PathParam("owner_key")
-        @Verify(value = Owner.class, subResource = SubResource.CONSUMERS) String ownerKey) {
+        @Verify(value = Owner.class, subResource = SubResource.CONSUMERS) String ownerKey,
+        @ApiParam("Recompute the info rather than serving a recent snapshot")
+        @QueryParam("fresh") @DefaultValue("false") boolean fresh) {
         Owner owner = findOwnerByKey(ownerKey);
-        return ownerInfoCurator.getByOwner(owner);
+        return ownerInfoCurator.getSnapshotByOwner(owner, fresh);
     }
 
     /**
@@ -1054,6 +1060,7 @@ public class OwnerResource {
             }
         }
 
+        ownerInfoCurator.invalidateSnapshot(owner);
         sink.queueEvent(event);
     }
 
@@ -1087,12 +1094,8 @@ public class OwnerResource {
         // Store the page for the LinkHeaderPostInterceptor
         ResteasyProviderFactory.pushContext(Page.class, entitlementsPage);
 
-        List<EntitlementDTO> entitlementDTOs = new ArrayList<>();
-        for (Entitlement entitlement : entitlementsPage.getPageData()) {
-            entitlementDTOs.add(this.translator.translate(entitlement, EntitlementDTO.class));
-        }
-
-        return entitlementDTOs;
+        return new TransformedList<>(entitlementsPage.getPageData(),
+            entitlement -> this.translator.translate(entitlement, EntitlementDTO.class));
     }
 
     /**
@@ -1123,6 +1126,33 @@ public class OwnerResource {
         return HealEntireOrgJob.healEntireOrg(owner, new Date());
     }
 
+    /**
+     * Recalculates the compliance status of an Owner's consumers
+     * <p>
+     * Starts an asynchronous recalculation of the compliance status of every
+     * consumer owned by the given Owner. Consumers are processed in bulk, and
+     * a compliance event is sent for each consumer whose status has changed.
+     *
+     * @param ownerKey id of the owner whose consumers are to be recalculated.
+     * @return a JobDetail object
+     * @httpcode 404
+     * @httpcode 202
+     */
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.WILDCARD)
+    @Path("{owner_key}/compliance")
+    @ApiOperation(notes = "Starts an asynchronous recalculation of the compliance status of " +
+        "every consumer owned by the given Owner.", value = "Recalculate owner compliance")
+    @ApiResponses({ @ApiResponse(code = 404, message = "Owner not found") })
+    public JobDetail recalculateCompliance(
+        @ApiParam("ownerKey id of the owner whose consumers are to be recalculated.")
+        @PathParam("owner_key") @Verify(Owner.class) String ownerKey) {
+
+        Owner owner = findOwnerByKey(ownerKey);
+        return ComplianceRecalculationJob.forOwner(owner);
+    }
+
     /**
      * Retrieves a list of Support Levels for an Owner
      *
@@ -1515,12 +1545,8 @@ public class OwnerResource {
         // Store the page for the LinkHeaderResponseFilter
         ResteasyProviderFactory.pushContext(Page.class, page);
 
-        List<PoolDTO> poolDTOs = new ArrayList<>();
-        for (Pool pool : poolList) {
-            poolDTOs.add(translator.translate(pool, PoolDTO.class));
-        }
-
-        return poolDTOs;
+        // Translate the pools as they're written out, rather than building a full DTO list up front
+        return new TransformedList<>(poolList, pool -> this.translator.translate(pool, PoolDTO.class));
     }
 
     /**
@@ -41,6 +41,7 @@ import org.candlepin.model.PoolFilterBuilder;
 import org.candlepin.model.SubscriptionsCertificate;
 import org.candlepin.resource.util.CalculatedAttributesUtil;
 import org.candlepin.resource.util.ResourceDateParser;
+import org.candlepin.util.TransformedList;
 
 import com.google.inject.Inject;
 
@@ -196,11 +197,7 @@ public class PoolResource {
         // Store the page for the LinkHeaderResponseFilter
         ResteasyProviderFactory.pushContext(Page.class, page);
 
-        List<PoolDTO> poolDTOs = new ArrayList<>();
-        for (Pool pool : poolList) {
-            poolDTOs.add(translator.translate(pool, PoolDTO.class));
-        }
-        return poolDTOs;
+        return new TransformedList<>(poolList, pool -> this.translator.translate(pool, PoolDTO.class));
     }
 
     @ApiOperation(notes = "Retrieves a single Pool", value = "getPool")
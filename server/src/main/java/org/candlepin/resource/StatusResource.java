@@ -18,6 +18,7 @@ import org.candlepin.cache.CandlepinCache;
 import org.candlepin.cache.StatusCache;
 import org.candlepin.common.auth.SecurityHole;
 import org.candlepin.common.config.Configuration;
+import org.candlepin.common.exceptions.IseException;
 import org.candlepin.common.util.VersionUtil;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.ModeManager;
@@ -27,8 +28,11 @@ import org.candlepin.model.CandlepinModeChange;
 import org.candlepin.model.Rules.RulesSourceEnum;
 import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.resteasy.JsonProvider;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.inject.Inject;
+import com.google.inject.persist.UnitOfWork;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,7 +47,11 @@ import java.util.Map;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
 
 
 
@@ -71,11 +79,16 @@ public class StatusResource {
     private JsRunnerProvider jsProvider;
     private CandlepinCache candlepinCache;
     private ModeManager modeManager;
+    private JsonProvider jsonProvider;
+    private UnitOfWork unitOfWork;
 
     @Inject
     public StatusResource(RulesCurator rulesCurator, Configuration config, JsRunnerProvider jsProvider,
-        CandlepinCache candlepinCache, ModeManager modeManager) {
+        CandlepinCache candlepinCache, ModeManager modeManager, JsonProvider jsonProvider,
+        UnitOfWork unitOfWork) {
         this.modeManager = modeManager;
+        this.jsonProvider = jsonProvider;
+        this.unitOfWork = unitOfWork;
         this.rulesCurator = rulesCurator;
         this.candlepinCache = candlepinCache;
         Map<String, String> map = VersionUtil.getVersionMap();
@@ -104,23 +117,84 @@ public class StatusResource {
      * }
      * </pre>
      * <p>
-     * Status to see if a server is up and running
+     * Status to see if a server is up and running. The status is served from a snapshot which is
+     * rebuilt in the background once it is more than a few seconds old, so checking the status
+     * does not wait on the database. The response carries an entity tag, and a request whose
+     * If-None-Match header matches it receives a 304 without a body.
      *
      * @return a Status object
      * @httpcode 200
+     * @httpcode 304
      */
     @GET
-    @ApiOperation(value = "Status", notes = "Returns status of the server", authorizations = {})
+    @ApiOperation(value = "Status", notes = "Returns status of the server", authorizations = {},
+        response = StatusDTO.class)
     @Produces({ MediaType.APPLICATION_JSON})
     @SecurityHole(noAuth = true, anon = true)
-    public StatusDTO status() {
+    public Response status(@Context Request request) {
         StatusCache statusCache = candlepinCache.getStatusCache();
-        StatusDTO cached = statusCache.getStatus();
+        StatusCache.Snapshot snapshot = statusCache.getSnapshot();
 
-        if (cached != null) {
-            return cached;
+        if (snapshot == null || snapshot.getBody() == null) {
+            // Nothing to serve yet; the first request has to build the status itself
+            snapshot = this.refreshStatus();
         }
+        else if (snapshot.isExpired()) {
+            statusCache.refresh(new Runnable() {
+                @Override
+                public void run() {
+                    boolean startedUow = startUnitOfWork();
 
+                    try {
+                        refreshStatus();
+                    }
+                    finally {
+                        if (startedUow) {
+                            endUnitOfWork();
+                        }
+                    }
+                }
+            });
+        }
+
+        EntityTag etag = new EntityTag(snapshot.getEtag());
+
+        if (request != null) {
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+
+            if (notModified != null) {
+                return notModified.build();
+            }
+        }
+
+        return Response.ok(snapshot.getBody(), MediaType.APPLICATION_JSON_TYPE)
+            .tag(etag)
+            .build();
+    }
+
+    /**
+     * Builds the current status, and stores it along with its serialized form in the status cache.
+     *
+     * @return the snapshot of the newly built status
+     */
+    private StatusCache.Snapshot refreshStatus() {
+        // Fetched before building, so a status built across a clear of the cache is not cached
+        long generation = this.candlepinCache.getStatusCache().getGeneration();
+        StatusDTO status = this.buildStatus();
+        byte[] body;
+
+        try {
+            body = this.jsonProvider.locateMapper(StatusDTO.class, MediaType.APPLICATION_JSON_TYPE)
+                .writeValueAsBytes(status);
+        }
+        catch (JsonProcessingException e) {
+            throw new IseException("Unable to serialize status", e);
+        }
+
+        return this.candlepinCache.getStatusCache().setStatus(status, body, generation);
+    }
+
+    private StatusDTO buildStatus() {
         /*
          * Originally this was used to indicate database connectivity being good/bad.
          * In reality it could never be false, the request would fail. This check has
@@ -163,8 +237,26 @@ public class StatusResource {
             .setManagerCapabilities(caps)
             .setTimeUTC(new Date());
 
-        statusCache.setStatus(status);
-
         return status;
     }
+
+    private boolean startUnitOfWork() {
+        try {
+            this.unitOfWork.begin();
+            return true;
+        }
+        catch (IllegalStateException e) {
+            log.debug("Already have an open unit of work");
+            return false;
+        }
+    }
+
+    private void endUnitOfWork() {
+        try {
+            this.unitOfWork.end();
+        }
+        catch (IllegalStateException e) {
+            log.debug("Unit of work is already closed, doing nothing");
+        }
+    }
 }
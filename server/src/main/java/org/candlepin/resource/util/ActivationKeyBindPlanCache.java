@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource.util;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.activationkeys.ActivationKey;
+import org.candlepin.model.activationkeys.ActivationKeyPool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * The ActivationKeyBindPlanCache holds the pool quantities bound to consumers registering with an
+ * activation key, so that subsequent registrations of similar consumers with the same key may bind
+ * the same quantities directly, without calculating the suggested quantity of each pool and
+ * without binding each pool separately.
+ * <p></p>
+ * Plans are keyed by the activation key and its pools, and by the consumer type and the facts read
+ * by the quantity rules. A change to the key, to its pools or their products, results in a
+ * different plan key, so stale plans are never found; they simply expire. Plans only apply to
+ * consumers without entitlements, as the suggested quantities depend on the consumer's existing
+ * stacks. A plan is not trusted blindly: the entitlement rules still validate every bind, and a
+ * refused plan is removed so the pools are bound through the regular path.
+ */
+@Singleton
+public class ActivationKeyBindPlanCache {
+    private static Logger log = LoggerFactory.getLogger(ActivationKeyBindPlanCache.class);
+
+    /** The consumer facts read by the quantity and entitlement rules */
+    private static final List<String> PLAN_FACTS = Arrays.asList("uname.machine", "cpu.cpu_socket(s)",
+        "cpu.core(s)_per_socket", "memory.memtotal", "virt.is_guest", "band.storage.usage");
+
+    private final boolean enabled;
+    private final Cache<List<Object>, Map<String, Integer>> plans;
+
+    @Inject
+    public ActivationKeyBindPlanCache(Configuration config) {
+        this.enabled = config.getBoolean(ConfigProperties.ACTIVATION_KEY_BIND_PLAN_CACHE_ENABLED);
+
+        long ttl = config.getLong(ConfigProperties.ACTIVATION_KEY_BIND_PLAN_CACHE_TTL);
+        long maxSize = config.getLong(ConfigProperties.ACTIVATION_KEY_BIND_PLAN_CACHE_MAX_SIZE);
+
+        this.plans = CacheBuilder.newBuilder()
+            .expireAfterWrite(ttl, TimeUnit.SECONDS)
+            .maximumSize(maxSize)
+            .build();
+
+        log.debug("Activation key bind plan cache enabled: {}, ttl: {}s, max size: {}", this.enabled, ttl,
+            maxSize);
+    }
+
+    /**
+     * Builds the key of the plan used to bind the given activation key pools to a consumer.
+     *
+     * @param consumer
+     *  the consumer to bind
+     *
+     * @param key
+     *  the activation key with which the consumer is registering
+     *
+     * @param keyPools
+     *  the pools of the activation key to bind, in the order in which they are bound
+     *
+     * @return
+     *  the key of the plan, or null if no plan may be used for the consumer
+     */
+    public List<Object> buildPlanKey(Consumer consumer, ActivationKey key,
+        Collection<ActivationKeyPool> keyPools) {
+
+        if (!this.enabled || key.getId() == null ||
+            (consumer.getEntitlements() != null && !consumer.getEntitlements().isEmpty())) {
+            return null;
+        }
+
+        List<Object> planKey = new ArrayList<>();
+        planKey.add(key.getId());
+        planKey.add(key.getUpdated());
+        planKey.add(consumer.getTypeId());
+
+        for (String fact : PLAN_FACTS) {
+            planKey.add(consumer.getFact(fact));
+        }
+
+        for (ActivationKeyPool keyPool : keyPools) {
+            Pool pool = keyPool.getPool();
+            Product derived = pool.getDerivedProduct();
+
+            planKey.add(pool.getId());
+            planKey.add(keyPool.getQuantity());
+            planKey.add(pool.getProduct() != null ? pool.getProduct().getUuid() : null);
+            planKey.add(derived != null ? derived.getUuid() : null);
+            planKey.add(pool.getQuantity());
+            planKey.add(pool.getStartDate());
+            planKey.add(pool.getEndDate());
+            planKey.add(new HashMap<>(pool.getAttributes()));
+        }
+
+        return planKey;
+    }
+
+    /**
+     * Fetches the plan with the given key.
+     *
+     * @param planKey
+     *  the key of the plan, as built by buildPlanKey
+     *
+     * @return
+     *  the pool quantities of the plan, or null if no such plan is cached
+     */
+    public Map<String, Integer> getPlan(List<Object> planKey) {
+        return planKey != null ? this.plans.getIfPresent(planKey) : null;
+    }
+
+    /**
+     * Caches the pool quantities bound to a consumer under the given plan key.
+     *
+     * @param planKey
+     *  the key of the plan, as built by buildPlanKey
+     *
+     * @param poolQuantities
+     *  the quantities bound, per pool ID
+     */
+    public void putPlan(List<Object> planKey, Map<String, Integer> poolQuantities) {
+        if (planKey != null && poolQuantities != null && !poolQuantities.isEmpty()) {
+            this.plans.put(planKey, Collections.unmodifiableMap(new HashMap<>(poolQuantities)));
+        }
+    }
+
+    /**
+     * Removes the plan with the given key. Should be called whenever a plan is refused.
+     *
+     * @param planKey
+     *  the key of the plan to remove
+     */
+    public void invalidatePlan(List<Object> planKey) {
+        if (planKey != null) {
+            this.plans.invalidate(planKey);
+        }
+    }
+}
@@ -14,8 +14,10 @@
  */
 package org.candlepin.resource.util;
 
+import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.ForbiddenException;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.AutobindDisabledForOwnerException;
 import org.candlepin.controller.Entitler;
 import org.candlepin.model.Consumer;
@@ -31,6 +33,7 @@ import org.candlepin.model.Release;
 import org.candlepin.model.activationkeys.ActivationKey;
 import org.candlepin.model.activationkeys.ActivationKeyContentOverride;
 import org.candlepin.model.activationkeys.ActivationKeyPool;
+import org.candlepin.policy.EntitlementRefusedException;
 import org.candlepin.policy.js.quantity.QuantityRules;
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
 import org.candlepin.resource.dto.AutobindData;
@@ -47,9 +50,11 @@ import org.xnap.commons.i18n.I18n;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -63,18 +68,23 @@ public class ConsumerBindUtil {
     private OwnerCurator ownerCurator;
     private QuantityRules quantityRules;
     private ServiceLevelValidator serviceLevelValidator;
+    private Configuration config;
+    private ActivationKeyBindPlanCache bindPlanCache;
     private static Logger log = LoggerFactory.getLogger(ConsumerBindUtil.class);
 
     @Inject
     public ConsumerBindUtil(Entitler entitler, I18n i18n,
         ConsumerContentOverrideCurator consumerContentOverrideCurator,
-        OwnerCurator ownerCurator, QuantityRules quantityRules, ServiceLevelValidator serviceLevelValidator) {
+        OwnerCurator ownerCurator, QuantityRules quantityRules, ServiceLevelValidator serviceLevelValidator,
+        Configuration config, ActivationKeyBindPlanCache bindPlanCache) {
         this.entitler = entitler;
         this.i18n = i18n;
         this.consumerContentOverrideCurator = consumerContentOverrideCurator;
         this.ownerCurator = ownerCurator;
         this.quantityRules = quantityRules;
         this.serviceLevelValidator = serviceLevelValidator;
+        this.config = config;
+        this.bindPlanCache = bindPlanCache;
     }
 
     public void handleActivationKeys(Consumer consumer, List<ActivationKey> keys,
@@ -125,12 +135,36 @@ public class ConsumerBindUtil {
 
         // Sort pools before binding to avoid deadlocks
         Collections.sort(toBind);
+
+        // Bind the quantities previously bound to similar consumers, if any
+        List<Object> planKey = this.bindPlanCache.buildPlanKey(consumer, key, toBind);
+        Map<String, Integer> plan = this.bindPlanCache.getPlan(planKey);
+
+        if (plan != null) {
+            if (this.bindPoolsTogether(consumer, plan)) {
+                return true;
+            }
+
+            this.bindPlanCache.invalidatePlan(planKey);
+        }
+
+        if (toBind.size() > 1 && this.config.getBoolean(ConfigProperties.ACTIVATION_KEY_COALESCE_BINDS)) {
+            Map<String, Integer> poolQuantities = this.getExplicitPoolQuantities(toBind);
+
+            if (poolQuantities != null && this.bindPoolsTogether(consumer, poolQuantities)) {
+                this.bindPlanCache.putPlan(planKey, poolQuantities);
+                return true;
+            }
+        }
+
+        Map<String, Integer> bound = new HashMap<>();
         for (ActivationKeyPool akp : toBind) {
             int quantity = (akp.getQuantity() == null) ?
                 getQuantityToBind(akp.getPool(), consumer) :
                 akp.getQuantity().intValue();
             try {
                 entitler.sendEvents(entitler.bindByPoolQuantity(consumer, akp.getPool().getId(), quantity));
+                bound.put(akp.getPool().getId(), quantity);
                 onePassed = true;
             }
             catch (ForbiddenException e) {
@@ -138,9 +172,67 @@ public class ConsumerBindUtil {
                     akp.getPool().getId(), akp.getKey().getName(), e.getMessage()));
             }
         }
+
+        // Only plans binding every pool are kept, lest an unavailable pool be skipped thereafter
+        if (bound.size() == toBind.size()) {
+            this.bindPlanCache.putPlan(planKey, bound);
+        }
+
         return onePassed;
     }
 
+    /**
+     * Builds the quantities of the given activation key pools for binding them together. Pools are
+     * only bound together when all of them have an explicit quantity, as the suggested quantity of a
+     * pool depends on the entitlements bound before it.
+     *
+     * @param toBind
+     *  the activation key pools to bind
+     *
+     * @return
+     *  the quantity of each pool, or null if the pools must be bound individually
+     */
+    private Map<String, Integer> getExplicitPoolQuantities(List<ActivationKeyPool> toBind) {
+        Map<String, Integer> poolQuantities = new HashMap<>();
+
+        for (ActivationKeyPool akp : toBind) {
+            if (akp.getQuantity() == null ||
+                poolQuantities.put(akp.getPool().getId(), akp.getQuantity().intValue()) != null) {
+                return null;
+            }
+        }
+
+        return poolQuantities;
+    }
+
+    /**
+     * Attempts to bind the given pool quantities in a single bind, such that the pools are validated
+     * together, locked once and their entitlements persisted together, rather than running a bind
+     * for each pool.
+     *
+     * @param consumer
+     *  the consumer to bind
+     *
+     * @param poolQuantities
+     *  the quantity to bind, per pool ID
+     *
+     * @return
+     *  true if the pools were bound; false if they must be bound individually instead
+     */
+    private boolean bindPoolsTogether(Consumer consumer, Map<String, Integer> poolQuantities) {
+        try {
+            // The bind chain modifies the map it is given
+            entitler.sendEvents(entitler.bindByPoolQuantities(consumer, new HashMap<>(poolQuantities)));
+            return true;
+        }
+        catch (EntitlementRefusedException e) {
+            // Nothing has been bound yet; bind the pools individually so the others may still be bound
+            log.debug("Unable to bind activation key pools together, binding them individually: {}",
+                e.getResults().keySet());
+            return false;
+        }
+    }
+
     private void handleActivationKeyAutoBind(Consumer consumer, ActivationKey key)
         throws AutobindDisabledForOwnerException {
         try {
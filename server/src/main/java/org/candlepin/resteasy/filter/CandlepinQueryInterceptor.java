@@ -16,8 +16,8 @@ package org.candlepin.resteasy.filter;
 
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
-import org.candlepin.model.AbstractHibernateObject;
 import org.candlepin.model.CandlepinQuery;
+import org.candlepin.model.KeysetPaging;
 import org.candlepin.model.ResultIterator;
 import org.candlepin.resteasy.JsonProvider;
 
@@ -29,7 +29,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
-import org.hibernate.criterion.Order;
 
 import org.jboss.resteasy.annotations.interception.ServerInterceptor;
 import org.jboss.resteasy.core.ServerResponse;
@@ -99,29 +98,12 @@ public class CandlepinQueryInterceptor implements PostProcessInterceptor {
                 // Impl note:
                 // Sorting will always be required (for consistency) if a page request object is
                 // present -- either isPaging() will be true, or we'll have ordering config.
-                String sortField = pageRequest.getSortBy() != null ?
-                    pageRequest.getSortBy() :
-                    AbstractHibernateObject.DEFAULT_SORT_FIELD;
-
-                PageRequest.Order order = pageRequest.getOrder() != null ?
-                    pageRequest.getOrder() :
-                    PageRequest.DEFAULT_ORDER;
-
-                query.addOrder(order == PageRequest.Order.DESCENDING ?
-                    Order.desc(sortField) :
-                    Order.asc(sortField)
-                );
+                Page page = new Page();
+                KeysetPaging.applyPageRequest(query, pageRequest, page);
 
                 if (pageRequest.isPaging()) {
-                    query.setFirstResult((pageRequest.getPage() - 1) * pageRequest.getPerPage());
-                    query.setMaxResults(pageRequest.getPerPage());
-
                     // Create a page object for the link header response
-                    Page page = new Page();
-                    page.setMaxRecords(query.getRowCount()); // This is expensive :(
-                    page.setPageRequest(pageRequest);
                     // Note: we don't need to store the page data in the page
-
                     ResteasyProviderFactory.pushContext(Page.class, page);
                 }
             }
@@ -18,6 +18,7 @@ import org.candlepin.auth.Principal;
 import org.candlepin.common.exceptions.ServiceUnavailableException;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.api.v1.JobStatusDTO;
+import org.candlepin.pinsetter.core.InProcessJobQueue;
 import org.candlepin.pinsetter.core.PinsetterException;
 import org.candlepin.pinsetter.core.PinsetterJobListener;
 import org.candlepin.pinsetter.core.PinsetterKernel;
@@ -41,18 +42,23 @@ import javax.ws.rs.ext.Provider;
  * the response should be asynchronous, and the response code and response data
  * is set appropriately so that the client can query the job status as a later
  * time.
+ * <p></p>
+ * Jobs configured for the fast path are handed to the {@link InProcessJobQueue} instead of
+ * being stored in Quartz.
  */
 @Provider
 @ServerInterceptor
 public class PinsetterAsyncFilter implements PostProcessInterceptor {
     private PinsetterKernel pinsetterKernel;
+    private InProcessJobQueue jobQueue;
     private com.google.inject.Provider<Principal> principalProvider;
     private ModelTranslator translator;
 
     @Inject
-    public PinsetterAsyncFilter(PinsetterKernel pinsetterKernel,
+    public PinsetterAsyncFilter(PinsetterKernel pinsetterKernel, InProcessJobQueue jobQueue,
         com.google.inject.Provider<Principal> principalProvider, ModelTranslator translator) {
         this.pinsetterKernel = pinsetterKernel;
+        this.jobQueue = jobQueue;
         this.principalProvider = principalProvider;
         this.translator = translator;
     }
@@ -96,6 +102,10 @@ public class PinsetterAsyncFilter implements PostProcessInterceptor {
 
     private JobStatus scheduleJob(JobDetail detail) {
         try {
+            if (this.jobQueue.accepts(detail)) {
+                return this.jobQueue.submit(detail);
+            }
+
             return this.pinsetterKernel.scheduleSingleJob(detail);
         }
         catch (PinsetterException e) {
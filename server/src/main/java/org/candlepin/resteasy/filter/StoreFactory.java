@@ -14,6 +14,8 @@
  */
 package org.candlepin.resteasy.filter;
 
+import org.candlepin.auth.ConsumerPrincipal;
+import org.candlepin.auth.Principal;
 import org.candlepin.common.exceptions.GoneException;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
@@ -87,11 +89,33 @@ public class StoreFactory {
         return storeMap.containsKey(clazz);
     }
 
+    /**
+     * Fetches the consumer principal authenticated for the current request. The consumer and owner
+     * it carries were loaded in the session of the request during authentication, and can be
+     * reused rather than being looked up again.
+     *
+     * @return
+     *  the consumer principal of the current request, or null if the request was not made by a
+     *  consumer
+     */
+    private static ConsumerPrincipal getConsumerPrincipal(Provider<Principal> principalProvider) {
+        Principal principal = principalProvider.get();
+        return principal instanceof ConsumerPrincipal ? (ConsumerPrincipal) principal : null;
+    }
+
     private static class OwnerStore implements EntityStore<Owner> {
         @Inject private OwnerCurator ownerCurator;
+        @Inject private Provider<Principal> principalProvider;
 
         @Override
         public Owner lookup(String key) {
+            ConsumerPrincipal principal = getConsumerPrincipal(this.principalProvider);
+            if (principal != null && principal.getOwner() != null &&
+                principal.getOwner().getKey().equals(key)) {
+
+                return principal.getOwner();
+            }
+
             return this.ownerCurator.getByKeySecure(key);
         }
 
@@ -130,9 +154,16 @@ public class StoreFactory {
         @Inject private DeletedConsumerCurator deletedConsumerCurator;
         @Inject private Provider<I18n> i18nProvider;
         @Inject private OwnerCurator ownerCurator;
+        @Inject private Provider<Principal> principalProvider;
 
         @Override
         public Consumer lookup(String key) {
+            // The deleted consumer check has already been made while authenticating the consumer
+            ConsumerPrincipal principal = getConsumerPrincipal(this.principalProvider);
+            if (principal != null && principal.getConsumer().getUuid().equals(key)) {
+                return principal.getConsumer();
+            }
+
             if (deletedConsumerCurator.countByConsumerUuid(key) > 0) {
                 throw new GoneException(i18nProvider.get().tr("Unit {0} has been deleted", key), key);
             }
@@ -150,6 +181,13 @@ public class StoreFactory {
 
         @Override
         public Owner getOwner(Consumer entity) {
+            ConsumerPrincipal principal = getConsumerPrincipal(this.principalProvider);
+            if (principal != null && principal.getOwner() != null &&
+                principal.getOwner().getId().equals(entity.getOwnerId())) {
+
+                return principal.getOwner();
+            }
+
             return ownerCurator.findOwnerById(entity.getOwnerId());
         }
     }
@@ -16,6 +16,7 @@ package org.candlepin.service;
 
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ContentAccessCertificate;
+import org.candlepin.model.Owner;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
@@ -51,4 +52,17 @@ public interface ContentAccessCertServiceAdapter {
     ContentAccessCertificate getCertificate(Consumer consumer) throws GeneralSecurityException, IOException;
     boolean hasCertChangedSince(Consumer consumer, Date date);
     void removeContentAccessCert(Consumer consumer);
+
+    /**
+     * Generates and stores the content access payloads of the given owner and its environments
+     * which are not currently stored, so they need not be generated when a consumer next fetches
+     * its content access certificate.
+     *
+     * @param owner
+     *  the owner for which to generate content access payloads
+     *
+     * @return the number of payloads generated
+     * @throws IOException thrown if a payload cannot be generated
+     */
+    int regenerateContentAccessPayloads(Owner owner) throws IOException;
 }
@@ -172,14 +172,8 @@ public class DefaultContentAccessCertServiceAdapter implements ContentAccessCert
 
         Environment env = this.environmentCurator.getConsumerEnvironment(consumer);
         // we need to see if this is newer than the previous result
-        OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator.getContentAccess(owner.getId(),
-            env == null ? null : env.getId());
-        if (oeca == null) {
-            String contentJson = createPayloadAndSignature(owner, env);
-            oeca = new OwnerEnvContentAccess(owner, env, contentJson);
-            ownerEnvContentAccessCurator.saveOrUpdate(oeca);
-        }
-        pem += oeca.getContentJson();
+        pem += ownerEnvContentAccessCurator.getOrCreateContentJson(owner, env,
+            () -> createPayloadAndSignature(owner, env));
 
         result.setCert(pem);
         result.setCreated(existing.getCreated());
@@ -212,6 +206,32 @@ public class DefaultContentAccessCertServiceAdapter implements ContentAccessCert
             oeca.getUpdated().getTime() > date.getTime();
     }
 
+    @Transactional
+    public int regenerateContentAccessPayloads(Owner owner) throws IOException {
+        if (!owner.isContentAccessEnabled()) {
+            return 0;
+        }
+
+        List<Environment> environments = new ArrayList<>();
+        environments.add(null);
+        environments.addAll(this.environmentCurator.listForOwner(owner).list());
+
+        int generated = 0;
+        for (Environment environment : environments) {
+            OwnerEnvContentAccess oeca = ownerEnvContentAccessCurator.getContentAccess(owner.getId(),
+                environment == null ? null : environment.getId());
+
+            if (oeca == null) {
+                ownerEnvContentAccessCurator.getOrCreateContentJson(owner, environment,
+                    () -> createPayloadAndSignature(owner, environment));
+
+                ++generated;
+            }
+        }
+
+        return generated;
+    }
+
     public String createPayloadAndSignature(Owner owner, Environment environment)
         throws IOException {
 
@@ -15,6 +15,7 @@
 package org.candlepin.service.impl;
 
 import org.candlepin.auth.Access;
+import org.candlepin.auth.PrincipalCache;
 import org.candlepin.auth.SubResource;
 import org.candlepin.auth.permissions.Permission;
 import org.candlepin.auth.permissions.PermissionFactory;
@@ -59,17 +60,19 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
     private PermissionBlueprintCurator permissionCurator;
     private OwnerCurator ownerCurator;
     private PermissionFactory permissionFactory;
+    private PrincipalCache principalCache;
 
     @Inject
     public DefaultUserServiceAdapter(UserCurator userCurator, RoleCurator roleCurator,
         PermissionBlueprintCurator permissionCurator, OwnerCurator ownerCurator,
-        PermissionFactory permissionFactory) {
+        PermissionFactory permissionFactory, PrincipalCache principalCache) {
 
         this.userCurator = userCurator;
         this.roleCurator = roleCurator;
         this.permissionCurator = permissionCurator;
         this.ownerCurator = ownerCurator;
         this.permissionFactory = permissionFactory;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -181,7 +184,10 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
             }
         }
 
-        return this.userCurator.merge(entity);
+        User updated = this.userCurator.merge(entity);
+        this.principalCache.invalidateUser(username);
+
+        return updated;
     }
 
     /**
@@ -217,6 +223,7 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
         if (entity != null) {
             entity.clearRoles();
             this.userCurator.delete(entity);
+            this.principalCache.invalidateUser(username);
         }
     }
 
@@ -342,7 +349,12 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
             }
         }
 
-        return this.roleCurator.create(entity);
+        Role created = this.roleCurator.create(entity);
+
+        // Any number of users may have been added to the role
+        this.principalCache.invalidateUsers();
+
+        return created;
     }
 
     /**
@@ -437,7 +449,10 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
             }
         }
 
-        return this.roleCurator.merge(entity);
+        Role updated = this.roleCurator.merge(entity);
+        this.principalCache.invalidateUsers();
+
+        return updated;
     }
 
     /**
@@ -456,7 +471,10 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
         }
 
         roleEntity.addUser(userEntity);
-        return this.roleCurator.merge(roleEntity);
+        roleEntity = this.roleCurator.merge(roleEntity);
+        this.principalCache.invalidateUser(username);
+
+        return roleEntity;
     }
 
     /**
@@ -475,7 +493,10 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
         }
 
         roleEntity.removeUser(userEntity);
-        return this.roleCurator.merge(roleEntity);
+        roleEntity = this.roleCurator.merge(roleEntity);
+        this.principalCache.invalidateUser(username);
+
+        return roleEntity;
     }
 
     /**
@@ -503,8 +524,10 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
         }
 
         roleEntity.addPermission(pentity);
+        roleEntity = this.roleCurator.merge(roleEntity);
+        this.principalCache.invalidateUsers();
 
-        return this.roleCurator.merge(roleEntity);
+        return roleEntity;
     }
 
     /**
@@ -543,6 +566,7 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
             if (removed) {
                 roleEntity.setPermissions(permissions);
                 roleEntity = this.roleCurator.merge(roleEntity);
+                this.principalCache.invalidateUsers();
             }
         }
 
@@ -559,6 +583,7 @@ public class DefaultUserServiceAdapter implements UserServiceAdapter {
         if (entity != null) {
             entity.clearUsers();
             this.roleCurator.delete(entity);
+            this.principalCache.invalidateUsers();
         }
     }
 
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+/**
+ * The Histogram class records the distribution of observed values over a fixed set of buckets,
+ * along with their count and sum. Bucket counts are cumulative: each bucket counts the values less
+ * than or equal to its upper bound, with a final, implicit bucket counting all values.
+ * <p></p>
+ * Recording values is lock-free, and safe to be performed concurrently from any number of threads.
+ * Reads are not atomic with respect to concurrent writes, and may therefore be very slightly out
+ * of step with each other.
+ */
+public class Histogram {
+    private final double[] bounds;
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final DoubleAdder sum;
+
+    /**
+     * Creates a new histogram using the given bucket upper bounds.
+     *
+     * @param bounds
+     *  The upper bounds of the buckets, in ascending order
+     *
+     * @throws IllegalArgumentException
+     *  if the bounds are null, empty or not in ascending order
+     */
+    public Histogram(double... bounds) {
+        if (bounds == null || bounds.length == 0) {
+            throw new IllegalArgumentException("bounds is null or empty");
+        }
+
+        for (int i = 1; i < bounds.length; ++i) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("bounds are not in ascending order");
+            }
+        }
+
+        this.bounds = Arrays.copyOf(bounds, bounds.length);
+        this.buckets = new LongAdder[bounds.length];
+        this.count = new LongAdder();
+        this.sum = new DoubleAdder();
+
+        for (int i = 0; i < this.buckets.length; ++i) {
+            this.buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the given value.
+     *
+     * @param value
+     *  The value to record
+     */
+    public void record(double value) {
+        int index = Arrays.binarySearch(this.bounds, value);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        // Values beyond the last bound are only counted by the implicit bucket
+        if (index < this.buckets.length) {
+            this.buckets[index].increment();
+        }
+
+        this.count.increment();
+        this.sum.add(value);
+    }
+
+    /**
+     * Fetches a copy of the upper bounds of this histogram's buckets.
+     *
+     * @return
+     *  the upper bounds of the buckets
+     */
+    public double[] getBounds() {
+        return Arrays.copyOf(this.bounds, this.bounds.length);
+    }
+
+    /**
+     * Fetches the cumulative count of each of this histogram's buckets, in the order of their
+     * bounds. The count of the implicit, unbounded bucket is the value returned by getCount.
+     *
+     * @return
+     *  the cumulative count of each bucket
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[this.buckets.length];
+        long total = 0;
+
+        for (int i = 0; i < this.buckets.length; ++i) {
+            total += this.buckets[i].sum();
+            counts[i] = total;
+        }
+
+        return counts;
+    }
+
+    /**
+     * Fetches the number of values recorded by this histogram.
+     *
+     * @return
+     *  the number of values recorded
+     */
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    /**
+     * Fetches the sum of the values recorded by this histogram.
+     *
+     * @return
+     *  the sum of the values recorded
+     */
+    public double getSum() {
+        return this.sum.sum();
+    }
+
+    /**
+     * Fetches the mean of the values recorded by this histogram.
+     *
+     * @return
+     *  the mean of the values recorded, or zero if no values have been recorded
+     */
+    public double getMean() {
+        long count = this.getCount();
+        return count > 0 ? this.getSum() / count : 0;
+    }
+
+    /**
+     * Writes the header of a histogram metric family in the Prometheus text exposition format.
+     *
+     * @param builder
+     *  The builder to which to write the header
+     *
+     * @param name
+     *  The name of the metric family
+     *
+     * @param help
+     *  The help text of the metric family
+     */
+    public static void appendPrometheusHeader(StringBuilder builder, String name, String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n')
+            .append("# TYPE ").append(name).append(" histogram\n");
+    }
+
+    /**
+     * Writes the samples of this histogram in the Prometheus text exposition format. The labels,
+     * if any, must be terminated by a comma so the bucket label may be appended to them.
+     *
+     * @param builder
+     *  The builder to which to write the samples
+     *
+     * @param name
+     *  The name of the metric family
+     *
+     * @param labels
+     *  The comma-terminated labels of the samples, or an empty string
+     */
+    public void appendPrometheusText(StringBuilder builder, String name, String labels) {
+        // Fetch the count first so it's never less than the count of the last bucket
+        long count = this.getCount();
+        long[] counts = this.getBucketCounts();
+
+        for (int i = 0; i < this.bounds.length; ++i) {
+            builder.append(name).append("_bucket{").append(labels).append("le=\"").append(this.bounds[i])
+                .append("\"} ").append(Math.min(counts[i], count)).append('\n');
+        }
+
+        builder.append(name).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(count)
+            .append('\n');
+
+        String trimmed = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        builder.append(name).append("_sum").append(trimmed).append(' ').append(this.getSum()).append('\n');
+        builder.append(name).append("_count").append(trimmed).append(' ').append(count).append('\n');
+    }
+}
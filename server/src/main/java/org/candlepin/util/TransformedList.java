@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+
+
+
+/**
+ * The TransformedList class provides a read-only view of an existing List instance, applying
+ * element transformation as elements are accessed. Elements are transformed each time they are
+ * fetched, and the transformed elements are not retained by the view.
+ * <p></p>
+ * This is primarily intended for returning large collections of DTOs from resource methods. When
+ * such a list is serialized, each DTO is built, written and discarded in turn, rather than the
+ * entire DTO collection being held in memory alongside the entities from which it was built.
+ *
+ * @param <I>
+ *  The element type of the base List this instance is transforming
+ *
+ * @param <O>
+ *  The element type to be returned by this list's accessor methods
+ */
+public class TransformedList<I, O> extends AbstractList<O> implements RandomAccess {
+    private List<I> list;
+    private ElementTransformer<I, O> transformer;
+
+    /**
+     * Creates a new TransformedList from the given list and transformer instances.
+     *
+     * @param list
+     *  The list to transform
+     *
+     * @param transformer
+     *  The transformer to apply to the elements of the given list
+     *
+     * @throws IllegalArgumentException
+     *  if either the list or transformer are null
+     */
+    public TransformedList(List<I> list, ElementTransformer<I, O> transformer) {
+        if (list == null) {
+            throw new IllegalArgumentException("list is null");
+        }
+
+        if (transformer == null) {
+            throw new IllegalArgumentException("transformer is null");
+        }
+
+        this.list = list;
+        this.transformer = transformer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public O get(int index) {
+        return this.transformer.transform(this.list.get(index));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return this.list.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<O> iterator() {
+        return new TransformedIterator<I, O>(this.list.iterator(), this.transformer) {
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.audit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.candlepin.common.config.Configuration;
+import org.candlepin.controller.ActiveMQStatusMonitor;
+import org.candlepin.model.Content;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductContent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import javax.persistence.EntityManagerFactory;
+
+
+
+/**
+ * Test suite for the CacheInvalidationReceiver class
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CacheInvalidationReceiverTest {
+
+    @Mock private ClientSessionFactory clientSessionFactory;
+    @Mock private ClientSession clientSession;
+    @Mock private ClientConsumer clientConsumer;
+    @Mock private ClientMessage clientMessage;
+    @Mock private ActiveMQStatusMonitor monitor;
+    @Mock private Configuration config;
+    @Mock private EntityManagerFactory emf;
+    @Mock private SessionFactory sessionFactory;
+    @Mock private Cache cache;
+    @Spy private ActiveMQBuffer activeMQBuffer = ActiveMQBuffers.fixedBuffer(1000);
+
+    private ObjectMapper mapper = new ObjectMapper();
+    private CacheInvalidationReceiver receiver;
+
+    @Before
+    public void init() throws Exception {
+        when(clientMessage.getBodyBuffer()).thenReturn(activeMQBuffer);
+        when(clientSessionFactory.createSession(eq(false), eq(false), eq(0))).thenReturn(clientSession);
+        when(clientSession.createConsumer(anyString())).thenReturn(clientConsumer);
+        when(emf.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        EventSourceConnection connection = new EventSourceConnection(monitor, config) {
+            @Override
+            ClientSessionFactory getFactory() {
+                return clientSessionFactory;
+            }
+        };
+
+        this.receiver = new CacheInvalidationReceiver(connection, this.mapper, () -> this.emf);
+        this.receiver.connect();
+    }
+
+    private String invalidationJson(Class<?> type, String... ids) throws Exception {
+        return this.mapper.writeValueAsString(new CacheInvalidation(type.getName(), Arrays.asList(ids)));
+    }
+
+    @Test
+    public void shouldBindTemporaryQueueToInvalidationAddress() throws Exception {
+        verify(clientSession).createTemporaryQueue(eq(MessageAddress.CACHE_INVALIDATION_ADDRESS),
+            eq(RoutingType.MULTICAST), anyString());
+        verify(clientConsumer).setMessageHandler(eq(receiver));
+        verify(clientSession).start();
+    }
+
+    @Test
+    public void shouldEvictProducts() throws Exception {
+        doReturn(invalidationJson(Product.class, "p1", "p2")).when(activeMQBuffer).readString();
+        this.receiver.onMessage(clientMessage);
+
+        verify(clientMessage).acknowledge();
+        verify(cache).evictEntityData(Product.class, "p1");
+        verify(cache).evictEntityData(Product.class, "p2");
+        verify(cache).evictCollectionData(Product.class.getName() + ".attributes", "p1");
+        verify(cache).evictCollectionData(Product.class.getName() + ".productContent", "p2");
+        verify(cache).evictEntityData(ProductContent.class);
+        verify(cache, never()).evictEntityData(eq(Content.class), any(String.class));
+        verify(clientSession).commit();
+    }
+
+    @Test
+    public void shouldEvictContent() throws Exception {
+        doReturn(invalidationJson(Content.class, "c1")).when(activeMQBuffer).readString();
+        this.receiver.onMessage(clientMessage);
+
+        verify(cache).evictEntityData(Content.class, "c1");
+        verify(cache).evictCollectionData(Content.class.getName() + ".modifiedProductIds", "c1");
+        verify(cache, never()).evictEntityData(ProductContent.class);
+        verify(clientSession).commit();
+    }
+
+    @Test
+    public void shouldIgnoreUnsupportedTypes() throws Exception {
+        doReturn(invalidationJson(String.class, "s1")).when(activeMQBuffer).readString();
+        this.receiver.onMessage(clientMessage);
+
+        verifyZeroInteractions(cache);
+        verify(clientSession).commit();
+    }
+
+    @Test
+    public void malformedMessagesAreDiscarded() throws Exception {
+        doReturn("not json").when(activeMQBuffer).readString();
+        this.receiver.onMessage(clientMessage);
+
+        verifyZeroInteractions(cache);
+        verify(clientSession).commit();
+        verify(clientSession, never()).rollback();
+    }
+
+}
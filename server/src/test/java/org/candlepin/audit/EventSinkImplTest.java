@@ -20,6 +20,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -36,6 +37,7 @@ import org.candlepin.guice.PrincipalProvider;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.Owner;
 import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
 import org.candlepin.model.Rules;
 import org.candlepin.model.activationkeys.ActivationKey;
 import org.candlepin.test.TestUtil;
@@ -58,6 +60,8 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * EventSinkImplTest
@@ -254,4 +258,31 @@ public class EventSinkImplTest {
         verify(mockClientProducer).send(any(ClientMessage.class));
     }
 
+    @Test
+    public void cacheInvalidationShouldBeSentToInvalidationAddress() throws Exception {
+        ArgumentCaptor<ClientMessage> argumentCaptor = ArgumentCaptor.forClass(ClientMessage.class);
+
+        eventSinkImpl.queueCacheInvalidation(Product.class, Arrays.asList("uuid-1", "uuid-2"));
+        eventSinkImpl.sendEvents();
+
+        verify(mockClientProducer).send(eq(MessageAddress.CACHE_INVALIDATION_ADDRESS),
+            argumentCaptor.capture());
+        verify(mockClientSession).commit();
+
+        CacheInvalidation invalidation = new ObjectMapper().readValue(
+            argumentCaptor.getValue().getBodyBuffer().readString(), CacheInvalidation.class);
+
+        assertEquals(Product.class.getName(), invalidation.getType());
+        assertEquals(Arrays.asList("uuid-1", "uuid-2"), invalidation.getIds());
+    }
+
+    @Test
+    public void emptyCacheInvalidationShouldNotBeSent() throws Exception {
+        eventSinkImpl.queueCacheInvalidation(Product.class, Collections.<String>emptyList());
+        eventSinkImpl.sendEvents();
+
+        verify(mockClientProducer, never()).send(anyString(), any(ClientMessage.class));
+        verify(mockClientSession, never()).commit();
+    }
+
 }
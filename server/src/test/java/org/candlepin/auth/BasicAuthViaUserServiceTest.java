@@ -21,6 +21,7 @@ import static org.mockito.Mockito.when;
 import org.candlepin.auth.permissions.OwnerPermission;
 import org.candlepin.auth.permissions.PermissionFactory;
 import org.candlepin.common.exceptions.NotAuthorizedException;
+import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.model.Owner;
 import org.candlepin.model.User;
 import org.candlepin.service.UserServiceAdapter;
@@ -75,7 +76,8 @@ public class BasicAuthViaUserServiceTest {
         I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
         when(mockI18n.get()).thenReturn(i18n);
 
-        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory);
+        this.auth = new BasicAuth(userService, mockI18n, mockPermissionFactory,
+            new PrincipalCache(new CandlepinCommonTestConfig(), () -> null));
     }
 
     /**
@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.auth;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.candlepin.cache.CacheRegionStatus;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+
+
+/**
+ * PrincipalCacheTest
+ */
+public class PrincipalCacheTest {
+
+    private CandlepinCommonTestConfig config;
+    private PrincipalCache cache;
+
+    @Before
+    public void init() {
+        this.config = new CandlepinCommonTestConfig();
+        this.cache = new PrincipalCache(this.config, () -> null);
+    }
+
+    @Test
+    public void testConsumerHitsAndMissesAreCounted() {
+        assertNull(this.cache.getConsumer("uuid"));
+
+        this.cache.putConsumer("uuid", new PrincipalCache.ConsumerIdentity("consumer", "owner"));
+        PrincipalCache.ConsumerIdentity identity = this.cache.getConsumer("uuid");
+
+        assertNotNull(identity);
+        assertEquals("consumer", identity.getConsumerId());
+        assertEquals("owner", identity.getOwnerId());
+
+        List<CacheRegionStatus> stats = this.cache.getRegionStatistics();
+        assertEquals("principal.consumers", stats.get(0).getRegionName());
+        assertEquals(1, stats.get(0).getSize());
+        assertEquals(1, stats.get(0).getHitCount());
+        assertEquals(1, stats.get(0).getMissCount());
+        assertEquals("principal.users", stats.get(1).getRegionName());
+        assertEquals(0, stats.get(1).getSize());
+    }
+
+    @Test
+    public void testInvalidationDeferredUntilTransactionCompletes() {
+        EntityManager entityManager = mock(EntityManager.class);
+        Session session = mock(Session.class);
+        Transaction transaction = mock(Transaction.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+
+        this.cache = new PrincipalCache(this.config, () -> entityManager);
+        this.cache.putConsumer("uuid", new PrincipalCache.ConsumerIdentity("consumer", "owner"));
+        this.cache.putUser("user", new PrincipalCache.UserIdentity(false, null));
+
+        this.cache.invalidateConsumer("uuid");
+        this.cache.invalidateUser("user");
+
+        assertNotNull(this.cache.getConsumer("uuid"));
+        assertNotNull(this.cache.getUser("user"));
+
+        ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+        verify(transaction, times(2)).registerSynchronization(captor.capture());
+
+        for (Synchronization synchronization : captor.getAllValues()) {
+            synchronization.afterCompletion(Status.STATUS_COMMITTED);
+        }
+
+        assertNull(this.cache.getConsumer("uuid"));
+        assertNull(this.cache.getUser("user"));
+    }
+
+    @Test
+    public void testInvalidateOwnerRemovesOwnerConsumersAndUsers() {
+        this.cache.putConsumer("uuid1", new PrincipalCache.ConsumerIdentity("consumer1", "owner1"));
+        this.cache.putConsumer("uuid2", new PrincipalCache.ConsumerIdentity("consumer2", "owner2"));
+        this.cache.putUser("user", new PrincipalCache.UserIdentity(false, null));
+
+        this.cache.invalidateOwner("owner1");
+
+        assertNull(this.cache.getConsumer("uuid1"));
+        assertNotNull(this.cache.getConsumer("uuid2"));
+        assertNull(this.cache.getUser("user"));
+    }
+
+    @Test
+    public void testInvalidateUsers() {
+        this.cache.putUser("user1", new PrincipalCache.UserIdentity(true, null));
+        this.cache.putUser("user2", new PrincipalCache.UserIdentity(false, null));
+
+        this.cache.invalidateUser("user1");
+        assertNull(this.cache.getUser("user1"));
+        assertNotNull(this.cache.getUser("user2"));
+
+        this.cache.invalidateUsers();
+        assertNull(this.cache.getUser("user2"));
+    }
+
+    @Test
+    public void testDisabledCacheStoresNothing() {
+        this.config.setProperty(ConfigProperties.PRINCIPAL_CACHE_ENABLED, "false");
+        this.cache = new PrincipalCache(this.config, () -> null);
+
+        this.cache.putConsumer("uuid", new PrincipalCache.ConsumerIdentity("consumer", "owner"));
+        this.cache.putUser("user", new PrincipalCache.UserIdentity(true, null));
+
+        assertFalse(this.cache.isEnabled());
+        assertNull(this.cache.getConsumer("uuid"));
+        assertNull(this.cache.getUser("user"));
+    }
+}
@@ -18,6 +18,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerCurator;
 import org.candlepin.model.ConsumerType;
@@ -47,15 +48,18 @@ public class SSLAuthTest {
     @Mock private DeletedConsumerCurator deletedConsumerCurator;
     @Mock private Provider<I18n> i18nProvider;
 
+    private PrincipalCache principalCache;
     private SSLAuth auth;
 
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        this.principalCache = new PrincipalCache(new CandlepinCommonTestConfig(), () -> null);
         this.auth = new SSLAuth(this.consumerCurator,
             this.ownerCurator,
             this.deletedConsumerCurator,
-            i18nProvider);
+            i18nProvider,
+            this.principalCache);
     }
 
     /**
@@ -91,6 +95,38 @@ public class SSLAuthTest {
         assertEquals(expected, this.auth.getPrincipal(httpRequest));
     }
 
+    @Test
+    public void verifiedConsumerIsCached() throws Exception {
+        ConsumerType ctype = new ConsumerType(ConsumerTypeEnum.SYSTEM);
+        ctype.setId("test-ctype");
+
+        Owner owner = new Owner("test owner");
+        owner.setId(TestUtil.randomString());
+        Consumer consumer = new Consumer("machine_name", "test user", owner, ctype);
+        consumer.setId("consumer-id");
+        consumer.setUuid("453-44423-235");
+        ConsumerPrincipal expected = new ConsumerPrincipal(consumer, owner);
+
+        mockCert("CN=453-44423-235");
+        when(this.consumerCurator.getConsumer("453-44423-235")).thenReturn(consumer);
+        when(this.consumerCurator.get("consumer-id")).thenReturn(consumer);
+        when(this.ownerCurator.findOwnerById(owner.getId())).thenReturn(owner);
+
+        assertEquals(expected, this.auth.getPrincipal(httpRequest));
+        assertEquals(expected, this.auth.getPrincipal(httpRequest));
+
+        // The second request should reload the consumer by ID without repeating the checks
+        verify(this.deletedConsumerCurator, times(1)).countByConsumerUuid("453-44423-235");
+        verify(this.consumerCurator, times(1)).getConsumer("453-44423-235");
+        verify(this.consumerCurator, times(1)).get("consumer-id");
+
+        this.principalCache.invalidateConsumer("453-44423-235");
+        assertEquals(expected, this.auth.getPrincipal(httpRequest));
+
+        verify(this.deletedConsumerCurator, times(2)).countByConsumerUuid("453-44423-235");
+        verify(this.consumerCurator, times(2)).getConsumer("453-44423-235");
+    }
+
     /**
      * DN is set but does not contain UID
      *
@@ -19,13 +19,21 @@ import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
 import org.candlepin.auth.permissions.PermissionFactory;
+import org.candlepin.auth.permissions.PermissionFactory.PermissionType;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.model.Owner;
+import org.candlepin.model.PermissionBlueprint;
+import org.candlepin.model.Role;
 import org.candlepin.model.User;
 import org.candlepin.service.UserServiceAdapter;
+import org.candlepin.service.model.PermissionBlueprintInfo;
+import org.candlepin.service.model.UserInfo;
 
 import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.invocation.InvocationOnMock;
@@ -33,6 +41,7 @@ import org.mockito.stubbing.Answer;
 import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 
@@ -47,6 +56,7 @@ public class TrustedUserAuthTest {
     @Mock private UserServiceAdapter userService;
     @Mock private Provider<I18n> mockI18n;
     @Mock private PermissionFactory mockPermissionFactory;
+    private PrincipalCache principalCache;
     private TrustedUserAuth auth;
 
     private static final String USERNAME = "myusername";
@@ -67,7 +77,8 @@ public class TrustedUserAuthTest {
         I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
         when(mockI18n.get()).thenReturn(i18n);
 
-        this.auth = new TrustedUserAuth(userService, mockI18n, mockPermissionFactory);
+        this.principalCache = new PrincipalCache(new CandlepinCommonTestConfig(), () -> null);
+        this.auth = new TrustedUserAuth(userService, mockI18n, mockPermissionFactory, principalCache);
     }
 
     @Test
@@ -107,4 +118,58 @@ public class TrustedUserAuthTest {
         assertEquals(USERNAME, p.getUsername());
     }
 
+    @Test
+    public void permissionsLookupIsCachedUntilInvalidated() throws Exception {
+        headerMap.add(TrustedUserAuth.USER_HEADER, USERNAME);
+        headerMap.add(TrustedUserAuth.LOOKUP_PERMISSIONS_HEADER, "true");
+
+        User u = new User(USERNAME, "pass");
+        when(userService.findByLogin(eq(USERNAME))).thenReturn(u);
+
+        auth.getPrincipal(request);
+        UserPrincipal p = (UserPrincipal) auth.getPrincipal(request);
+
+        assertEquals(USERNAME, p.getUsername());
+        verify(userService, times(1)).findByLogin(eq(USERNAME));
+        verify(mockPermissionFactory, times(1)).createUserPermissions(eq(u));
+        assertEquals(1, principalCache.getRegionStatistics().get(1).getHitCount());
+
+        principalCache.invalidateUser(USERNAME);
+        auth.getPrincipal(request);
+
+        verify(userService, times(2)).findByLogin(eq(USERNAME));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cachedPermissionsAreRebuiltFromOwnerKeys() throws Exception {
+        headerMap.add(TrustedUserAuth.USER_HEADER, USERNAME);
+        headerMap.add(TrustedUserAuth.LOOKUP_PERMISSIONS_HEADER, "true");
+
+        Role role = new Role("role");
+        role.addPermission(new PermissionBlueprint(PermissionType.OWNER, new Owner("owner"), Access.ALL));
+        User u = new User(USERNAME, "pass");
+        u.addRole(role);
+        when(userService.findByLogin(eq(USERNAME))).thenReturn(u);
+
+        auth.getPrincipal(request);
+        auth.getPrincipal(request);
+
+        verify(userService, times(1)).findByLogin(eq(USERNAME));
+
+        ArgumentCaptor<UserInfo> userCaptor = ArgumentCaptor.forClass(UserInfo.class);
+        ArgumentCaptor<Collection> blueprintCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(mockPermissionFactory).createPermissions(userCaptor.capture(), blueprintCaptor.capture());
+
+        assertEquals(USERNAME, userCaptor.getValue().getUsername());
+        assertEquals(1, blueprintCaptor.getValue().size());
+
+        PermissionBlueprintInfo blueprint =
+            (PermissionBlueprintInfo) blueprintCaptor.getValue().iterator().next();
+        assertFalse(blueprint.getOwner() instanceof Owner);
+        assertEquals("owner", blueprint.getOwner().getKey());
+        assertEquals(PermissionType.OWNER.name(), blueprint.getTypeName());
+        assertEquals(Access.ALL.name(), blueprint.getAccessLevel());
+    }
+
 }
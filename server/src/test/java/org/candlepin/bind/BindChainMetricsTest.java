@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.bind;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Test suite for the BindChainMetrics class
+ */
+public class BindChainMetricsTest {
+
+    private BindChainMetrics metrics;
+
+    @Before
+    public void init() {
+        this.metrics = new BindChainMetrics();
+    }
+
+    @Test
+    public void testOperationTimesRecordedPerPhase() {
+        metrics.recordPreProcess("HandleEntitlementsOp", TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordPreProcess("HandleEntitlementsOp", TimeUnit.MILLISECONDS.toNanos(4));
+        metrics.recordExecute("HandleEntitlementsOp", TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(3.0, metrics.getMeanPreProcessMillis().get("HandleEntitlementsOp"), 0.0001);
+        assertEquals(10.0, metrics.getMeanExecuteMillis().get("HandleEntitlementsOp"), 0.0001);
+        assertNull(metrics.getMeanExecuteMillis().get("ComplianceOp"));
+    }
+
+    @Test
+    public void testBindLockAndJsTimesRecorded() {
+        metrics.recordBind(TimeUnit.MILLISECONDS.toNanos(40), TimeUnit.MILLISECONDS.toNanos(15));
+        metrics.recordBind(TimeUnit.MILLISECONDS.toNanos(20), TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordLock(TimeUnit.MILLISECONDS.toNanos(6), 3);
+
+        assertEquals(2, metrics.getBindCount());
+        assertEquals(30.0, metrics.getMeanBindMillis(), 0.0001);
+        assertEquals(10.0, metrics.getMeanJsMillis(), 0.0001);
+        assertEquals(6.0, metrics.getMeanLockWaitMillis(), 0.0001);
+        assertEquals(3.0, metrics.getMeanRowsLocked(), 0.0001);
+    }
+
+    @Test
+    public void testPrometheusText() {
+        metrics.recordExecute("ComplianceOp", TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordPhase(BindChainMetrics.PHASE_EXECUTE, TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordLock(TimeUnit.MILLISECONDS.toNanos(1), 2);
+
+        String text = metrics.toPrometheusText();
+
+        assertThat(text, containsString("# TYPE candlepin_bind_operation_seconds histogram\n"));
+        assertThat(text, containsString(
+            "candlepin_bind_operation_seconds_bucket{operation=\"ComplianceOp\",phase=\"execute\"," +
+            "le=\"0.0025\"} 0\n"));
+        assertThat(text, containsString(
+            "candlepin_bind_operation_seconds_bucket{operation=\"ComplianceOp\",phase=\"execute\"," +
+            "le=\"0.005\"} 1\n"));
+        assertThat(text, containsString(
+            "candlepin_bind_operation_seconds_count{operation=\"ComplianceOp\",phase=\"execute\"} 1\n"));
+        assertThat(text, containsString("candlepin_bind_phase_seconds_count{phase=\"execute\"} 1\n"));
+        assertThat(text, containsString("candlepin_bind_rows_locked_bucket{le=\"2.0\"} 1\n"));
+        assertThat(text, containsString("candlepin_bind_rows_locked_bucket{le=\"+Inf\"} 1\n"));
+        assertThat(text, containsString("candlepin_bind_rows_locked_sum 2.0\n"));
+        assertThat(text, containsString("candlepin_bind_seconds_count 0\n"));
+    }
+}
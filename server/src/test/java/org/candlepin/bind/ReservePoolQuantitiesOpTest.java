@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.bind;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.candlepin.model.Pool;
+import org.candlepin.model.PoolCurator;
+import org.candlepin.model.PoolQuantity;
+import org.candlepin.policy.EntitlementRefusedException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+
+/**
+ * Test suite for the ReservePoolQuantitiesOp class
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ReservePoolQuantitiesOpTest {
+
+    @Mock private PoolCurator poolCurator;
+    @Mock private BindContext context;
+
+    private ReservePoolQuantitiesOp op;
+    private Map<String, PoolQuantity> poolQuantities;
+
+    @Before
+    public void init() {
+        this.op = new ReservePoolQuantitiesOp(this.poolCurator);
+        this.poolQuantities = new HashMap<>();
+
+        when(this.context.getPoolQuantities()).thenReturn(this.poolQuantities);
+    }
+
+    private void addPool(String poolId, int quantity, boolean escrowed) {
+        Pool pool = new Pool();
+        pool.setId(poolId);
+
+        this.poolQuantities.put(poolId, new PoolQuantity(pool, quantity));
+        when(this.context.isEscrowed(poolId)).thenReturn(escrowed);
+    }
+
+    @Test
+    public void testReservesEscrowedPoolsInPoolIdOrder() {
+        this.addPool("pool-c", 3, true);
+        this.addPool("pool-a", 1, true);
+        this.addPool("pool-b", 2, false);
+        when(this.poolCurator.reserveQuantity(anyString(), anyLong())).thenReturn(true);
+
+        assertTrue(this.op.execute(this.context));
+
+        InOrder order = inOrder(this.poolCurator);
+        order.verify(this.poolCurator).reserveQuantity("pool-a", 1);
+        order.verify(this.poolCurator).reserveQuantity("pool-c", 3);
+        verify(this.poolCurator, never()).reserveQuantity(eq("pool-b"), anyLong());
+        verify(this.context, never()).setException(any(EntitlementRefusedException.class),
+            any(StackTraceElement[].class));
+    }
+
+    @Test
+    public void testRefusesAndReleasesReservationsWhenPoolIsExhausted() {
+        this.addPool("pool-a", 1, true);
+        this.addPool("pool-b", 2, true);
+        this.addPool("pool-c", 3, true);
+        when(this.poolCurator.reserveQuantity("pool-a", 1)).thenReturn(true);
+        when(this.poolCurator.reserveQuantity("pool-b", 2)).thenReturn(false);
+
+        assertFalse(this.op.execute(this.context));
+
+        verify(this.poolCurator).releaseQuantity("pool-a", 1);
+        verify(this.poolCurator, never()).releaseQuantity(eq("pool-b"), anyLong());
+        verify(this.poolCurator, never()).reserveQuantity(eq("pool-c"), anyLong());
+
+        ArgumentCaptor<EntitlementRefusedException> captor =
+            ArgumentCaptor.forClass(EntitlementRefusedException.class);
+        verify(this.context).setException(captor.capture(), any(StackTraceElement[].class));
+
+        assertEquals("rulefailed.no.entitlements.available",
+            captor.getValue().getResults().get("pool-b").getErrors().get(0).getResourceKey());
+    }
+
+}
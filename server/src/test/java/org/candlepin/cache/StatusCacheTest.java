@@ -22,6 +22,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by mstead on 11/04/17.
@@ -77,4 +79,104 @@ public class StatusCacheTest {
         StatusCache cache2 = new StatusCache();
         assertEquals(cache1.getStatus(), cache2.getStatus());
     }
+
+    @Test
+    public void expiredStatusDoesNotDiscardNewerStatus() {
+        StatusCache cache = new StatusCache();
+
+        StatusDTO expired = new StatusDTO()
+            .setResult(true)
+            .setTimeUTC(new Date(System.currentTimeMillis() - 10000L));
+
+        cache.setStatus(expired);
+        assertNull(cache.getStatus());
+
+        StatusDTO status = new StatusDTO()
+            .setResult(true)
+            .setTimeUTC(new Date());
+
+        cache.setStatus(status);
+        assertEquals(status, cache.getStatus());
+
+        cache.clear();
+        assertNull(cache.getStatus());
+    }
+
+    @Test
+    public void expiredSnapshotRemainsAvailable() {
+        StatusCache cache = new StatusCache();
+
+        StatusDTO expired = new StatusDTO()
+            .setResult(true)
+            .setTimeUTC(new Date(System.currentTimeMillis() - 10000L));
+
+        cache.setStatus(expired, new byte[] { '{', '}' });
+        assertNull(cache.getStatus());
+        assertTrue(cache.getSnapshot().isExpired());
+        assertEquals(expired, cache.getSnapshot().getStatus());
+        assertNotNull(cache.getSnapshot().getEtag());
+    }
+
+    @Test
+    public void onlyOneRefreshRunsAtATime() throws Exception {
+        StatusCache cache = new StatusCache();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        assertTrue(cache.refresh(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertFalse(cache.refresh(new Runnable() {
+            @Override
+            public void run() {
+                fail("A second refresh should not have been queued");
+            }
+        }));
+
+        release.countDown();
+    }
+
+    @Test
+    public void statusBuiltBeforeClearIsNotCached() {
+        StatusCache cache = new StatusCache();
+        long generation = cache.getGeneration();
+
+        cache.clear();
+
+        StatusDTO status = new StatusDTO()
+            .setResult(true)
+            .setTimeUTC(new Date());
+
+        StatusCache.Snapshot snapshot = cache.setStatus(status, new byte[] { '{', '}' }, generation);
+        assertEquals(status, snapshot.getStatus());
+        assertNull(cache.getSnapshot());
+
+        cache.setStatus(status, new byte[] { '{', '}' }, cache.getGeneration());
+        assertEquals(status, cache.getStatus());
+    }
+
+    @Test
+    public void refreshAfterShutdownIsDropped() {
+        StatusCache cache = new StatusCache();
+        cache.shutdown();
+
+        assertFalse(cache.refresh(new Runnable() {
+            @Override
+            public void run() {
+                fail("No refresh should run once the cache has been shut down");
+            }
+        }));
+    }
 }
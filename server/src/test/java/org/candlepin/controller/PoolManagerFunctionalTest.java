@@ -436,6 +436,186 @@ public class PoolManagerFunctionalTest extends DatabaseTestFixture {
         assertEquals(1, pools.size());
     }
 
+    @Test
+    public void testRefreshPoolsInBlocksResumesFromCheckpoint() {
+        List<SubscriptionDTO> subscriptions = new LinkedList<>();
+        ImportSubscriptionServiceAdapter subAdapter = new ImportSubscriptionServiceAdapter(subscriptions);
+
+        for (int i = 0; i < 3; ++i) {
+            Product product = TestUtil.createProduct("block product " + i, "Block Product " + i);
+            productCurator.create(product);
+
+            SubscriptionDTO subscription = new SubscriptionDTO();
+            subscription.setId("block-sub-" + i);
+            subscription.setOwner(this.modelTranslator.translate(o, OwnerDTO.class));
+            subscription.setProduct(this.modelTranslator.translate(product, ProductDTO.class));
+            subscription.setQuantity(5L);
+            subscription.setStartDate(new Date());
+            subscription.setEndDate(TestUtil.createDate(3020, 12, 12));
+            subscription.setLastModified(new Date());
+
+            subscriptions.add(subscription);
+        }
+
+        // Pretend a previous attempt committed the block containing the first subscription
+        List<String> recorded = new LinkedList<>();
+        Refresher.Checkpoint checkpoint = new Refresher.Checkpoint() {
+            @Override
+            public String getLastSubscriptionId() {
+                return "block-sub-0";
+            }
+
+            @Override
+            public void setLastSubscriptionId(String subscriptionId) {
+                recorded.add(subscriptionId);
+            }
+        };
+
+        poolManager.getRefresher(subAdapter, ownerAdapter)
+            .setBlockSize(1)
+            .setCheckpoint(checkpoint)
+            .add(o)
+            .run();
+
+        assertEquals(0, poolCurator.getPoolsBySubscriptionId("block-sub-0").list().size());
+        assertEquals(1, poolCurator.getPoolsBySubscriptionId("block-sub-1").list().size());
+        assertEquals(1, poolCurator.getPoolsBySubscriptionId("block-sub-2").list().size());
+        assertEquals(Arrays.asList("block-sub-1", "block-sub-2", null), recorded);
+    }
+
+    @Test
+    public void testRefreshPoolsInBlocksSendsEventsOfCommittedBlocks() {
+        List<SubscriptionDTO> subscriptions = new LinkedList<>();
+        ImportSubscriptionServiceAdapter subAdapter = new ImportSubscriptionServiceAdapter(subscriptions);
+
+        for (int i = 0; i < 2; ++i) {
+            Product product = TestUtil.createProduct("event product " + i, "Event Product " + i);
+            productCurator.create(product);
+
+            SubscriptionDTO subscription = new SubscriptionDTO();
+            subscription.setId("event-sub-" + i);
+            subscription.setOwner(this.modelTranslator.translate(o, OwnerDTO.class));
+            subscription.setProduct(this.modelTranslator.translate(product, ProductDTO.class));
+            subscription.setQuantity(5L);
+            subscription.setStartDate(new Date());
+            subscription.setEndDate(TestUtil.createDate(3020, 12, 12));
+            subscription.setLastModified(new Date());
+
+            subscriptions.add(subscription);
+        }
+
+        // Fail the second block, after the first has been committed
+        Refresher.Checkpoint checkpoint = new Refresher.Checkpoint() {
+            @Override
+            public String getLastSubscriptionId() {
+                return null;
+            }
+
+            @Override
+            public void setLastSubscriptionId(String subscriptionId) {
+                if ("event-sub-1".equals(subscriptionId)) {
+                    throw new RuntimeException("block failed");
+                }
+            }
+        };
+
+        try {
+            poolManager.getRefresher(subAdapter, ownerAdapter)
+                .setBlockSize(1)
+                .setCheckpoint(checkpoint)
+                .add(o)
+                .run();
+
+            fail("Expected the refresh to fail");
+        }
+        catch (RuntimeException e) {
+            assertEquals("block failed", e.getMessage());
+        }
+
+        // The events of the first block must not wait on the job succeeding
+        verify(eventSink, times(1)).sendEvents();
+    }
+
+    @Test
+    public void testRefreshPoolsInBlocksResumeUpdatesPoolsOnOutdatedProducts() {
+        List<SubscriptionDTO> subscriptions = new LinkedList<>();
+        ImportSubscriptionServiceAdapter subAdapter = new ImportSubscriptionServiceAdapter(subscriptions);
+
+        for (int i = 0; i < 2; ++i) {
+            Product product = TestUtil.createProduct("resume product " + i, "Resume Product " + i);
+            productCurator.create(product);
+
+            SubscriptionDTO subscription = new SubscriptionDTO();
+            subscription.setId("resume-sub-" + i);
+            subscription.setOwner(this.modelTranslator.translate(o, OwnerDTO.class));
+            subscription.setProduct(this.modelTranslator.translate(product, ProductDTO.class));
+            subscription.setQuantity(5L);
+            subscription.setStartDate(new Date());
+            subscription.setEndDate(TestUtil.createDate(3020, 12, 12));
+            subscription.setLastModified(new Date());
+
+            subscriptions.add(subscription);
+        }
+
+        poolManager.getRefresher(subAdapter, ownerAdapter).setBlockSize(1).add(o).run();
+
+        for (SubscriptionDTO subscription : subscriptions) {
+            subscription.getProduct().setName("Renamed " + subscription.getProduct().getName());
+        }
+
+        // The first attempt imports the renamed products, but fails after its first block
+        Refresher.Checkpoint failing = new Refresher.Checkpoint() {
+            @Override
+            public String getLastSubscriptionId() {
+                return null;
+            }
+
+            @Override
+            public void setLastSubscriptionId(String subscriptionId) {
+                throw new RuntimeException("block failed");
+            }
+        };
+
+        try {
+            poolManager.getRefresher(subAdapter, ownerAdapter)
+                .setBlockSize(1)
+                .setCheckpoint(failing)
+                .add(o)
+                .run();
+
+            fail("Expected the refresh to fail");
+        }
+        catch (RuntimeException e) {
+            assertEquals("block failed", e.getMessage());
+        }
+
+        // The resumed attempt sees no updated products, but must still update the remaining pool
+        Refresher.Checkpoint resumed = new Refresher.Checkpoint() {
+            @Override
+            public String getLastSubscriptionId() {
+                return "resume-sub-0";
+            }
+
+            @Override
+            public void setLastSubscriptionId(String subscriptionId) {
+                // Intentionally left empty
+            }
+        };
+
+        poolManager.getRefresher(subAdapter, ownerAdapter)
+            .setBlockSize(1)
+            .setCheckpoint(resumed)
+            .add(o)
+            .run();
+
+        List<Pool> pools = poolCurator.getPoolsBySubscriptionId("resume-sub-1").list();
+        assertEquals(1, pools.size());
+
+        Product current = this.ownerProductCurator.getProductById(o, "resume product 1");
+        assertEquals("Renamed Resume Product 1", current.getName());
+        assertEquals(current.getUuid(), pools.get(0).getProduct().getUuid());
+    }
+
     @Test
     public void testListAllForConsumerIncludesWarnings() {
         Page<List<Pool>> results = poolManager.listAvailableEntitlementPools(
@@ -455,6 +635,32 @@ public class PoolManagerFunctionalTest extends DatabaseTestFixture {
         assertEquals(5, results.getPageData().size());
     }
 
+    @Test
+    public void testListUncountedPageForConsumerMarksNextPage() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(1);
+        pageRequest.setPerPage(3);
+        pageRequest.setCountMode(PageRequest.CountMode.NONE);
+
+        Page<List<Pool>> results = poolManager.listAvailableEntitlementPools(
+            parentSystem, null, parentSystem.getOwnerId(), null, null, null, true,
+            new PoolFilterBuilder(), pageRequest, false, false, null);
+
+        assertNull(results.getMaxRecords());
+        assertEquals(3, results.getPageData().size());
+        assertNotNull(results.getContinuation());
+
+        pageRequest.setPage(2);
+        results = poolManager.listAvailableEntitlementPools(
+            parentSystem, null, parentSystem.getOwnerId(), null, null, null, true,
+            new PoolFilterBuilder(), pageRequest, false, false, null);
+
+        // The fourth pool is the last one, so no next page is marked
+        assertNull(results.getMaxRecords());
+        assertEquals(1, results.getPageData().size());
+        assertNull(results.getContinuation());
+    }
+
     @Test
     public void testListAllForConsumerExcludesErrors() {
         Product p = TestUtil.createProduct("test-product", "Test Product");
@@ -40,6 +40,7 @@ import org.candlepin.audit.EventSink;
 import org.candlepin.auth.UserPrincipal;
 import org.candlepin.bind.BindChain;
 import org.candlepin.bind.BindChainFactory;
+import org.candlepin.bind.BindChainMetrics;
 import org.candlepin.bind.BindContext;
 import org.candlepin.bind.BindContextFactory;
 import org.candlepin.bind.CheckBonusPoolQuantitiesOp;
@@ -50,6 +51,7 @@ import org.candlepin.bind.HandleEntitlementsOp;
 import org.candlepin.bind.PostBindBonusPoolsOp;
 import org.candlepin.bind.PreEntitlementRulesCheckOp;
 import org.candlepin.bind.PreEntitlementRulesCheckOpFactory;
+import org.candlepin.bind.ReservePoolQuantitiesOp;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
@@ -109,6 +111,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -278,6 +281,8 @@ public class PoolManagerTest {
         final HandleCertificatesOp certificatesOp = new HandleCertificatesOp(mockECGenerator, certCuratorMock,
             entitlementCurator);
         final ComplianceOp complianceOp = new ComplianceOp(complianceRules, systemPurposeComplianceRules);
+        final ReservePoolQuantitiesOp reservePoolQuantitiesOp = new ReservePoolQuantitiesOp(mockPoolCurator);
+        final BindChainMetrics bindChainMetrics = new BindChainMetrics();
 
         when(mockPreEntitlementRulesCheckFactory.create(
             any(CallerType.class)))
@@ -304,6 +309,7 @@ public class PoolManagerTest {
                         consumerTypeCuratorMock,
                         mockOwnerCurator,
                         i18n,
+                        mockConfig,
                         consumer,
                         pQ);
                 }
@@ -327,6 +333,8 @@ public class PoolManagerTest {
                         checkBonusPoolQuantitiesOp,
                         certificatesOp,
                         complianceOp,
+                        reservePoolQuantitiesOp,
+                        bindChainMetrics,
                         consumer,
                         pQ,
                         type);
@@ -1009,6 +1017,66 @@ public class PoolManagerTest {
         TestUtil.assertPoolsAreEqual(TestUtil.copyFromSub(s), argPool.getValue());
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void refreshPoolsInBulkUpdatesAllSubscriptionsTogether() {
+        when(mockConfig.getBoolean(eq(ConfigProperties.REFRESH_POOLS_BULK), anyBoolean())).thenReturn(true);
+
+        List<Subscription> subscriptions = new ArrayList<>();
+        List<Pool> pools = new ArrayList<>();
+        List<PoolUpdate> updates = new ArrayList<>();
+
+        Owner owner = getOwner();
+        Product product = TestUtil.createProduct();
+        product.setLocked(true);
+
+        for (int i = 0; i < 3; ++i) {
+            Subscription sub = TestUtil.createSubscription(owner, product);
+            sub.setId("sub-" + i);
+            subscriptions.add(sub);
+
+            Pool pool = TestUtil.createPool(product);
+            pool.setId("pool-" + i);
+            pool.setSourceSubscription(new SourceSubscription(sub.getId(), "master"));
+            pool.setOwner(owner);
+            pools.add(pool);
+
+            PoolUpdate update = new PoolUpdate(pool);
+            update.setDatesChanged(true);
+            updates.add(update);
+
+            when(poolRulesMock.updatePools(any(Pool.class), eq(Arrays.asList(pool)), any(Long.class),
+                any(Map.class))).thenReturn(new ArrayList<>(Arrays.asList(update)));
+        }
+
+        this.mockSubscriptions(owner, subscriptions);
+        mockPoolsList(pools);
+
+        when(mockOwnerCurator.getByKey(owner.getKey())).thenReturn(owner);
+        this.mockProducts(owner, product);
+        this.mockProductImport(owner, product);
+        this.mockContentImport(owner, new Content[] {});
+        when(mockPoolCurator.getExistingPoolIdsByIds(any(Iterable.class)))
+            .thenReturn(new HashSet<>(Arrays.asList("pool-0", "pool-1", "pool-2")));
+        when(mockPoolCurator.retrieveOrderedEntitlementIdsOf(anyCollection()))
+            .thenReturn(Arrays.asList("ent-0", "ent-1"));
+
+        this.manager.getRefresher(mockSubAdapter, mockOwnerAdapter).add(owner).run();
+
+        verify(mockPoolCurator, never()).getPoolsBySubscriptionId(anyString());
+        verify(mockPoolCurator, times(1)).getPoolsBySubscriptionIds(anyCollection());
+        verify(poolRulesMock, times(3)).updatePools(any(Pool.class), anyList(), any(Long.class),
+            any(Map.class));
+
+        ArgumentCaptor<Collection> regenPools = ArgumentCaptor.forClass(Collection.class);
+        verify(mockPoolCurator, times(1)).retrieveOrderedEntitlementIdsOf(regenPools.capture());
+        assertEquals(new HashSet<>(pools), new HashSet<>(regenPools.getValue()));
+
+        for (Pool pool : pools) {
+            verify(mockPoolCurator).merge(pool);
+        }
+    }
+
     /**
      * @return
      */
@@ -1174,6 +1242,84 @@ public class PoolManagerTest {
         assertEquals(e.size(), 1);
     }
 
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Pool mockEscrowBind(long minEscrowQuantity) {
+        Product product = TestUtil.createProduct();
+        Pool pool = TestUtil.createPool(owner, product, 1000);
+        pool.setId("escrow-pool");
+        pool.setConsumed(0L);
+
+        when(mockConfig.getLong(eq(ConfigProperties.BIND_ESCROW_MIN_POOL_QUANTITY), anyLong()))
+            .thenReturn(minEscrowQuantity);
+
+        CandlepinQuery mockQuery = mock(CandlepinQuery.class);
+        when(mockPoolCurator.listAllByIds(anySetOf(String.class))).thenReturn(mockQuery);
+        when(mockQuery.iterator()).thenReturn(Arrays.asList(pool).listIterator());
+        when(mockPoolCurator.lockAndLoadByIds(anyCollection())).thenReturn(Arrays.asList(pool));
+
+        ValidationResult result = new ValidationResult();
+        when(enforcerMock.preEntitlement(any(Consumer.class), anyCollection(), any(CallerType.class)))
+            .thenReturn(Collections.singletonMap(pool.getId(), result));
+        when(enforcerMock.postEntitlement(eq(manager), any(Consumer.class), any(Owner.class), anyMap(),
+            anyList(), eq(false), anyMap())).thenReturn(new PoolOperationCallback());
+        when(mockECGenerator.generateEntitlementCertificates(any(Consumer.class), any(Map.class),
+            any(Map.class), any(Map.class), eq(false)))
+            .thenReturn(Collections.singletonMap(pool.getId(), new EntitlementCertificate()));
+
+        return pool;
+    }
+
+    @Test
+    public void testBindReservesQuantityOfEscrowedPoolWithoutLocking() throws Exception {
+        Pool pool = this.mockEscrowBind(100);
+        when(mockPoolCurator.reserveQuantity(pool.getId(), 5)).thenReturn(true);
+
+        ConsumerType ctype = this.mockConsumerType(TestUtil.createConsumerType());
+        Consumer consumer = TestUtil.createConsumer(ctype, owner);
+
+        List<Entitlement> entitlements = manager.entitleByPools(consumer,
+            new HashMap<>(Collections.singletonMap(pool.getId(), 5)));
+
+        assertEquals(1, entitlements.size());
+        assertEquals(Long.valueOf(0), pool.getConsumed());
+        verify(mockPoolCurator).reserveQuantity(pool.getId(), 5);
+        verify(mockPoolCurator, never()).lockAndLoadByIds(anyCollection());
+    }
+
+    @Test
+    public void testBindRefusedWhenEscrowedQuantityCannotBeReserved() throws Exception {
+        Pool pool = this.mockEscrowBind(100);
+        when(mockPoolCurator.reserveQuantity(pool.getId(), 5)).thenReturn(false);
+
+        ConsumerType ctype = this.mockConsumerType(TestUtil.createConsumerType());
+        Consumer consumer = TestUtil.createConsumer(ctype, owner);
+
+        try {
+            manager.entitleByPools(consumer, new HashMap<>(Collections.singletonMap(pool.getId(), 5)));
+            fail("Expected EntitlementRefusedException");
+        }
+        catch (EntitlementRefusedException e) {
+            assertEquals("rulefailed.no.entitlements.available",
+                e.getResults().get(pool.getId()).getErrors().get(0).getResourceKey());
+        }
+
+        verify(entitlementCurator, never()).saveAll(anyCollection(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testBindLocksPoolsBelowEscrowThreshold() throws Exception {
+        Pool pool = this.mockEscrowBind(5000);
+
+        ConsumerType ctype = this.mockConsumerType(TestUtil.createConsumerType());
+        Consumer consumer = TestUtil.createConsumer(ctype, owner);
+
+        manager.entitleByPools(consumer, new HashMap<>(Collections.singletonMap(pool.getId(), 5)));
+
+        assertEquals(Long.valueOf(5), pool.getConsumed());
+        verify(mockPoolCurator).lockAndLoadByIds(anyCollection());
+        verify(mockPoolCurator, never()).reserveQuantity(anyString(), anyLong());
+    }
+
     @Test
     public void testEntitlebyProductRetry() throws Exception {
         Product product = TestUtil.createProduct();
@@ -1539,12 +1685,18 @@ public class PoolManagerTest {
             }
         }
 
+        List<Pool> subPools = new LinkedList<>();
         for (String subid : subToPools.keySet()) {
             CandlepinQuery cqmock = mock(CandlepinQuery.class);
             when(cqmock.list()).thenReturn(subToPools.get(subid));
             when(mockPoolCurator.getPoolsBySubscriptionId(eq(subid))).thenReturn(cqmock);
+            subPools.addAll(subToPools.get(subid));
         }
 
+        CandlepinQuery subPoolsQuery = mock(CandlepinQuery.class);
+        when(subPoolsQuery.list()).thenReturn(subPools);
+        when(mockPoolCurator.getPoolsBySubscriptionIds(anyCollection())).thenReturn(subPoolsQuery);
+
         when(mockPoolCurator.getOwnersFloatingPools(any(Owner.class))).thenReturn(floating);
         when(mockPoolCurator.getPoolsFromBadSubs(any(Owner.class), any(Collection.class)))
             .thenAnswer(new Answer<List<Pool>>() {
@@ -2153,6 +2305,31 @@ public class PoolManagerTest {
         };
     }
 
+    @Test
+    public void testRegenerateDirtyEntitlementsLocksConsumer() {
+        Consumer consumer = TestUtil.createConsumer(owner);
+        Entitlement dirty = new Entitlement();
+        dirty.setDirty(true);
+        when(entitlementCurator.listDirty(eq(consumer))).thenReturn(Arrays.asList(dirty));
+
+        manager.regenerateDirtyEntitlements(consumer);
+
+        InOrder order = inOrder(consumerCuratorMock, mockECGenerator);
+        order.verify(consumerCuratorMock).lock(eq(consumer));
+        order.verify(mockECGenerator).regenerateCertificatesOf(eq(Arrays.asList(dirty)), eq(false));
+    }
+
+    @Test
+    public void testRegenerateDirtyEntitlementsSkipsLockWithoutDirtyEntitlements() {
+        Consumer consumer = TestUtil.createConsumer(owner);
+        when(entitlementCurator.listDirty(eq(consumer))).thenReturn(new ArrayList<>());
+
+        manager.regenerateDirtyEntitlements(consumer);
+
+        verify(consumerCuratorMock, never()).lock(any(Consumer.class));
+        verify(mockECGenerator, never()).regenerateCertificatesOf(anyCollection(), anyBoolean());
+    }
+
     @Test
     public void testIsManagedWithNullPool() {
         assertFalse(manager.isManaged(null));
@@ -72,6 +72,33 @@ public class RefresherTest {
         verify(poolManager, times(1)).refreshPoolsWithRegeneration(eq(subAdapter), eq(owner), eq(false));
     }
 
+    @Test
+    public void testOwnerRefreshedInBlocksWithCheckpoint() {
+        Owner owner = TestUtil.createOwner();
+        Refresher.Checkpoint checkpoint = mock(Refresher.Checkpoint.class);
+
+        refresher.setBlockSize(10).setCheckpoint(checkpoint).add(owner).run();
+
+        verify(poolManager, times(1)).refreshPoolsInBlocks(eq(subAdapter), eq(owner), eq(false), eq(10),
+            eq(checkpoint));
+        verify(poolManager, never()).refreshPoolsWithRegeneration(any(SubscriptionServiceAdapter.class),
+            any(Owner.class), anyBoolean());
+    }
+
+    @Test
+    public void testCheckpointIgnoredForMultipleOwners() {
+        Owner owner1 = TestUtil.createOwner();
+        Owner owner2 = TestUtil.createOwner();
+        Refresher.Checkpoint checkpoint = mock(Refresher.Checkpoint.class);
+
+        refresher.setBlockSize(10).setCheckpoint(checkpoint).add(owner1).add(owner2).run();
+
+        verify(poolManager, times(1)).refreshPoolsInBlocks(eq(subAdapter), eq(owner1), eq(false), eq(10),
+            isNull(Refresher.Checkpoint.class));
+        verify(poolManager, times(1)).refreshPoolsInBlocks(eq(subAdapter), eq(owner2), eq(false), eq(10),
+            isNull(Refresher.Checkpoint.class));
+    }
+
     @Test
     public void testRefreshDateSet() {
         Owner owner = TestUtil.createOwner();
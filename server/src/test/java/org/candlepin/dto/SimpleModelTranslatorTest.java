@@ -322,4 +322,34 @@ public class SimpleModelTranslatorTest {
         assertSame(entity, dto.getSourceObject());
     }
 
+    @Test
+    public void testNearestTranslatorLookupReflectsRegistrationChanges() {
+        ModelTranslator modelTranslator = new SimpleModelTranslator();
+        ObjectTranslator translator1 = new TestTranslator();
+        ObjectTranslator translator2 = new TestTranslator();
+
+        ModelEntity entity = new TestModelEntity() {};
+
+        modelTranslator.registerTranslator(translator1, ModelEntity.class, TestDTO.class);
+        assertSame(translator1, modelTranslator.findTranslatorByInstance(entity, TestDTO.class));
+        assertSame(translator1, modelTranslator.findTranslatorByInstance(entity, TestDTO.class));
+
+        // A nearer translator registered after a lookup must be used for subsequent lookups
+        modelTranslator.registerTranslator(translator2, TestModelEntity.class, TestDTO.class);
+        assertSame(translator2, modelTranslator.findTranslatorByInstance(entity, TestDTO.class));
+
+        modelTranslator.unregisterTranslator(translator2);
+        assertSame(translator1, modelTranslator.findTranslatorByInstance(entity, TestDTO.class));
+
+        modelTranslator.unregisterTranslator(ModelEntity.class, TestDTO.class);
+
+        try {
+            modelTranslator.findTranslatorByInstance(entity, TestDTO.class);
+            fail("Expected a TranslationException");
+        }
+        catch (TranslationException e) {
+            // Expected
+        }
+    }
+
 }
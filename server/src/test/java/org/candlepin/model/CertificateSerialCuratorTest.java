@@ -327,4 +327,26 @@ public class CertificateSerialCuratorTest extends DatabaseTestFixture {
         assertEquals(1, serialQuery.getRowCount());
     }
 
+    @Test
+    public void testCreateAll() {
+        List<CertificateSerial> serials = new ArrayList<>();
+        String[] ids = new String[5];
+
+        for (int i = 0; i < ids.length; ++i) {
+            CertificateSerial serial = new CertificateSerial(new Date());
+            serials.add(serial);
+            ids[i] = serial.getId().toString();
+        }
+
+        assertSame(serials, this.certSerialCurator.createAll(serials));
+        this.certSerialCurator.clear();
+
+        assertEquals(ids.length, this.certSerialCurator.listBySerialIds(ids).list().size());
+    }
+
+    @Test
+    public void testCreateAllWithNoSerials() {
+        assertNull(this.certSerialCurator.createAll(null));
+        assertTrue(this.certSerialCurator.createAll(new ArrayList<>()).isEmpty());
+    }
 }
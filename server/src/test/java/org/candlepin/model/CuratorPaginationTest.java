@@ -16,7 +16,10 @@ package org.candlepin.model;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
+import org.candlepin.common.paging.ContinuationToken;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.test.DatabaseTestFixture;
@@ -28,6 +31,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -188,6 +193,105 @@ public class CuratorPaginationTest extends DatabaseTestFixture {
         assertEquals(pageRequest, pageRequest2);
     }
 
+    private List<String> walkKeysetPages(String sortBy, PageRequest.Order order, int perPage,
+        Criteria criteria) {
+
+        List<String> keys = new ArrayList<>();
+        ContinuationToken token = null;
+
+        do {
+            PageRequest pageRequest = new PageRequest();
+            pageRequest.setKeyset(true);
+            pageRequest.setSortBy(sortBy);
+            pageRequest.setOrder(order);
+            pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+            pageRequest.setPerPage(perPage);
+            pageRequest.setContinuation(token);
+
+            Page<List<Owner>> p = criteria != null ?
+                ownerCurator.listByCriteria(criteria, pageRequest) :
+                ownerCurator.listAll(pageRequest);
+
+            // Keyset requests skip counting by default
+            assertNull(p.getMaxRecords());
+
+            for (Owner owner : p.getPageData()) {
+                keys.add(owner.getKey());
+            }
+
+            token = p.getContinuation();
+        }
+        while (token != null);
+
+        return keys;
+    }
+
+    @Test
+    public void testKeysetPaging() {
+        List<String> keys = this.walkKeysetPages("key", PageRequest.Order.ASCENDING, 3, null);
+        assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), keys);
+    }
+
+    @Test
+    public void testKeysetPagingWithCriteria() {
+        Criteria criteria = session.createCriteria(Owner.class).
+            add(Restrictions.gt("key", "5"));
+
+        List<String> keys = this.walkKeysetPages("key", PageRequest.Order.DESCENDING, 2, criteria);
+        assertEquals(Arrays.asList("9", "8", "7", "6"), keys);
+    }
+
+    @Test
+    public void testKeysetPagingWithDuplicateSortValues() {
+        for (int i = 10; i < 15; i++) {
+            Owner o = new Owner();
+            o.setDisplayName("duplicate");
+            o.setKey(String.valueOf(i));
+            ownerCurator.create(o);
+        }
+
+        List<String> keys = this.walkKeysetPages("displayName", PageRequest.Order.DESCENDING, 2, null);
+
+        // Every owner must be visited exactly once, even though the page boundaries fall between
+        // owners sharing a display name
+        assertEquals(15, keys.size());
+        assertEquals(15, new HashSet<>(keys).size());
+    }
+
+    @Test
+    public void testKeysetPagingWithExactCount() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setKeyset(true);
+        pageRequest.setSortBy("key");
+        pageRequest.setOrder(PageRequest.Order.ASCENDING);
+        pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+        pageRequest.setPerPage(4);
+        pageRequest.setCountMode(PageRequest.CountMode.EXACT);
+        pageRequest.setContinuation(new ContinuationToken("key", PageRequest.Order.ASCENDING, "7",
+            ownerCurator.getByKey("7").getId()));
+
+        Page<List<Owner>> p = ownerCurator.listAll(pageRequest);
+
+        // The count covers every record, not just the ones following the token
+        assertEquals(Integer.valueOf(10), p.getMaxRecords());
+        assertEquals(2, p.getPageData().size());
+        assertEquals("8", p.getPageData().get(0).getKey());
+        assertNull(p.getContinuation());
+    }
+
+    @Test
+    public void testOffsetPagingProvidesContinuation() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setSortBy("key");
+        pageRequest.setOrder(PageRequest.Order.ASCENDING);
+        pageRequest.setPage(2);
+        pageRequest.setPerPage(2);
+
+        Page<List<Owner>> p = ownerCurator.listAll(pageRequest);
+        assertNotNull(p.getContinuation());
+        assertEquals("3", p.getContinuation().getSortValue());
+    }
+
     private List<Owner> createOwners(int owners) {
         List<Owner> ownerList = new ArrayList<>();
         for (int i = 0; i < owners; i++) {
@@ -27,6 +27,7 @@ import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.test.DatabaseTestFixture;
 import org.candlepin.test.TestUtil;
+import org.candlepin.util.Util;
 
 import org.hamcrest.Matchers;
 import org.hibernate.Hibernate;
@@ -739,6 +740,28 @@ public class EntitlementCuratorTest extends DatabaseTestFixture {
         assertEquals(ent.getId(), ents.get(0).getId());
     }
 
+    @Test
+    public void testGetConsumerIdsWithDirtyEntitlementsOrdersByLastCheckin() {
+        Consumer recent = this.createConsumer(owner);
+        recent.setLastCheckin(new Date());
+        consumerCurator.merge(recent);
+
+        Consumer stale = this.createConsumer(owner);
+        stale.setLastCheckin(Util.yesterday());
+        consumerCurator.merge(stale);
+
+        for (Consumer dirty : Arrays.asList(stale, recent)) {
+            Entitlement ent = this.bind(dirty, this.createPool(owner, parentProduct));
+            ent.setDirty(true);
+            entitlementCurator.merge(ent);
+        }
+
+        assertEquals(Arrays.asList(recent.getId(), stale.getId()),
+            entitlementCurator.getConsumerIdsWithDirtyEntitlements(10));
+        assertEquals(Arrays.asList(recent.getId()),
+            entitlementCurator.getConsumerIdsWithDirtyEntitlements(1));
+    }
+
     protected List<Product> createProducts(Owner owner, int count, String prefix) {
         List<Product> products = new LinkedList<>();
 
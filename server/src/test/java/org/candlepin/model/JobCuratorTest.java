@@ -142,6 +142,21 @@ public class JobCuratorTest extends DatabaseTestFixture {
         assertEquals(JobStatus.JobState.CANCELED, job.getState());
     }
 
+    @Test
+    public void checkpointRecordedAndCleared() {
+        String jobid = newJobStatus().owner("ducks").startTime(Util.yesterday()).create().getId();
+        assertNull(curator.getCheckpoint(jobid));
+
+        assertEquals(1, curator.setCheckpoint(jobid, "sub-1"));
+        assertEquals("sub-1", curator.getCheckpoint(jobid));
+
+        assertEquals(1, curator.setCheckpoint(jobid, null));
+        assertNull(curator.getCheckpoint(jobid));
+
+        assertEquals(0, curator.setCheckpoint("dont_exist", "sub-1"));
+        assertNull(curator.getCheckpoint("dont_exist"));
+    }
+
     @Test
     public void updateWithLargeResult() {
         String longstr = RandomStringUtils.randomAlphanumeric(300);
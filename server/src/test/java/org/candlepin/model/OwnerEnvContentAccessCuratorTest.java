@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.Assert.*;
+
+import org.candlepin.service.ContentAccessCertServiceAdapter;
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Inject;
+
+
+
+/**
+ * OwnerEnvContentAccessCuratorTest
+ */
+public class OwnerEnvContentAccessCuratorTest extends DatabaseTestFixture {
+    @Inject private OwnerEnvContentAccessCurator oecaCurator;
+
+    private Owner owner;
+    private Environment environment;
+
+    @Before
+    public void setUp() {
+        this.owner = this.createOwner("sca-owner");
+        this.owner.setContentAccessMode(ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+        this.owner = this.ownerCurator.merge(this.owner);
+
+        this.environment = this.createEnvironment(this.owner, "sca-env");
+    }
+
+    private Callable<String> countingGenerator(final AtomicInteger count, final String payload) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                count.incrementAndGet();
+                return payload;
+            }
+        };
+    }
+
+    @Test
+    public void generatesAndStoresMissingPayload() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+
+        assertEquals("payload", this.oecaCurator.getOrCreateContentJson(this.owner, this.environment,
+            this.countingGenerator(count, "payload")));
+        assertEquals("payload", this.oecaCurator.getOrCreateContentJson(this.owner, this.environment,
+            this.countingGenerator(count, "other")));
+
+        assertEquals(1, count.get());
+        OwnerEnvContentAccess oeca = this.oecaCurator.getContentAccess(this.owner.getId(),
+            this.environment.getId());
+        assertNotNull(oeca);
+        assertEquals("payload", oeca.getContentJson());
+    }
+
+    @Test
+    public void failedGenerationIsNotStoredOrShared() throws Exception {
+        try {
+            this.oecaCurator.getOrCreateContentJson(this.owner, null, new Callable<String>() {
+                @Override
+                public String call() throws IOException {
+                    throw new IOException("failed");
+                }
+            });
+            fail("Expected an IOException");
+        }
+        catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertNull(this.oecaCurator.getContentAccess(this.owner.getId(), null));
+
+        AtomicInteger count = new AtomicInteger();
+        assertEquals("payload", this.oecaCurator.getOrCreateContentJson(this.owner, null,
+            this.countingGenerator(count, "payload")));
+        assertEquals(1, count.get());
+    }
+
+    @Test
+    public void removalDiscardsGeneratedPayloads() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        this.oecaCurator.getOrCreateContentJson(this.owner, this.environment,
+            this.countingGenerator(count, "old"));
+
+        this.oecaCurator.removeAllForOwner(this.owner.getId());
+        assertNull(this.oecaCurator.getContentAccess(this.owner.getId(), this.environment.getId()));
+
+        assertEquals("new", this.oecaCurator.getOrCreateContentJson(this.owner, this.environment,
+            this.countingGenerator(count, "new")));
+        assertEquals(2, count.get());
+    }
+
+    @Test
+    public void listsOwnersMissingPayloads() throws Exception {
+        Owner entitlementOwner = this.createOwner("entitlement-owner");
+        AtomicInteger count = new AtomicInteger();
+
+        List<String> ownerIds = this.oecaCurator.getOwnerIdsMissingContentAccess(
+            ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+        assertTrue(ownerIds.contains(this.owner.getId()));
+        assertFalse(ownerIds.contains(entitlementOwner.getId()));
+
+        this.oecaCurator.getOrCreateContentJson(this.owner, null, this.countingGenerator(count, "org"));
+        ownerIds = this.oecaCurator.getOwnerIdsMissingContentAccess(
+            ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+        assertTrue(ownerIds.contains(this.owner.getId()));
+
+        this.oecaCurator.getOrCreateContentJson(this.owner, this.environment,
+            this.countingGenerator(count, "env"));
+        ownerIds = this.oecaCurator.getOwnerIdsMissingContentAccess(
+            ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+        assertFalse(ownerIds.contains(this.owner.getId()));
+
+        this.oecaCurator.removeAllForEnvironment(this.environment.getId());
+        ownerIds = this.oecaCurator.getOwnerIdsMissingContentAccess(
+            ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE);
+        assertTrue(ownerIds.contains(this.owner.getId()));
+    }
+}
@@ -15,6 +15,8 @@
 package org.candlepin.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.candlepin.auth.Principal;
 import org.candlepin.auth.UserPrincipal;
@@ -87,6 +89,32 @@ public class OwnerInfoCuratorTest extends DatabaseTestFixture {
         assertEquals(expectedEntitlementsConsumed, info.getEntitlementsConsumedByType());
     }
 
+    @Test
+    public void testSnapshotServedUntilFreshInfoRequested() {
+        ConsumerType type = consumerTypeCurator.getByLabel("system");
+        OwnerInfo snapshot = ownerInfoCurator.getSnapshotByOwner(owner, false);
+
+        consumerCurator.create(new Consumer("test-consumer", "test-user", owner, type));
+
+        assertSame(snapshot, ownerInfoCurator.getSnapshotByOwner(owner, false));
+        assertEquals((Integer) 0, snapshot.getConsumerCounts().get("system"));
+
+        OwnerInfo fresh = ownerInfoCurator.getSnapshotByOwner(owner, true);
+        assertEquals((Integer) 1, fresh.getConsumerCounts().get("system"));
+        assertSame(fresh, ownerInfoCurator.getSnapshotByOwner(owner, false));
+
+        ownerInfoCurator.invalidateSnapshot(owner);
+        assertNotSame(fresh, ownerInfoCurator.getSnapshotByOwner(owner, false));
+    }
+
+    @Test
+    public void testSnapshotNotUsedForRestrictedPrincipals() {
+        setupOnlyMyConsumersPrincipal();
+
+        OwnerInfo info = ownerInfoCurator.getSnapshotByOwner(owner, false);
+        assertNotSame(info, ownerInfoCurator.getSnapshotByOwner(owner, false));
+    }
+
     @Test
     public void testOwnerInfoOneSystemNoEntitlements() {
         ConsumerType type = consumerTypeCurator.getByLabel("system");
@@ -109,6 +109,33 @@ public class OwnerProductCuratorTest extends DatabaseTestFixture {
         assertNull(resultB);
     }
 
+    @Test
+    public void testGetProductByIdReflectsMappingChanges() {
+        Owner owner = this.createOwner();
+        Product original = this.createProduct();
+        Product updated = this.createProduct(original.getId(), "updated");
+        Product other = this.createProduct();
+        this.createOwnerProductMapping(owner, original);
+
+        // Populate the cached mappings for the owner
+        assertEquals(original, this.ownerProductCurator.getProductById(owner, original.getId()));
+        assertFalse(this.ownerProductCurator.productExists(owner, other.getId()));
+
+        this.ownerProductCurator.updateOwnerProductReferences(owner,
+            Collections.singletonMap(original.getUuid(), updated.getUuid()));
+        assertEquals(updated, this.ownerProductCurator.getProductById(owner, original.getId()));
+
+        this.ownerProductCurator.mapProductToOwner(other, owner);
+        assertTrue(this.ownerProductCurator.productExists(owner, other.getId()));
+        assertEquals(Util.asSet(original.getId(), other.getId()),
+            this.ownerProductCurator.filterUnknownProductIds(owner,
+            Arrays.asList(original.getId(), other.getId(), "unknown")));
+
+        this.ownerProductCurator.removeOwnerProductReferences(owner, Arrays.asList(other.getUuid()));
+
+        assertNull(this.ownerProductCurator.getProductById(owner, other.getId()));
+    }
+
     @Test
     public void testGetOwnersByProduct() {
         Owner owner1 = this.createOwner();
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+
+
+/**
+ * Test suite for the OwnerProductIdCache class
+ */
+public class OwnerProductIdCacheTest {
+
+    private OwnerProductIdCache cache;
+    private AtomicInteger loads;
+    private Function<String, Map<String, String>> loader;
+
+    @Before
+    public void init() {
+        this.cache = new OwnerProductIdCache(60, 10);
+        this.loads = new AtomicInteger();
+        this.loader = ownerId -> {
+            this.loads.incrementAndGet();
+            return Collections.singletonMap("product-" + ownerId, "uuid-" + this.loads.get());
+        };
+    }
+
+    @Test
+    public void testMappingsAreLoadedOncePerOwner() {
+        assertEquals("uuid-1", this.cache.get("o1", this.loader).get("product-o1"));
+        assertEquals("uuid-1", this.cache.get("o1", this.loader).get("product-o1"));
+        assertEquals(1, this.loads.get());
+
+        assertEquals("uuid-2", this.cache.get("o2", this.loader).get("product-o2"));
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    public void testMappingsAreNotServedDuringUpdates() {
+        this.cache.get("o1", this.loader);
+
+        this.cache.beginUpdate("o1");
+        assertNull(this.cache.get("o1", this.loader));
+        assertEquals(1, this.loads.get());
+
+        this.cache.endUpdate("o1");
+        assertEquals("uuid-2", this.cache.get("o1", this.loader).get("product-o1"));
+        assertEquals("uuid-2", this.cache.get("o1", this.loader).get("product-o1"));
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    public void testUpdatesOnlyAffectTheirOwner() {
+        this.cache.get("o1", this.loader);
+        this.cache.get("o2", this.loader);
+
+        this.cache.beginUpdate("o1");
+        assertNull(this.cache.get("o1", this.loader));
+        assertNotNull(this.cache.get("o2", this.loader));
+        assertEquals(2, this.loads.get());
+    }
+
+    @Test
+    public void testLoadRacingAnUpdateIsNotStored() {
+        Map<String, String> result = this.cache.get("o1", ownerId -> {
+            // Simulate a change to the owner's mappings completing while the load runs
+            this.cache.beginUpdate(ownerId);
+            this.cache.endUpdate(ownerId);
+
+            return this.loader.apply(ownerId);
+        });
+
+        assertEquals("uuid-1", result.get("product-o1"));
+        assertEquals("uuid-2", this.cache.get("o1", this.loader).get("product-o1"));
+        assertEquals(2, this.loads.get());
+    }
+}
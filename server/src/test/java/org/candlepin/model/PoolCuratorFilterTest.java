@@ -222,4 +222,17 @@ public class PoolCuratorFilterTest extends DatabaseTestFixture {
         searchTest("*c-l???l??n*", 1, searchPool.getId());
         searchTest("*Content Label One*", 0, new String [] {});
     }
+
+    @Test
+    public void matchesAndProductFiltersMayMatchDifferentProvidedProducts() throws Exception {
+        PoolFilterBuilder filters = new PoolFilterBuilder();
+        filters.setProductIdFilter("202222");
+        filters.addMatchesFilter("Server Bits");
+        searchTest(filters, 1, searchPool.getId());
+
+        filters = new PoolFilterBuilder();
+        filters.setProductIdFilter("101");
+        filters.addMatchesFilter("Server Bits");
+        searchTest(filters, 0, new String [] {});
+    }
 }
@@ -471,6 +471,25 @@ public class PoolCuratorTest extends DatabaseTestFixture {
         assertEquals(1, results.size());
         assertEquals(pool, results.get(0));
     }
+    @Test
+    public void requiresHostOfZeroIsUnsetForConsumersWithoutHost() {
+        Date activeDate = TestUtil.createDate(2000, 3, 2);
+
+        Pool unset = createPool(owner, product, 100L, activeDate, TestUtil.createDate(2005, 3, 2));
+        unset.setAttribute(Pool.Attributes.REQUIRES_HOST, "0");
+        poolCurator.create(unset);
+
+        Pool hostPool = createPool(owner, product, 100L, activeDate, TestUtil.createDate(2005, 3, 2));
+        hostPool.setAttribute(Pool.Attributes.REQUIRES_HOST, "some-host");
+        poolCurator.create(hostPool);
+
+        Page<List<Pool>> page = poolCurator.listAvailableEntitlementPools(
+            consumer, owner.getId(), (Collection<String>) null, null, activeDate, null, null, false,
+            false, false, null);
+
+        assertEquals(Arrays.asList(unset), page.getPageData());
+    }
+
     /**
      * When filtering pools by product/pool attributes, filters specified with
      * the same attribute name are ORed, and different attributes are ANDed.
@@ -1807,6 +1826,49 @@ public class PoolCuratorTest extends DatabaseTestFixture {
         assertEquals(pool.getExported().longValue(), 0);
     }
 
+    @Test
+    public void testReserveQuantity() {
+        Pool pool = createPool(owner, product, 20L,
+            TestUtil.createDate(2010, 3, 2), TestUtil.createDate(
+            Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2));
+        poolCurator.create(pool);
+
+        assertTrue(poolCurator.reserveQuantity(pool.getId(), 15));
+        assertTrue(poolCurator.reserveQuantity(pool.getId(), 5));
+        assertFalse(poolCurator.reserveQuantity(pool.getId(), 1));
+        poolCurator.refresh(pool);
+
+        assertEquals(20L, pool.getConsumed().longValue());
+    }
+
+    @Test
+    public void testReserveQuantityOnUnlimitedPool() {
+        Pool pool = createPool(owner, product, -1L,
+            TestUtil.createDate(2010, 3, 2), TestUtil.createDate(
+            Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2));
+        poolCurator.create(pool);
+
+        assertTrue(poolCurator.reserveQuantity(pool.getId(), 500));
+        poolCurator.refresh(pool);
+
+        assertEquals(500L, pool.getConsumed().longValue());
+    }
+
+    @Test
+    public void testReleaseQuantity() {
+        Pool pool = createPool(owner, product, 20L,
+            TestUtil.createDate(2010, 3, 2), TestUtil.createDate(
+            Calendar.getInstance().get(Calendar.YEAR) + 1, 3, 2));
+        poolCurator.create(pool);
+
+        assertTrue(poolCurator.reserveQuantity(pool.getId(), 20));
+        poolCurator.releaseQuantity(pool.getId(), 15);
+        assertTrue(poolCurator.reserveQuantity(pool.getId(), 10));
+        poolCurator.refresh(pool);
+
+        assertEquals(15L, pool.getConsumed().longValue());
+    }
+
     @Test
     public void testMarkCertificatesDirtyForPoolsWithNormalProduct() {
         Consumer consumer = this.createConsumer(owner);
@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.core;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.quartz.JobBuilder.newJob;
+
+import org.candlepin.common.config.MapConfiguration;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.JobCurator;
+import org.candlepin.pinsetter.core.model.JobStatus;
+import org.candlepin.pinsetter.core.model.JobStatus.JobState;
+import org.candlepin.pinsetter.tasks.HypervisorUpdateJob;
+import org.candlepin.pinsetter.tasks.JobCleaner;
+
+import com.google.inject.persist.UnitOfWork;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.spi.JobFactory;
+import org.quartz.spi.TriggerFiredBundle;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * InProcessJobQueueTest
+ */
+public class InProcessJobQueueTest {
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private JobCurator jobCurator;
+    private JobFactory jobFactory;
+    private JobListener jobListener;
+    private UnitOfWork unitOfWork;
+    private Job job;
+    private Map<String, String> props;
+    private Map<String, JobStatus> statuses;
+    private InProcessJobQueue queue;
+
+    @Before
+    public void init() throws Exception {
+        jobCurator = mock(JobCurator.class);
+        jobFactory = mock(JobFactory.class);
+        jobListener = mock(JobListener.class);
+        unitOfWork = mock(UnitOfWork.class);
+        job = mock(Job.class);
+
+        statuses = new HashMap<>();
+        props = new HashMap<>();
+        props.put(ConfigProperties.INPROCESS_JOBS_ENABLED, "true");
+        props.put(ConfigProperties.INPROCESS_JOBS, TestJob.class.getName());
+        props.put(ConfigProperties.INPROCESS_JOB_THREADS, "2");
+
+        when(jobFactory.newJob(any(TriggerFiredBundle.class), any(Scheduler.class))).thenReturn(job);
+        when(jobCurator.create(any(JobStatus.class))).thenAnswer(new Answer<JobStatus>() {
+            @Override
+            public JobStatus answer(InvocationOnMock invocation) {
+                JobStatus status = (JobStatus) invocation.getArguments()[0];
+                statuses.put(status.getId(), status);
+                return status;
+            }
+        });
+        when(jobCurator.get(anyString())).thenAnswer(new Answer<JobStatus>() {
+            @Override
+            public JobStatus answer(InvocationOnMock invocation) {
+                return statuses.get((String) invocation.getArguments()[0]);
+            }
+        });
+    }
+
+    @After
+    public void cleanup() {
+        if (queue != null) {
+            queue.shutdown();
+        }
+    }
+
+    private InProcessJobQueue buildQueue() {
+        return new InProcessJobQueue(new MapConfiguration(props), jobCurator, jobFactory, jobListener,
+            unitOfWork);
+    }
+
+    @Test
+    public void disabledQueueAcceptsNothing() {
+        props.put(ConfigProperties.INPROCESS_JOBS_ENABLED, "false");
+        queue = buildQueue();
+        queue.start();
+
+        assertFalse(queue.accepts(newJob(TestJob.class).withIdentity("job").build()));
+    }
+
+    @Test
+    public void acceptsOnlyConfiguredJobs() {
+        queue = buildQueue();
+        assertFalse(queue.accepts(newJob(TestJob.class).withIdentity("job").build()));
+
+        queue.start();
+        assertTrue(queue.accepts(newJob(TestJob.class).withIdentity("job").build()));
+        assertFalse(queue.accepts(newJob(JobCleaner.class).withIdentity("job").build()));
+    }
+
+    @Test
+    public void neverAcceptsHypervisorUpdates() {
+        props.put(ConfigProperties.INPROCESS_JOBS,
+            TestJob.class.getName() + "," + HypervisorUpdateJob.class.getName());
+        queue = buildQueue();
+        queue.start();
+
+        assertTrue(queue.accepts(newJob(TestJob.class).withIdentity("job").build()));
+        assertFalse(queue.accepts(newJob(HypervisorUpdateJob.class).withIdentity("job").build()));
+    }
+
+    @Test
+    public void submittedJobIsExecuted() throws Exception {
+        queue = buildQueue();
+        queue.start();
+
+        JobDetail detail = newJob(TestJob.class).withIdentity("job1").build();
+        JobStatus status = queue.submit(detail);
+
+        assertEquals("job1", status.getId());
+        assertEquals(InProcessJobQueue.FAST_JOB_GROUP, status.getGroup());
+        assertEquals(JobState.CREATED, status.getState());
+
+        verify(job, timeout(2000)).execute(any(JobExecutionContext.class));
+        verify(jobListener, timeout(2000)).jobToBeExecuted(any(JobExecutionContext.class));
+        verify(jobListener, timeout(2000)).jobWasExecuted(any(JobExecutionContext.class),
+            (JobExecutionException) isNull());
+    }
+
+    @Test
+    public void failedJobReportedToListener() throws Exception {
+        JobExecutionException failure = new JobExecutionException("failed", false);
+        doThrow(failure).when(job).execute(any(JobExecutionContext.class));
+
+        queue = buildQueue();
+        queue.start();
+        queue.submit(newJob(TestJob.class).withIdentity("job1").build());
+
+        verify(jobListener, timeout(2000)).jobWasExecuted(any(JobExecutionContext.class), eq(failure));
+    }
+
+    @Test
+    public void jobWhichCannotBeCreatedIsMarkedFailed() throws Exception {
+        SchedulerException failure = new SchedulerException("no job for you");
+        when(jobFactory.newJob(any(TriggerFiredBundle.class), any(Scheduler.class))).thenThrow(failure);
+
+        queue = buildQueue();
+        queue.start();
+        JobStatus status = queue.submit(newJob(TestJob.class).withIdentity("job1").build());
+
+        verify(jobCurator, timeout(2000)).merge(eq(status));
+        assertEquals(JobState.FAILED, status.getState());
+        assertEquals(failure.toString(), status.getResult());
+        verifyZeroInteractions(jobListener);
+    }
+
+    @Test
+    public void canceledJobIsSkipped() throws Exception {
+        JobStatus canceled = mock(JobStatus.class);
+        when(canceled.getState()).thenReturn(JobState.CANCELED);
+        doReturn(canceled).when(jobCurator).create(any(JobStatus.class));
+        statuses.put("job1", canceled);
+
+        queue = buildQueue();
+        queue.start();
+        queue.submit(newJob(TestJob.class).withIdentity("job1").build());
+
+        verify(jobCurator, timeout(2000).atLeastOnce()).get(eq("job1"));
+        queue.shutdown();
+
+        verifyZeroInteractions(job);
+        verifyZeroInteractions(jobListener);
+    }
+
+    @Test(expected = PinsetterException.class)
+    public void submitBeforeStartFails() throws Exception {
+        queue = buildQueue();
+        queue.submit(newJob(TestJob.class).withIdentity("job1").build());
+    }
+
+    @Test
+    public void pendingJournalEntriesReplayedOnStart() throws Exception {
+        File journalFile = new File(folder.getRoot(), "jobs.journal");
+
+        JobJournal journal = new JobJournal(journalFile);
+        journal.open();
+        journal.submitted(newJob(TestJob.class).withIdentity("done").build());
+        journal.submitted(newJob(TestJob.class).withIdentity("pending").build());
+        journal.completed("done");
+        journal.close();
+
+        JobStatus status = mock(JobStatus.class);
+        when(status.getState()).thenReturn(JobState.CANCELED, JobState.CREATED);
+        statuses.put("pending", status);
+
+        props.put(ConfigProperties.INPROCESS_JOB_JOURNAL, journalFile.getAbsolutePath());
+        queue = buildQueue();
+        queue.start();
+
+        verify(job, timeout(2000)).execute(any(JobExecutionContext.class));
+        verify(status).setState(eq(JobState.CREATED));
+        verify(jobCurator, never()).get(eq("done"));
+    }
+
+    @Test
+    public void journalCompactedOnOpen() throws Exception {
+        File journalFile = new File(folder.getRoot(), "jobs.journal");
+
+        JobJournal journal = new JobJournal(journalFile);
+        assertTrue(journal.open().isEmpty());
+        journal.submitted(newJob(TestJob.class).withIdentity("one").build());
+        journal.submitted(newJob(TestJob.class).withIdentity("two").build());
+        journal.completed("one");
+        journal.close();
+
+        journal = new JobJournal(journalFile);
+        List<JobDetail> pending = journal.open();
+        journal.close();
+
+        assertEquals(1, pending.size());
+        assertEquals("two", pending.get(0).getKey().getName());
+        assertEquals(TestJob.class, pending.get(0).getJobClass());
+    }
+
+    @Test
+    public void journalTruncatedOnceAllJobsComplete() throws Exception {
+        File journalFile = new File(folder.getRoot(), "jobs.journal");
+
+        JobJournal journal = new JobJournal(journalFile);
+        journal.open();
+        journal.submitted(newJob(TestJob.class).withIdentity("one").build());
+        journal.submitted(newJob(TestJob.class).withIdentity("two").build());
+        journal.completed("one");
+        assertTrue(journalFile.length() > 0);
+
+        journal.completed("two");
+        assertEquals(0, journalFile.length());
+
+        journal.submitted(newJob(TestJob.class).withIdentity("three").build());
+        journal.close();
+
+        journal = new JobJournal(journalFile);
+        List<JobDetail> pending = journal.open();
+        journal.close();
+
+        assertEquals(1, pending.size());
+        assertEquals("three", pending.get(0).getKey().getName());
+    }
+}
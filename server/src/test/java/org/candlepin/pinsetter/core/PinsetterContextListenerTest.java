@@ -25,19 +25,22 @@ import org.junit.Test;
 public class PinsetterContextListenerTest {
     private PinsetterContextListener listener;
     private PinsetterKernel kernel;
+    private InProcessJobQueue jobQueue;
     private PinsetterException pe;
 
     @Before
     public void init() {
         pe = mock(PinsetterException.class);
         kernel = mock(PinsetterKernel.class);
-        listener = new PinsetterContextListener(kernel);
+        jobQueue = mock(InProcessJobQueue.class);
+        listener = new PinsetterContextListener(kernel, jobQueue);
     }
 
     @Test
     public void testContextDestroyed() throws PinsetterException {
         listener.contextDestroyed();
         verify(kernel, atLeastOnce()).shutdown();
+        verify(jobQueue).shutdown();
         verifyZeroInteractions(pe);
     }
 
@@ -45,6 +48,7 @@ public class PinsetterContextListenerTest {
     public void testContextInitialized() throws PinsetterException {
         listener.contextInitialized();
         verify(kernel, atLeastOnce()).startup();
+        verify(jobQueue).start();
         verifyZeroInteractions(pe);
     }
 
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import static org.mockito.Mockito.*;
+
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.OwnerEnvContentAccessCurator;
+import org.candlepin.service.ContentAccessCertServiceAdapter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.quartz.JobExecutionContext;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+
+
+/**
+ * ContentAccessPayloadJobTest
+ */
+public class ContentAccessPayloadJobTest extends BaseJobTest {
+    private ContentAccessPayloadJob job;
+    @Mock private OwnerCurator ownerCurator;
+    @Mock private OwnerEnvContentAccessCurator oecaCurator;
+    @Mock private ContentAccessCertServiceAdapter contentAccessCertService;
+    @Mock private JobExecutionContext ctx;
+
+    @Before
+    public void startup() {
+        super.init();
+        MockitoAnnotations.initMocks(this);
+        job = new ContentAccessPayloadJob(ownerCurator, oecaCurator, contentAccessCertService);
+        injector.injectMembers(job);
+    }
+
+    @Test
+    public void regeneratesPayloadsOfOwnersMissingThem() throws Exception {
+        Owner owner1 = new Owner("owner1");
+        Owner owner2 = new Owner("owner2");
+        when(oecaCurator.getOwnerIdsMissingContentAccess(
+            eq(ContentAccessCertServiceAdapter.ORG_ENV_ACCESS_MODE)))
+            .thenReturn(Arrays.asList("id1", "id2", "id3"));
+        when(ownerCurator.get(eq("id1"))).thenReturn(owner1);
+        when(ownerCurator.get(eq("id2"))).thenReturn(owner2);
+        when(contentAccessCertService.regenerateContentAccessPayloads(eq(owner1)))
+            .thenThrow(new IOException("failed"));
+
+        job.execute(ctx);
+
+        verify(contentAccessCertService).regenerateContentAccessPayloads(eq(owner1));
+        verify(contentAccessCertService).regenerateContentAccessPayloads(eq(owner2));
+        verify(ctx).setResult(eq("Generated 0 content access payloads for 3 owners"));
+    }
+}
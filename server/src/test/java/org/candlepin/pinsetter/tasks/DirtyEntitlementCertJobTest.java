@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2009 - 2012 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import static org.mockito.Mockito.*;
+
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.controller.PoolManager;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.EntitlementCurator;
+
+import com.google.inject.util.Providers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.quartz.JobExecutionContext;
+
+import java.util.Arrays;
+
+
+
+/**
+ * DirtyEntitlementCertJobTest
+ */
+public class DirtyEntitlementCertJobTest extends BaseJobTest {
+    private DirtyEntitlementCertJob job;
+    private CandlepinCommonTestConfig config;
+    private Consumer consumer1;
+    private Consumer consumer2;
+    @Mock private EntitlementCurator entitlementCurator;
+    @Mock private ConsumerCurator consumerCurator;
+    @Mock private CandlepinRequestScope requestScope;
+    @Mock private PoolManager poolManager;
+    @Mock private JobExecutionContext ctx;
+
+    @Before
+    public void startup() {
+        super.init();
+        MockitoAnnotations.initMocks(this);
+
+        config = new CandlepinCommonTestConfig();
+        job = new DirtyEntitlementCertJob(entitlementCurator, consumerCurator, requestScope,
+            Providers.of(poolManager));
+        injector.injectMembers(job);
+        job.config = config;
+
+        consumer1 = new Consumer();
+        consumer2 = new Consumer();
+        when(entitlementCurator.getConsumerIdsWithDirtyEntitlements(anyInt()))
+            .thenReturn(Arrays.asList("id1", "id2", "id3"));
+        when(consumerCurator.get(eq("id1"))).thenReturn(consumer1);
+        when(consumerCurator.get(eq("id2"))).thenReturn(consumer2);
+    }
+
+    @Test
+    public void regeneratesDirtyEntitlementsOfConsumers() throws Exception {
+        config.setProperty(ConfigProperties.DIRTY_CERT_WORKER_THREADS, "1");
+        config.setProperty(ConfigProperties.DIRTY_CERT_WORKER_BATCH_SIZE, "50");
+        doThrow(new RuntimeException("failed")).when(poolManager).regenerateDirtyEntitlements(eq(consumer1));
+
+        job.execute(ctx);
+
+        verify(entitlementCurator).getConsumerIdsWithDirtyEntitlements(eq(50));
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer1));
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer2));
+        verify(ctx).setResult(eq("Regenerated dirty entitlement certificates of 2 consumers; 1 failed"));
+        verifyZeroInteractions(requestScope);
+    }
+
+    @Test
+    public void drainsConsumersOnWorkerThreads() throws Exception {
+        config.setProperty(ConfigProperties.DIRTY_CERT_WORKER_THREADS, "2");
+
+        job.execute(ctx);
+
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer1));
+        verify(poolManager).regenerateDirtyEntitlements(eq(consumer2));
+        verify(requestScope, times(2)).enter();
+        verify(requestScope, times(2)).exit();
+        verify(ctx).setResult(eq("Regenerated dirty entitlement certificates of 3 consumers; 0 failed"));
+    }
+
+    @Test
+    public void doesNothingWhenDisabled() throws Exception {
+        config.setProperty(ConfigProperties.DIRTY_CERT_WORKER_ENABLED, "false");
+
+        job.execute(ctx);
+
+        verifyZeroInteractions(entitlementCurator, poolManager);
+    }
+}
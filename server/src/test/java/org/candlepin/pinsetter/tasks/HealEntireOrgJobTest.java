@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pinsetter.tasks;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.candlepin.audit.EventSink;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.controller.Entitler;
+import org.candlepin.guice.CandlepinRequestScope;
+import org.candlepin.model.CandlepinQuery;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerCurator;
+import org.candlepin.model.JobCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.pinsetter.core.model.JobStatus;
+import org.candlepin.resource.dto.AutobindData;
+
+import com.google.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.xnap.commons.i18n.I18n;
+import org.xnap.commons.i18n.I18nFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+
+
+/**
+ * HealEntireOrgJobTest
+ */
+public class HealEntireOrgJobTest {
+
+    private Owner owner;
+    private List<String> uuids;
+    private CandlepinCommonTestConfig config;
+    private Entitler entitler;
+    private Entitler workerEntitler;
+    private ConsumerCurator consumerCurator;
+    private OwnerCurator ownerCurator;
+    private JobCurator jobCurator;
+    private EventSink eventSink;
+    private JobExecutionContext ctx;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void init() throws Exception {
+        owner = new Owner("test-owner");
+        owner.setId("test-owner-id");
+
+        config = new CandlepinCommonTestConfig();
+        entitler = mock(Entitler.class);
+        workerEntitler = mock(Entitler.class);
+        consumerCurator = mock(ConsumerCurator.class);
+        ownerCurator = mock(OwnerCurator.class);
+        jobCurator = mock(JobCurator.class);
+        eventSink = mock(EventSink.class);
+
+        uuids = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            String uuid = "consumer-" + i;
+            uuids.add(uuid);
+
+            Consumer consumer = new Consumer();
+            consumer.setUuid(uuid);
+            consumer.setOwner(owner);
+            when(consumerCurator.getConsumer(eq(uuid))).thenReturn(consumer);
+        }
+
+        CandlepinQuery<String> query = mock(CandlepinQuery.class);
+        when(query.list()).thenReturn(uuids);
+        when(ownerCurator.getByKey(eq(owner.getKey()))).thenReturn(owner);
+        when(ownerCurator.get(eq(owner.getId()))).thenReturn(owner);
+        when(ownerCurator.getConsumerUuids(eq(owner))).thenReturn(query);
+
+        JobDetail detail = HealEntireOrgJob.healEntireOrg(owner, new Date());
+        ctx = mock(JobExecutionContext.class);
+        when(ctx.getMergedJobDataMap()).thenReturn(detail.getJobDataMap());
+        when(ctx.getJobDetail()).thenReturn(detail);
+        when(jobCurator.get(eq(detail.getKey().getName()))).thenReturn(new JobStatus(detail));
+    }
+
+    private HealEntireOrgJob buildJob() {
+        I18n i18n = I18nFactory.getI18n(getClass(), Locale.US, I18nFactory.FALLBACK);
+
+        Provider<Entitler> entitlerProvider = new Provider<Entitler>() {
+            @Override
+            public Entitler get() {
+                return workerEntitler;
+            }
+        };
+
+        Provider<EventSink> eventSinkProvider = new Provider<EventSink>() {
+            @Override
+            public EventSink get() {
+                return eventSink;
+            }
+        };
+
+        HealEntireOrgJob job = new HealEntireOrgJob(entitler, consumerCurator, ownerCurator, i18n,
+            jobCurator, new CandlepinRequestScope(), entitlerProvider, eventSinkProvider);
+        job.config = config;
+
+        return job;
+    }
+
+    @Test
+    public void healsSequentiallyByDefault() throws Exception {
+        buildJob().toExecute(ctx);
+
+        verify(entitler, times(5)).bindByProducts(any(AutobindData.class), eq(true));
+        verifyZeroInteractions(workerEntitler);
+        verify(ctx).setResult(eq("Healed 5 of 5 consumers of owner test-owner; 0 failed"));
+    }
+
+    @Test
+    public void healsPartitionsOnWorkers() throws Exception {
+        config.setProperty(ConfigProperties.HEAL_ORG_THREADS, "2");
+        config.setProperty(ConfigProperties.HEAL_ORG_PARTITION_SIZE, "2");
+        when(consumerCurator.getConsumer(eq("consumer-3"))).thenThrow(new RuntimeException("failed"));
+
+        buildJob().toExecute(ctx);
+
+        verifyZeroInteractions(entitler);
+        verify(workerEntitler, times(4)).bindByProducts(any(AutobindData.class), eq(true));
+        verify(eventSink, times(3)).sendEvents();
+        verify(ctx).setResult(eq("Healed 4 of 5 consumers of owner test-owner; 1 failed"));
+
+        // Progress is reported once per partition
+        ArgumentCaptor<JobStatus> captor = ArgumentCaptor.forClass(JobStatus.class);
+        verify(jobCurator, times(3)).merge(captor.capture());
+        assertEquals("Healed 4 of 5 consumers of owner test-owner; 1 failed " +
+            "(3 of 3 partitions completed)", captor.getValue().getResult());
+    }
+
+    @Test
+    public void smallOrgsAreNotPartitioned() throws Exception {
+        config.setProperty(ConfigProperties.HEAL_ORG_THREADS, "2");
+        config.setProperty(ConfigProperties.HEAL_ORG_PARTITION_SIZE, "10");
+
+        buildJob().toExecute(ctx);
+
+        verify(entitler, times(5)).bindByProducts(any(AutobindData.class), eq(true));
+        verifyZeroInteractions(workerEntitler);
+        verify(jobCurator, never()).merge(any(JobStatus.class));
+    }
+
+    @Test(expected = JobExecutionException.class)
+    public void autobindDisabledFails() throws Exception {
+        owner.setAutobindDisabled(true);
+        buildJob().toExecute(ctx);
+    }
+}
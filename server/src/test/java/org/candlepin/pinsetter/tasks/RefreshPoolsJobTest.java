@@ -17,8 +17,11 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.common.config.Configuration;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.CandlepinPoolManager;
 import org.candlepin.controller.Refresher;
+import org.candlepin.model.JobCurator;
 import org.candlepin.model.Owner;
 import org.candlepin.model.OwnerCurator;
 import org.candlepin.pinsetter.core.model.JobStatus;
@@ -29,10 +32,12 @@ import com.google.inject.persist.UnitOfWork;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.quartz.JobDataMap;
 import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
 
 import java.sql.SQLException;
 
@@ -49,6 +54,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
     private OwnerServiceAdapter ownerAdapter;
     private SubscriptionServiceAdapter subAdapter;
     private Refresher refresher;
+    private JobCurator jobCurator;
 
     @Before
     public void setUp() {
@@ -61,6 +67,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         ownerAdapter = mock(OwnerServiceAdapter.class);
         subAdapter = mock(SubscriptionServiceAdapter.class);
         refresher = mock(Refresher.class);
+        jobCurator = mock(JobCurator.class);
 
         when(ctx.getMergedJobDataMap()).thenReturn(jdm);
         when(jdm.getString(eq(JobStatus.TARGET_ID))).thenReturn("someownerkey");
@@ -75,7 +82,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
     @Test
     public void execute() throws Exception {
         // test
-        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter);
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
         injector.injectMembers(rpj);
         rpj.execute(ctx);
 
@@ -86,6 +93,35 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         verify(ctx).setResult(eq("Pools refreshed for owner test owner"));
     }
 
+    @Test
+    public void executeInBlocksRecordsCheckpointOnJob() throws Exception {
+        Configuration config = mock(Configuration.class);
+        when(config.getInt(eq(ConfigProperties.REFRESH_POOLS_BLOCK_SIZE), anyInt())).thenReturn(50);
+        when(refresher.setBlockSize(anyInt())).thenReturn(refresher);
+        when(refresher.setCheckpoint(any(Refresher.Checkpoint.class))).thenReturn(refresher);
+
+        JobDetail detail = mock(JobDetail.class);
+        when(detail.getKey()).thenReturn(new JobKey("refresh_pools_job"));
+        when(ctx.getJobDetail()).thenReturn(detail);
+        when(jobCurator.getCheckpoint(eq("refresh_pools_job"))).thenReturn("sub-1");
+
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
+        injector.injectMembers(rpj);
+        rpj.config = config;
+        rpj.execute(ctx);
+
+        ArgumentCaptor<Refresher.Checkpoint> captor = ArgumentCaptor.forClass(Refresher.Checkpoint.class);
+        verify(refresher).setBlockSize(50);
+        verify(refresher).setCheckpoint(captor.capture());
+        verify(refresher).run();
+
+        Refresher.Checkpoint checkpoint = captor.getValue();
+        assertEquals("sub-1", checkpoint.getLastSubscriptionId());
+
+        checkpoint.setLastSubscriptionId("sub-2");
+        verify(jobCurator).setCheckpoint(eq("refresh_pools_job"), eq("sub-2"));
+    }
+
     @Test
     public void forOwner() {
         Owner owner = mock(Owner.class);
@@ -103,7 +139,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         // the real thing we want to handle
         doThrow(new NullPointerException()).when(refresher).run();
 
-        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter);
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
         injector.injectMembers(rpj);
         try {
             rpj.execute(ctx);
@@ -121,7 +157,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         RuntimeException e = new RuntimeException("uh oh", new SQLException("not good"));
         doThrow(e).when(refresher).run();
 
-        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter);
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
         injector.injectMembers(rpj);
         try {
             rpj.execute(ctx);
@@ -140,7 +176,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         RuntimeException e2 = new RuntimeException("trouble!", e);
         doThrow(e2).when(refresher).run();
 
-        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter);
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
         injector.injectMembers(rpj);
         try {
             rpj.execute(ctx);
@@ -156,7 +192,7 @@ public class RefreshPoolsJobTest extends BaseJobTest{
         RuntimeException e = new RuntimeException("uh oh", new NullPointerException());
         doThrow(e).when(refresher).run();
 
-        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter);
+        RefreshPoolsJob rpj = new RefreshPoolsJob(oc, pm, subAdapter, ownerAdapter, jobCurator);
         injector.injectMembers(rpj);
         try {
             rpj.execute(ctx);
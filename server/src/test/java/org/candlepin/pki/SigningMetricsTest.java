@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.pki;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+
+
+/**
+ * Test suite for the SigningMetrics class
+ */
+public class SigningMetricsTest {
+
+    private SigningMetrics metrics;
+
+    @Before
+    public void init() {
+        this.metrics = new SigningMetrics();
+    }
+
+    @Test
+    public void testSignaturesCountedPerType() {
+        metrics.recordCertificate(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordCertificate(TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordPayload(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(2, metrics.getCertificateCount());
+        assertEquals(0, metrics.getCrlCount());
+        assertEquals(1, metrics.getPayloadCount());
+    }
+
+    @Test
+    public void testPrometheusText() {
+        metrics.recordCertificate(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordCrl(TimeUnit.MILLISECONDS.toNanos(30));
+
+        String text = metrics.toPrometheusText();
+
+        assertThat(text, containsString("# TYPE candlepin_signing_seconds histogram\n"));
+        assertThat(text, containsString(
+            "candlepin_signing_seconds_bucket{type=\"certificate\",le=\"0.001\"} 0\n"));
+        assertThat(text, containsString(
+            "candlepin_signing_seconds_bucket{type=\"certificate\",le=\"0.0025\"} 1\n"));
+        assertThat(text, containsString("candlepin_signing_seconds_count{type=\"certificate\"} 1\n"));
+        assertThat(text, containsString("candlepin_signing_seconds_count{type=\"crl\"} 1\n"));
+        assertThat(text, containsString("candlepin_signing_seconds_count{type=\"payload\"} 0\n"));
+    }
+}
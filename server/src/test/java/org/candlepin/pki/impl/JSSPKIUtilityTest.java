@@ -21,6 +21,7 @@ import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.pki.CertificateReader;
 import org.candlepin.pki.PrivateKeyReader;
+import org.candlepin.pki.SigningMetrics;
 import org.candlepin.pki.SubjectKeyIdentifierWriter;
 import org.candlepin.pki.X509ByteExtensionWrapper;
 import org.candlepin.pki.X509CRLEntryWrapper;
@@ -58,6 +59,7 @@ import org.mozilla.jss.netscape.security.x509.KeyIdentifier;
 import org.mozilla.jss.netscape.security.x509.PKIXExtensions;
 import org.mozilla.jss.netscape.security.x509.X500Name;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -85,6 +87,9 @@ import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 
@@ -167,6 +172,49 @@ public class JSSPKIUtilityTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testCertificatesSignedWithCaKey() throws Exception {
+        Date start = new Date();
+        Date end = Date.from(LocalDate.now().plusDays(365).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        PublicKey caKey = injector.getInstance(CertificateReader.class).getCACert().getPublicKey();
+
+        for (long serial = 3000L; serial < 3003L; ++serial) {
+            X509Certificate cert = jssUtil.createX509Certificate("cn=candlepinproject.org", null, null,
+                start, end, subjectKeyPair, BigInteger.valueOf(serial), null);
+
+            // Throws if the signature doesn't match
+            cert.verify(caKey);
+        }
+
+        assertEquals(3, injector.getInstance(SigningMetrics.class).getCertificateCount());
+    }
+
+    @Test
+    public void testSHA256WithRSAHashOnConcurrentThreads() throws Exception {
+        byte[] data = "some payload".getBytes(Charsets.UTF_8);
+        byte[] expected = jssUtil.getSHA256WithRSAHash(new ByteArrayInputStream(data));
+        X509Certificate caCert = injector.getInstance(CertificateReader.class).getCACert();
+        assertTrue(jssUtil.verifySHA256WithRSAHash(new ByteArrayInputStream(data), expected, caCert));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; ++i) {
+                futures.add(executor.submit(
+                    () -> jssUtil.getSHA256WithRSAHash(new ByteArrayInputStream(data))));
+            }
+
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals(expected, future.get());
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        assertEquals(17, injector.getInstance(SigningMetrics.class).getPayloadCount());
+    }
+
     @Test
     public void testCustomExtensions() throws Exception {
         Date start = new Date();
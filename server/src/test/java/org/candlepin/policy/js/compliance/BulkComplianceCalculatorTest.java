@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.compliance;
+
+import static org.junit.Assert.*;
+
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.Owner;
+import org.candlepin.test.DatabaseTestFixture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+
+/**
+ * BulkComplianceCalculatorTest
+ */
+public class BulkComplianceCalculatorTest extends DatabaseTestFixture {
+
+    private Owner owner;
+
+    @Before
+    public void setUp() {
+        this.owner = this.createOwner();
+        this.config.setProperty(ConfigProperties.BULK_COMPLIANCE_BLOCK_SIZE, "2");
+        this.config.setProperty(ConfigProperties.BULK_COMPLIANCE_THREADS, "2");
+    }
+
+    private BulkComplianceCalculator buildCalculator() {
+        return this.injector.getInstance(BulkComplianceCalculator.class);
+    }
+
+    @Test
+    public void testRecalculateUpdatesChangedConsumers() {
+        List<String> ids = new ArrayList<>();
+
+        for (int i = 0; i < 5; ++i) {
+            ids.add(this.createConsumer(this.owner).getId());
+        }
+
+        assertEquals(5, this.buildCalculator().recalculate(ids));
+        this.consumerCurator.clear();
+
+        for (String id : ids) {
+            Consumer consumer = this.consumerCurator.get(id);
+
+            assertEquals(ComplianceStatus.GREEN, consumer.getEntitlementStatus());
+            assertNotNull(consumer.getComplianceStatusHash());
+        }
+
+        // Nothing changes the second time around
+        assertEquals(0, this.buildCalculator().recalculate(ids));
+    }
+
+    @Test
+    public void testRecalculateSkipsDistributors() {
+        Consumer distributor = this.createDistributor(this.owner);
+
+        assertEquals(0, this.buildCalculator().recalculate(Arrays.asList(distributor.getId())));
+        this.consumerCurator.clear();
+
+        assertNull(this.consumerCurator.get(distributor.getId()).getEntitlementStatus());
+    }
+
+    @Test
+    public void testRecalculateIgnoresUnknownConsumers() {
+        assertEquals(0, this.buildCalculator().recalculate(Arrays.asList("unknown")));
+        assertEquals(0, this.buildCalculator().recalculate(Collections.<String>emptyList()));
+    }
+}
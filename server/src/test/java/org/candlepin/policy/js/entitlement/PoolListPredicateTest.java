@@ -0,0 +1,193 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.entitlement;
+
+import static org.junit.Assert.*;
+
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.test.TestUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Date;
+
+
+
+/**
+ * PoolListPredicateTest
+ */
+public class PoolListPredicateTest {
+
+    private Owner owner;
+    private ConsumerType systemType;
+    private Consumer consumer;
+    private Product product;
+    private Pool pool;
+
+    @Before
+    public void init() {
+        owner = TestUtil.createOwner();
+        systemType = createType(ConsumerTypeEnum.SYSTEM);
+        consumer = TestUtil.createConsumer(systemType, owner, "user");
+        consumer.setUuid("consumer-uuid");
+        consumer.setFact("uname.machine", "x86_64");
+
+        product = TestUtil.createProduct("product", "product");
+        pool = TestUtil.createPool(owner, product);
+        pool.setId("pool-id");
+        pool.setConsumed(0L);
+    }
+
+    private ConsumerType createType(ConsumerTypeEnum typeEnum) {
+        ConsumerType type = new ConsumerType(typeEnum);
+        type.setId("test-ctype-" + typeEnum.getLabel());
+
+        return type;
+    }
+
+    @Test
+    public void acceptsPlainPool() {
+        assertTrue(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+    }
+
+    @Test
+    public void rejectsExhaustedPool() {
+        pool.setConsumed(pool.getQuantity());
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+    }
+
+    @Test
+    public void rejectsAlreadyEntitledPoolUnlessMultiEntitlement() {
+        Entitlement entitlement = new Entitlement(pool, consumer, owner, 1);
+        consumer.addEntitlement(entitlement);
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        product.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+    }
+
+    @Test
+    public void rejectsPoolRestrictedToAnotherUser() {
+        pool.setRestrictedToUsername("someone-else");
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        pool.setRestrictedToUsername("user");
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+    }
+
+    @Test
+    public void virtOnlyPoolsRejectedForPhysicalSystemsOnlyWithoutWarnings() {
+        pool.setAttribute(Pool.Attributes.VIRT_ONLY, "true");
+        assertFalse(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        consumer.setFact("virt.is_guest", "true");
+        assertTrue(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+    }
+
+    @Test
+    public void requiresHostMustMatchGuestHost() {
+        Consumer host = TestUtil.createConsumer(systemType, owner);
+        host.setUuid("host-uuid");
+        pool.setAttribute(Pool.Attributes.REQUIRES_HOST, "host-uuid");
+
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        consumer.setFact("virt.is_guest", "true");
+        consumer.setFact("virt.uuid", "guest-uuid");
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+        assertTrue(new PoolListPredicate(consumer, systemType, host, true).test(pool));
+
+        pool.setAttribute(Pool.Attributes.REQUIRES_HOST, "other-host-uuid");
+        assertFalse(new PoolListPredicate(consumer, systemType, host, true).test(pool));
+    }
+
+    @Test
+    public void attributesWithZeroValueAreUnset() {
+        pool.setAttribute(Pool.Attributes.REQUIRES_HOST, "0");
+        pool.setAttribute(Pool.Attributes.VIRT_ONLY, "0");
+        product.setAttribute(Pool.Attributes.VIRT_ONLY, "true");
+
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+        assertFalse(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+    }
+
+    @Test
+    public void unmappedGuestsOnlyRequiresNewbornGuestWithoutHost() {
+        pool.setAttribute(Pool.Attributes.UNMAPPED_GUESTS_ONLY, "true");
+        consumer.setFact("virt.is_guest", "true");
+        consumer.setCreated(new Date());
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        Consumer host = TestUtil.createConsumer(systemType, owner);
+        assertFalse(new PoolListPredicate(consumer, systemType, host, true).test(pool));
+
+        consumer.setCreated(TestUtil.createDate(2010, 1, 1));
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+    }
+
+    @Test
+    public void requiredConsumerTypeMustMatch() {
+        ConsumerType personType = createType(ConsumerTypeEnum.PERSON);
+        Consumer person = TestUtil.createConsumer(personType, owner, "user");
+        ConsumerType hypervisorType = createType(ConsumerTypeEnum.HYPERVISOR);
+        Consumer hypervisor = TestUtil.createConsumer(hypervisorType, owner, "user");
+
+        // Pools without a required type are only available to systems and alike
+        assertFalse(new PoolListPredicate(person, personType, null, true).test(pool));
+        assertTrue(new PoolListPredicate(hypervisor, hypervisorType, null, true).test(pool));
+
+        product.setAttribute(Pool.Attributes.REQUIRES_CONSUMER_TYPE, "person");
+        assertTrue(new PoolListPredicate(person, personType, null, true).test(pool));
+        assertFalse(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        product.setAttribute(Pool.Attributes.REQUIRES_CONSUMER_TYPE, "system");
+        assertTrue(new PoolListPredicate(hypervisor, hypervisorType, null, true).test(pool));
+    }
+
+    @Test
+    public void architectureMismatchOnlyRejectedWithoutWarnings() {
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "ppc64,s390x");
+        assertFalse(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+        assertTrue(new PoolListPredicate(consumer, systemType, null, true).test(pool));
+
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "x86_64");
+        assertTrue(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+
+        consumer.setFact("uname.machine", "i686");
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "x86");
+        assertTrue(new PoolListPredicate(consumer, systemType, null, false).test(pool));
+    }
+
+    @Test
+    public void manifestsSkipConsumerSpecificChecks() {
+        ConsumerType manifestType = createType(ConsumerTypeEnum.CANDLEPIN);
+        Consumer distributor = TestUtil.createConsumer(manifestType, owner);
+
+        product.setAttribute(Product.Attributes.ARCHITECTURE, "ppc64");
+        pool.setAttribute(Pool.Attributes.VIRT_ONLY, "true");
+        assertTrue(new PoolListPredicate(distributor, manifestType, null, false).test(pool));
+
+        pool.setAttribute(Pool.Attributes.DERIVED_POOL, "true");
+        assertFalse(new PoolListPredicate(distributor, manifestType, null, true).test(pool));
+    }
+}
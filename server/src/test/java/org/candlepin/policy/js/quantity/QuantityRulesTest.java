@@ -19,6 +19,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.when;
 
+import org.candlepin.config.CandlepinCommonTestConfig;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.StandardTranslator;
 import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
@@ -105,7 +106,8 @@ public class QuantityRulesTest {
 
         translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCuratorMock);
         quantityRules = new QuantityRules(provider.get(), new RulesObjectMapper(
-            new ProductCachedSerializationModule(productCurator)), translator);
+            new ProductCachedSerializationModule(productCurator)), translator, consumerTypeCurator,
+            new CandlepinCommonTestConfig());
 
         owner = TestUtil.createOwner();
         product = TestUtil.createProduct();
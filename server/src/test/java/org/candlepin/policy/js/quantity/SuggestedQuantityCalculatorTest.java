@@ -0,0 +1,319 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.policy.js.quantity;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.*;
+import static org.mockito.Mockito.*;
+
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.dto.ModelTranslator;
+import org.candlepin.dto.StandardTranslator;
+import org.candlepin.dto.rules.v1.SuggestedQuantityDTO;
+import org.candlepin.jackson.ProductCachedSerializationModule;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.ConsumerTypeCurator;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.EnvironmentCurator;
+import org.candlepin.model.Owner;
+import org.candlepin.model.OwnerCurator;
+import org.candlepin.model.Pool;
+import org.candlepin.model.Product;
+import org.candlepin.model.ProductCurator;
+import org.candlepin.model.Rules;
+import org.candlepin.model.RulesCurator;
+import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.policy.js.JsRunnerRequestCache;
+import org.candlepin.policy.js.RulesObjectMapper;
+import org.candlepin.test.TestUtil;
+import org.candlepin.util.Util;
+
+import com.google.inject.Provider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+
+/**
+ * SuggestedQuantityCalculatorTest
+ */
+public class SuggestedQuantityCalculatorTest {
+
+    private static final String[] SOCKET_FACTS = { null, "1", "2", "3", "4", "8", " 6 ", "2.5" };
+    private static final String[] CORE_FACTS = { null, "1", "2", "6", "0x4" };
+    private static final String[] RAM_FACTS = { null, "2048", "8000000", "16777216", "33554432" };
+    private static final String[] BAND_FACTS = { null, "1", "4", "256" };
+    private static final String[] MALFORMED_FACTS = { "", "abc", "4 cores", "-2" };
+
+    private static final String[] QUANTITY_ATTRIBUTES = { null, null, "0", "1", "2", "4", "8" };
+    private static final String[] MULTIPLIERS = { null, null, "1", "2", "4" };
+    private static final String[] MALFORMED_ATTRIBUTES = { "abc", "2 sockets", "-4", "1.5" };
+
+    private Owner owner;
+    private ConsumerType currentType;
+    private ModelTranslator translator;
+    private JsRunnerProvider provider;
+    private QuantityRules jsRules;
+    private QuantityRules javaRules;
+
+    @Mock private RulesCurator rulesCuratorMock;
+    @Mock private OwnerCurator ownerCuratorMock;
+    @Mock private Provider<JsRunnerRequestCache> cacheProvider;
+    @Mock private JsRunnerRequestCache cache;
+    @Mock private ProductCurator productCurator;
+    @Mock private ConsumerTypeCurator consumerTypeCurator;
+    @Mock private EnvironmentCurator environmentCurator;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        InputStream is = this.getClass().getResourceAsStream(RulesCurator.DEFAULT_RULES_FILE);
+        Rules rules = new Rules(Util.readFile(is));
+        when(rulesCuratorMock.getUpdated()).thenReturn(new Date());
+        when(rulesCuratorMock.getRules()).thenReturn(rules);
+        when(cacheProvider.get()).thenReturn(cache);
+        provider = new JsRunnerProvider(rulesCuratorMock, cacheProvider);
+
+        when(consumerTypeCurator.get(anyString())).thenAnswer(invocation -> currentType);
+        when(consumerTypeCurator.getConsumerType(any(Consumer.class))).thenAnswer(invocation -> currentType);
+
+        translator = new StandardTranslator(consumerTypeCurator, environmentCurator, ownerCuratorMock);
+        jsRules = this.buildRules(false);
+        javaRules = this.buildRules(true);
+
+        owner = TestUtil.createOwner();
+        currentType = this.createType(ConsumerTypeEnum.SYSTEM);
+    }
+
+    private QuantityRules buildRules(boolean useJava) {
+        CandlepinCommonTestConfig config = new CandlepinCommonTestConfig();
+        config.setProperty(ConfigProperties.QUANTITY_RULES_JAVA, String.valueOf(useJava));
+
+        return new QuantityRules(provider.get(), new RulesObjectMapper(
+            new ProductCachedSerializationModule(productCurator)), translator, consumerTypeCurator, config);
+    }
+
+    private ConsumerType createType(ConsumerTypeEnum typeEnum) {
+        ConsumerType type = new ConsumerType(typeEnum);
+        type.setId("test-ctype-" + typeEnum.getLabel());
+
+        return type;
+    }
+
+    private Pool createPool(String id, long quantity, long consumed) {
+        Product product = TestUtil.createProduct();
+        product.setAttribute(Pool.Attributes.MULTI_ENTITLEMENT, "yes");
+        product.setAttribute(Product.Attributes.STACKING_ID, "stack");
+
+        Pool pool = TestUtil.createPool(owner, product);
+        pool.setId(id);
+        pool.setQuantity(quantity);
+        pool.setConsumed(consumed);
+
+        return pool;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void setFact(Consumer consumer, String fact, String value) {
+        if (value != null) {
+            consumer.setFact(fact, value);
+        }
+    }
+
+    private static void setAttribute(Product product, String attribute, String value) {
+        if (value != null) {
+            product.setAttribute(attribute, value);
+        }
+    }
+
+    private void assertParity(List<Pool> pools, Consumer consumer) {
+        Date now = new Date();
+        Map<String, SuggestedQuantityDTO> expected = jsRules.getSuggestedQuantities(pools, consumer, now);
+        Map<String, SuggestedQuantityDTO> actual = javaRules.getSuggestedQuantities(pools, consumer, now);
+
+        assertEquals(pools.size(), actual.size());
+        assertEquals(expected, actual);
+
+        for (Pool pool : pools) {
+            assertEquals(jsRules.getSuggestedQuantity(pool, consumer, new Date()),
+                javaRules.getSuggestedQuantity(pool, consumer, new Date()));
+        }
+    }
+
+    @Test
+    public void testParityWithRules() {
+        Random random = new Random(8675309);
+
+        for (int i = 0; i < 250; ++i) {
+            // Malformed values may prevent the rules from covering a stack, which would never
+            // terminate for unlimited pools
+            boolean malformed = random.nextInt(4) == 0;
+            boolean unlimited = !malformed && random.nextInt(5) == 0;
+
+            Consumer consumer = TestUtil.createConsumer(owner);
+            setFact(consumer, "virt.is_guest", random.nextBoolean() ? "true" : null);
+            setFact(consumer, "cpu.cpu_socket(s)", pick(random, malformed ? MALFORMED_FACTS : SOCKET_FACTS));
+            setFact(consumer, "cpu.core(s)_per_socket", pick(random, CORE_FACTS));
+            setFact(consumer, "memory.memtotal", pick(random, RAM_FACTS));
+            setFact(consumer, "band.storage.usage", pick(random, BAND_FACTS));
+
+            List<Pool> pools = new ArrayList<>();
+            for (int j = 0; j < 3; ++j) {
+                Pool pool = this.createPool("pool-" + i + "-" + j, unlimited ? -1 : 1 + random.nextInt(40),
+                    random.nextInt(5));
+
+                Product product = pool.getProduct();
+                setAttribute(product, Product.Attributes.SOCKETS,
+                    pick(random, malformed ? MALFORMED_ATTRIBUTES : QUANTITY_ATTRIBUTES));
+                setAttribute(product, Product.Attributes.CORES, pick(random, QUANTITY_ATTRIBUTES));
+                setAttribute(product, Product.Attributes.RAM, pick(random, QUANTITY_ATTRIBUTES));
+                setAttribute(product, Product.Attributes.VCPU, pick(random, QUANTITY_ATTRIBUTES));
+                setAttribute(product, "storage_band", pick(random, QUANTITY_ATTRIBUTES));
+                setAttribute(product, Product.Attributes.INSTANCE_MULTIPLIER, pick(random, MULTIPLIERS));
+
+                if (random.nextInt(4) == 0) {
+                    pool.setAttribute(Pool.Attributes.REQUIRES_HOST, "host-uuid");
+                }
+
+                if (random.nextInt(6) == 0) {
+                    product.setAttribute(Product.Attributes.STACKING_ID, "other-stack");
+                }
+
+                pools.add(pool);
+            }
+
+            // Consume from some of the pools, and from pools not being listed
+            int entitlements = random.nextInt(4);
+            for (int j = 0; j < entitlements; ++j) {
+                Pool source = random.nextBoolean() ? pools.get(random.nextInt(pools.size())) :
+                    this.createPool("consumed-" + i + "-" + j, 10, 0);
+
+                if (random.nextBoolean()) {
+                    source.getProduct().setAttribute(Product.Attributes.SOCKETS, "2");
+                }
+
+                Entitlement entitlement = TestUtil.createEntitlement(owner, consumer, source, null);
+                entitlement.setQuantity(1 + random.nextInt(4));
+            }
+
+            assertParity(pools, consumer);
+        }
+    }
+
+    @Test
+    public void testParityForStackedPoolAttributes() {
+        Consumer consumer = TestUtil.createConsumer(owner);
+        consumer.setFact("cpu.cpu_socket(s)", "8");
+
+        // Stacking ID only defined on the pool; entitlements from it are not considered stacked
+        Pool pool = this.createPool("pool", 20, 0);
+        pool.getProduct().removeAttribute(Product.Attributes.STACKING_ID);
+        pool.getProduct().setAttribute(Product.Attributes.SOCKETS, "2");
+        pool.setAttribute(Product.Attributes.STACKING_ID, "pool-stack");
+
+        Entitlement entitlement = TestUtil.createEntitlement(owner, consumer, pool, null);
+        entitlement.setQuantity(3);
+
+        List<Pool> pools = new ArrayList<>();
+        pools.add(pool);
+        assertParity(pools, consumer);
+        assertEquals(Long.valueOf(3), javaRules.getSuggestedQuantity(pool, consumer, new Date())
+            .getSuggested());
+    }
+
+    @Test
+    public void testManifestConsumers() {
+        currentType = this.createType(ConsumerTypeEnum.CANDLEPIN);
+        Consumer consumer = TestUtil.createConsumer(owner);
+        consumer.setFact("cpu.cpu_socket(s)", "8");
+
+        Pool pool = this.createPool("pool", 20, 0);
+        pool.getProduct().setAttribute(Product.Attributes.SOCKETS, "2");
+        pool.getProduct().setAttribute(Product.Attributes.INSTANCE_MULTIPLIER, "2");
+
+        SuggestedQuantityDTO result = javaRules.getSuggestedQuantity(pool, consumer, new Date());
+        assertEquals(Long.valueOf(1), result.getSuggested());
+        assertEquals(Long.valueOf(1), result.getIncrement());
+    }
+
+    @Test
+    public void testMalformedInstanceMultiplierDefersToRules() {
+        Consumer consumer = TestUtil.createConsumer(owner);
+        consumer.setFact("cpu.cpu_socket(s)", "8");
+
+        Pool pool = this.createPool("pool", 20, 0);
+        pool.getProduct().setAttribute(Product.Attributes.INSTANCE_MULTIPLIER, "many");
+
+        assertNull(new SuggestedQuantityCalculator(consumerTypeCurator, consumer, new Date())
+            .calculate(pool));
+
+        List<Pool> pools = new ArrayList<>();
+        pools.add(pool);
+        pools.add(this.createPool("other", 20, 0));
+        assertParity(pools, consumer);
+    }
+
+    @Test
+    public void testUnlimitedPoolWhichCannotCoverStackTerminates() {
+        Consumer consumer = TestUtil.createConsumer(owner);
+        consumer.setFact("cpu.cpu_socket(s)", "8");
+
+        Pool pool = this.createPool("pool", -1, 0);
+        pool.getProduct().setAttribute(Product.Attributes.SOCKETS, "-2");
+
+        SuggestedQuantityDTO result = new SuggestedQuantityCalculator(consumerTypeCurator, consumer,
+            new Date()).calculate(pool);
+        assertEquals(Long.valueOf(1), result.getSuggested());
+    }
+
+    @Test
+    public void testJavaScriptNumberConversions() {
+        assertEquals(42, SuggestedQuantityCalculator.parseInt(" 42abc"), 0);
+        assertEquals(-7, SuggestedQuantityCalculator.parseInt("-7.9"), 0);
+        assertEquals(16, SuggestedQuantityCalculator.parseInt("0x10"), 0);
+        assertTrue(Double.isNaN(SuggestedQuantityCalculator.parseInt("abc")));
+        assertTrue(Double.isNaN(SuggestedQuantityCalculator.parseInt((String) null)));
+        assertEquals(2, SuggestedQuantityCalculator.parseInt(2.5), 0);
+
+        assertEquals(2.5, SuggestedQuantityCalculator.toNumber(" 2.5 "), 0);
+        assertEquals(16, SuggestedQuantityCalculator.toNumber("0x10"), 0);
+        assertTrue(Double.isNaN(SuggestedQuantityCalculator.toNumber("4 cores")));
+        assertTrue(Double.isNaN(SuggestedQuantityCalculator.toNumber("1d")));
+
+        assertEquals(0, SuggestedQuantityCalculator.toInt32(Double.NaN));
+        assertEquals(0, SuggestedQuantityCalculator.toInt32(null));
+        assertEquals(3, SuggestedQuantityCalculator.toInt32(3.7));
+
+        assertEquals(3, SuggestedQuantityCalculator.round(2.5), 0);
+        assertEquals(-2, SuggestedQuantityCalculator.round(-2.5), 0);
+    }
+}
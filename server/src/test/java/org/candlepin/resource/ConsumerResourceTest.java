@@ -36,6 +36,7 @@ import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.GoneException;
 import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.CandlepinPoolManager;
 import org.candlepin.controller.Entitler;
 import org.candlepin.controller.ManifestManager;
@@ -363,6 +364,19 @@ public class ConsumerResourceTest {
         verifyCertificateSerialNumbers(serials);
     }
 
+    @Test
+    public void testGetCertSerialsRegeneratesDirtyEntitlements() {
+        Consumer consumer = createConsumer(createOwner());
+        when(mockEntitlementCertServiceAdapter.listEntitlementSerialIds(consumer))
+            .thenReturn(new ArrayList<>());
+
+        // Clients only fetch certificates when their serials change, so the dirty certificate worker
+        // must not defer the regeneration
+        this.config.setProperty(ConfigProperties.DIRTY_CERT_WORKER_ENABLED, "true");
+        consumerResource.getEntitlementCertificateSerials(consumer.getUuid());
+        verify(mockPoolManager).regenerateDirtyEntitlements(eq(consumer));
+    }
+
     @Test (expected = RuntimeException.class)
     public void testExceptionFromCertGen() throws Exception {
         Consumer consumer = createConsumer(createOwner());
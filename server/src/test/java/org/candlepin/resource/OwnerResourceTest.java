@@ -36,6 +36,7 @@ import org.candlepin.common.exceptions.IseException;
 import org.candlepin.common.exceptions.NotFoundException;
 import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
+import org.candlepin.common.resteasy.filter.PageRequestFilter;
 import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.CandlepinPoolManager;
 import org.candlepin.controller.ContentManager;
@@ -95,7 +96,9 @@ import org.jboss.resteasy.plugins.providers.atom.Entry;
 import org.jboss.resteasy.plugins.providers.atom.Feed;
 import org.jboss.resteasy.plugins.providers.multipart.InputPart;
 import org.jboss.resteasy.plugins.providers.multipart.MultipartInput;
+import org.jboss.resteasy.mock.MockHttpRequest;
 import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -121,6 +124,7 @@ import java.util.Set;
 
 import javax.inject.Inject;
 import javax.persistence.PersistenceException;
+import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MultivaluedMap;
 
@@ -553,6 +557,38 @@ public class OwnerResourceTest extends DatabaseTestFixture {
         assert (futureList.get(0).getId().equals(pool2.getId()));
     }
 
+    @Test
+    public void testListPoolsAfterDateAlongsidePaging() throws Exception {
+        Principal principal = setupPrincipal(owner, Access.ALL);
+
+        Product p = this.createProduct(owner);
+        Date now = new Date();
+        Pool current = TestUtil.createPool(owner, p);
+        current.setStartDate(now);
+        current.setEndDate(new Date(now.getTime() + 1000L * 60 * 60 * 24 * 365));
+        Pool future = TestUtil.createPool(owner, p);
+        future.setStartDate(new Date(now.getTime() + 2 * 1000L * 60 * 60 * 24 * 365));
+        future.setEndDate(new Date(now.getTime() + 3 * 1000L * 60 * 60 * 24 * 365));
+        poolCurator.create(current);
+        poolCurator.create(future);
+
+        // The after parameter filters by date; it must not be mistaken for a continuation token
+        ContainerRequestContext context = mock(ContainerRequestContext.class);
+        when(context.getUriInfo()).thenReturn(MockHttpRequest.create("GET",
+            "http://localhost/candlepin/owners/admin/pools?after=2030-01-01&per_page=10").getUri());
+
+        new PageRequestFilter(() -> i18n).filter(context);
+        PageRequest pageRequest = ResteasyProviderFactory.getContextData(PageRequest.class);
+        assertFalse(pageRequest.isKeyset());
+
+        Date after = new Date(now.getTime() + 1000L * 60 * 60 * 24 * 365);
+        List<PoolDTO> pools = ownerResource.listPools(owner.getKey(), null, null, null, null, true, null,
+            null, new ArrayList<>(), false, false, after, null, principal, pageRequest);
+
+        assertEquals(1, pools.size());
+        assertEquals(future.getId(), pools.get(0).getId());
+    }
+
     @Test
     public void testOwnerAdminCanGetPools() {
         Principal principal = setupPrincipal(owner, Access.ALL);
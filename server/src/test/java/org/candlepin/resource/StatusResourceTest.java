@@ -22,13 +22,18 @@ import org.candlepin.cache.StatusCache;
 import org.candlepin.common.config.Configuration;
 import org.candlepin.controller.ModeManager;
 import org.candlepin.dto.api.v1.StatusDTO;
+import org.candlepin.jackson.ProductCachedSerializationModule;
 import org.candlepin.model.CandlepinModeChange;
 import org.candlepin.model.CandlepinModeChange.Mode;
 import org.candlepin.model.CandlepinModeChange.Reason;
 import org.candlepin.model.CandlepinQuery;
+import org.candlepin.model.ProductCurator;
 import org.candlepin.model.Rules;
 import org.candlepin.model.RulesCurator;
 import org.candlepin.policy.js.JsRunnerProvider;
+import org.candlepin.resteasy.JsonProvider;
+
+import com.google.inject.persist.UnitOfWork;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -48,6 +53,10 @@ import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Date;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+
 
 /**
  * StatusResourceTest
@@ -58,8 +67,11 @@ public class StatusResourceTest {
     @Mock private Configuration config;
     @Mock private JsRunnerProvider jsProvider;
     @Mock private CandlepinCache candlepinCache;
-    @Mock private StatusCache mockedStatusCache;
     @Mock private ModeManager modeManager;
+    @Mock private ProductCurator productCurator;
+    @Mock private UnitOfWork unitOfWork;
+    private StatusCache statusCache;
+    private JsonProvider jsonProvider;
 
     @Before
     public void setUp() {
@@ -72,9 +84,24 @@ public class StatusResourceTest {
 
         when(rulesCurator.listAll()).thenReturn(mockCPQuery);
         when(rulesCurator.getRules()).thenReturn(new Rules("// Version: 2.0\nBLAH"));
-        when(mockedStatusCache.getStatus()).thenReturn(null);
-        when(candlepinCache.getStatusCache()).thenReturn(mockedStatusCache);
+        this.statusCache = new StatusCache();
+        this.statusCache.clear();
+        when(candlepinCache.getStatusCache()).thenReturn(this.statusCache);
         when(modeManager.getLastCandlepinModeChange()).thenReturn(mockModeChange);
+
+        this.jsonProvider = new JsonProvider(false, new ProductCachedSerializationModule(productCurator));
+    }
+
+    private StatusResource createResource() {
+        return new StatusResource(rulesCurator, config, jsProvider, candlepinCache, modeManager,
+            this.jsonProvider, this.unitOfWork);
+    }
+
+    private StatusDTO readStatus(Response response) throws Exception {
+        assertEquals(200, response.getStatus());
+
+        return this.jsonProvider.locateMapper(StatusDTO.class, null)
+            .readValue((byte[]) response.getEntity(), StatusDTO.class);
     }
 
     @Test
@@ -83,9 +110,8 @@ public class StatusResourceTest {
             .getClassLoader().getResource("version.properties").toURI()));
         ps.println("version=${version}");
         ps.println("release=${release}");
-        StatusResource sr = new StatusResource(rulesCurator, config, jsProvider, candlepinCache,
-            modeManager);
-        StatusDTO s = sr.status();
+        StatusResource sr = this.createResource();
+        StatusDTO s = this.readStatus(sr.status(null));
         ps.close();
         assertNotNull(s);
         assertEquals("${release}", s.getRelease());
@@ -98,9 +124,8 @@ public class StatusResourceTest {
         PrintStream ps = new PrintStream(new File(this.getClass()
             .getClassLoader().getResource("version.properties").toURI()));
         ps.println("foo");
-        StatusResource sr = new StatusResource(rulesCurator, config, jsProvider, candlepinCache,
-            modeManager);
-        StatusDTO s = sr.status();
+        StatusResource sr = this.createResource();
+        StatusDTO s = this.readStatus(sr.status(null));
         ps.close();
         assertNotNull(s);
         assertEquals("Unknown", s.getRelease());
@@ -115,9 +140,8 @@ public class StatusResourceTest {
         ps.println("version=${version}");
         ps.println("release=${release}");
         when(rulesCurator.getUpdatedFromDB()).thenThrow(new RuntimeException());
-        StatusResource sr = new StatusResource(rulesCurator, config, jsProvider, candlepinCache,
-            modeManager);
-        StatusDTO s = sr.status();
+        StatusResource sr = this.createResource();
+        StatusDTO s = this.readStatus(sr.status(null));
         ps.close();
         assertNotNull(s);
         assertEquals("${release}", s.getRelease());
@@ -139,9 +163,8 @@ public class StatusResourceTest {
             .getClassLoader().getResource("version.properties").toURI()));
         ps.println("version=${version}");
         ps.println("release=${release}");
-        StatusResource sr = new StatusResource(rulesCurator, config, jsProvider, candlepinCache,
-            modeManager);
-        StatusDTO s = sr.status();
+        StatusResource sr = this.createResource();
+        StatusDTO s = this.readStatus(sr.status(null));
         ps.close();
 
         // make sure we did not log anything which indicates
@@ -152,4 +175,52 @@ public class StatusResourceTest {
         assertTrue(s.getResult());
         assertFalse(s.getStandalone());
     }
+
+    @Test
+    public void statusIsServedFromSnapshotWithoutRebuilding() throws Exception {
+        StatusResource sr = this.createResource();
+        Response first = sr.status(null);
+        Response second = sr.status(null);
+
+        assertSame(first.getEntity(), second.getEntity());
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+        verify(rulesCurator, times(1)).getUpdatedFromDB();
+    }
+
+    @Test
+    public void matchingEntityTagReturnsNotModified() throws Exception {
+        StatusResource sr = this.createResource();
+        EntityTag etag = sr.status(null).getEntityTag();
+        assertNotNull(etag);
+
+        Request request = mock(Request.class);
+        when(request.evaluatePreconditions(eq(etag))).thenReturn(Response.notModified(etag));
+
+        Response response = sr.status(request);
+        assertEquals(304, response.getStatus());
+        assertNull(response.getEntity());
+    }
+
+    @Test
+    public void expiredSnapshotIsServedWhileRefreshedInBackground() throws Exception {
+        StatusDTO stale = new StatusDTO()
+            .setResult(true)
+            .setVersion("stale")
+            .setTimeUTC(new Date(System.currentTimeMillis() - 10000L));
+        this.statusCache.setStatus(stale, "{\"version\":\"stale\"}".getBytes("UTF-8"));
+
+        StatusResource sr = this.createResource();
+        StatusDTO served = this.readStatus(sr.status(null));
+        assertEquals("stale", served.getVersion());
+
+        // Wait for the background refresh to replace the stale snapshot
+        for (int i = 0; i < 100 && this.statusCache.getStatus() == null; ++i) {
+            Thread.sleep(50L);
+        }
+
+        assertNotNull(this.statusCache.getStatus());
+        assertNotEquals("stale", this.readStatus(sr.status(null)).getVersion());
+        verify(unitOfWork, timeout(1000)).begin();
+        verify(unitOfWork, timeout(1000)).end();
+    }
 }
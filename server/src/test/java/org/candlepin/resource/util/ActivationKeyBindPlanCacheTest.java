@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.resource.util;
+
+import static org.junit.Assert.*;
+
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
+import org.candlepin.model.Consumer;
+import org.candlepin.model.ConsumerType;
+import org.candlepin.model.ConsumerType.ConsumerTypeEnum;
+import org.candlepin.model.Entitlement;
+import org.candlepin.model.Owner;
+import org.candlepin.model.Pool;
+import org.candlepin.model.activationkeys.ActivationKey;
+import org.candlepin.model.activationkeys.ActivationKeyPool;
+import org.candlepin.test.TestUtil;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+
+/**
+ * ActivationKeyBindPlanCacheTest
+ */
+public class ActivationKeyBindPlanCacheTest {
+
+    private CandlepinCommonTestConfig config;
+    private ActivationKeyBindPlanCache cache;
+    private ConsumerType system;
+    private ActivationKey key;
+    private Pool pool;
+
+    @Before
+    public void init() {
+        this.config = new CandlepinCommonTestConfig();
+        this.cache = new ActivationKeyBindPlanCache(this.config);
+
+        this.system = new ConsumerType(ConsumerTypeEnum.SYSTEM);
+        this.system.setId("test-ctype-system");
+
+        Owner owner = TestUtil.createOwner();
+        this.pool = TestUtil.createPool(owner, TestUtil.createProduct(), 10);
+        this.pool.setId("pool-id");
+
+        this.key = new ActivationKey("key", owner);
+        this.key.setId("key-id");
+        this.key.addPool(this.pool, null);
+    }
+
+    private Consumer createConsumer(String sockets) {
+        Consumer consumer = new Consumer("sys.example.com", null, null, this.system);
+        consumer.setFact("cpu.cpu_socket(s)", sockets);
+
+        return consumer;
+    }
+
+    private List<Object> buildPlanKey(Consumer consumer) {
+        return this.cache.buildPlanKey(consumer, this.key, new ArrayList<>(this.key.getPools()));
+    }
+
+    @Test
+    public void testPlansSharedBySimilarConsumers() {
+        List<Object> planKey = this.buildPlanKey(this.createConsumer("2"));
+        this.cache.putPlan(planKey, Collections.singletonMap("pool-id", 2));
+
+        Map<String, Integer> plan = this.cache.getPlan(this.buildPlanKey(this.createConsumer("2")));
+        assertEquals(Collections.singletonMap("pool-id", 2), plan);
+
+        assertNull(this.cache.getPlan(this.buildPlanKey(this.createConsumer("4"))));
+    }
+
+    @Test
+    public void testPlanKeyChangesWithPoolAndKey() {
+        Consumer consumer = this.createConsumer("2");
+        List<Object> planKey = this.buildPlanKey(consumer);
+
+        this.pool.setAttribute(Pool.Attributes.VIRT_ONLY, "true");
+        assertNotEquals(planKey, this.buildPlanKey(consumer));
+
+        planKey = this.buildPlanKey(consumer);
+        for (ActivationKeyPool keyPool : this.key.getPools()) {
+            keyPool.setQuantity(3L);
+        }
+        assertNotEquals(planKey, this.buildPlanKey(consumer));
+    }
+
+    @Test
+    public void testNoPlanForConsumersWithEntitlements() {
+        Consumer consumer = this.createConsumer("2");
+        consumer.addEntitlement(new Entitlement(this.pool, consumer, this.pool.getOwner(), 1));
+
+        assertNull(this.buildPlanKey(consumer));
+    }
+
+    @Test
+    public void testInvalidatePlan() {
+        List<Object> planKey = this.buildPlanKey(this.createConsumer("2"));
+        this.cache.putPlan(planKey, Collections.singletonMap("pool-id", 2));
+
+        this.cache.invalidatePlan(planKey);
+        assertNull(this.cache.getPlan(planKey));
+    }
+
+    @Test
+    public void testNoPlanWhenDisabled() {
+        this.config.setProperty(ConfigProperties.ACTIVATION_KEY_BIND_PLAN_CACHE_ENABLED, "false");
+        this.cache = new ActivationKeyBindPlanCache(this.config);
+
+        assertNull(this.buildPlanKey(this.createConsumer("2")));
+    }
+}
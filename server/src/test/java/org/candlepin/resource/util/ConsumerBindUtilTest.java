@@ -14,11 +14,17 @@
  */
 package org.candlepin.resource.util;
 
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.common.config.Configuration;
 import org.candlepin.common.exceptions.BadRequestException;
 import org.candlepin.common.exceptions.ForbiddenException;
+import org.candlepin.config.CandlepinCommonTestConfig;
+import org.candlepin.config.ConfigProperties;
 import org.candlepin.controller.Entitler;
 import org.candlepin.model.Consumer;
 import org.candlepin.model.ConsumerContentOverrideCurator;
@@ -31,6 +37,8 @@ import org.candlepin.model.Pool;
 import org.candlepin.model.Product;
 import org.candlepin.model.Role;
 import org.candlepin.model.activationkeys.ActivationKey;
+import org.candlepin.policy.EntitlementRefusedException;
+import org.candlepin.policy.ValidationResult;
 import org.candlepin.resource.dto.AutobindData;
 import org.candlepin.test.TestUtil;
 import org.candlepin.util.ServiceLevelValidator;
@@ -44,10 +52,13 @@ import org.xnap.commons.i18n.I18n;
 import org.xnap.commons.i18n.I18nFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 
@@ -66,6 +77,7 @@ public class ConsumerBindUtilTest {
     @Mock private OwnerCurator ownerCurator;
     @Mock private Entitler entitler;
     @Mock private ServiceLevelValidator serviceLevelValidator;
+    @Mock private Configuration config;
 
     private I18n i18n;
 
@@ -89,7 +101,9 @@ public class ConsumerBindUtilTest {
             this.consumerContentOverrideCurator,
             this.ownerCurator,
             null,
-            this.serviceLevelValidator
+            this.serviceLevelValidator,
+            this.config,
+            new ActivationKeyBindPlanCache(new CandlepinCommonTestConfig())
         );
     }
 
@@ -294,4 +308,114 @@ public class ConsumerBindUtilTest {
         consumerBindUtil.handleActivationKeys(consumer, keys, true);
     }
 
+    private ActivationKey mockKeyWithTwoPools() {
+        ActivationKey key = new ActivationKey("key1", owner);
+
+        Pool pool1 = TestUtil.createPool(owner, TestUtil.createProduct(), 5);
+        pool1.setId("pool1");
+        key.addPool(pool1, 2L);
+        Pool pool2 = TestUtil.createPool(owner, TestUtil.createProduct(), 5);
+        pool2.setId("pool2");
+        key.addPool(pool2, 3L);
+
+        return key;
+    }
+
+    @Test
+    public void registerWithKeyBindsPoolsTogether() throws Exception {
+        when(config.getBoolean(ConfigProperties.ACTIVATION_KEY_COALESCE_BINDS)).thenReturn(true);
+        List<ActivationKey> keys = Collections.singletonList(this.mockKeyWithTwoPools());
+
+        Consumer consumer = new Consumer("sys.example.com", null, null, system);
+        consumerBindUtil.handleActivationKeys(consumer, keys, false);
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("pool1", 2);
+        expected.put("pool2", 3);
+
+        verify(entitler).bindByPoolQuantities(eq(consumer), eq(expected));
+        verify(entitler, never()).bindByPoolQuantity(eq(consumer), anyString(), anyInt());
+    }
+
+    @Test
+    public void registerWithKeyBindsPoolsIndividuallyWhenRefusedTogether() throws Exception {
+        when(config.getBoolean(ConfigProperties.ACTIVATION_KEY_COALESCE_BINDS)).thenReturn(true);
+        List<ActivationKey> keys = Collections.singletonList(this.mockKeyWithTwoPools());
+
+        Consumer consumer = new Consumer("sys.example.com", null, null, system);
+        when(entitler.bindByPoolQuantities(eq(consumer), anyMapOf(String.class, Integer.class)))
+            .thenThrow(new EntitlementRefusedException(
+            Collections.singletonMap("pool1", new ValidationResult())));
+        when(entitler.bindByPoolQuantity(eq(consumer), eq("pool1"), eq(2)))
+            .thenThrow(new ForbiddenException("fail"));
+
+        consumerBindUtil.handleActivationKeys(consumer, keys, false);
+
+        verify(entitler).bindByPoolQuantity(eq(consumer), eq("pool1"), eq(2));
+        verify(entitler).bindByPoolQuantity(eq(consumer), eq("pool2"), eq(3));
+    }
+
+    @Test
+    public void registerWithKeyBindsPoolsIndividuallyWhenCoalescingDisabled() throws Exception {
+        List<ActivationKey> keys = Collections.singletonList(this.mockKeyWithTwoPools());
+
+        Consumer consumer = new Consumer("sys.example.com", null, null, system);
+        consumerBindUtil.handleActivationKeys(consumer, keys, false);
+
+        verify(entitler, never()).bindByPoolQuantities(eq(consumer), anyMapOf(String.class, Integer.class));
+        verify(entitler).bindByPoolQuantity(eq(consumer), eq("pool1"), eq(2));
+        verify(entitler).bindByPoolQuantity(eq(consumer), eq("pool2"), eq(3));
+    }
+
+    @Test
+    public void registerWithKeyBindsCachedPlanForSimilarConsumers() throws Exception {
+        ActivationKey key = this.mockKeyWithTwoPools();
+        key.setId("key-id");
+        List<ActivationKey> keys = Collections.singletonList(key);
+
+        Consumer consumer1 = new Consumer("sys1.example.com", null, null, system);
+        consumer1.setFact("cpu.cpu_socket(s)", "2");
+        consumerBindUtil.handleActivationKeys(consumer1, keys, false);
+
+        verify(entitler).bindByPoolQuantity(eq(consumer1), eq("pool1"), eq(2));
+        verify(entitler).bindByPoolQuantity(eq(consumer1), eq("pool2"), eq(3));
+
+        Consumer consumer2 = new Consumer("sys2.example.com", null, null, system);
+        consumer2.setFact("cpu.cpu_socket(s)", "2");
+        consumerBindUtil.handleActivationKeys(consumer2, keys, false);
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("pool1", 2);
+        expected.put("pool2", 3);
+
+        verify(entitler).bindByPoolQuantities(eq(consumer2), eq(expected));
+        verify(entitler, never()).bindByPoolQuantity(eq(consumer2), anyString(), anyInt());
+
+        // Consumers with different facts must not use the plan
+        Consumer consumer3 = new Consumer("sys3.example.com", null, null, system);
+        consumer3.setFact("cpu.cpu_socket(s)", "4");
+        consumerBindUtil.handleActivationKeys(consumer3, keys, false);
+
+        verify(entitler, never()).bindByPoolQuantities(eq(consumer3), anyMapOf(String.class, Integer.class));
+        verify(entitler).bindByPoolQuantity(eq(consumer3), eq("pool1"), eq(2));
+    }
+
+    @Test
+    public void registerWithKeyBindsPoolsIndividuallyWhenCachedPlanRefused() throws Exception {
+        ActivationKey key = this.mockKeyWithTwoPools();
+        key.setId("key-id");
+        List<ActivationKey> keys = Collections.singletonList(key);
+
+        Consumer consumer1 = new Consumer("sys1.example.com", null, null, system);
+        consumerBindUtil.handleActivationKeys(consumer1, keys, false);
+
+        Consumer consumer2 = new Consumer("sys2.example.com", null, null, system);
+        when(entitler.bindByPoolQuantities(eq(consumer2), anyMapOf(String.class, Integer.class)))
+            .thenThrow(new EntitlementRefusedException(
+            Collections.singletonMap("pool1", new ValidationResult())));
+        consumerBindUtil.handleActivationKeys(consumer2, keys, false);
+
+        verify(entitler).bindByPoolQuantity(eq(consumer2), eq("pool1"), eq(2));
+        verify(entitler).bindByPoolQuantity(eq(consumer2), eq("pool2"), eq(3));
+    }
 }
@@ -19,6 +19,8 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
+import org.candlepin.common.paging.ContinuationToken;
+import org.candlepin.common.paging.Page;
 import org.candlepin.common.paging.PageRequest;
 import org.candlepin.model.Owner;
 import org.candlepin.resteasy.JsonProvider;
@@ -110,6 +112,7 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
 
         // Make sure we don't leave any page request on the context to muck with other tests
         ResteasyProviderFactory.popContextData(PageRequest.class);
+        ResteasyProviderFactory.popContextData(Page.class);
     }
 
     @Test
@@ -191,6 +194,94 @@ public class CandlepinQueryInterceptorTest extends DatabaseTestFixture {
         verify(this.mockJsonGenerator, times(1)).writeEndArray();
     }
 
+    @Test
+    public void testCountedOffsetPageHasNoContinuation() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+        pageRequest.setPerPage(2);
+        pageRequest.setSortBy("key");
+        pageRequest.setOrder(PageRequest.Order.ASCENDING);
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+
+        ServerResponse response = new ServerResponse();
+        response.setEntity(this.ownerCurator.listAll());
+
+        ResteasyProviderFactory.pushContext(PageRequest.class, pageRequest);
+        cqi.postProcess(response);
+
+        // The count alone determines the next page, so the last row is never probed for a token
+        Page page = ResteasyProviderFactory.getContextData(Page.class);
+        assertNotNull(page.getMaxRecords());
+        assertNull(page.getContinuation());
+    }
+
+    @Test
+    public void testUncountedOffsetPageHasContinuation() {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+        pageRequest.setPerPage(2);
+        pageRequest.setSortBy("key");
+        pageRequest.setOrder(PageRequest.Order.ASCENDING);
+        pageRequest.setCountMode(PageRequest.CountMode.NONE);
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+
+        ServerResponse response = new ServerResponse();
+        response.setEntity(this.ownerCurator.listAll());
+
+        ResteasyProviderFactory.pushContext(PageRequest.class, pageRequest);
+        cqi.postProcess(response);
+
+        // Without a count, the token is what tells the link filter that a next page may exist
+        Page page = ResteasyProviderFactory.getContextData(Page.class);
+        assertNull(page.getMaxRecords());
+        assertNotNull(page.getContinuation());
+    }
+
+    @Test
+    public void testWriteKeysetPaginatedCandlepinQueryContents() throws IOException {
+        List<Owner> owners = this.ownerCurator.listAll()
+            .addOrder(Order.asc("key"))
+            .list();
+
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setKeyset(true);
+        pageRequest.setPage(PageRequest.DEFAULT_PAGE);
+        pageRequest.setPerPage(2);
+        pageRequest.setSortBy("key");
+        pageRequest.setOrder(PageRequest.Order.ASCENDING);
+        pageRequest.setContinuation(new ContinuationToken("key", PageRequest.Order.ASCENDING,
+            owners.get(1).getKey(), owners.get(1).getId()));
+
+        CandlepinQueryInterceptor cqi = new CandlepinQueryInterceptor(this.mockJsonProvider, this.emProvider);
+
+        ServerResponse response = new ServerResponse();
+        response.setEntity(this.ownerCurator.listAll());
+
+        ResteasyProviderFactory.pushContext(PageRequest.class, pageRequest);
+        cqi.postProcess(response);
+
+        Page page = ResteasyProviderFactory.getContextData(Page.class);
+        assertNotNull(page);
+        assertNull(page.getMaxRecords());
+        assertEquals(owners.get(3).getKey(), page.getContinuation().getSortValue());
+        assertEquals(owners.get(3).getId(), page.getContinuation().getId());
+
+        ((StreamingOutput) response.getEntity()).write(this.mockOutputStream);
+
+        for (int i = 0; i < owners.size(); ++i) {
+            Owner owner = owners.get(i);
+
+            if (i == 2 || i == 3) {
+                verify(this.mockObjectMapper, times(1)).writeValue(eq(this.mockJsonGenerator), eq(owner));
+            }
+            else {
+                verify(this.mockObjectMapper, never()).writeValue(eq(this.mockJsonGenerator), eq(owner));
+            }
+        }
+    }
+
     @Test
     public void testNonCandlepinQueryObjectsAreIgnored() {
         // This test can't possibly be all-inclusive, so we'll just test most our common cases
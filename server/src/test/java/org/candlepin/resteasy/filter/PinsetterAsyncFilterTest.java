@@ -27,6 +27,7 @@ import org.candlepin.common.exceptions.ServiceUnavailableException;
 import org.candlepin.dto.ModelTranslator;
 import org.candlepin.dto.api.v1.JobStatusDTO;
 import org.candlepin.model.Owner;
+import org.candlepin.pinsetter.core.InProcessJobQueue;
 import org.candlepin.pinsetter.core.PinsetterException;
 import org.candlepin.pinsetter.core.PinsetterJobListener;
 import org.candlepin.pinsetter.core.PinsetterKernel;
@@ -57,13 +58,14 @@ public class PinsetterAsyncFilterTest {
     @Mock private ServerResponse response;
     @Mock private Provider<Principal> principalProvider;
     @Mock private PinsetterKernel pinsetterKernel;
+    @Mock private InProcessJobQueue jobQueue;
     @Mock private ModelTranslator translator;
 
     private PinsetterAsyncFilter interceptor;
 
     @Before
     public void init() {
-        this.interceptor = new PinsetterAsyncFilter(this.pinsetterKernel,
+        this.interceptor = new PinsetterAsyncFilter(this.pinsetterKernel, this.jobQueue,
             this.principalProvider, this.translator);
     }
 
@@ -151,6 +153,22 @@ public class PinsetterAsyncFilterTest {
         verify(response).setEntity(statusDTO);
     }
 
+    @Test
+    public void acceptedJobSubmittedInProcess() throws PinsetterException {
+        JobDetail detail = newJob(RefreshPoolsJob.class).build();
+        JobStatus status = new JobStatus();
+
+        when(response.getEntity()).thenReturn(detail);
+        when(this.jobQueue.accepts(detail)).thenReturn(true);
+        when(this.jobQueue.submit(detail)).thenReturn(status);
+
+        this.interceptor.postProcess(response);
+
+        verify(this.jobQueue).submit(detail);
+        verify(this.pinsetterKernel, never()).scheduleSingleJob(any(JobDetail.class));
+        verify(this.translator).translate(status, JobStatusDTO.class);
+    }
+
     @Test(expected = ServiceUnavailableException.class)
     public void schedulingError() throws PinsetterException {
         JobDetail detail = newJob(RefreshPoolsJob.class).build();
@@ -23,6 +23,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import org.candlepin.auth.Access;
+import org.candlepin.auth.PrincipalCache;
 import org.candlepin.model.Owner;
 import org.candlepin.model.PermissionBlueprintCurator;
 import org.candlepin.model.Role;
@@ -61,7 +62,7 @@ public class DefaultUserServiceAdapterTest extends DatabaseTestFixture {
         super.init();
         this.owner = ownerCurator.create(new Owner("default_owner"));
         this.service = new DefaultUserServiceAdapter(userCurator, roleCurator, permissionCurator,
-            ownerCurator, permissionFactory);
+            ownerCurator, permissionFactory, injector.getInstance(PrincipalCache.class));
     }
 
     @Test
@@ -157,7 +158,7 @@ public class DefaultUserServiceAdapterTest extends DatabaseTestFixture {
         UserCurator curator = mock(UserCurator.class);
         RoleCurator roleCurator = mock(RoleCurator.class);
         UserServiceAdapter dusa = new DefaultUserServiceAdapter(curator, roleCurator, permissionCurator,
-            ownerCurator, permissionFactory);
+            ownerCurator, permissionFactory, injector.getInstance(PrincipalCache.class));
         when(curator.findByLogin(anyString())).thenReturn(u);
 
         UserInfo foo = dusa.findByLogin("foo");
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+
+
+/**
+ * Test suite for the Histogram class
+ */
+public class HistogramTest {
+
+    @Test
+    public void testValuesAreCountedInCumulativeBuckets() {
+        Histogram histogram = new Histogram(1, 5, 10);
+
+        histogram.record(0.5);
+        histogram.record(1);
+        histogram.record(4);
+        histogram.record(7);
+        histogram.record(100);
+
+        assertArrayEquals(new long[] { 2, 3, 4 }, histogram.getBucketCounts());
+        assertEquals(5, histogram.getCount());
+        assertEquals(112.5, histogram.getSum(), 0.0001);
+        assertEquals(22.5, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        Histogram histogram = new Histogram(1, 5);
+
+        assertArrayEquals(new long[] { 0, 0 }, histogram.getBucketCounts());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testBoundsAreCopied() {
+        double[] bounds = { 1, 2 };
+        Histogram histogram = new Histogram(bounds);
+
+        bounds[0] = 3;
+        histogram.getBounds()[1] = 4;
+
+        assertArrayEquals(new double[] { 1, 2 }, histogram.getBounds(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyBoundsRejected() {
+        new Histogram();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnorderedBoundsRejected() {
+        new Histogram(5, 1);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2009 - 2018 Red Hat, Inc.
+ *
+ * This software is licensed to you under the GNU General Public License,
+ * version 2 (GPLv2). There is NO WARRANTY for this software, express or
+ * implied, including the implied warranties of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. You should have received a copy of GPLv2
+ * along with this software; if not, see
+ * http://www.gnu.org/licenses/old-licenses/gpl-2.0.txt.
+ *
+ * Red Hat trademarks are not licensed under GPLv2. No permission is
+ * granted to use or replicate Red Hat trademarks that are incorporated
+ * in this software or its documentation.
+ */
+package org.candlepin.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+
+/**
+ * Test suite for the TransformedList class
+ */
+public class TransformedListTest {
+
+    @Test
+    public void testElementsAreTransformedOnAccess() {
+        AtomicInteger transformed = new AtomicInteger();
+        List<Integer> source = Arrays.asList(1, 2, 3);
+
+        List<String> list = new TransformedList<>(source, element -> {
+            transformed.incrementAndGet();
+            return "value-" + element;
+        });
+
+        assertEquals(0, transformed.get());
+        assertEquals(3, list.size());
+        assertEquals("value-2", list.get(1));
+        assertEquals(1, transformed.get());
+
+        assertEquals(Arrays.asList("value-1", "value-2", "value-3"), new ArrayList<>(list));
+        assertEquals(4, transformed.get());
+    }
+
+    @Test
+    public void testListReflectsChangesToSource() {
+        List<Integer> source = new ArrayList<>(Arrays.asList(1, 2));
+        List<String> list = new TransformedList<>(source, String::valueOf);
+
+        source.add(3);
+        assertEquals(Arrays.asList("1", "2", "3"), list);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListCannotBeModified() {
+        List<String> list = new TransformedList<>(new ArrayList<>(Arrays.asList(1, 2)), String::valueOf);
+        list.add("3");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testIteratorCannotRemoveElements() {
+        List<String> list = new TransformedList<>(new ArrayList<>(Arrays.asList(1, 2)), String::valueOf);
+
+        Iterator<String> iterator = list.iterator();
+        iterator.next();
+        iterator.remove();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullListRejected() {
+        new TransformedList<Integer, String>(null, String::valueOf);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullTransformerRejected() {
+        new TransformedList<Integer, String>(Arrays.asList(1), null);
+    }
+}